@@ -1,10 +1,16 @@
 package org.aksw.defacto;
 
 
+import org.aksw.defacto.boa.BoaPatternRegistry;
 import org.aksw.defacto.boa.BoaPatternSearcher;
 import org.aksw.defacto.boa.Pattern;
 import org.aksw.defacto.config.DefactoConfig;
+import org.aksw.defacto.evidence.ArticleTextStore;
 import org.aksw.defacto.evidence.Evidence;
+import org.aksw.defacto.ml.classifier.ClassifierCompiler;
+import org.aksw.defacto.ml.classifier.CompiledClassifier;
+import org.aksw.defacto.ml.classifier.ScoringSchema;
+import org.aksw.defacto.ml.classifier.WekaClassifier;
 import org.aksw.defacto.ml.feature.evidence.AbstractEvidenceFeature;
 import org.aksw.defacto.ml.feature.evidence.EvidenceFeatureExtractor;
 import org.aksw.defacto.ml.feature.evidence.EvidenceScorer;
@@ -13,10 +19,13 @@ import org.aksw.defacto.ml.feature.fact.FactFeatureExtraction;
 import org.aksw.defacto.ml.feature.fact.FactScorer;
 import org.aksw.defacto.ml.feature.fact.impl.WordnetExpensionFeature;
 import org.aksw.defacto.model.DefactoModel;
-import org.aksw.defacto.search.cache.solr.Solr4SearchResultCache;
+import org.aksw.defacto.ontology.GoodnessStore;
+import org.aksw.defacto.ontology.OntologyIndex;
+import org.aksw.defacto.search.cache.local.LocalSearchResultCache;
 import org.aksw.defacto.search.crawl.EvidenceCrawler;
 import org.aksw.defacto.search.query.MetaQuery;
 import org.aksw.defacto.search.query.QueryGenerator;
+import org.aksw.defacto.search.time.TimeDistributionExtractor;
 import org.aksw.defacto.util.BufferedFileWriter;
 import org.aksw.defacto.util.BufferedFileWriter.WRITER_WRITE_MODE;
 import org.aksw.defacto.util.Encoder.Encoding;
@@ -27,7 +36,6 @@ import org.ini4j.Ini;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import weka.classifiers.Classifier;
-import weka.core.Instances;
 
 import java.io.*;
 import java.text.DecimalFormat;
@@ -52,7 +60,10 @@ public class Defacto {
     private static final Logger LOGGER = LoggerFactory.getLogger(Defacto.class);
     private static Classifier machineLearningClassifier;
     private static Classifier factLearningClassifier;
-    private static Instances instances;
+    private static ScoringSchema factScoringSchema;
+    private static ScoringSchema evidenceScoringSchema;
+    private static CompiledClassifier compiledFactClassifier;
+    private static CompiledClassifier compiledEvidenceClassifier;
 
     public static HttpSolrClient enIndex;
     public static HttpSolrClient deIndex;
@@ -92,24 +103,44 @@ public class Defacto {
             LOGGER.info("Loading fact classifier model: " + Defacto.DEFACTO_CONFIG.getStringSetting("fact", "FACT_CLASSIFIER_TYPE"));
 
             factLearningClassifier = (Classifier) weka.core.SerializationHelper.read(factLearningModel.getAbsolutePath());
-
-            instances = new Instances(new BufferedReader(new FileReader(
-                    DefactoConfig.DEFACTO_DATA_DIR + Defacto.DEFACTO_CONFIG.getStringSetting("fact", "ARFF_TRAINING_DATA_FILENAME"))));
         } catch (Exception e) {
 
             throw new RuntimeException("Could not load classifier from: " +
                     DefactoConfig.DEFACTO_DATA_DIR + Defacto.DEFACTO_CONFIG.getStringSetting("fact", "FACT_CLASSIFIER_TYPE"), e);
         }
 
+        // scoring only needs plain attribute vectors
+        factScoringSchema = new ScoringSchema(AbstractFactFeatures.factFeatures);
+        evidenceScoringSchema = new ScoringSchema(AbstractEvidenceFeature.provenance);
+        compiledFactClassifier = compile(factLearningClassifier, factScoringSchema);
+        compiledEvidenceClassifier = compile(machineLearningClassifier, evidenceScoringSchema);
 
         /*
 
          */
         ElasticSearchEngine.init();
-        Solr4SearchResultCache.init();
+        LocalSearchResultCache.init();
         BoaPatternSearcher.init();
+        BoaPatternRegistry.init();
+        ArticleTextStore.init();
         WordnetExpensionFeature.init();
+        OntologyIndex.init();
+        GoodnessStore.init();
+
+    }
+
+    /**
+     * @param classifier
+     * @param schema
+     * @return the compiled classifier or weka if compilation is switched off
+     */
+    private static CompiledClassifier compile(Classifier classifier, ScoringSchema schema) {
+
+        if (!Defacto.DEFACTO_CONFIG.getBooleanSetting("settings", "COMPILE_CLASSIFIERS"))
+            return new WekaClassifier(classifier, schema.getHeader());
 
+        return ClassifierCompiler.compile(classifier, schema.getHeader(),
+                Defacto.DEFACTO_CONFIG.getBooleanSetting("settings", "VERIFY_COMPILED_CLASSIFIERS"));
     }
 
     /**
@@ -120,6 +151,9 @@ public class Defacto {
      */
     public static Evidence checkFact(DefactoModel model, TIME_DISTRIBUTION_ONLY onlyTimes) {
 
+        // the time distribution has its own pipeline without proof extraction and scoring
+        if (onlyTimes.equals(TIME_DISTRIBUTION_ONLY.YES)) return checkTimeDistribution(model, null);
+
         //init();
         LOGGER.info("Checking fact: " + model);
         Defacto.onlyTimes = onlyTimes;
@@ -130,12 +164,13 @@ public class Defacto {
         // not needed anymore since we do not use NER tagging
         // NlpModelManager.getInstance();
 
-        // 1. generate the search engine queries
+        // the features which only need the model run while we crawl
         long start = System.currentTimeMillis();
-        QueryGenerator queryGenerator = new QueryGenerator(model);
-        Map<Pattern, MetaQuery> queries = new HashMap<Pattern, MetaQuery>();
-        for (String language : model.languages)
-            queries.putAll(queryGenerator.getSearchEngineQueries(language));
+        EvidenceFeatureExtractor featureCalculator = new EvidenceFeatureExtractor();
+        EvidenceFeatureExtractor.ModelFeatures modelFeatures = featureCalculator.startModelFeatures(model);
+
+        // 1. generate the search engine queries
+        Map<Pattern, MetaQuery> queries = generateQueries(model);
 
         if (queries.size() <= 0) return new Evidence(model);
         LOGGER.info("Preparing queries took " + TimeUtil.formatTime(System.currentTimeMillis() - start));
@@ -146,9 +181,6 @@ public class Defacto {
         Evidence evidence = crawler.crawlEvidence();
         LOGGER.info("Crawling evidence took " + TimeUtil.formatTime(System.currentTimeMillis() - startCrawl));
 
-        // short cut to avoid unnecessary computation
-        if (onlyTimes.equals(TIME_DISTRIBUTION_ONLY.YES)) return evidence;
-
         // 3. confirm the facts
         long startFactConfirmation = System.currentTimeMillis();
         FactFeatureExtraction factFeatureExtraction = new FactFeatureExtraction();
@@ -158,20 +190,19 @@ public class Defacto {
         //
         // 4. score the facts
         long startFactScoring = System.currentTimeMillis();
-        FactScorer factScorer = new FactScorer(factLearningClassifier, instances);
+        FactScorer factScorer = new FactScorer(compiledFactClassifier, factScoringSchema);
         factScorer.scoreEvidence(evidence);
         LOGGER.info("Fact Scoring took " + TimeUtil.formatTime(System.currentTimeMillis() - startFactScoring));
 
         // 5. calculate the factFeatures for the model
         long startFeatureExtraction = System.currentTimeMillis();
-        EvidenceFeatureExtractor featureCalculator = new EvidenceFeatureExtractor();
-        featureCalculator.extractFeatureForEvidence(evidence);
+        featureCalculator.extractFeatureForEvidence(evidence, modelFeatures);
         LOGGER.info("Evidence feature extraction took " + TimeUtil.formatTime(System.currentTimeMillis() - startFeatureExtraction));
 
         if (!Defacto.DEFACTO_CONFIG.getBooleanSetting("settings", "TRAINING_MODE")) {
 
             long startScoring = System.currentTimeMillis();
-            EvidenceScorer scorer = new EvidenceScorer(machineLearningClassifier);
+            EvidenceScorer scorer = new EvidenceScorer(compiledEvidenceClassifier, evidenceScoringSchema);
             scorer.scoreEvidence(evidence);
             LOGGER.info("Evidence Scoring took " + TimeUtil.formatTime(System.currentTimeMillis() - startScoring));
 
@@ -182,6 +213,40 @@ public class Defacto {
         return evidence;
     }
 
+    /**
+     * Computes only the year occurrences around subject and object, see
+     * {@link EvidenceCrawler#crawlTimeDistribution(TimeDistributionExtractor.Listener)}.
+     * The returned evidence has proofs and year histograms but no features
+     * and no score.
+     *
+     * @param model
+     * @param listener is notified after each website, may be null
+     * @return
+     */
+    public static Evidence checkTimeDistribution(DefactoModel model, TimeDistributionExtractor.Listener listener) {
+
+        LOGGER.info("Checking time distribution: " + model);
+        Defacto.onlyTimes = TIME_DISTRIBUTION_ONLY.YES;
+
+        long start = System.currentTimeMillis();
+        Map<Pattern, MetaQuery> queries = generateQueries(model);
+        if (queries.size() <= 0) return new Evidence(model);
+
+        Evidence evidence = new EvidenceCrawler(model, queries).crawlTimeDistribution(listener);
+        LOGGER.info("Overall time for time distribution: " + TimeUtil.formatTime(System.currentTimeMillis() - start));
+
+        return evidence;
+    }
+
+    private static Map<Pattern, MetaQuery> generateQueries(DefactoModel model) {
+
+        QueryGenerator queryGenerator = new QueryGenerator(model);
+        Map<Pattern, MetaQuery> queries = new HashMap<Pattern, MetaQuery>();
+        for (String language : model.languages)
+            queries.putAll(queryGenerator.getSearchEngineQueries(language));
+        return queries;
+    }
+
     /**
      * @param defactoModel
      * @param onlyTimeDistribution
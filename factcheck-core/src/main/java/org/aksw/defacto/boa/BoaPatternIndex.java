@@ -0,0 +1,244 @@
+package org.aksw.defacto.boa;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.StringUtils;
+
+import uk.ac.shef.wit.simmetrics.similaritymetrics.Levenshtein;
+import uk.ac.shef.wit.simmetrics.similaritymetrics.QGramsDistance;
+import uk.ac.shef.wit.simmetrics.similaritymetrics.SmithWaterman;
+
+/**
+ * A compiled, read-only view on the BOA patterns of a single predicate and
+ * language. Every usable pattern is turned into a profile (the string the
+ * similarity metrics run on, its normalized form, its boa score and its
+ * q-grams) once, and an inverted q-gram index is built over the profiles.
+ * Every pattern is scored with SmithWaterman and Levenshtein, patterns without
+ * a single shared q-gram are skipped for the QGrams metric since their q-gram
+ * similarity is 0.
+ *
+ * Results are memoized per normalized proof phrase (and the subject/object
+ * labels it is cut with), so the index can be shared between threads.
+ */
+public class BoaPatternIndex {
+
+    private static final int QGRAM_LENGTH = 3;
+    private static final int MAX_MEMOIZED_PHRASES = 10000;
+
+    private static final SmithWaterman smithWaterman = new SmithWaterman();
+    private static final QGramsDistance qgrams = new QGramsDistance();
+    private static final Levenshtein lev = new Levenshtein();
+
+    private final PatternProfile[] profiles;
+    private final Map<String, int[]> postings;
+    private final Map<String, BoaSimilarity> memo = new ConcurrentHashMap<String, BoaSimilarity>();
+
+    /**
+     * @param patterns the patterns of a predicate, patterns with an empty normalized form are ignored
+     */
+    public BoaPatternIndex(List<Pattern> patterns) {
+
+        List<PatternProfile> profileList = new ArrayList<PatternProfile>();
+        for ( Pattern pattern : patterns ) {
+
+            if ( pattern.getNormalized().trim().isEmpty() ) continue;
+            profileList.add(new PatternProfile(pattern));
+        }
+        this.profiles = profileList.toArray(new PatternProfile[profileList.size()]);
+
+        Map<String, List<Integer>> index = new HashMap<String, List<Integer>>();
+        for ( int i = 0; i < this.profiles.length; i++ ) {
+            for ( String qgram : this.profiles[i].qgrams ) {
+
+                List<Integer> ids = index.get(qgram);
+                if ( ids == null ) index.put(qgram, ids = new ArrayList<Integer>());
+                ids.add(i);
+            }
+        }
+        this.postings = new HashMap<String, int[]>(index.size() * 2);
+        for ( Map.Entry<String, List<Integer>> entry : index.entrySet() ) {
+
+            int[] ids = new int[entry.getValue().size()];
+            for ( int i = 0; i < ids.length; i++ ) ids[i] = entry.getValue().get(i);
+            this.postings.put(entry.getKey(), ids);
+        }
+    }
+
+    /**
+     * @return the number of usable patterns in this index
+     */
+    public int size() {
+        return this.profiles.length;
+    }
+
+    /**
+     * Counts how many normalized patterns are contained in the given text.
+     *
+     * @param text
+     * @return
+     */
+    public int countContainedPatterns(String text) {
+
+        int counter = 0;
+        for ( PatternProfile profile : this.profiles )
+            if ( text.contains(profile.normalized) ) counter++;
+
+        return counter;
+    }
+
+    /**
+     * Returns the best SmithWaterman, QGrams and Levenshtein similarity (and the
+     * boa score of the pattern which produced it) of the normalized proof phrase and
+     * all sub phrases enclosed by the subject and object label.
+     *
+     * @param normalizedProofPhrase
+     * @param subjectLowerCase
+     * @param objectLowerCase
+     * @return
+     */
+    public BoaSimilarity getSimilarity(String normalizedProofPhrase, String subjectLowerCase, String objectLowerCase) {
+
+        String key = normalizedProofPhrase + "\t" + subjectLowerCase + "\t" + objectLowerCase;
+        BoaSimilarity similarity = this.memo.get(key);
+        if ( similarity == null ) {
+
+            similarity = computeSimilarity(normalizedProofPhrase, subjectLowerCase, objectLowerCase);
+            if ( this.memo.size() >= MAX_MEMOIZED_PHRASES ) this.memo.clear();
+            this.memo.put(key, similarity);
+        }
+        return similarity;
+    }
+
+    private BoaSimilarity computeSimilarity(String normalizedProofPhrase, String subjectLowerCase, String objectLowerCase) {
+
+        List<String> phrases = getPhrases(normalizedProofPhrase, subjectLowerCase, objectLowerCase);
+        BoaSimilarity similarity = new BoaSimilarity();
+        if ( this.profiles.length == 0 ) return similarity;
+
+        // how many distinct q-grams every pattern shares with any of the phrases
+        int[] sharedQGrams = new int[this.profiles.length];
+        Set<String> phraseQGrams = new HashSet<String>();
+        for ( String phrase : phrases ) phraseQGrams.addAll(getQGrams(phrase));
+        for ( String qgram : phraseQGrams ) {
+
+            int[] ids = this.postings.get(qgram);
+            if ( ids != null ) for ( int id : ids ) sharedQGrams[id]++;
+        }
+
+        for ( int id = 0; id < this.profiles.length; id++ ) {
+
+            PatternProfile profile = this.profiles[id];
+            for ( String phrase : phrases ) {
+
+                float swSimilarity = smithWaterman.getSimilarity(profile.text, phrase);
+                if ( swSimilarity > similarity.smithWaterman ) {
+
+                    similarity.smithWaterman = swSimilarity;
+                    similarity.smithWatermanBoaScore = profile.boaScore;
+                }
+                float levSimilarity = lev.getSimilarity(profile.text, phrase);
+                if ( levSimilarity > similarity.levenshtein ) {
+
+                    similarity.levenshtein = levSimilarity;
+                    similarity.levenshteinBoaScore = profile.boaScore;
+                }
+                if ( sharedQGrams[id] == 0 ) continue;
+
+                float qgramsSimilarity = qgrams.getSimilarity(profile.text, phrase);
+                if ( qgramsSimilarity > similarity.qgrams ) {
+
+                    similarity.qgrams = qgramsSimilarity;
+                    similarity.qgramsBoaScore = profile.boaScore;
+                }
+            }
+        }
+
+        return similarity;
+    }
+
+    /**
+     * The normalized proof phrase itself and the (repeatedly shortened) parts
+     * of it which are surrounded by the subject and object label.
+     */
+    private static List<String> getPhrases(String normalizedProofPhrase, String subjectLowerCase, String objectLowerCase) {
+
+        List<String> phrases = new ArrayList<String>();
+        phrases.add(normalizedProofPhrase);
+
+        String normalizedProofLowerCase = normalizedProofPhrase.toLowerCase();
+        String left = subjectLowerCase, right = objectLowerCase;
+        String proofSubString = StringUtils.substringBetween(normalizedProofLowerCase, left, right);
+        if ( proofSubString == null ) {
+
+            left = objectLowerCase;
+            right = subjectLowerCase;
+            proofSubString = StringUtils.substringBetween(normalizedProofLowerCase, left, right);
+        }
+        // an empty label would be found over and over again
+        if ( left.isEmpty() ) return phrases;
+
+        while ( proofSubString != null ) {
+
+            phrases.add(proofSubString.trim());
+            proofSubString = StringUtils.substringBetween(proofSubString + right, left, right);
+        }
+        return phrases;
+    }
+
+    private static Set<String> getQGrams(String text) {
+
+        Set<String> qgrams = new HashSet<String>();
+        String padded = "##" + text.toLowerCase() + "##";
+        for ( int i = 0; i + QGRAM_LENGTH <= padded.length(); i++ )
+            qgrams.add(padded.substring(i, i + QGRAM_LENGTH));
+
+        return qgrams;
+    }
+
+    /**
+     * The precomputed parts of a pattern needed for matching.
+     */
+    private static class PatternProfile {
+
+        private final String text;
+        private final String normalized;
+        private final double boaScore;
+        private final Set<String> qgrams;
+
+        private PatternProfile(Pattern pattern) {
+
+            this.text = pattern.naturalLanguageRepresentationWithoutVariables;
+            this.normalized = pattern.getNormalized();
+            this.boaScore = pattern.boaScore;
+            this.qgrams = Collections.unmodifiableSet(getQGrams(this.text));
+        }
+    }
+
+    /**
+     * The best similarities of a proof phrase to the patterns of this index. A
+     * similarity of 0 means that no pattern matched at all.
+     */
+    public static class BoaSimilarity {
+
+        private float smithWaterman = 0f;
+        private double smithWatermanBoaScore = 0D;
+        private float qgrams = 0f;
+        private double qgramsBoaScore = 0D;
+        private float levenshtein = 0f;
+        private double levenshteinBoaScore = 0D;
+
+        public float getSmithWaterman() { return smithWaterman; }
+        public double getSmithWatermanBoaScore() { return smithWatermanBoaScore; }
+        public float getQGrams() { return qgrams; }
+        public double getQGramsBoaScore() { return qgramsBoaScore; }
+        public float getLevenshtein() { return levenshtein; }
+        public double getLevenshteinBoaScore() { return levenshteinBoaScore; }
+    }
+}
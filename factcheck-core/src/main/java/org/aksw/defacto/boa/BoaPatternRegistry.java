@@ -0,0 +1,171 @@
+package org.aksw.defacto.boa;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aksw.defacto.Defacto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holds the BOA patterns of all properties for the whole process. The patterns
+ * of a (property, language, limit, threshold) combination are queried from the
+ * BOA index once, concurrent requests for the same combination wait for the
+ * same query. The returned lists are unmodifiable and their patterns are
+ * normalized already, so they can be shared between threads. The patterns
+ * themselves are the same objects for every caller and must not be changed,
+ * copy a pattern before modifying its fields. Failed queries are not
+ * remembered.
+ */
+public final class BoaPatternRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BoaPatternRegistry.class);
+
+    /** the number of patterns used to generate the search queries */
+    public static final int NUMBER_OF_QUERY_PATTERNS = 50;
+    /** the number of patterns the crawler and the fact features look at */
+    public static final int NUMBER_OF_FEATURE_PATTERNS = 20;
+
+    private static final Map<PatternKey, List<Pattern>> patterns = new ConcurrentHashMap<PatternKey, List<Pattern>>();
+
+    private BoaPatternRegistry() {}
+
+    /**
+     * Queries the patterns of all properties in the boa section (PRELOAD_PROPERTIES)
+     * for all configured languages with the limits and thresholds used by the
+     * query generation, the crawler and the fact features.
+     */
+    public static void init() {
+
+        String properties = Defacto.DEFACTO_CONFIG.getStringSetting("boa", "PRELOAD_PROPERTIES");
+        if ( properties == null || properties.trim().isEmpty() ) return;
+
+        long start = System.currentTimeMillis();
+        double threshold = Defacto.DEFACTO_CONFIG.getDoubleSetting("boa", "PATTERN_SCORE_THRESHOLD");
+        for ( String propertyUri : properties.split(",") ) {
+            for ( String language : Defacto.DEFACTO_CONFIG.getStringSetting("boa", "languages").split(",") ) {
+
+                try {
+
+                    getPatterns(propertyUri.trim(), language.trim(), NUMBER_OF_QUERY_PATTERNS, threshold);
+                    getPatterns(propertyUri.trim(), language.trim(), NUMBER_OF_FEATURE_PATTERNS, 0);
+                }
+                catch (RuntimeException e) {
+
+                    LOGGER.warn("Could not preload the patterns of " + propertyUri.trim() + " in " + language.trim(), e);
+                }
+            }
+        }
+        LOGGER.info(String.format("Preloaded %s pattern lists in %sms", patterns.size(), System.currentTimeMillis() - start));
+    }
+
+    /**
+     * @param propertyUri
+     * @param language
+     * @param numberOfBoaPatterns the number of rows requested from the index, 0 for all
+     * @param scoreThreshold
+     * @return the sorted patterns, an empty list if the index could not be queried;
+     *          the patterns are shared and must not be modified
+     */
+    public static List<Pattern> getPatterns(String propertyUri, String language, int numberOfBoaPatterns, double scoreThreshold) {
+
+        PatternKey key = new PatternKey(BoaPatternSearcher.getIndexedUri(propertyUri), language, numberOfBoaPatterns, scoreThreshold);
+        List<Pattern> cached = patterns.get(key);
+        if ( cached != null ) return cached;
+
+        try {
+
+            return patterns.computeIfAbsent(key, BoaPatternRegistry::load);
+        }
+        catch (BoaIndexException e) {
+
+            LOGGER.error("Could not query the boa index for " + key, e.getCause());
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * @return the number of cached pattern lists
+     */
+    public static int size() {
+        return patterns.size();
+    }
+
+    /**
+     * Forgets all patterns, e.g. after the boa index was updated.
+     */
+    public static void clear() {
+        patterns.clear();
+    }
+
+    private static List<Pattern> load(PatternKey key) {
+
+        List<Pattern> loaded = BoaPatternSearcher.loadPatterns(key.propertyUri, key.numberOfBoaPatterns, key.scoreThreshold, key.language);
+        for ( Pattern pattern : loaded ) {
+
+            // getNormalized first, normalize changes what it is computed from
+            pattern.getNormalized();
+            pattern.normalize();
+        }
+        return Collections.unmodifiableList(Arrays.asList(loaded.toArray(new Pattern[loaded.size()])));
+    }
+
+    /**
+     * Thrown if the boa index can not be queried, so that the failure does not
+     * end up in the registry.
+     */
+    static class BoaIndexException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        BoaIndexException(Throwable cause) {
+            super(cause);
+        }
+    }
+
+    private static final class PatternKey {
+
+        private final String propertyUri;
+        private final String language;
+        private final int numberOfBoaPatterns;
+        private final double scoreThreshold;
+
+        private PatternKey(String propertyUri, String language, int numberOfBoaPatterns, double scoreThreshold) {
+
+            this.propertyUri = propertyUri;
+            this.language = language;
+            this.numberOfBoaPatterns = numberOfBoaPatterns;
+            this.scoreThreshold = scoreThreshold;
+        }
+
+        @Override
+        public int hashCode() {
+
+            int result = propertyUri.hashCode();
+            result = 31 * result + language.hashCode();
+            result = 31 * result + numberOfBoaPatterns;
+            result = 31 * result + Double.hashCode(scoreThreshold);
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+
+            if ( this == obj ) return true;
+            if ( !(obj instanceof PatternKey) ) return false;
+
+            PatternKey other = (PatternKey) obj;
+            return numberOfBoaPatterns == other.numberOfBoaPatterns
+                    && Double.compare(scoreThreshold, other.scoreThreshold) == 0
+                    && propertyUri.equals(other.propertyUri) && language.equals(other.language);
+        }
+
+        @Override
+        public String toString() {
+            return propertyUri + " (" + language + ", " + numberOfBoaPatterns + ", " + scoreThreshold + ")";
+        }
+    }
+}
@@ -6,7 +6,6 @@ import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.impl.BinaryRequestWriter;
 import org.apache.solr.client.solrj.impl.HttpSolrClient;
-import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
 
@@ -19,8 +18,7 @@ import java.util.*;
 public class BoaPatternSearcher {
 
 
-    private Logger logger = Logger.getLogger(BoaPatternSearcher.class);
-    private Map<String, QueryResponse> queryCache = new HashMap<>();
+    private static Logger logger = Logger.getLogger(BoaPatternSearcher.class);
     /*public static HttpSolrServer enIndex;
     public static HttpSolrServer deIndex;
     public static HttpSolrServer frIndex;*/
@@ -30,8 +28,14 @@ public class BoaPatternSearcher {
 
     }
 
+    /**
+     * Maps the pattern snapshot or connects to the BOA cores, depending on the
+     * PATTERN_SOURCE of the boa section.
+     */
     public static void init() {
 
+        BoaPatternSnapshot.init();
+        if (BoaPatternSnapshot.getInstance() != null) return;
 
         Defacto.enIndex = new HttpSolrClient(Defacto.DEFACTO_CONFIG.getStringSetting("crawl", "solr_boa_en"));
         Defacto.enIndex.setRequestWriter(new BinaryRequestWriter());
@@ -53,7 +57,7 @@ public class BoaPatternSearcher {
     public List<Pattern> getNaturalLanguageRepresentations(String propertyUri, String language) {
 
         return querySolrIndex(propertyUri,
-                50,
+                BoaPatternRegistry.NUMBER_OF_QUERY_PATTERNS,
                 Defacto.DEFACTO_CONFIG.getDoubleSetting("boa", "PATTERN_SCORE_THRESHOLD"), language);
     }
 
@@ -83,90 +87,105 @@ public class BoaPatternSearcher {
 
     /**
      * Returns all patterns from the index and their factFeatures for reverb and the
-     * wordnet distance and the overall boa-boaScore.
+     * wordnet distance and the overall boa-boaScore. The patterns are shared
+     * by all searchers, see {@link BoaPatternRegistry}.
      *
      * @param propertyUri
      * @param language
-     * @return a list of patterns
+     * @return an unmodifiable list of patterns
      */
     public List<Pattern> querySolrIndex(String propertyUri, int numberOfBoaPatterns, double scoreThreshold, String language) {
 
+        return BoaPatternRegistry.getPatterns(propertyUri, language, numberOfBoaPatterns, scoreThreshold);
+    }
 
-        this.logger.debug("Querying solr index for uri: " + propertyUri + " and language " + language + ".");
+    /**
+     * @param propertyUri
+     * @return the uri the patterns of the property are indexed with
+     */
+    static String getIndexedUri(String propertyUri) {
 
-        Map<String, Pattern> patterns = new HashMap<String, Pattern>();
+        if (propertyUri.equals("http://dbpedia.org/ontology/office"))
+            return "http://dbpedia.org/ontology/leaderName";
+
+        return propertyUri;
+    }
+
+    /**
+     * Queries the index of the language or reads the patterns from the
+     * snapshot, only used by the {@link BoaPatternRegistry}.
+     *
+     * @param propertyUri
+     * @param numberOfBoaPatterns
+     * @param scoreThreshold
+     * @param language
+     * @return the sorted patterns
+     * @throws BoaPatternRegistry.BoaIndexException if the index could not be queried
+     */
+    static List<Pattern> loadPatterns(String propertyUri, int numberOfBoaPatterns, double scoreThreshold, String language) {
+
+        logger.debug("Querying solr index for uri: " + propertyUri + " and language " + language + ".");
 
+        BoaPatternSnapshot snapshot = BoaPatternSnapshot.getInstance();
+        if (snapshot != null) return selectPatterns(snapshot.getPatterns(propertyUri, language, numberOfBoaPatterns));
+
+        SolrQuery query = new SolrQuery("uri:\"" + propertyUri + "\"");
+        BoaPatternSnapshot.addFields(query);
+        query.addSort("SUPPORT_NUMBER_OF_PAIRS_LEARNED_FROM", SolrQuery.ORDER.desc);
+        //query.addSortField("boa-score", ORDER.desc);
+        if (numberOfBoaPatterns > 0) query.setRows(numberOfBoaPatterns);
+
+        SolrDocumentList docList;
         try {
 
-            if (propertyUri.equals("http://dbpedia.org/ontology/office"))
-                propertyUri = "http://dbpedia.org/ontology/leaderName";
-
-            SolrQuery query = new SolrQuery("uri:\"" + propertyUri + "\"");
-            query.addField("boa-score");
-            query.addField("nlr-var");
-            query.addField("nlr-gen");
-            query.addField("nlr-no-var");
-            query.addField("SUPPORT_NUMBER_OF_PAIRS_LEARNED_FROM");
-            query.addSort("SUPPORT_NUMBER_OF_PAIRS_LEARNED_FROM", SolrQuery.ORDER.desc);
-            //query.addSortField("boa-score", ORDER.desc);
-            if (numberOfBoaPatterns > 0) query.setRows(numberOfBoaPatterns);
-
-            String key = propertyUri + numberOfBoaPatterns + language;
-
-            if (!this.queryCache.containsKey(key)) {
-
-                switch (language) {
-                    case "en":
-                        try {
-                            this.queryCache.put(key, Defacto.enIndex.query(query));
-
-                        } catch (IOException e) {
-                            e.printStackTrace();
-                        }
-                        break;
-                    case "de":
-                        try {
-                            this.queryCache.put(key, Defacto.deIndex.query(query));
-                        } catch (IOException e) {
-                            e.printStackTrace();
-                        }
-                        break;
-                    case "fr":
-                        try {
-                            this.queryCache.put(key, Defacto.frIndex.query(query));
-                        } catch (IOException e) {
-                            e.printStackTrace();
-                        }
-                        break;
-                }
+            switch (language) {
+                case "en":
+                    docList = Defacto.enIndex.query(query).getResults();
+                    break;
+                case "de":
+                    docList = Defacto.deIndex.query(query).getResults();
+                    break;
+                case "fr":
+                    docList = Defacto.frIndex.query(query).getResults();
+                    break;
+                default:
+                    return new ArrayList<Pattern>();
             }
+        } catch (SolrServerException | IOException e) {
 
-            SolrDocumentList docList = this.queryCache.get(key).getResults();
+            throw new BoaPatternRegistry.BoaIndexException(e);
+        }
 
-            // return the first list of types
-            for (SolrDocument d : docList) {
+        List<Pattern> indexed = new ArrayList<Pattern>();
+        for (SolrDocument d : docList) {
 
-                Pattern pattern = new Pattern();
-                pattern.naturalLanguageRepresentation = (String) d.get("nlr-var");
-                pattern.generalized = (String) d.get("nlr-gen");
-                pattern.naturalLanguageRepresentationWithoutVariables = (String) d.get("nlr-no-var");
-                pattern.posTags = (String) d.get("pos");
-                pattern.boaScore = (Double) d.get("SUPPORT_NUMBER_OF_PAIRS_LEARNED_FROM");
-                pattern.language = language;
+            Pattern pattern = new Pattern();
+            pattern.naturalLanguageRepresentation = (String) d.get("nlr-var");
+            pattern.generalized = (String) d.get("nlr-gen");
+            pattern.naturalLanguageRepresentationWithoutVariables = (String) d.get("nlr-no-var");
+            pattern.posTags = (String) d.getFirstValue("pos");
+            pattern.boaScore = (Double) d.get("SUPPORT_NUMBER_OF_PAIRS_LEARNED_FROM");
+            pattern.language = language;
 
-                this.logger.debug("Found pattern: " + pattern.naturalLanguageRepresentation);
+            logger.debug("Found pattern: " + pattern.naturalLanguageRepresentation);
+            indexed.add(pattern);
+        }
+        return selectPatterns(indexed);
+    }
 
-//                System.out.println(pattern.getNormalized());
+    /**
+     * @param indexed the patterns in the order of the index
+     * @return the best scored pattern of every normalized form, sorted by score
+     */
+    private static List<Pattern> selectPatterns(List<Pattern> indexed) {
 
-                // only add the first pattern, we don't want to override the better scored pattern
-                if (!pattern.getNormalized().trim().isEmpty() && !patterns.containsKey(pattern.getNormalized())
-                        && patterns.size() < Defacto.DEFACTO_CONFIG.getIntegerSetting("boa", "NUMBER_OF_BOA_PATTERNS"))
-                    patterns.put(pattern.getNormalized(), pattern);
-            }
-        } catch (SolrServerException e) {
+        Map<String, Pattern> patterns = new HashMap<String, Pattern>();
+        for (Pattern pattern : indexed) {
 
-            System.out.println("Could not execute query: " + e);
-            e.printStackTrace();
+            // only add the first pattern, we don't want to override the better scored pattern
+            if (!pattern.getNormalized().trim().isEmpty() && !patterns.containsKey(pattern.getNormalized())
+                    && patterns.size() < Defacto.DEFACTO_CONFIG.getIntegerSetting("boa", "NUMBER_OF_BOA_PATTERNS"))
+                patterns.put(pattern.getNormalized(), pattern);
         }
 
         List<Pattern> patternList = new ArrayList<Pattern>(patterns.values());
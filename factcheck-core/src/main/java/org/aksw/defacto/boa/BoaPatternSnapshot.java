@@ -0,0 +1,341 @@
+package org.aksw.defacto.boa;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import org.aksw.defacto.Defacto;
+import org.aksw.defacto.config.DefactoConfig;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.impl.BinaryRequestWriter;
+import org.apache.solr.client.solrj.impl.HttpSolrClient;
+import org.apache.solr.client.solrj.response.FacetField;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.ini4j.Ini;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * All BOA patterns of all properties and languages in one read only file, so
+ * that pattern lookups don't need the BOA Solr cores. The snapshot is exported
+ * from the cores by {@link #export(Map, File)} and memory mapped by
+ * {@link #open(File)}. The patterns of a property are stored in the order the
+ * index returns them (most supporting pairs first), so the first N patterns of
+ * the snapshot are the N rows a live query returns.
+ *
+ * <pre>
+ * file      = MAGIC VERSION created:long pattern* directory directoryOffset:long crc:long
+ * pattern   = support:double nlr-var nlr-gen nlr-no-var pos    (strings are length:int utf-8, -1 for null)
+ * directory = lists:int (uri language offset:long count:int)*
+ * </pre>
+ *
+ * The crc covers everything before it.
+ */
+public class BoaPatternSnapshot {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BoaPatternSnapshot.class);
+
+    private static final int MAGIC = 0x44464250;
+    private static final int VERSION = 1;
+
+    /** the rows solr returns if a query does not set any */
+    private static final int DEFAULT_ROWS = 10;
+    private static final int EXPORT_ROWS = 1000;
+
+    private static BoaPatternSnapshot instance;
+
+    private final MappedByteBuffer buffer;
+    private final long created;
+    // offset and number of patterns of every property and language
+    private final Map<String, long[]> directory;
+
+    private BoaPatternSnapshot(MappedByteBuffer buffer) throws IOException {
+
+        this.buffer = buffer;
+        if ( buffer.capacity() < 32 || buffer.getInt(0) != MAGIC ) throw new IOException("Not a boa pattern snapshot");
+        if ( buffer.getInt(4) != VERSION ) throw new IOException("Unsupported boa pattern snapshot version");
+
+        int crcOffset = buffer.capacity() - 8;
+        ByteBuffer content = buffer.duplicate();
+        content.position(0).limit(crcOffset);
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        if ( crc.getValue() != buffer.getLong(crcOffset) ) throw new IOException("Corrupt boa pattern snapshot");
+
+        this.created = buffer.getLong(8);
+
+        ByteBuffer in = buffer.duplicate();
+        in.position((int) buffer.getLong(crcOffset - 8));
+        int lists = in.getInt();
+        this.directory = new HashMap<String, long[]>(lists * 2);
+        for ( int i = 0; i < lists; i++ ) {
+
+            String key = key(readString(in), readString(in));
+            this.directory.put(key, new long[]{ in.getLong(), in.getInt() });
+        }
+    }
+
+    /**
+     * Maps the snapshot into memory.
+     *
+     * @param snapshot a file written by {@link #export(Map, File)}
+     * @return
+     * @throws IOException if the file is not a valid snapshot
+     */
+    public static BoaPatternSnapshot open(File snapshot) throws IOException {
+
+        try ( RandomAccessFile file = new RandomAccessFile(snapshot, "r");
+              FileChannel channel = file.getChannel() ) {
+
+            // the mapping stays valid after the channel is closed
+            return new BoaPatternSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Maps the snapshot configured in the boa section if the patterns are read
+     * from a snapshot (PATTERN_SOURCE = snapshot), forgets a mapped snapshot
+     * otherwise.
+     *
+     * @throws RuntimeException if the snapshot is configured but can't be read
+     */
+    public static synchronized void init() {
+
+        instance = null;
+        if ( !"snapshot".equals(Defacto.DEFACTO_CONFIG.getStringSetting("boa", "PATTERN_SOURCE")) ) return;
+
+        File snapshot = new File(DefactoConfig.DEFACTO_DATA_DIR + Defacto.DEFACTO_CONFIG.getStringSetting("boa", "PATTERN_SNAPSHOT"));
+        try {
+
+            instance = open(snapshot);
+            LOGGER.info("Mapped boa pattern snapshot " + snapshot + " with " + instance.size() + " pattern lists");
+        }
+        catch (IOException e) {
+
+            throw new RuntimeException("Could not open boa pattern snapshot: " + snapshot.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * @return the snapshot mapped by {@link #init()} or null if the patterns come from solr
+     */
+    public static BoaPatternSnapshot getInstance() {
+        return instance;
+    }
+
+    /**
+     * @param propertyUri
+     * @param language
+     * @param numberOfBoaPatterns the number of patterns to return, 0 for the solr default
+     * @return the patterns with the most supporting pairs, in index order
+     */
+    public List<Pattern> getPatterns(String propertyUri, String language, int numberOfBoaPatterns) {
+
+        long[] entry = this.directory.get(key(propertyUri, language));
+        if ( entry == null ) return new ArrayList<Pattern>();
+
+        int count = (int) Math.min(entry[1], numberOfBoaPatterns > 0 ? numberOfBoaPatterns : DEFAULT_ROWS);
+        List<Pattern> patterns = new ArrayList<Pattern>(count);
+
+        // every reader needs its own position
+        ByteBuffer in = this.buffer.duplicate();
+        in.position((int) entry[0]);
+        for ( int i = 0; i < count; i++ ) {
+
+            Pattern pattern = new Pattern();
+            double support = in.getDouble();
+            pattern.boaScore = Double.isNaN(support) ? null : support;
+            pattern.naturalLanguageRepresentation = readString(in);
+            pattern.generalized = readString(in);
+            pattern.naturalLanguageRepresentationWithoutVariables = readString(in);
+            pattern.posTags = readString(in);
+            pattern.language = language;
+            patterns.add(pattern);
+        }
+        return patterns;
+    }
+
+    /**
+     * @return the number of (property, language) pattern lists
+     */
+    public int size() {
+        return this.directory.size();
+    }
+
+    /**
+     * @return when the snapshot was exported
+     */
+    public long getCreated() {
+        return created;
+    }
+
+    private static String key(String propertyUri, String language) {
+        return propertyUri + "\t" + language;
+    }
+
+    /**
+     * Writes all patterns of all properties of the given BOA cores.
+     *
+     * @param indexes the solr core of every language
+     * @param snapshot the file to write
+     * @throws IOException
+     * @throws SolrServerException
+     */
+    public static void export(Map<String, SolrClient> indexes, File snapshot) throws IOException, SolrServerException {
+
+        long start = System.currentTimeMillis();
+        CRC32 crc = new CRC32();
+        Map<String, long[]> directory = new LinkedHashMap<String, long[]>();
+        long patterns = 0;
+
+        try ( DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new CheckedOutputStream(new FileOutputStream(snapshot), crc), 1 << 16)) ) {
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(System.currentTimeMillis());
+            long offset = 16;
+
+            for ( Map.Entry<String, SolrClient> index : indexes.entrySet() ) {
+                for ( String propertyUri : getPropertyUris(index.getValue()) ) {
+
+                    long listOffset = offset;
+                    int count = 0;
+                    SolrQuery query = new SolrQuery("uri:\"" + propertyUri + "\"");
+                    addFields(query);
+                    query.addSort("SUPPORT_NUMBER_OF_PAIRS_LEARNED_FROM", SolrQuery.ORDER.desc);
+                    query.setRows(EXPORT_ROWS);
+
+                    SolrDocumentList page;
+                    do {
+
+                        query.setStart(count);
+                        page = index.getValue().query(query).getResults();
+                        for ( SolrDocument document : page ) {
+
+                            Object support = document.get("SUPPORT_NUMBER_OF_PAIRS_LEARNED_FROM");
+                            out.writeDouble(support == null ? Double.NaN : ((Number) support).doubleValue());
+                            offset += 8;
+                            offset += writeString(out, (String) document.get("nlr-var"));
+                            offset += writeString(out, (String) document.get("nlr-gen"));
+                            offset += writeString(out, (String) document.get("nlr-no-var"));
+                            offset += writeString(out, (String) document.getFirstValue("pos"));
+                            count++;
+                        }
+                    }
+                    while ( page.size() == EXPORT_ROWS && count < page.getNumFound() );
+
+                    directory.put(key(propertyUri, index.getKey()), new long[]{ listOffset, count });
+                    patterns += count;
+                }
+            }
+
+            long directoryOffset = offset;
+            out.writeInt(directory.size());
+            for ( Map.Entry<String, long[]> entry : directory.entrySet() ) {
+
+                String[] key = entry.getKey().split("\t");
+                writeString(out, key[0]);
+                writeString(out, key[1]);
+                out.writeLong(entry.getValue()[0]);
+                out.writeInt((int) entry.getValue()[1]);
+            }
+            out.writeLong(directoryOffset);
+            // the crc itself is not part of the checksum
+            out.flush();
+            out.writeLong(crc.getValue());
+        }
+
+        LOGGER.info("Exported " + patterns + " patterns of " + directory.size() + " properties and languages to "
+                + snapshot + " in " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    /**
+     * The fields every pattern query has to return.
+     *
+     * @param query
+     */
+    static void addFields(SolrQuery query) {
+
+        query.addField("boa-score");
+        query.addField("nlr-var");
+        query.addField("nlr-gen");
+        query.addField("nlr-no-var");
+        query.addField("pos");
+        query.addField("SUPPORT_NUMBER_OF_PAIRS_LEARNED_FROM");
+    }
+
+    private static List<String> getPropertyUris(SolrClient index) throws IOException, SolrServerException {
+
+        SolrQuery query = new SolrQuery("*:*");
+        query.setRows(0);
+        query.setFacet(true);
+        query.addFacetField("uri");
+        query.setFacetLimit(-1);
+        query.setFacetMinCount(1);
+
+        List<String> uris = new ArrayList<String>();
+        for ( FacetField.Count count : index.query(query).getFacetField("uri").getValues() ) uris.add(count.getName());
+        return uris;
+    }
+
+    private static int writeString(DataOutputStream out, String value) throws IOException {
+
+        if ( value == null ) {
+
+            out.writeInt(-1);
+            return 4;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        return 4 + bytes.length;
+    }
+
+    private static String readString(ByteBuffer in) {
+
+        int length = in.getInt();
+        if ( length < 0 ) return null;
+
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static void main(String[] args) throws IOException, SolrServerException {
+
+        if ( args.length < 1 ) {
+
+            System.out.println("Usage: BoaPatternSnapshot <snapshot file>");
+            return;
+        }
+        if ( Defacto.DEFACTO_CONFIG == null ) Defacto.DEFACTO_CONFIG = new DefactoConfig(new Ini(new File("defacto.ini")));
+
+        Map<String, SolrClient> indexes = new LinkedHashMap<String, SolrClient>();
+        for ( String language : Defacto.DEFACTO_CONFIG.getStringSetting("boa", "languages").split(",") ) {
+
+            HttpSolrClient index = new HttpSolrClient(Defacto.DEFACTO_CONFIG.getStringSetting("crawl", "solr_boa_" + language.trim()));
+            index.setRequestWriter(new BinaryRequestWriter());
+            indexes.put(language.trim(), index);
+        }
+        export(indexes, new File(args[0]));
+        for ( SolrClient index : indexes.values() ) index.close();
+    }
+}
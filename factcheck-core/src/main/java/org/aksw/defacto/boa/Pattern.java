@@ -14,6 +14,8 @@ import org.apache.commons.lang3.StringUtils;
 
 /**
  * Only used inside this class to encapsulate the Solr query results.
+ * Patterns handed out by the {@link BoaPatternRegistry} are shared between
+ * threads, their fields must not be changed.
  */
 public class Pattern {
     
@@ -26,6 +28,7 @@ public class Pattern {
     public Double naturalLanguageScore = 0D;
     public String posTags = "";
 	private String normalizedPattern = null;
+	private String normalizedPhrase = null;
 	public String generalized ="";
     
     public Pattern(String naturalLanguageRepresentation, String language) {
@@ -91,8 +94,15 @@ public class Pattern {
         return this.normalizedPattern;
     }
     
+    /**
+     * The result is computed on the first call and kept afterwards.
+     * 
+     * @return the lower cased pattern without stop words
+     */
     public String getNormalized() {
         
+    	if ( this.normalizedPhrase != null ) return this.normalizedPhrase;
+    	
     	String s = this.naturalLanguageRepresentationNormalized;
     	
     		if ( s.isEmpty() ) {
@@ -112,7 +122,8 @@ public class Pattern {
             List<String> naturalLanguageRepresentationChunks = new ArrayList<String>(Arrays.asList(s.toLowerCase().trim().split(" ")));
             naturalLanguageRepresentationChunks.removeAll(Constants.NEW_STOP_WORDS);
             
-            return " " + StringUtils.join(naturalLanguageRepresentationChunks, " ").trim().replaceAll(" +", " ") + " ";
+            this.normalizedPhrase = " " + StringUtils.join(naturalLanguageRepresentationChunks, " ").trim().replaceAll(" +", " ") + " ";
+            return this.normalizedPhrase;
     }
     
     /* (non-Javadoc)
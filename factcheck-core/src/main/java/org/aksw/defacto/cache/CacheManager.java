@@ -1,5 +1,5 @@
 /**
- * 
+ *
  */
 
 package org.aksw.defacto.cache;
@@ -8,11 +8,31 @@ import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.log4j.Logger;
 
 
 /**
+ * Access to the cache database. The manager keeps a pool of connections, every
+ * connection keeps its prepared statements, so concurrent readers and writers
+ * don't wait for each other and the same query is only prepared once per
+ * connection. Result sets are mapped while the connection is borrowed and
+ * never leave the manager.
+ *
+ * Primary keys come from a database sequence which hands out blocks of
+ * {@link #KEY_BLOCK_SIZE} keys, so keys survive restarts and only every
+ * KEY_BLOCK_SIZE-th key needs a round trip.
+ *
  * @author Daniel Gerber <dgerber@informatik.uni-leipzig.de>
  *
  */
@@ -20,193 +40,303 @@ public class CacheManager {
 
     private static CacheManager INSTANCE;
     private static Logger logger = Logger.getLogger(CacheManager.class);
-    private static Connection connection;
-    private int currentKey = 0;
-    
-    /**
-     * 
-     */
-    private CacheManager() {
-       
-        // singleton
-    }
-    
-    /**
-     * 
-     */
-    public static synchronized CacheManager getInstance() {
-        
-        if ( CacheManager.INSTANCE == null ) {
-            
-            CacheManager.INSTANCE = new CacheManager();
-            CacheManager.connection = getConnection();
-            CacheManager.INSTANCE.createDatabaseStructure();
-        }
-        
-        return CacheManager.INSTANCE;
-    }
+
+    public static final String DEFAULT_URL = "jdbc:h2:resources/cache/websites/defacto";
+    /** the number of keys reserved with one sequence call */
+    public static final int KEY_BLOCK_SIZE = 100;
+    /** the number of statements sent to the database at once by {@link #updateBatch(String, List)} */
+    public static final int BATCH_SIZE = 500;
+
+    private static final int STATEMENTS_PER_CONNECTION = 64;
+    private static final long BORROW_TIMEOUT_SECONDS = 30;
+
+    private final String url;
+    private final int poolSize;
+    private final BlockingQueue<PooledConnection> idle = new LinkedBlockingQueue<PooledConnection>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private volatile boolean closed = false;
+
+    private final Object keyLock = new Object();
+    private long nextKey = 0;
+    private long keyLimit = 0;
 
     /**
-     * 
-     * @return
+     * Maps the current row of a result set to an object.
      */
-    public synchronized int generatePrimaryKey() {
-        // TODO read the highest key from the database otherwise we will overright the rimary key
-        return this.currentKey++;
+    public interface RowMapper<T> {
+
+        T map(ResultSet row) throws SQLException;
     }
-    
+
     /**
-     * 
-     * @param query
-     * @return
+     * @param url the jdbc url of the database
+     * @param poolSize the maximum number of open connections
      */
-    public synchronized ResultSet executeQuery(String query) {
-        
-        return executeQuery(prepareStatement(query));
+    public CacheManager(String url, int poolSize) {
+
+        this.url = url;
+        this.poolSize = poolSize;
+        this.createDatabaseStructure();
     }
-    
+
     /**
-     * 
-     * @param query
-     * @return
+     *
      */
-    public synchronized ResultSet executePreparedStatement(PreparedStatement stmt) {
-        
-        return executeQuery(stmt);
+    public static synchronized CacheManager getInstance() {
+
+        if ( CacheManager.INSTANCE == null )
+            CacheManager.INSTANCE = new CacheManager(DEFAULT_URL, Runtime.getRuntime().availableProcessors());
+
+        return CacheManager.INSTANCE;
     }
-    
+
     /**
-     * 
-     * @param query
-     * @return
+     * Reserves a new block of keys from the sequence if the current one is used up.
+     *
+     * @return a key that was never handed out before, -1 if the sequence is not available
      */
-    public synchronized void executeUpdatedPreparedStatement(PreparedStatement stmt) {
-        
-        executeUpdateQuery(stmt);
+    public long generatePrimaryKey() {
+
+        synchronized (this.keyLock) {
+
+            if ( this.nextKey >= this.keyLimit ) {
+
+                List<Long> block = query("SELECT NEXT VALUE FOR search_result_key", new RowMapper<Long>() {
+
+                    @Override
+                    public Long map(ResultSet row) throws SQLException {
+                        return row.getLong(1);
+                    }
+                });
+                if ( block.isEmpty() ) return -1;
+
+                this.nextKey = block.get(0);
+                this.keyLimit = this.nextKey + KEY_BLOCK_SIZE;
+            }
+            return this.nextKey++;
+        }
     }
-    
+
     /**
-     * 
+     * Runs the query on a pooled connection.
+     *
      * @param query
-     * @return
-     */
-    public synchronized void executeUpdateQuery(String query) {
-        
-        executeUpdateQuery(prepareStatement(query));
-    }
-    
-    /**
-     * 
+     * @param mapper called for every row
+     * @param parameters the values of the ? in the query
+     * @return the mapped rows, an empty list if the query failed
      */
-    public static synchronized void closeConnection() {
+    public <T> List<T> query(String query, RowMapper<T> mapper, Object... parameters) {
 
+        PooledConnection connection = null;
         try {
-            
-            connection.close();
+
+            connection = borrow();
+            PreparedStatement stmt = connection.prepare(query);
+            setParameters(stmt, parameters);
+
+            List<T> rows = new ArrayList<T>();
+            try ( ResultSet results = stmt.executeQuery() ) {
+
+                while ( results.next() ) rows.add(mapper.map(results));
+            }
+            return rows;
         }
         catch (SQLException e) {
-            
-            logger.error("Could not close connection", e);
+
+            logger.error("Could not execute query: " + query, e);
+            return Collections.emptyList();
+        }
+        finally {
+
+            release(connection);
         }
     }
 
     /**
-     * 
-     * @param stmt
-     * @return
+     * Runs the insert, update or delete on a pooled connection.
+     *
+     * @param query
+     * @param parameters the values of the ? in the query
+     * @return the number of changed rows, -1 if the update failed
      */
-    private synchronized static void executeUpdateQuery(PreparedStatement stmt) {
-        
+    public int update(String query, Object... parameters) {
+
+        PooledConnection connection = null;
         try {
-            
-            stmt.executeUpdate();
+
+            connection = borrow();
+            PreparedStatement stmt = connection.prepare(query);
+            setParameters(stmt, parameters);
+            return stmt.executeUpdate();
         }
         catch (SQLException e) {
-            
-            logger.error("Query not execute update query: " + stmt, e);
+
+            logger.error("Could not execute update query: " + query, e);
+            return -1;
+        }
+        finally {
+
+            release(connection);
         }
     }
-    
+
     /**
-     * 
-     * @param stmt
-     * @return
+     * Runs the statement once for every parameter list in batches of
+     * {@link #BATCH_SIZE} and commits all of them together.
+     *
+     * @param query
+     * @param parameters the values of the ? in the query, one array per execution
+     * @return true if all statements were committed, nothing is changed otherwise
      */
-    private synchronized static ResultSet executeQuery(PreparedStatement stmt) {
-        
-        ResultSet results = null;
-        
+    public boolean updateBatch(String query, List<Object[]> parameters) {
+
+        if ( parameters.isEmpty() ) return true;
+
+        PooledConnection connection = null;
         try {
-            
-            if ( stmt != null ) {
-                
-                getConnection();
-                results = stmt.executeQuery();
+
+            connection = borrow();
+            PreparedStatement stmt = connection.prepare(query);
+            connection.connection.setAutoCommit(false);
+            try {
+
+                int batched = 0;
+                for ( Object[] values : parameters ) {
+
+                    setParameters(stmt, values);
+                    stmt.addBatch();
+                    if ( ++batched % BATCH_SIZE == 0 ) stmt.executeBatch();
+                }
+                if ( batched % BATCH_SIZE != 0 ) stmt.executeBatch();
+                connection.connection.commit();
+                return true;
+            }
+            catch (SQLException e) {
+
+                stmt.clearBatch();
+                connection.connection.rollback();
+                throw e;
+            }
+            finally {
+
+                connection.connection.setAutoCommit(true);
             }
-            else 
-                System.out.println("DOUBLE CRAP....");
         }
         catch (SQLException e) {
-            
-            logger.error("Query not execute query: " + stmt, e);
+
+            logger.error("Could not execute batch of " + parameters.size() + " updates: " + query, e);
+            return false;
+        }
+        finally {
+
+            release(connection);
         }
-        
-        return results;
     }
-    
+
     /**
-     * 
-     * @param connection
-     * @param query
-     * @return
+     * Closes all idle connections, connections in use are closed when they
+     * are released.
      */
-    private synchronized static PreparedStatement prepareStatement(String query) {
-        
-        PreparedStatement stmt = null;
-        
+    public void close() {
+
+        this.closed = true;
+        PooledConnection connection;
+        while ( (connection = this.idle.poll()) != null ) {
+
+            connection.close();
+            this.connections.decrementAndGet();
+        }
+    }
+
+    /**
+     *
+     */
+    public static synchronized void closeConnection() {
+
+        if ( INSTANCE != null ) INSTANCE.close();
+        INSTANCE = null;
+    }
+
+    /**
+     * @return the number of open connections
+     */
+    public int getNumberOfConnections() {
+        return this.connections.get();
+    }
+
+    /**
+     * Takes an idle connection, opens a new one if the pool is not full or
+     * waits for a connection to be released.
+     */
+    private PooledConnection borrow() throws SQLException {
+
+        if ( this.closed ) throw new SQLException("The cache manager is closed");
+
+        PooledConnection connection = this.idle.poll();
+        if ( connection != null ) return connection;
+
+        if ( this.connections.incrementAndGet() <= this.poolSize ) {
+
+            try {
+
+                return new PooledConnection(DriverManager.getConnection(this.url, "", ""));
+            }
+            catch (SQLException e) {
+
+                this.connections.decrementAndGet();
+                throw e;
+            }
+        }
+        this.connections.decrementAndGet();
+
         try {
-            
-            if ( connection == null || connection.isClosed() )
-                getConnection();
-            
-            stmt = connection.prepareStatement(query);
+
+            connection = this.idle.poll(BORROW_TIMEOUT_SECONDS, TimeUnit.SECONDS);
         }
-        catch (SQLException e) {
+        catch (InterruptedException e) {
 
-            logger.error("Could not create sql query for: " + query , e);
+            Thread.currentThread().interrupt();
         }
-        
-        return stmt;
+        if ( connection == null ) throw new SQLException("No connection to the cache database available");
+        return connection;
     }
-    
+
     /**
-     * 
-     * @return
+     * Puts the connection back into the pool, broken connections are dropped.
      */
-    public synchronized static Connection getConnection() {
-        
+    private void release(PooledConnection connection) {
+
+        if ( connection == null ) return;
+
+        boolean usable;
         try {
-            
-            if (connection == null || connection.isClosed() ) {
 
-                connection = DriverManager.getConnection("jdbc:h2:resources/cache/websites/defacto", "",  "");
-//                connection.setAutoCommit(true);
-            }
+            usable = !this.closed && !connection.connection.isClosed();
         }
         catch (SQLException e) {
-            
-            logger.error("Could not create connection to cache database!", e);
+
+            usable = false;
+        }
+
+        if ( usable ) this.idle.offer(connection);
+        else {
+
+            connection.close();
+            this.connections.decrementAndGet();
         }
-        
-        return connection;
     }
 
-    private synchronized void createDatabaseStructure() {
+    private static void setParameters(PreparedStatement stmt, Object... parameters) throws SQLException {
 
-        String searchResultTable = 
+        for ( int i = 0; i < parameters.length; i++ ) stmt.setObject(i + 1, parameters[i]);
+    }
+
+    private void createDatabaseStructure() {
+
+        String searchResultTable =
                 "CREATE TABLE IF NOT EXISTS search_result ( " +
                 "   id VARCHAR(100) NOT NULL, " +
-                "   hits LONG, " + 
+                "   hits LONG, " +
                 "   query VARCHAR(256), " +
                 "   url VARCHAR(1000), " +
                 "   title VARCHAR(1000), " +
@@ -216,35 +346,134 @@ public class CacheManager {
                 "   created TIMESTAMP, " +
                 "   PRIMARY KEY (id) " +
                 "); ";
-        
-        String searchResultIndex = 
-                "CREATE INDEX query_index ON search_result(query);";
-        
-        executeUpdateQuery(searchResultTable);
-        executeUpdateQuery(searchResultIndex);
-    }
-    
+
+        String searchResultIndex =
+                "CREATE INDEX IF NOT EXISTS query_index ON search_result(query);";
+
+        update(searchResultTable);
+        update(searchResultIndex);
+
+        createKeySequence();
+    }
+
+    /**
+     * The keys used to start at 0 on every restart and overwrote rows, so the
+     * sequence starts after the highest numeric id. The ids are scanned in
+     * plain SQL, that works on every database and is only done once, when the
+     * sequence is created.
+     *
+     * @throws IllegalStateException if the sequence could not be checked or created,
+     *          handing out keys from 0 would overwrite the cached results
+     */
+    private void createKeySequence() {
+
+        PooledConnection connection = null;
+        try {
+
+            connection = borrow();
+            try ( ResultSet sequences = connection.prepare(
+                    "SELECT COUNT(*) FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'SEARCH_RESULT_KEY'").executeQuery() ) {
+
+                if ( sequences.next() && sequences.getLong(1) > 0 ) return;
+            }
+
+            long start = 0;
+            try ( ResultSet ids = connection.prepare("SELECT id FROM search_result").executeQuery() ) {
+
+                while ( ids.next() ) start = Math.max(start, parseKey(ids.getString(1)) + 1);
+            }
+            connection.prepare("CREATE SEQUENCE IF NOT EXISTS search_result_key START WITH " + start
+                    + " INCREMENT BY " + KEY_BLOCK_SIZE).executeUpdate();
+            logger.info("Created the key sequence starting at " + start);
+        }
+        catch (SQLException e) {
+
+            throw new IllegalStateException("Could not create the key sequence of the cache database", e);
+        }
+        finally {
+
+            release(connection);
+        }
+    }
+
+    /**
+     * @return the id as a key or -1 if the id is not one of ours
+     */
+    private static long parseKey(String id) {
+
+        if ( id == null || id.isEmpty() || id.length() > 18 ) return -1;
+        for ( int i = 0; i < id.length(); i++ ) if ( id.charAt(i) < '0' || id.charAt(i) > '9' ) return -1;
+        return Long.parseLong(id);
+    }
+
     public static void main(String[] args) {
 
         CacheManager.getInstance();
     }
 
     /**
-     * 
-     * @param updateQuery
-     * @return
+     * A connection and the statements prepared on it. A pooled connection is
+     * only used by the thread which borrowed it.
      */
-    public PreparedStatement createPreparedStatement(String updateQuery) {
+    private static class PooledConnection {
+
+        private final Connection connection;
+        private final Map<String, PreparedStatement> statements;
+
+        private PooledConnection(Connection connection) {
+
+            this.connection = connection;
+            this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+
+                    if ( size() <= STATEMENTS_PER_CONNECTION ) return false;
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+            };
+        }
+
+        private PreparedStatement prepare(String query) throws SQLException {
+
+            PreparedStatement stmt = this.statements.get(query);
+            if ( stmt == null || stmt.isClosed() ) {
+
+                stmt = this.connection.prepareStatement(query);
+                this.statements.put(query, stmt);
+            }
+            else stmt.clearParameters();
 
-        try {
-            
-            if ( connection == null || connection.isClosed() ) getConnection();
-            PreparedStatement stmt = connection.prepareStatement(updateQuery);
             return stmt;
         }
-        catch (SQLException e) {
-            
-            throw new RuntimeException("Could not create query: " + updateQuery);
+
+        private void close() {
+
+            for ( PreparedStatement stmt : this.statements.values() ) closeQuietly(stmt);
+            this.statements.clear();
+            try {
+
+                this.connection.close();
+            }
+            catch (SQLException e) {
+
+                logger.error("Could not close connection", e);
+            }
+        }
+
+        private static void closeQuietly(Statement stmt) {
+
+            try {
+
+                stmt.close();
+            }
+            catch (SQLException e) {
+
+                logger.debug("Could not close statement", e);
+            }
         }
     }
 }
@@ -0,0 +1,93 @@
+package org.aksw.defacto.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The hit, miss and latency counters of a {@link TieredCache}.
+ */
+public class CacheStats {
+
+    final LongAdder requests = new LongAdder();
+    final LongAdder requestNanos = new LongAdder();
+    final LongAdder memoryHits = new LongAdder();
+    final LongAdder diskHits = new LongAdder();
+    final LongAdder remoteHits = new LongAdder();
+    final LongAdder misses = new LongAdder();
+    final LongAdder expirations = new LongAdder();
+    final LongAdder loads = new LongAdder();
+    final LongAdder loadFailures = new LongAdder();
+    final LongAdder loadNanos = new LongAdder();
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getMemoryHits() {
+        return memoryHits.sum();
+    }
+
+    public long getDiskHits() {
+        return diskHits.sum();
+    }
+
+    public long getRemoteHits() {
+        return remoteHits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the number of entries found after their time to live
+     */
+    public long getExpirations() {
+        return expirations.sum();
+    }
+
+    /**
+     * @return the number of entries computed by a loader
+     */
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    public long getLoadFailures() {
+        return loadFailures.sum();
+    }
+
+    /**
+     * @return the share of the requests answered by any tier
+     */
+    public double getHitRate() {
+
+        long requests = this.getRequests();
+        return requests == 0 ? 0D : (double) (getMemoryHits() + getDiskHits() + getRemoteHits()) / requests;
+    }
+
+    /**
+     * @return the average time of a lookup through the tiers, loads excluded
+     */
+    public double getAverageRequestMicros() {
+
+        long requests = this.getRequests();
+        return requests == 0 ? 0D : requestNanos.sum() / 1000D / requests;
+    }
+
+    /**
+     * @return the average time of a load
+     */
+    public double getAverageLoadMillis() {
+
+        long loads = this.getLoads() + this.getLoadFailures();
+        return loads == 0 ? 0D : loadNanos.sum() / 1000000D / loads;
+    }
+
+    @Override
+    public String toString() {
+
+        return String.format("%d requests (%.1fus), %.1f%% hits (%d memory, %d disk, %d remote), %d misses, %d expired, %d loads (%.1fms), %d failed",
+                getRequests(), getAverageRequestMicros(), getHitRate() * 100, getMemoryHits(), getDiskHits(), getRemoteHits(),
+                getMisses(), getExpirations(), getLoads(), getAverageLoadMillis(), getLoadFailures());
+    }
+}
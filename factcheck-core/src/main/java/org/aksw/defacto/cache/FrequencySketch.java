@@ -0,0 +1,92 @@
+package org.aksw.defacto.cache;
+
+/**
+ * Estimates how often a key was seen recently with a count-min sketch of four
+ * rows of 4 bit counters. All counters are halved after 10 times the cache
+ * size increments, so old popularity fades out. Used by the TinyLFU admission
+ * of the {@link MemoryTier}; not thread safe, the tier guards it.
+ */
+class FrequencySketch {
+
+    private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+
+    // 16 counters per long, every row uses its own counter of the long
+    private final long[] table;
+    private final int sampleSize;
+    private int additions = 0;
+
+    /**
+     * @param maximumSize the number of entries of the cache
+     */
+    FrequencySketch(int maximumSize) {
+
+        int size = Integer.highestOneBit(Math.max(4, Math.min(maximumSize, 1 << 28)) - 1) << 1;
+        this.table = new long[size];
+        this.sampleSize = 10 * Math.max(1, maximumSize);
+    }
+
+    /**
+     * @param key
+     * @return the estimated number of recent occurrences, at most 15
+     */
+    int frequency(String key) {
+
+        int hash = spread(key.hashCode());
+        int frequency = Integer.MAX_VALUE;
+        for ( int row = 0; row < 4; row++ ) {
+
+            int index = index(hash, row);
+            int offset = counterOffset(hash, row);
+            frequency = Math.min(frequency, (int) ((this.table[index] >>> offset) & 0xfL));
+        }
+        return frequency;
+    }
+
+    /**
+     * Counts one occurrence of the key.
+     *
+     * @param key
+     */
+    void increment(String key) {
+
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for ( int row = 0; row < 4; row++ ) {
+
+            int index = index(hash, row);
+            int offset = counterOffset(hash, row);
+            if ( ((this.table[index] >>> offset) & 0xfL) != 0xfL ) {
+
+                this.table[index] += 1L << offset;
+                added = true;
+            }
+        }
+        if ( added && ++this.additions >= this.sampleSize ) this.reset();
+    }
+
+    private void reset() {
+
+        for ( int i = 0; i < this.table.length; i++ ) this.table[i] = (this.table[i] >>> 1) & 0x7777777777777777L;
+        this.additions /= 2;
+    }
+
+    private int index(int hash, int row) {
+
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        return (int) h & (this.table.length - 1);
+    }
+
+    private static int counterOffset(int hash, int row) {
+
+        // every row uses a different group of four counters in the long
+        return ((((hash >>> (row << 3)) & 3) << 2) + row) << 2;
+    }
+
+    private static int spread(int hash) {
+
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+}
@@ -0,0 +1,142 @@
+package org.aksw.defacto.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The bounded on-heap tier of a {@link TieredCache}. With the LRU policy the
+ * least recently used entry is evicted. With the TinyLFU policy (W-TinyLFU)
+ * new entries go into a small LRU window (1% of the size); an entry leaving
+ * the window only replaces the least recently used entry of the main part if
+ * it was requested more often recently, so one-off keys can't flush the
+ * popular ones.
+ */
+public class MemoryTier<T> {
+
+    public enum Policy { LRU, TINY_LFU }
+
+    /**
+     * A cached value and when it expires.
+     */
+    static final class Entry<T> {
+
+        final T value;
+        final long expires;
+
+        Entry(T value, long expires) {
+
+            this.value = value;
+            this.expires = expires;
+        }
+    }
+
+    private final int maximumSize;
+    private final int windowSize;
+    private final LinkedHashMap<String, Entry<T>> window = new LinkedHashMap<String, Entry<T>>(16, 0.75f, true);
+    private final LinkedHashMap<String, Entry<T>> main = new LinkedHashMap<String, Entry<T>>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+    private long evictions = 0;
+
+    /**
+     * @param maximumSize the maximum number of entries
+     * @param policy
+     */
+    public MemoryTier(int maximumSize, Policy policy) {
+
+        this.maximumSize = maximumSize;
+        this.windowSize = policy == Policy.LRU ? maximumSize : Math.max(1, maximumSize / 100);
+        this.sketch = policy == Policy.LRU ? null : new FrequencySketch(maximumSize);
+    }
+
+    /**
+     * @param key
+     * @return the entry, null if it's not cached
+     */
+    synchronized Entry<T> get(String key) {
+
+        if ( this.sketch != null ) this.sketch.increment(key);
+
+        Entry<T> entry = this.window.get(key);
+        return entry != null ? entry : this.main.get(key);
+    }
+
+    /**
+     * @param key
+     * @param value
+     * @param expires when the entry expires in milliseconds since the epoch
+     */
+    synchronized void put(String key, T value, long expires) {
+
+        Entry<T> entry = new Entry<T>(value, expires);
+        if ( this.main.containsKey(key) ) {
+
+            this.main.put(key, entry);
+            return;
+        }
+        this.window.put(key, entry);
+        if ( this.window.size() <= this.windowSize ) return;
+
+        Iterator<Map.Entry<String, Entry<T>>> eldest = this.window.entrySet().iterator();
+        Map.Entry<String, Entry<T>> candidate = eldest.next();
+        eldest.remove();
+
+        int mainSize = this.maximumSize - this.windowSize;
+        if ( this.main.size() < mainSize ) {
+
+            this.main.put(candidate.getKey(), candidate.getValue());
+            return;
+        }
+        if ( mainSize > 0 ) {
+
+            Iterator<Map.Entry<String, Entry<T>>> victims = this.main.entrySet().iterator();
+            Map.Entry<String, Entry<T>> victim = victims.next();
+            if ( this.sketch.frequency(candidate.getKey()) > this.sketch.frequency(victim.getKey()) ) {
+
+                victims.remove();
+                this.main.put(candidate.getKey(), candidate.getValue());
+            }
+        }
+        this.evictions++;
+    }
+
+    /**
+     * @param key
+     * @return the removed entry, null if it was not cached
+     */
+    synchronized Entry<T> remove(String key) {
+
+        Entry<T> entry = this.window.remove(key);
+        return entry != null ? entry : this.main.remove(key);
+    }
+
+    /**
+     * @return the number of cached entries
+     */
+    public synchronized int size() {
+        return this.window.size() + this.main.size();
+    }
+
+    /**
+     * @return the maximum number of entries
+     */
+    public int getMaximumSize() {
+        return this.maximumSize;
+    }
+
+    /**
+     * @return the number of entries dropped because the tier was full
+     */
+    public synchronized long getEvictions() {
+        return this.evictions;
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public synchronized void clear() {
+
+        this.window.clear();
+        this.main.clear();
+    }
+}
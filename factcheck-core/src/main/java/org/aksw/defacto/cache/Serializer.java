@@ -0,0 +1,24 @@
+package org.aksw.defacto.cache;
+
+import java.io.IOException;
+
+/**
+ * Turns the entries of a {@link TieredCache} into the bytes of its disk tier
+ * and back.
+ */
+public interface Serializer<T> {
+
+    /**
+     * @param entry
+     * @return
+     */
+    public byte[] serialize(T entry);
+
+    /**
+     * @param identifier the key the entry was stored with
+     * @param bytes
+     * @return
+     * @throws IOException if the bytes are not a valid entry
+     */
+    public T deserialize(String identifier, byte[] bytes) throws IOException;
+}
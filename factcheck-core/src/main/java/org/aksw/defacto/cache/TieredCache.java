@@ -0,0 +1,516 @@
+package org.aksw.defacto.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.aksw.defacto.search.cache.local.LogStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link Cache} in up to three tiers: a bounded {@link MemoryTier} on the
+ * heap, a {@link LogStore} on the local disk whose entries are written with a
+ * {@link Serializer}, and a remote cache (e.g. one of the Solr caches). A
+ * lookup goes through the tiers from fast to slow and copies a found entry
+ * into the faster tiers. Additions go to all tiers, the disk and remote tier
+ * can be written by a {@link WriteBehindCache} off the calling thread. A
+ * removal cancels the writes of the key which are still queued, so a removed
+ * entry is not brought back by an earlier addition.
+ *
+ * A loader makes the cache read-through: {@link #get(String)} computes missing
+ * entries and concurrent calls for the same key wait for one computation.
+ * Entries older than the time to live are treated as missing, the remote tier
+ * keeps no timestamps so its entries count as fresh when they are copied.
+ *
+ * The tiers and options are set after construction and before the cache is
+ * used. Every cache is listed by {@link #getCaches()} with its {@link CacheStats}
+ * until it is closed.
+ */
+public class TieredCache<T> implements Cache<T> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TieredCache.class);
+
+    private static final Map<String, TieredCache<?>> caches = new ConcurrentHashMap<String, TieredCache<?>>();
+
+    private final String name;
+    private final Function<T, String> identifier;
+    private final MemoryTier<T> memory;
+    private final CacheStats stats = new CacheStats();
+    private final Map<String, CompletableFuture<T>> loading = new ConcurrentHashMap<String, CompletableFuture<T>>();
+
+    private LogStore store;
+    private Serializer<T> serializer;
+    private Cache<T> remote;
+    private Function<String, T> loader;
+    private long timeToLiveMillis = 0;
+    private final LowerTiers lowerTiers = new LowerTiers();
+    private WriteBehindCache<T> writeBehind;
+    // the latest entry of every key handed to the lower tiers but not written yet
+    private final Map<String, T> pendingWrites = new ConcurrentHashMap<String, T>();
+    // a write to the lower tiers and a removal of the same entry don't interleave
+    private final Object lowerTiersLock = new Object();
+
+    /**
+     * @param name shows up in the log and in {@link #getCaches()}
+     * @param identifier the key of an entry
+     * @param memory the on-heap tier
+     */
+    public TieredCache(String name, Function<T, String> identifier, MemoryTier<T> memory) {
+
+        this.name = name;
+        this.identifier = identifier;
+        this.memory = memory;
+        caches.put(name, this);
+    }
+
+    /**
+     * @param store the local store, owned by the cache afterwards
+     * @param serializer
+     */
+    public void setDiskTier(LogStore store, Serializer<T> serializer) {
+
+        this.store = store;
+        this.serializer = serializer;
+    }
+
+    /**
+     * @param remote the slowest tier, null for none
+     */
+    public void setRemoteTier(Cache<T> remote) {
+        this.remote = remote;
+    }
+
+    /**
+     * @param loader computes the entry of a key on a miss, may return null
+     */
+    public void setLoader(Function<String, T> loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * @param timeToLive 0 to keep entries until they are evicted
+     * @param unit
+     */
+    public void setTimeToLive(long timeToLive, TimeUnit unit) {
+        this.timeToLiveMillis = unit.toMillis(timeToLive);
+    }
+
+    /**
+     * Writes the disk and remote tier on a background thread in batches.
+     *
+     * @param queueSize
+     * @param batchSize
+     */
+    public void enableWriteBehind(int queueSize, int batchSize) {
+
+        this.writeBehind = new WriteBehindCache<T>(this.lowerTiers, this.name, queueSize, batchSize, 1000);
+    }
+
+    /**
+     * @return all caches which are not closed yet
+     */
+    public static Map<String, TieredCache<?>> getCaches() {
+        return Collections.unmodifiableMap(caches);
+    }
+
+    /**
+     * @param identifier
+     * @return the cached entry or the one computed by the loader of this cache
+     */
+    public T get(String identifier) {
+        return this.get(identifier, this.loader);
+    }
+
+    /**
+     * Returns the cached entry or computes it. Only one thread computes the
+     * entry of a key, the others wait for its result.
+     *
+     * @param identifier
+     * @param loader computes the entry on a miss, null to only look it up
+     * @return the entry, null if it is neither cached nor computed
+     */
+    public T get(String identifier, Function<String, T> loader) {
+
+        T entry = this.getEntry(identifier);
+        if ( entry != null || loader == null ) return entry;
+
+        CompletableFuture<T> computation = new CompletableFuture<T>();
+        CompletableFuture<T> running = this.loading.putIfAbsent(identifier, computation);
+        if ( running != null ) {
+
+            try {
+
+                return running.join();
+            }
+            catch (CompletionException e) {
+
+                if ( e.getCause() instanceof RuntimeException ) throw (RuntimeException) e.getCause();
+                throw e;
+            }
+        }
+
+        long start = System.nanoTime();
+        try {
+
+            // a previous computation might have finished in the meantime
+            entry = this.lookup(identifier);
+            if ( entry == null ) {
+
+                entry = loader.apply(identifier);
+                if ( entry != null ) entry = this.add(entry);
+                this.stats.loads.increment();
+                this.stats.loadNanos.add(System.nanoTime() - start);
+            }
+            computation.complete(entry);
+            return entry;
+        }
+        catch (RuntimeException e) {
+
+            this.stats.loadFailures.increment();
+            this.stats.loadNanos.add(System.nanoTime() - start);
+            computation.completeExceptionally(e);
+            throw e;
+        }
+        finally {
+
+            this.loading.remove(identifier, computation);
+        }
+    }
+
+    @Override
+    public boolean contains(String identifier) {
+
+        MemoryTier.Entry<T> entry = this.memory.get(identifier);
+        if ( entry != null && !this.isExpired(entry.expires) ) return true;
+        if ( this.store != null && this.readStore(identifier) != null ) return true;
+        return this.remote != null && this.remote.contains(identifier);
+    }
+
+    @Override
+    public T getEntry(String identifier) {
+
+        long start = System.nanoTime();
+        T entry = this.lookup(identifier);
+        if ( entry == null ) this.stats.misses.increment();
+        this.stats.requests.increment();
+        this.stats.requestNanos.add(System.nanoTime() - start);
+        return entry;
+    }
+
+    private T lookup(String identifier) {
+
+        MemoryTier.Entry<T> cached = this.memory.get(identifier);
+        if ( cached != null ) {
+
+            if ( !this.isExpired(cached.expires) ) {
+
+                this.stats.memoryHits.increment();
+                return cached.value;
+            }
+            this.memory.remove(identifier);
+            this.stats.expirations.increment();
+        }
+
+        if ( this.store != null ) {
+
+            MemoryTier.Entry<T> stored = this.readStore(identifier);
+            if ( stored != null ) {
+
+                this.stats.diskHits.increment();
+                this.memory.put(identifier, stored.value, stored.expires);
+                return stored.value;
+            }
+        }
+
+        if ( this.remote != null && this.remote.contains(identifier) ) {
+
+            T entry = this.remote.getEntry(identifier);
+            if ( entry != null ) {
+
+                this.stats.remoteHits.increment();
+                entry = this.toCached(entry);
+                long now = System.currentTimeMillis();
+                this.memory.put(identifier, entry, this.expires(now));
+                if ( this.store != null ) this.store.put(identifier, this.encode(entry, now));
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes the entry from all tiers and cancels its pending writes. Remote
+     * caches which don't support removals keep their entry.
+     */
+    @Override
+    public T removeEntryByPrimaryKey(String primaryKey) {
+
+        synchronized (this.lowerTiersLock) {
+
+            this.pendingWrites.remove(primaryKey);
+            MemoryTier.Entry<T> entry = this.memory.remove(primaryKey);
+            if ( entry == null && this.store != null ) entry = this.readStore(primaryKey);
+            if ( this.store != null ) this.store.remove(primaryKey);
+
+            if ( this.remote != null ) {
+
+                try {
+
+                    T removed = this.remote.removeEntryByPrimaryKey(primaryKey);
+                    if ( entry == null && removed != null ) return removed;
+                }
+                catch (RuntimeException e) {
+
+                    LOGGER.debug(this.name + " could not remove " + primaryKey + " from the remote tier", e);
+                }
+            }
+            return entry == null ? null : entry.value;
+        }
+    }
+
+    /**
+     * Replaces the entry with the same key in all tiers.
+     */
+    @Override
+    public boolean updateEntry(T object) {
+
+        this.add(object);
+        return true;
+    }
+
+    @Override
+    public List<T> addAll(List<T> listToAdd) {
+
+        long now = System.currentTimeMillis();
+        List<T> added = new ArrayList<T>(listToAdd.size());
+        for ( T entry : listToAdd ) {
+
+            T cached = this.toCached(entry);
+            String key = this.identifier.apply(cached);
+            this.memory.put(key, cached, this.expires(now));
+            this.pendingWrites.put(key, cached);
+            added.add(cached);
+        }
+
+        if ( this.writeBehind == null ) this.lowerTiers.addAll(added);
+        else for ( T cached : added ) this.offer(cached);
+        return added;
+    }
+
+    /**
+     * @return the instance which is cached for the entry, see {@link #toCached(Object)}
+     */
+    @Override
+    public T add(T entry) {
+
+        T cached = this.toCached(entry);
+        String key = this.identifier.apply(cached);
+        this.memory.put(key, cached, this.expires(System.currentTimeMillis()));
+        this.pendingWrites.put(key, cached);
+
+        if ( this.writeBehind == null ) this.lowerTiers.add(cached);
+        else this.offer(cached);
+        return cached;
+    }
+
+    /**
+     * queues the write of an entry, a dropped or rejected write is not pending
+     */
+    private void offer(T cached) {
+
+        boolean queued = false;
+        try {
+
+            queued = this.writeBehind.offer(cached);
+        }
+        finally {
+
+            if ( !queued ) this.pendingWrites.remove(this.identifier.apply(cached), cached);
+        }
+    }
+
+    /**
+     * Subclasses can cache an immutable copy of added entries instead of the
+     * entries themselves.
+     *
+     * @param entry
+     * @return the instance to cache for the entry
+     */
+    protected T toCached(T entry) {
+        return entry;
+    }
+
+    /**
+     * Writes all queued entries, closes the disk tier and removes the cache
+     * from {@link #getCaches()}.
+     */
+    public void close() {
+
+        if ( this.writeBehind != null ) this.writeBehind.close();
+        if ( this.store != null ) {
+
+            try {
+
+                this.store.close();
+            }
+            catch (IOException e) {
+
+                LOGGER.error(this.name + " could not close its store", e);
+            }
+        }
+        caches.remove(this.name, this);
+        LOGGER.info(this.toString());
+    }
+
+    /**
+     * @return the hit, miss and latency counters
+     */
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    /**
+     * @return the on-heap tier
+     */
+    public MemoryTier<T> getMemoryTier() {
+        return memory;
+    }
+
+    /**
+     * @return the write behind queue or null if the tiers are written directly
+     */
+    public WriteBehindCache<T> getWriteBehindCache() {
+        return writeBehind;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private long expires(long now) {
+        return this.timeToLiveMillis > 0 ? now + this.timeToLiveMillis : Long.MAX_VALUE;
+    }
+
+    private boolean isExpired(long expires) {
+        return expires != Long.MAX_VALUE && expires <= System.currentTimeMillis();
+    }
+
+    /**
+     * @return the entry and its expiry time, null if the store doesn't know
+     *          the key, the entry expired or can't be read
+     */
+    private MemoryTier.Entry<T> readStore(String identifier) {
+
+        try {
+
+            byte[] value = this.store.get(identifier);
+            if ( value == null ) return null;
+
+            long expires = this.expires(ByteBuffer.wrap(value).getLong());
+            if ( this.isExpired(expires) ) {
+
+                this.store.remove(identifier);
+                this.stats.expirations.increment();
+                return null;
+            }
+            return new MemoryTier.Entry<T>(this.serializer.deserialize(identifier, Arrays.copyOfRange(value, 8, value.length)), expires);
+        }
+        catch (IOException e) {
+
+            LOGGER.error(this.name + " could not read " + identifier, e);
+            return null;
+        }
+    }
+
+    /**
+     * @return the time the entry was written and the serialized entry
+     */
+    private byte[] encode(T entry, long written) {
+
+        byte[] serialized = this.serializer.serialize(entry);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(serialized.length + 8);
+        try ( DataOutputStream out = new DataOutputStream(bytes) ) {
+
+            out.writeLong(written);
+            out.write(serialized);
+        }
+        catch (IOException e) {
+
+            // there is no I/O on a byte array
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public String toString() {
+        return this.name + ": " + this.stats + ", " + this.memory.size() + " in memory, " + this.memory.getEvictions() + " evicted";
+    }
+
+    /**
+     * Writes the disk and remote tier, reads go through the tiered cache.
+     */
+    private class LowerTiers implements Cache<T> {
+
+        @Override
+        public boolean contains(String identifier) {
+            return TieredCache.this.contains(identifier);
+        }
+
+        @Override
+        public T getEntry(String identifier) {
+            return TieredCache.this.getEntry(identifier);
+        }
+
+        @Override
+        public T removeEntryByPrimaryKey(String primaryKey) {
+            return TieredCache.this.removeEntryByPrimaryKey(primaryKey);
+        }
+
+        @Override
+        public boolean updateEntry(T object) {
+
+            this.add(object);
+            return true;
+        }
+
+        /**
+         * writes the entries which are still pending, those removed or replaced in the meantime are skipped
+         */
+        @Override
+        public List<T> addAll(List<T> listToAdd) {
+
+            synchronized (lowerTiersLock) {
+
+                List<T> pending = new ArrayList<T>(listToAdd.size());
+                for ( T entry : listToAdd )
+                    if ( pendingWrites.remove(identifier.apply(entry), entry) ) pending.add(entry);
+                if ( pending.isEmpty() ) return listToAdd;
+
+                long now = System.currentTimeMillis();
+                if ( store != null ) for ( T entry : pending ) store.put(identifier.apply(entry), encode(entry, now));
+                if ( remote != null ) remote.addAll(pending);
+            }
+            return listToAdd;
+        }
+
+        @Override
+        public T add(T entry) {
+
+            this.addAll(Collections.singletonList(entry));
+            return entry;
+        }
+    }
+}
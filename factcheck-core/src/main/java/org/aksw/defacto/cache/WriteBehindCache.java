@@ -0,0 +1,290 @@
+package org.aksw.defacto.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Takes the writes of a {@link Cache} off the calling thread. Added entries go
+ * onto a bounded queue, a background thread hands them to the wrapped cache in
+ * batches with a single {@link Cache#addAll(List)} (one commit) per batch.
+ * Reads go to the wrapped cache directly, so an entry is only visible once
+ * its batch was written.
+ *
+ * If the queue is full the adding thread waits up to the configured time for
+ * the writer to catch up (backpressure), afterwards the entry is dropped and
+ * counted. {@link #close()} writes everything still queued, additions which
+ * come later or race the close are rejected.
+ */
+public class WriteBehindCache<T> implements Cache<T> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WriteBehindCache.class);
+
+    private final Cache<T> cache;
+    private final String name;
+    private final int batchSize;
+    private final long offerTimeoutMillis;
+    private final BlockingQueue<T> queue;
+    private final Thread writer;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong writeMillis = new AtomicLong();
+
+    // adding threads share it, close takes it exclusively so no entry is queued after the writer stopped
+    private final ReadWriteLock closing = new ReentrantReadWriteLock();
+    private volatile boolean closed = false;
+
+    /**
+     * @param cache the cache to write to
+     * @param name used for the writer thread and the log
+     * @param queueSize the maximum number of queued entries
+     * @param batchSize the maximum number of entries per batch
+     * @param offerTimeoutMillis how long to wait for space in a full queue
+     */
+    public WriteBehindCache(Cache<T> cache, String name, int queueSize, int batchSize, long offerTimeoutMillis) {
+
+        this.cache = cache;
+        this.name = name;
+        this.batchSize = batchSize;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.queue = new ArrayBlockingQueue<T>(queueSize);
+
+        this.writer = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                writeLoop();
+            }
+        }, name + "-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public boolean contains(String identifier) {
+        return this.cache.contains(identifier);
+    }
+
+    @Override
+    public T getEntry(String identifier) {
+        return this.cache.getEntry(identifier);
+    }
+
+    @Override
+    public T removeEntryByPrimaryKey(String primaryKey) {
+        return this.cache.removeEntryByPrimaryKey(primaryKey);
+    }
+
+    @Override
+    public boolean updateEntry(T object) {
+        return this.cache.updateEntry(object);
+    }
+
+    /**
+     * Queues all entries, see {@link #add(Object)}.
+     */
+    @Override
+    public List<T> addAll(List<T> listToAdd) {
+
+        for ( T entry : listToAdd ) this.add(entry);
+        return listToAdd;
+    }
+
+    /**
+     * Queues the entry, waits if the queue is full.
+     *
+     * @throws IllegalStateException if the cache is closed
+     */
+    @Override
+    public T add(T entry) {
+
+        this.offer(entry);
+        return entry;
+    }
+
+    /**
+     * Like {@link #add(Object)}, but tells whether the entry was queued.
+     *
+     * @param entry
+     * @return false if the entry was dropped because the queue was full
+     * @throws IllegalStateException if the cache is closed
+     */
+    public boolean offer(T entry) {
+
+        this.closing.readLock().lock();
+        try {
+
+            if ( this.closed ) throw new IllegalStateException(this.name + " is closed");
+            if ( this.queue.offer(entry, this.offerTimeoutMillis, TimeUnit.MILLISECONDS) ) {
+
+                this.enqueued.incrementAndGet();
+                return true;
+            }
+            this.dropped.incrementAndGet();
+            LOGGER.warn(this.name + " queue is full, dropped an entry");
+            return false;
+        }
+        catch (InterruptedException e) {
+
+            this.dropped.incrementAndGet();
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        finally {
+
+            this.closing.readLock().unlock();
+        }
+    }
+
+    /**
+     * Blocks until every entry queued before is written.
+     *
+     * @throws InterruptedException
+     */
+    public synchronized void flush() throws InterruptedException {
+
+        while ( this.enqueued.get() > this.written.get() + this.failed.get() ) this.wait(100);
+    }
+
+    /**
+     * Writes all queued entries and stops the writer.
+     */
+    public void close() {
+
+        this.closing.writeLock().lock();
+        try {
+
+            if ( this.closed ) return;
+            this.closed = true;
+        }
+        finally {
+
+            this.closing.writeLock().unlock();
+        }
+        try {
+
+            this.writer.join();
+        }
+        catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+        }
+        LOGGER.info(this.toString());
+    }
+
+    private void writeLoop() {
+
+        List<T> batch = new ArrayList<T>(this.batchSize);
+        while ( !this.closed || !this.queue.isEmpty() ) {
+
+            try {
+
+                T first = this.queue.poll(100, TimeUnit.MILLISECONDS);
+                if ( first == null ) continue;
+
+                batch.add(first);
+                this.queue.drainTo(batch, this.batchSize - 1);
+                this.write(batch);
+            }
+            catch (InterruptedException e) {
+
+                Thread.currentThread().interrupt();
+                return;
+            }
+            finally {
+
+                batch.clear();
+                synchronized (this) {
+                    this.notifyAll();
+                }
+            }
+        }
+    }
+
+    private void write(List<T> batch) {
+
+        long start = System.currentTimeMillis();
+        try {
+
+            this.cache.addAll(batch);
+            this.written.addAndGet(batch.size());
+        }
+        catch (RuntimeException e) {
+
+            this.failed.addAndGet(batch.size());
+            LOGGER.error(this.name + " could not write a batch of " + batch.size() + " entries", e);
+        }
+        this.batches.incrementAndGet();
+        this.writeMillis.addAndGet(System.currentTimeMillis() - start);
+    }
+
+    /**
+     * @return the number of entries accepted by {@link #add(Object)}
+     */
+    public long getEnqueued() {
+        return enqueued.get();
+    }
+
+    /**
+     * @return the number of entries handed to the wrapped cache
+     */
+    public long getWritten() {
+        return written.get();
+    }
+
+    /**
+     * @return the number of entries dropped because the queue was full
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * @return the number of entries whose batch failed
+     */
+    public long getFailed() {
+        return failed.get();
+    }
+
+    /**
+     * @return the number of written batches
+     */
+    public long getBatches() {
+        return batches.get();
+    }
+
+    /**
+     * @return the number of entries waiting to be written
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * @return the average time spent writing a batch
+     */
+    public double getAverageBatchMillis() {
+
+        long batches = this.batches.get();
+        return batches == 0 ? 0D : (double) this.writeMillis.get() / batches;
+    }
+
+    @Override
+    public String toString() {
+
+        return String.format("%s: %d queued, %d written in %d batches (%.1fms per batch), %d dropped, %d failed, %d waiting",
+                this.name, getEnqueued(), getWritten(), getBatches(), getAverageBatchMillis(), getDropped(), getFailed(), getQueueSize());
+    }
+}
@@ -11,26 +11,23 @@ import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Random;
 import java.util.Set;
 
 import org.aksw.defacto.Defacto;
-import org.aksw.defacto.Defacto.TIME_DISTRIBUTION_ONLY;
 import org.aksw.defacto.comp.FMeasureComparator;
 import org.aksw.defacto.evaluation.configuration.Configuration;
-import org.aksw.defacto.evaluation.measure.PrecisionRecallFMeasure;
 import org.aksw.defacto.evidence.Evidence;
 import org.aksw.defacto.model.DefactoModel;
-import org.aksw.defacto.model.DefactoTimePeriod;
 import org.aksw.defacto.reader.DefactoModelReader;
+import org.aksw.defacto.search.time.TimeStatistics;
+import org.aksw.defacto.search.time.YearHistogram;
+import org.aksw.defacto.search.time.YearStatistics;
 import org.apache.commons.lang3.StringUtils;
 import org.aksw.defacto.util.BufferedFileReader;
 import org.aksw.defacto.util.BufferedFileWriter;
 import org.aksw.defacto.util.BufferedFileWriter.WRITER_WRITE_MODE;
 import org.aksw.defacto.util.Encoder.Encoding;
-import org.aksw.defacto.util.Frequency;
 
 /**
  * @author Daniel Gerber <daniel.gerber@deinestadtsuchtdich.de>
@@ -43,11 +40,6 @@ public class DefactoTimePeriodLearning {
 	public static String trainDirectory	= "";
 	static Set<DefactoModel> wrongModels =  new LinkedHashSet<>();
 	static DecimalFormat df = new DecimalFormat("#0.#");
-	
-	static Frequency tiny = new Frequency();
-	static Frequency small = new Frequency();
-	static Frequency medium = new Frequency();
-	static Frequency large = new Frequency();
 
 	public static void main(String[] args) throws FileNotFoundException {
 		
@@ -334,29 +326,20 @@ public class DefactoTimePeriodLearning {
 		languages.add(Arrays.asList("en", "fr", "de"));
 		languages.add(Arrays.asList("en"));
 		
-		for ( String contextSize : contextSizes  ) {
-			Defacto.DEFACTO_CONFIG.setStringSetting("settings", "context-size", contextSize);
-
-			for ( List<String> language : languages) {
-				CURRENT_LANGUAGE = language.toString();
-					
-				List<DefactoModel>  models = new ArrayList<>();
-				for ( String relation : relations ) models.addAll(DefactoModelReader.readModels(trainDirectory + "correct/" + relation, true, language));
-				
-				for ( String normalizer : normalizers ) {
-					Defacto.DEFACTO_CONFIG.setStringSetting("settings", "TIME_PERIOD_SEARCHER", normalizer);
-					
-					List<String> patternSearch = new ArrayList<>();
-//					patternSearch.add("pattern");
-					patternSearch.add("frequency");
-					
-					for ( String periodSearchMethod : patternSearch ) {
-						Defacto.DEFACTO_CONFIG.setStringSetting("settings", "periodSearchMethod", periodSearchMethod);
-						
-						learn(name, models, configurations);
-					}
-				}
-			}
+		List<String> patternSearch = new ArrayList<>();
+//		patternSearch.add("pattern");
+		patternSearch.add("frequency");
+		
+		// every fact is crawled once per language set, the configurations are evaluated on the stored time distributions
+		TimePeriodSweep sweep = new TimePeriodSweep();
+		List<TimePeriodSweep.Setting> settings = TimePeriodSweep.Setting.grid(normalizers, contextSizes, patternSearch);
+		
+		for ( List<String> language : languages) {
+			
+			List<DefactoModel>  models = new ArrayList<>();
+			for ( String relation : relations ) models.addAll(DefactoModelReader.readModels(trainDirectory + "correct/" + relation, true, language));
+			
+			configurations.addAll(sweep.evaluate(name, language.toString(), models, sweep.crawl(models), settings));
 		}
 		
 		Collections.sort(configurations, new FMeasureComparator());
@@ -368,119 +351,11 @@ public class DefactoTimePeriodLearning {
 		return configurations;
 	}
 	
-	/**
-	 * 
-	 * @param defactoTimePeriod
-	 * @param model
-	 * @return
-	 */
-	private static PrecisionRecallFMeasure getMeasures(DefactoTimePeriod defactoTimePeriod, DefactoModel model) {
-		
-		Set<Integer> relevantYears = new LinkedHashSet<>();
-		for ( int i = model.timePeriod.from ; i <= model.timePeriod.to ; i++) relevantYears.add(i);
-		
-		Set<Integer> retrievedYears = new LinkedHashSet<>();
-		if ( !defactoTimePeriod.equals(DefactoTimePeriod.EMPTY_DEFACTO_TIME_PERIOD) )
-			for ( int i = defactoTimePeriod.from ; i <= defactoTimePeriod.to ; i++) 
-				retrievedYears.add(i);
-		
-		return new PrecisionRecallFMeasure(relevantYears, retrievedYears);
-	}
-
 	public static Configuration learn(String name, List<DefactoModel> models, List<Configuration> configurations){
 		
-		int precisionCounter = 0;
-		int isPossible = 0;
-		int correct = 0;
-		
-		Double macroPrecision	= 0D;
-		Double macroRecall		= 0D;
-		Double macroFmeasure	= 0D;
-		
-		int correctStart = 0;
-		int correctEnd = 0;
-		
-		Double meanReciprocalRank = 0D;
-		int meanReciprocalRankCounter = 0;
-		
-		// check all facts for this configuration
-		for (int i = 0; i < models.size(); i++) {
-
-			DefactoModel model = models.get(i); 
-			
-			Evidence evidence = Defacto.checkFact(model, TIME_DISTRIBUTION_ONLY.YES);
-//			createProofFrequency(evidence);
-			DefactoTimePeriod dtp = evidence.defactoTimePeriod;
-			
-			
-			System.out.println("Found:"+dtp);
-			System.out.println("GS:   "+model.timePeriod);
-			
-			// correct year is in retrieved year set
-			if (evidence.getPreferedContext().containsKey(model.timePeriod.from + "")) isPossible++; 
-			
-			// calculate MRR only for time point
-			if (model.timePeriod.isTimePoint()) {
-				
-				// get the index of the correct year in the retrieved year set
-				int hitIndex = getHitIndex(evidence.getPreferedContext(), model.timePeriod.from);
-					
-//				// debug wrong facts
-//				if ( hitIndex > 1 )  {
-//					
-//					System.out.println("FROM: "+ model.timePeriod.from + " TO: " + model.timePeriod.to + " INDEX: " + hitIndex);
-//					for ( Entry<String, Long> entry : evidence.getPreferedContext().entrySet()){
-//						System.out.println(entry.getKey() + "\t" + entry.getValue() + "\t" +  
-//								entry.getValue() * org.aksw.defacto.search.time.TimeUtil.getGlobalNormalizedPopularity(Integer.valueOf(entry.getKey())) + "\t" +  
-//								entry.getValue() * org.aksw.defacto.search.time.TimeUtil.getDomainNormalizedPopularity(Integer.valueOf(entry.getKey())));
-//					}
-//					System.out.println();
-//				}
-				
-				// we only want to count years of facts where we can find a correct year in the given context
-				if ( hitIndex >= 0 ) {
-					
-					meanReciprocalRank += 1D / (double) hitIndex;
-					meanReciprocalRankCounter++;
-				}
-			}
-			
-			PrecisionRecallFMeasure results = getMeasures(dtp, model);
-			
-			// no years found so we can't calculate a proper precision 
-			if ( !results.precision.isNaN() ) { 
-				
-				macroPrecision += results.precision;
-				precisionCounter++;
-			}
-			macroRecall += results.recall;
-			macroFmeasure = getFmeasure(macroPrecision / precisionCounter, macroRecall / (i + 1));
-			
-			if ( model.timePeriod.from.equals(dtp.from) ) correctStart++;
-			if ( model.timePeriod.to.equals(dtp.to) ) correctEnd++;
-			
-			if ( results.fmeasure == 1 ) correct++;
-			else wrongModels.add(model);
-//			System.out.println(String.format(Locale.ENGLISH, "%s/%s total --> P: %.5f, R: %.5f, F: %.5f, MRR: %.5f", 
-//					i+1, models.size(), macroPrecision / (precisionCounter),
-//					macroRecall / (i + 1), macroFmeasure, meanReciprocalRank / meanReciprocalRankCounter)
-//					+  " current --> " + results);
-		}
-		
-		Configuration config = new Configuration(name, results);
-		
-		config.precision 			= macroPrecision / precisionCounter;
-		config.recall 				= macroRecall / (models.size());
-		config.fMeasure 			= macroFmeasure;
-		config.correct 				= correct;
-		config.correctStart			= correctStart;
-		config.correctEnd			= correctEnd;
-		config.normalizer 			= Defacto.DEFACTO_CONFIG.getStringSetting("settings", "TIME_PERIOD_SEARCHER");
-		config.context 				= Defacto.DEFACTO_CONFIG.getStringSetting("settings", "context-size");
-		config.language 			= CURRENT_LANGUAGE;
-		config.periodSearchMethod 	= Defacto.DEFACTO_CONFIG.getStringSetting("settings", "periodSearchMethod");
-		config.isPossible 			= isPossible +"/"+ models.size();
-		config.mrrAverage 			= meanReciprocalRankCounter == 0 ? 0 : meanReciprocalRank / meanReciprocalRankCounter;
+		TimePeriodSweep sweep = new TimePeriodSweep();
+		Configuration config = sweep.evaluate(name, CURRENT_LANGUAGE, models, sweep.crawl(models), TimePeriodSweep.Setting.fromConfig());
+		wrongModels.addAll(config.models);
 		
 		configurations.add(config);
 		
@@ -493,74 +368,19 @@ public class DefactoTimePeriodLearning {
 	 */
 	private static void createProofFrequency(Evidence evidence) {
 		
-		switch ( Defacto.DEFACTO_CONFIG.getStringSetting("settings", "context-size") ) {
-		
-			case "tiny" : {
-				for ( Entry<String, Long> entry : evidence.tinyContextYearOccurrences.entrySet())
-					for ( int i = 0; i < entry.getValue() ; i++) if ( Integer.valueOf(entry.getKey()) < 2014) tiny.addValue(entry.getKey());
-				break;
-			}
-			case "small" : {
-				for ( Entry<String, Long> entry : evidence.smallContextYearOccurrences.entrySet())
-					for ( int i = 0; i < entry.getValue() ; i++) if ( Integer.valueOf(entry.getKey()) < 2014) small.addValue(entry.getKey());
-				break;
-			}
-			case "medium" : {
-				for ( Entry<String, Long> entry : evidence.mediumContextYearOccurrences.entrySet())
-					for ( int i = 0; i < entry.getValue() ; i++) if ( Integer.valueOf(entry.getKey()) < 2014) medium.addValue(entry.getKey());
-				
-				break;
-			}
-			case "large" : {
-				for ( Entry<String, Long> entry : evidence.largeContextYearOccurrences.entrySet())
-					for ( int i = 0; i < entry.getValue() ; i++) if ( Integer.valueOf(entry.getKey()) < 2014) large.addValue(entry.getKey());
-				
-				break;
-			}
-			
-			default: throw new RuntimeException("Context size: " + 
-				Defacto.DEFACTO_CONFIG.getStringSetting("settings", "context-size") + " not supported!");
-		}
-		
-		BufferedFileWriter tiny		= new BufferedFileWriter("/Users/gerb/Development/workspaces/experimental/defacto/mltemp/eval/freq/tiny.tsv", Encoding.UTF_8, WRITER_WRITE_MODE.OVERRIDE);
-		for ( Entry<Comparable<?>, Long> entry : DefactoTimePeriodLearning.tiny.sortByValue() ) tiny.write(entry.getKey() + "\t" + entry.getValue());
-		tiny.close();
-		
-		BufferedFileWriter small	= new BufferedFileWriter("/Users/gerb/Development/workspaces/experimental/defacto/mltemp/eval/freq/small.tsv", Encoding.UTF_8, WRITER_WRITE_MODE.OVERRIDE);
-		for ( Entry<Comparable<?>, Long> entry : DefactoTimePeriodLearning.small.sortByValue() ) small.write(entry.getKey() + "\t" + entry.getValue());
-		small.close();
+		String contextSize = Defacto.DEFACTO_CONFIG.getStringSetting("settings", "context-size");
+		YearHistogram occurrences = evidence.getPreferedContext();
+		YearHistogram proofYears = TimeStatistics.current().getProofYears(YearStatistics.getContext(contextSize));
+		for ( int year : occurrences.getYears() )
+			if ( year < 2014 ) proofYears.add(year, occurrences.get(year));
 		
-		BufferedFileWriter medium	= new BufferedFileWriter("/Users/gerb/Development/workspaces/experimental/defacto/mltemp/eval/freq/medium.tsv", Encoding.UTF_8, WRITER_WRITE_MODE.OVERRIDE);
-		for ( Entry<Comparable<?>, Long> entry : DefactoTimePeriodLearning.medium.sortByValue() ) medium.write(entry.getKey() + "\t" + entry.getValue());
-		medium.close();
-		
-		BufferedFileWriter large	= new BufferedFileWriter("/Users/gerb/Development/workspaces/experimental/defacto/mltemp/eval/freq/large.tsv", Encoding.UTF_8, WRITER_WRITE_MODE.OVERRIDE);
-		for ( Entry<Comparable<?>, Long> entry : DefactoTimePeriodLearning.large.sortByValue() ) large.write(entry.getKey() + "\t" + entry.getValue());
-		large.close();
-	}
-
-	/**
-	 * 
-	 * @param preferedContext
-	 * @param year
-	 * @return
-	 */
-	private static int getHitIndex(Map<String, Long> preferedContext, Integer year) {
-		
-		Frequency freq = new Frequency();
-		for ( Entry<String, Long> entry : preferedContext.entrySet())
-			for (int i = 0; i < entry.getValue(); i++ )
-				freq.addValue(entry.getKey());
-		
-		List<Entry<Comparable<?>, Long>> values = freq.sortByValue();
-		
-		// find the first and second most occurring year values
-		for ( int i = 0; i < values.size() ; i++ ) {
+		for ( String size : YearStatistics.CONTEXT_SIZES ) {
 			
-			if ( values.get(i).getKey().equals(year + "") ) return i + 1;
+			YearHistogram histogram = TimeStatistics.current().getProofYears(YearStatistics.getContext(size));
+			BufferedFileWriter writer = new BufferedFileWriter("/Users/gerb/Development/workspaces/experimental/defacto/mltemp/eval/freq/" + size + ".tsv", Encoding.UTF_8, WRITER_WRITE_MODE.OVERRIDE);
+			for ( int year : histogram.getYears() ) writer.write(year + "\t" + histogram.get(year));
+			writer.close();
 		}
-		
-		return -1;
 	}
 
 	public static Double getFmeasure(Double precision, Double recall) {
@@ -0,0 +1,380 @@
+package org.aksw.defacto.evaluation;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.aksw.defacto.Defacto;
+import org.aksw.defacto.evaluation.configuration.Configuration;
+import org.aksw.defacto.evaluation.measure.PrecisionRecallFMeasure;
+import org.aksw.defacto.evidence.Evidence;
+import org.aksw.defacto.model.DefactoModel;
+import org.aksw.defacto.model.DefactoTimePeriod;
+import org.aksw.defacto.search.time.DefactoTimePeriodSearcher;
+import org.aksw.defacto.search.time.TimeDistribution;
+import org.aksw.defacto.search.time.TimeStatistics;
+import org.aksw.defacto.search.time.YearHistogram;
+import org.aksw.defacto.search.time.YearStatistics;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Evaluates many time period configurations on the same facts. Every fact is
+ * crawled once, its {@link TimeDistribution} is written to the sweep directory
+ * and read from there by later sweeps. The configurations are then evaluated
+ * in memory, in parallel, without touching the settings of the configuration
+ * file.
+ */
+public class TimePeriodSweep {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(TimePeriodSweep.class);
+
+	private static ExecutorService executor;
+
+	private final File directory;
+
+	/**
+	 * Uses the sweep-directory of the eval section.
+	 */
+	public TimePeriodSweep() {
+
+		this(new File(Defacto.DEFACTO_CONFIG.getStringSetting("eval", "data-directory")
+				+ Defacto.DEFACTO_CONFIG.getStringSetting("eval", "sweep-directory")));
+	}
+
+	/**
+	 * @param directory the time distributions are read from and written to, null to keep them in memory only
+	 */
+	public TimePeriodSweep(File directory) {
+
+		this.directory = directory;
+		if ( directory != null && !directory.exists() && !directory.mkdirs() )
+			LOGGER.warn("Could not create " + directory + ", the time distributions are not persisted");
+	}
+
+	/**
+	 * One point of the grid: the time period searcher, the context size and
+	 * how a time period is built from the pattern matches.
+	 */
+	public static class Setting {
+
+		public final String normalizer;
+		public final String contextSize;
+		public final String periodSearchMethod;
+
+		public Setting(String normalizer, String contextSize, String periodSearchMethod) {
+
+			this.normalizer = normalizer;
+			this.contextSize = contextSize;
+			this.periodSearchMethod = periodSearchMethod;
+		}
+
+		/**
+		 * @return the setting of the configuration file
+		 */
+		public static Setting fromConfig() {
+
+			return new Setting(Defacto.DEFACTO_CONFIG.getStringSetting("settings", "TIME_PERIOD_SEARCHER"),
+					Defacto.DEFACTO_CONFIG.getStringSetting("settings", "context-size"),
+					Defacto.DEFACTO_CONFIG.getStringSetting("settings", "periodSearchMethod"));
+		}
+
+		/**
+		 * @return every combination of the given values
+		 */
+		public static List<Setting> grid(List<String> normalizers, List<String> contextSizes, List<String> periodSearchMethods) {
+
+			List<Setting> settings = new ArrayList<>();
+			for ( String contextSize : contextSizes )
+				for ( String normalizer : normalizers )
+					for ( String periodSearchMethod : periodSearchMethods )
+						settings.add(new Setting(normalizer, contextSize, periodSearchMethod));
+
+			return settings;
+		}
+
+		@Override
+		public String toString() {
+			return normalizer + "/" + contextSize + "/" + periodSearchMethod;
+		}
+	}
+
+	/**
+	 * Returns the time distribution of every model, in the same order. A
+	 * model is only crawled if the sweep directory has no distribution for it
+	 * and its languages yet.
+	 *
+	 * @param models
+	 * @return
+	 */
+	public List<TimeDistribution> crawl(List<DefactoModel> models) {
+
+		List<TimeDistribution> distributions = new ArrayList<>();
+		int crawled = 0;
+		for ( DefactoModel model : models ) {
+
+			File file = this.directory == null ? null : new File(this.directory, getFileName(model));
+			TimeDistribution distribution = null;
+			if ( file != null && file.exists() ) {
+
+				try {
+
+					distribution = TimeDistribution.read(file);
+				}
+				catch (IOException e) {
+
+					LOGGER.warn("Could not read " + file + ", crawling the fact again", e);
+				}
+			}
+
+			if ( distribution == null ) {
+
+				distribution = TimeDistribution.of(Defacto.checkTimeDistribution(model, null));
+				crawled++;
+
+				if ( file != null ) {
+
+					try {
+
+						distribution.write(file);
+					}
+					catch (IOException e) {
+
+						LOGGER.warn("Could not write " + file, e);
+					}
+				}
+			}
+			distributions.add(distribution);
+		}
+
+		LOGGER.info(String.format("Crawled %s of %s facts, the others were read from %s", crawled, models.size(), this.directory));
+		return distributions;
+	}
+
+	/**
+	 * Evaluates all settings in parallel.
+	 *
+	 * @param name
+	 * @param language is only copied to the configurations
+	 * @param models
+	 * @param distributions see {@link #crawl(List)}
+	 * @param settings
+	 * @return a configuration per setting, in the order of the settings. A
+	 * setting whose evaluation failed is logged and left out.
+	 */
+	public List<Configuration> evaluate(final String name, final String language, final List<DefactoModel> models,
+			final List<TimeDistribution> distributions, List<Setting> settings) {
+
+		List<Callable<Configuration>> callables = new ArrayList<>();
+		for ( final Setting setting : settings ) {
+
+			callables.add(new Callable<Configuration>() {
+
+				@Override
+				public Configuration call() {
+					return evaluate(name, language, models, distributions, setting);
+				}
+			});
+		}
+
+		List<Future<Configuration>> results;
+		try {
+
+			results = getExecutor().invokeAll(callables);
+		}
+		catch (InterruptedException e) {
+
+			LOGGER.error("Interrupted exception thrown: ", e);
+			Thread.currentThread().interrupt();
+			return new ArrayList<>();
+		}
+
+		// invokeAll returns when all settings are done, get does not block
+		List<Configuration> configurations = new ArrayList<>();
+		for ( int i = 0; i < results.size(); i++ ) {
+
+			try {
+
+				configurations.add(results.get(i).get());
+			}
+			catch (InterruptedException e) {
+
+				LOGGER.error("Interrupted exception thrown: ", e);
+				Thread.currentThread().interrupt();
+			}
+			catch (ExecutionException e) {
+
+				LOGGER.error("Could not evaluate setting " + settings.get(i) + ", it is skipped", e.getCause());
+			}
+		}
+
+		return configurations;
+	}
+
+	/**
+	 * Computes the time period of every fact with the setting and compares
+	 * it to the gold standard. The years and pattern matches are counted in
+	 * statistics of their own, see {@link TimeStatistics}.
+	 *
+	 * @param name
+	 * @param language is only copied to the configuration
+	 * @param models
+	 * @param distributions see {@link #crawl(List)}
+	 * @param setting
+	 * @return
+	 */
+	public Configuration evaluate(String name, String language, List<DefactoModel> models, List<TimeDistribution> distributions, Setting setting) {
+
+		TimeStatistics statistics = new TimeStatistics(name + " " + setting);
+		try ( TimeStatistics.Scope scope = TimeStatistics.scope(statistics) ) {
+
+			return evaluate(name, language, models, distributions, setting, statistics);
+		}
+	}
+
+	private Configuration evaluate(String name, String language, List<DefactoModel> models, List<TimeDistribution> distributions,
+			Setting setting, TimeStatistics statistics) {
+
+		DefactoTimePeriodSearcher searcher = Evidence.getTimePeriodSearcher(setting.normalizer);
+		int context = YearStatistics.getContext(setting.contextSize);
+
+		int precisionCounter = 0;
+		int isPossible = 0;
+		int correct = 0;
+
+		Double macroPrecision	= 0D;
+		Double macroRecall		= 0D;
+		Double macroFmeasure	= 0D;
+
+		int correctStart = 0;
+		int correctEnd = 0;
+
+		Double meanReciprocalRank = 0D;
+		int meanReciprocalRankCounter = 0;
+
+		Set<DefactoModel> wrongModels = new LinkedHashSet<>();
+
+		for (int i = 0; i < models.size(); i++) {
+
+			DefactoModel model = models.get(i);
+			TimeDistribution distribution = distributions.get(i);
+			YearHistogram occurrences = distribution.getOccurrences(context);
+			statistics.getYearOccurrences(context).merge(occurrences);
+
+			DefactoTimePeriod dtp = model.timePeriod.isTimePoint()
+					? searcher.getTimePoint(distribution, context)
+					: searcher.getTimePeriod(distribution, context, setting.periodSearchMethod);
+			if ( dtp == null ) dtp = new DefactoTimePeriod(0, 0);
+
+			// correct year is in retrieved year set
+			if ( occurrences.contains(model.timePeriod.from) ) isPossible++;
+
+			// calculate MRR only for time point
+			if ( model.timePeriod.isTimePoint() ) {
+
+				// get the index of the correct year in the retrieved year set
+				int hitIndex = occurrences.getRank(model.timePeriod.from);
+
+				// we only want to count years of facts where we can find a correct year in the given context
+				if ( hitIndex >= 0 ) {
+
+					meanReciprocalRank += 1D / (double) hitIndex;
+					meanReciprocalRankCounter++;
+				}
+			}
+
+			PrecisionRecallFMeasure results = getMeasures(dtp, model);
+
+			// no years found so we can't calculate a proper precision
+			if ( !results.precision.isNaN() ) {
+
+				macroPrecision += results.precision;
+				precisionCounter++;
+			}
+			macroRecall += results.recall;
+			macroFmeasure = DefactoTimePeriodLearning.getFmeasure(macroPrecision / precisionCounter, macroRecall / (i + 1));
+
+			if ( model.timePeriod.from.equals(dtp.from) ) correctStart++;
+			if ( model.timePeriod.to.equals(dtp.to) ) correctEnd++;
+
+			if ( results.fmeasure == 1 ) correct++;
+			else wrongModels.add(model);
+		}
+
+		Configuration config = new Configuration(name, Collections.<String>emptyList());
+
+		config.precision 			= macroPrecision / precisionCounter;
+		config.recall 				= macroRecall / (models.size());
+		config.fMeasure 			= macroFmeasure;
+		config.correct 				= correct;
+		config.correctStart			= correctStart;
+		config.correctEnd			= correctEnd;
+		config.normalizer 			= setting.normalizer;
+		config.context 				= setting.contextSize;
+		config.language 			= language;
+		config.periodSearchMethod 	= setting.periodSearchMethod;
+		config.isPossible 			= isPossible +"/"+ models.size();
+		config.mrrAverage 			= meanReciprocalRankCounter == 0 ? 0 : meanReciprocalRank / meanReciprocalRankCounter;
+		config.models				= new ArrayList<>(wrongModels);
+
+		return config;
+	}
+
+	/**
+	 *
+	 * @param defactoTimePeriod
+	 * @param model
+	 * @return
+	 */
+	private static PrecisionRecallFMeasure getMeasures(DefactoTimePeriod defactoTimePeriod, DefactoModel model) {
+
+		Set<Integer> relevantYears = new LinkedHashSet<>();
+		for ( int i = model.timePeriod.from ; i <= model.timePeriod.to ; i++) relevantYears.add(i);
+
+		Set<Integer> retrievedYears = new LinkedHashSet<>();
+		if ( !defactoTimePeriod.equals(DefactoTimePeriod.EMPTY_DEFACTO_TIME_PERIOD) )
+			for ( int i = defactoTimePeriod.from ; i <= defactoTimePeriod.to ; i++)
+				retrievedYears.add(i);
+
+		return new PrecisionRecallFMeasure(relevantYears, retrievedYears);
+	}
+
+	private static String getFileName(DefactoModel model) {
+
+		return (model.name + "-" + StringUtils.join(model.languages, "-")).replaceAll("[^A-Za-z0-9._-]", "_") + ".bin";
+	}
+
+	private static synchronized ExecutorService getExecutor() {
+
+		if ( executor == null ) {
+
+			int threads = Defacto.DEFACTO_CONFIG.getIntegerSetting("eval", "SWEEP_THREADS");
+			if ( threads < 1 ) threads = Runtime.getRuntime().availableProcessors();
+
+			final AtomicInteger counter = new AtomicInteger();
+			executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+
+				@Override
+				public Thread newThread(Runnable runnable) {
+
+					Thread thread = new Thread(runnable, "time-period-sweep-" + counter.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return executor;
+	}
+}
@@ -0,0 +1,193 @@
+package org.aksw.defacto.evidence;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * The text of an article as stored by the {@link ArticleTextStore}: UTF-8
+ * bytes, deflated for long texts. Equal texts share one instance, so a
+ * handle can be held by any number of {@link WebSite}s. Only the stored bytes
+ * belong to the text, the decoded and the lower cased strings of the
+ * {@link #DECODED_CACHE_SIZE} most recently read texts are kept in an LRU
+ * shared by all texts. Loops reading a text over and over should hold the
+ * string themselves, proofs are grouped by website for that, see
+ * {@link Evidence#getComplexProofsByWebSite()}.
+ */
+public final class ArticleText implements CharSequence {
+
+    /**
+     * The empty text, not kept in the store.
+     */
+    public static final ArticleText EMPTY = new ArticleText(new byte[0], new byte[0], false, 0);
+
+    /**
+     * The number of texts whose decoded strings are kept.
+     */
+    public static final int DECODED_CACHE_SIZE = 64;
+
+    // keyed by the digest, the lru must not keep texts alive which no website refers to
+    private static final Map<ByteBuffer, Decoded> decoded = Collections.synchronizedMap(
+            new LinkedHashMap<ByteBuffer, Decoded>(DECODED_CACHE_SIZE * 2, 0.75f, true) {
+
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<ByteBuffer, Decoded> eldest) {
+                    return size() > DECODED_CACHE_SIZE;
+                }
+            });
+
+    private static final AtomicLong decodes = new AtomicLong();
+
+    final byte[] digest;
+    private final byte[] bytes;
+    private final boolean compressed;
+    private final int length;
+
+    ArticleText(byte[] digest, byte[] bytes, boolean compressed, int length) {
+
+        this.digest = digest;
+        this.bytes = bytes;
+        this.compressed = compressed;
+        this.length = length;
+    }
+
+    /**
+     * @return the number of chars of the decoded text
+     */
+    @Override
+    public int length() {
+        return this.length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return this.toString().charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return this.toString().subSequence(start, end);
+    }
+
+    /**
+     * @return the number of bytes kept for this text
+     */
+    public int getStoredSize() {
+        return this.bytes.length;
+    }
+
+    public boolean isCompressed() {
+        return this.compressed;
+    }
+
+    public boolean isEmpty() {
+        return this.length == 0;
+    }
+
+    /**
+     * @return how often a text was decoded because it was not in the LRU
+     */
+    public static long getNumberOfDecodes() {
+        return decodes.get();
+    }
+
+    /**
+     * @return the lower cased text, computed once while the text is in the LRU
+     */
+    public String toLowerCase() {
+
+        Decoded decoded = this.decode();
+        String lowerCase = decoded.lowerCase;
+        if ( lowerCase == null ) {
+
+            lowerCase = decoded.text.toLowerCase();
+            decoded.lowerCase = lowerCase;
+        }
+        return lowerCase;
+    }
+
+    /**
+     * @return the decoded text
+     */
+    @Override
+    public String toString() {
+        return this.decode().text;
+    }
+
+    private Decoded decode() {
+
+        if ( this.length == 0 ) return Decoded.EMPTY;
+
+        ByteBuffer key = ByteBuffer.wrap(this.digest);
+        Decoded text = decoded.get(key);
+        if ( text == null ) {
+
+            // two threads might decode the same text, both results are equal
+            decodes.incrementAndGet();
+            text = new Decoded(new String(this.compressed ? inflate(this.bytes) : this.bytes, StandardCharsets.UTF_8));
+            decoded.put(key, text);
+        }
+        return text;
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(this.digest);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+
+        if ( this == obj ) return true;
+        if ( !(obj instanceof ArticleText) ) return false;
+        return Arrays.equals(this.digest, ((ArticleText) obj).digest);
+    }
+
+    private static byte[] inflate(byte[] bytes) {
+
+        Inflater inflater = new Inflater();
+        inflater.setInput(bytes);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length * 3);
+        byte[] buffer = new byte[8192];
+        try {
+
+            while ( !inflater.finished() ) {
+
+                int read = inflater.inflate(buffer);
+                if ( read == 0 && inflater.needsInput() ) throw new IllegalStateException("Truncated article text");
+                out.write(buffer, 0, read);
+            }
+        }
+        catch (DataFormatException e) {
+
+            // only the store deflates texts, so this is a bug and no I/O problem
+            throw new IllegalStateException("Corrupt article text", e);
+        }
+        finally {
+
+            inflater.end();
+        }
+        return out.toByteArray();
+    }
+
+    private static final class Decoded {
+
+        private static final Decoded EMPTY = new Decoded("");
+
+        private final String text;
+        private volatile String lowerCase;
+
+        Decoded(String text) {
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package org.aksw.defacto.evidence;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+
+import org.aksw.defacto.Defacto;
+
+/**
+ * Keeps every distinct article text once. Texts are addressed by the SHA-1 of
+ * their UTF-8 bytes, so the same article crawled for several patterns,
+ * languages or facts, or read from the evidence cache again, ends up as one
+ * {@link ArticleText}. Texts longer than {@link #COMPRESSION_MIN_BYTES} are
+ * deflated. The store only holds weak references, a text is dropped once no
+ * {@link WebSite} refers to it anymore.
+ */
+public class ArticleTextStore {
+
+    /**
+     * Shorter texts do not gain enough from deflating to pay for inflating them.
+     */
+    public static final int COMPRESSION_MIN_BYTES = 2048;
+
+    private static final Map<Key, TextReference> texts = new ConcurrentHashMap<Key, TextReference>();
+    private static final ReferenceQueue<ArticleText> collected = new ReferenceQueue<ArticleText>();
+
+    private static final AtomicLong requests = new AtomicLong();
+    private static final AtomicLong created = new AtomicLong();
+
+    private static volatile boolean compress = true;
+
+    /**
+     * Reads whether texts are compressed from the evidence section.
+     */
+    public static void init() {
+        compress = Defacto.DEFACTO_CONFIG.getBooleanSetting("evidence", "COMPRESS_ARTICLE_TEXT");
+    }
+
+    /**
+     * @param text
+     * @return the stored instance of the text, null for null
+     */
+    public static ArticleText intern(String text) {
+
+        if ( text == null ) return null;
+        if ( text.isEmpty() ) return ArticleText.EMPTY;
+
+        expunge();
+        requests.incrementAndGet();
+
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        Key key = new Key(digest(bytes));
+
+        while ( true ) {
+
+            TextReference reference = texts.get(key);
+            ArticleText stored = reference == null ? null : reference.get();
+            if ( stored != null ) return stored;
+
+            boolean deflate = compress && bytes.length >= COMPRESSION_MIN_BYTES;
+            byte[] encoded = deflate ? deflate(bytes) : bytes;
+            if ( deflate && encoded.length >= bytes.length ) {
+
+                encoded = bytes;
+                deflate = false;
+            }
+
+            ArticleText interned = new ArticleText(key.digest, encoded, deflate, text.length());
+            TextReference replacement = new TextReference(interned, key);
+            if ( reference == null ? texts.putIfAbsent(key, replacement) == null : texts.replace(key, reference, replacement) ) {
+
+                created.incrementAndGet();
+                return interned;
+            }
+            // another thread stored the same text, use that one
+        }
+    }
+
+    /**
+     * @return the number of distinct texts still referenced
+     */
+    public static int size() {
+
+        expunge();
+        return texts.size();
+    }
+
+    /**
+     * @return the number of bytes kept for all texts
+     */
+    public static long getStoredBytes() {
+
+        long bytes = 0;
+        for ( TextReference reference : texts.values() ) {
+
+            ArticleText text = reference.get();
+            if ( text != null ) bytes += text.getStoredSize();
+        }
+        return bytes;
+    }
+
+    /**
+     * @return the share of the interned texts which were already stored
+     */
+    public static double getDeduplicationRate() {
+
+        long requests = ArticleTextStore.requests.get();
+        return requests == 0 ? 0D : 1D - (double) created.get() / requests;
+    }
+
+    private static void expunge() {
+
+        TextReference reference;
+        while ( (reference = (TextReference) collected.poll()) != null )
+            texts.remove(reference.key, reference);
+    }
+
+    private static byte[] digest(byte[] bytes) {
+
+        try {
+
+            return MessageDigest.getInstance("SHA-1").digest(bytes);
+        }
+        catch (NoSuchAlgorithmException e) {
+
+            // every JVM has to provide SHA-1
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] deflate(byte[] bytes) {
+
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        deflater.setInput(bytes);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2);
+        byte[] buffer = new byte[8192];
+        while ( !deflater.finished() ) out.write(buffer, 0, deflater.deflate(buffer));
+        deflater.end();
+        return out.toByteArray();
+    }
+
+    private static final class Key {
+
+        private final byte[] digest;
+        private final int hash;
+
+        Key(byte[] digest) {
+
+            this.digest = digest;
+            this.hash = Arrays.hashCode(digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key && Arrays.equals(this.digest, ((Key) obj).digest);
+        }
+    }
+
+    private static final class TextReference extends WeakReference<ArticleText> {
+
+        private final Key key;
+
+        TextReference(ArticleText text, Key key) {
+
+            super(text, collected);
+            this.key = key;
+        }
+    }
+}
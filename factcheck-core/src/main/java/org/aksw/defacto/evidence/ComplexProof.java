@@ -7,12 +7,30 @@ import org.aksw.defacto.model.DefactoModel;
 import weka.core.Instance;
 
 /**
+ * A fact found in a website. There are thousands of proofs for a fact, so the
+ * contexts are not copied out of the website text: a proof keeps the offsets
+ * of its match and cuts a context whenever it is read, only contexts set
+ * explicitly are kept. The tagged contexts and the feature vector are only
+ * allocated when they are used. Proofs are equal if they have the same
+ * labels and match in the same website, hashing never touches the text.
  * 
  * @author Daniel Gerber <dgerber@informatik.uni-leipzig.de>
  */
 public class ComplexProof {
 
-    private Instance instance = new Instance(AbstractFactFeatures.factFeatures.numAttributes());
+    private static final int TINY = 0;
+    private static final int SMALL = 1;
+    private static final int MEDIUM = 2;
+    private static final int LARGE = 3;
+
+    /**
+     * The number of characters left and right of the match in each context.
+     */
+    private static final int[] CONTEXT_LENGTHS = { 25, 50, 100, 150 };
+
+    private static final int NO_OFFSETS = Integer.MIN_VALUE;
+
+    private Instance instance;
     
     private Pattern pattern;
     private WebSite website;
@@ -26,17 +44,13 @@ public class ComplexProof {
 
     private double score = 0D;
 
-	private String smallContext;
-	private String taggedSmallContext;
-
-	private String mediumContext;
-	private String taggedMediumContext;
+    // the match in the website text, the contexts are cut around it
+    private int matchStart = NO_OFFSETS;
+    private int matchEnd = NO_OFFSETS;
 
-	private String largeContext;
-	private String taggedLargeContext;
-
-	private String tinyContext;
-	private String taggedTinyContext;
+    // contexts set explicitly, indexed by TINY to LARGE
+    private String[] contexts;
+    private String[] taggedContexts;
 
     /**
      * boa pattern found
@@ -51,8 +65,8 @@ public class ComplexProof {
     public ComplexProof(DefactoModel model, String firstLabel, String secondLabel, String occurrence, String normalizedOccurrence, WebSite site, Pattern boaPattern) {
         
         this.model                    = model;
-        this.firstLabel               = firstLabel;
-        this.secondLabel              = secondLabel;
+        this.firstLabel               = intern(firstLabel);
+        this.secondLabel              = intern(secondLabel);
         this.proofPhrase              = occurrence;
         this.normalizedProofPhrase    = normalizedOccurrence;
         this.website                  = site;
@@ -71,13 +85,21 @@ public class ComplexProof {
     public ComplexProof(DefactoModel model, String firstLabel, String secondLabel, String occurrence, String normalizedOccurrence, WebSite site) {
         
         this.model                    = model;
-        this.firstLabel               = firstLabel;
-        this.secondLabel              = secondLabel;
+        this.firstLabel               = intern(firstLabel);
+        this.secondLabel              = intern(secondLabel);
         this.proofPhrase              = occurrence;
         this.normalizedProofPhrase    = normalizedOccurrence;
         this.website                  = site;
     }
 
+    /**
+     * The labels are shared by all proofs of a fact.
+     */
+    private static String intern(String label) {
+
+        return label == null ? null : label.intern();
+    }
+
     public String getLanguage(){
     	
     	return this.website.getLanguage();
@@ -92,9 +114,10 @@ public class ComplexProof {
         return this.proofPhrase;
     }
 
-    public Instance getFeatures() {
+    public synchronized Instance getFeatures() {
 
-        return instance;
+        if ( this.instance == null ) this.instance = new Instance(AbstractFactFeatures.factFeatures.numAttributes());
+        return this.instance;
     }
 
     public WebSite getWebSite() {
@@ -137,106 +160,182 @@ public class ComplexProof {
         return this.score;
     }
 
+	/**
+	 * Sets the match the contexts are cut around. The context extends a fixed
+	 * number of characters to both sides and ends one character early if it
+	 * hits the end of the text.
+	 * 
+	 * @param matchStart the index of the match in the website text, -1 if it was not found
+	 * @param matchEnd the index after the match
+	 */
+	public void setContextOffsets(int matchStart, int matchEnd) {
+
+		this.matchStart = matchStart;
+		this.matchEnd = matchEnd;
+	}
+
 	public void setSmallContext(String smallContext) {
 		
-		this.smallContext = smallContext; 
+		this.setContext(SMALL, smallContext); 
 	}
 
 	public void setMediumContext(String mediumCntext) {
 		
-		this.mediumContext = mediumCntext;
+		this.setContext(MEDIUM, mediumCntext);
 	}
 
 	public void setLargeContext(String largeContext) {
 
-		this.largeContext = largeContext;
+		this.setContext(LARGE, largeContext);
 	}
 
 	/**
 	 * @return the taggedSmallContext
 	 */
 	public String getTaggedSmallContext() {
-		return taggedSmallContext;
+		return getTaggedContext(SMALL);
 	}
 
 	/**
 	 * @param taggedSmallContext the taggedSmallContext to set
 	 */
 	public void setTaggedSmallContext(String taggedSmallContext) {
-		this.taggedSmallContext = taggedSmallContext;
+		setTaggedContext(SMALL, taggedSmallContext);
 	}
 
 	/**
 	 * @return the taggedMediumContext
 	 */
 	public String getTaggedMediumContext() {
-		return taggedMediumContext;
+		return getTaggedContext(MEDIUM);
 	}
 
 	/**
 	 * @param taggedMediumContext the taggedMediumContext to set
 	 */
 	public void setTaggedMediumContext(String taggedMediumContext) {
-		this.taggedMediumContext = taggedMediumContext;
+		setTaggedContext(MEDIUM, taggedMediumContext);
 	}
 
 	/**
 	 * @return the taggedLargeContext
 	 */
 	public String getTaggedLargeContext() {
-		return taggedLargeContext;
+		return getTaggedContext(LARGE);
 	}
 
 	/**
 	 * @param taggedLargeContext the taggedLargeContext to set
 	 */
 	public void setTaggedLargeContext(String taggedLargeContext) {
-		this.taggedLargeContext = taggedLargeContext;
+		setTaggedContext(LARGE, taggedLargeContext);
 	}
 
 	/**
 	 * @return the smallContext
 	 */
 	public String getSmallContext() {
-		return smallContext;
+		return getContext(SMALL);
 	}
 
 	/**
 	 * @return the mediumContext
 	 */
 	public String getMediumContext() {
-		return mediumContext;
+		return getContext(MEDIUM);
 	}
 
 	/**
 	 * @return the largeContext
 	 */
 	public String getLargeContext() {
-		return largeContext;
+		return getContext(LARGE);
 	}
 
 	public void setTinyContext(String tinyContext) {
 		
-		this.tinyContext = tinyContext;
+		this.setContext(TINY, tinyContext);
 	}
 	
 	public String getTinyContext() {
 		
-		return this.tinyContext;
+		return this.getContext(TINY);
 	}
 
 	/**
 	 * @return the taggedTinyContext
 	 */
 	public String getTaggedTinyContext() {
-		return taggedTinyContext;
+		return getTaggedContext(TINY);
 	}
 
 	/**
 	 * @param taggedTinyContext the taggedTinyContext to set
 	 */
 	public void setTaggedTinyContext(String taggedTinyContext) {
-		this.taggedTinyContext = taggedTinyContext;
+		setTaggedContext(TINY, taggedTinyContext);
+	}
+
+	private synchronized void setContext(int size, String context) {
+
+		if ( this.contexts == null ) this.contexts = new String[CONTEXT_LENGTHS.length];
+		this.contexts[size] = context;
+	}
+
+	private String getContext(int size) {
+
+		String context = this.getExplicitContext(size);
+		if ( context != null || this.matchStart == NO_OFFSETS || this.website == null ) return context;
+		return this.cutContext(size, this.website.getText());
+	}
+
+	/**
+	 * Cuts the context from the text of the website which the caller decoded
+	 * already. Loops over many proofs of a website decode it once and pass it
+	 * to every proof, see {@link Evidence#getComplexProofsByWebSite()}.
+	 * 
+	 * @param size the index of tiny, small, medium or large, see {@link org.aksw.defacto.search.time.YearStatistics#getContext(String)}
+	 * @param websiteText the text of {@link #getWebSite()}
+	 * @return the context set explicitly or cut from the text, null if there is neither
+	 */
+	public String getContext(int size, String websiteText) {
+
+		String context = this.getExplicitContext(size);
+		if ( context != null || this.matchStart == NO_OFFSETS ) return context;
+		return this.cutContext(size, websiteText);
+	}
+
+	private synchronized String getExplicitContext(int size) {
+
+		return this.contexts == null ? null : this.contexts[size];
+	}
+
+	private String cutContext(int size, String text) {
+
+		int leftIndex = Math.max(0, this.matchStart - CONTEXT_LENGTHS[size]);
+		int rightIndex = this.matchEnd + CONTEXT_LENGTHS[size];
+		if ( rightIndex > text.length() ) rightIndex = text.length() - 1;
+
+		// not kept, the caller decides how long the copy lives
+		return text.substring(leftIndex, rightIndex);
+	}
+
+	private synchronized void setTaggedContext(int size, String taggedContext) {
+
+		if ( this.taggedContexts == null ) this.taggedContexts = new String[CONTEXT_LENGTHS.length];
+		this.taggedContexts[size] = taggedContext;
+	}
+
+	private synchronized String getTaggedContext(int size) {
+
+		return this.taggedContexts == null ? null : this.taggedContexts[size];
+	}
+
+	/**
+	 * Without offsets the tiny context set explicitly identifies the match.
+	 */
+	private synchronized String getExplicitTinyContext() {
+		return this.matchStart != NO_OFFSETS || this.contexts == null ? null : this.contexts[TINY];
 	}
 
 	/* (non-Javadoc)
@@ -246,9 +345,11 @@ public class ComplexProof {
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
-		result = prime * result + ((tinyContext == null) ? 0 : tinyContext.hashCode());
 		result = prime * result + ((website == null) ? 0 : website.hashCode());
-		result = prime * result + ((website == null) ? 0 : proofPhrase.hashCode());
+		result = prime * result + matchStart;
+		result = prime * result + matchEnd;
+		result = prime * result + ((firstLabel == null) ? 0 : firstLabel.hashCode());
+		result = prime * result + ((secondLabel == null) ? 0 : secondLabel.hashCode());
 		return result;
 	}
 
@@ -264,16 +365,19 @@ public class ComplexProof {
 		if (getClass() != obj.getClass())
 			return false;
 		ComplexProof other = (ComplexProof) obj;
-		if (tinyContext == null) {
-			if (other.tinyContext != null)
-				return false;
-		} else if (!tinyContext.equals(other.tinyContext))
+		if (matchStart != other.matchStart || matchEnd != other.matchEnd)
 			return false;
 		if (website == null) {
 			if (other.website != null)
 				return false;
 		} else if (!website.equals(other.website))
 			return false;
-		return true;
+		// the labels are interned
+		if (firstLabel != other.firstLabel || secondLabel != other.secondLabel)
+			return false;
+		String tinyContext = getExplicitTinyContext();
+		if (tinyContext == null)
+			return other.getExplicitTinyContext() == null;
+		return tinyContext.equals(other.getExplicitTinyContext());
 	}
 }
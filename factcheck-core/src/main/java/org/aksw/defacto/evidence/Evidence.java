@@ -8,7 +8,6 @@ import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 
 import org.aksw.defacto.Defacto;
@@ -21,11 +20,15 @@ import org.aksw.defacto.search.time.DomainSpecificTimePeriodSearcher;
 import org.aksw.defacto.search.time.GlobalTimePeriodSearcher;
 import org.aksw.defacto.search.time.OccurrenceTimePeriodSearcher;
 import org.aksw.defacto.search.time.PatternTimePeriodSearcher;
-import org.aksw.defacto.search.time.TimeUtil;
+import org.aksw.defacto.search.time.TimeDistribution;
+import org.aksw.defacto.search.time.TimeStatistics;
+import org.aksw.defacto.search.time.YearHistogram;
+import org.aksw.defacto.search.time.YearStatistics;
 import org.dice.factcheck.topicterms.Word;
 import org.aksw.defacto.util.VectorUtil;
 import org.apache.commons.lang3.ArrayUtils;
 
+import weka.core.Attribute;
 import weka.core.Instance;
 
 /**
@@ -40,10 +43,10 @@ public class Evidence {
 //    private Map<Pattern,Double[][]> similarityMatricies = new LinkedHashMap<Pattern,Double[][]>();
     public Double[][] similarityMatrix                 = null;
     
-    public Map<String,Long> tinyContextYearOccurrences = new LinkedHashMap<String, Long>();
-    public Map<String,Long> smallContextYearOccurrences = new LinkedHashMap<String, Long>();
-    public Map<String,Long> mediumContextYearOccurrences = new LinkedHashMap<String, Long>();
-    public Map<String,Long> largeContextYearOccurrences = new LinkedHashMap<String, Long>();
+    public YearHistogram tinyContextYearOccurrences = new YearHistogram();
+    public YearHistogram smallContextYearOccurrences = new YearHistogram();
+    public YearHistogram mediumContextYearOccurrences = new YearHistogram();
+    public YearHistogram largeContextYearOccurrences = new YearHistogram();
     
     private Instance features;
     private Long totalHitCount;
@@ -51,7 +54,9 @@ public class Evidence {
     
     private Set<ComplexProof> complexProofs;
     private Map<String,List<Pattern>> boaPatterns = new HashMap<String,List<Pattern>>();
-	public List<Match> dates = new ArrayList<Match>();
+	// the dates found in the contexts as year << 32 | distance to the fact
+	private long[] dates = new long[0];
+	private int numberOfDates = 0;
 	public DefactoTimePeriod defactoTimePeriod;
 	public PatternTimePeriodSearcher tsSearcher = new PatternTimePeriodSearcher();
 	
@@ -87,7 +92,7 @@ public class Evidence {
     /**
      * @return the factFeatures
      */
-    public Instance getFeatures() {
+    public synchronized Instance getFeatures() {
     
         if ( features == null ) {
 
@@ -99,6 +104,35 @@ public class Evidence {
         return features;
     }
 
+    /**
+     * Evidence features run concurrently and weka copies the values on every
+     * write, so all features need to write through these methods.
+     * 
+     * @param attribute
+     * @param value
+     */
+    public synchronized void setFeatureValue(Attribute attribute, double value) {
+
+        this.getFeatures().setValue(attribute, value);
+    }
+
+    /**
+     * @param attribute a nominal or string attribute
+     * @param value
+     */
+    public synchronized void setFeatureValue(Attribute attribute, String value) {
+
+        this.getFeatures().setValue(attribute, value);
+    }
+
+    /**
+     * @param attribute the attribute to reset to missing
+     */
+    public synchronized void setFeatureMissing(Attribute attribute) {
+
+        this.getFeatures().setMissing(attribute);
+    }
+
     /**
      * 
      * @param site
@@ -280,6 +314,24 @@ public class Evidence {
         return this.similarityMatrix;
     }
 
+    /**
+     * Groups the proofs by their website, so a loop over the proofs decodes
+     * every website text once, see {@link ComplexProof#getContext(int, String)}.
+     * 
+     * @return the proofs of every website with at least one proof
+     */
+    public synchronized Map<WebSite, List<ComplexProof>> getComplexProofsByWebSite() {
+
+        Map<WebSite, List<ComplexProof>> proofs = new LinkedHashMap<WebSite, List<ComplexProof>>();
+        for ( ComplexProof proof : this.complexProofs ) {
+
+            List<ComplexProof> websiteProofs = proofs.get(proof.getWebSite());
+            if ( websiteProofs == null ) proofs.put(proof.getWebSite(), websiteProofs = new ArrayList<ComplexProof>());
+            websiteProofs.add(proof);
+        }
+        return proofs;
+    }
+
     public List<ComplexProof> getComplexProofs(WebSite website) {
         
         List<ComplexProof> proofs = new ArrayList<ComplexProof>();
@@ -322,12 +374,28 @@ public class Evidence {
         return patterns;
     }
 
-	public void addDate(String match, int distance) {
+	/**
+	 * @param match a four digit year
+	 * @param distance the number of characters between the year and the fact
+	 */
+	public synchronized void addDate(String match, int distance) {
+		
+		if ( this.numberOfDates == this.dates.length ) this.dates = Arrays.copyOf(this.dates, Math.max(16, this.dates.length * 2));
+		this.dates[this.numberOfDates++] = ((long) Integer.parseInt(match) << 32) | (distance & 0xFFFFFFFFL);
+	}
+
+	public synchronized int getNumberOfDates() {
+		
+		return this.numberOfDates;
+	}
+
+	public synchronized Match getDate(int index) {
 		
-		this.dates.add(new Match(match, distance));
+		if ( index >= this.numberOfDates ) throw new IndexOutOfBoundsException("Date " + index + " of " + this.numberOfDates);
+		return new Match(String.valueOf((int) (this.dates[index] >> 32)), (int) this.dates[index]);
 	}
 	
-	public Map<String, Long> getPreferedContext(){
+	public YearHistogram getPreferedContext(){
 		
 		switch ( Defacto.DEFACTO_CONFIG.getStringSetting("settings", "context-size") ) {
 		
@@ -346,24 +414,32 @@ public class Evidence {
 	 */
 	public void calculateDefactoTimePeriod() {
 		
-		// this should get deleted some time soon
-		for ( Entry<String, Long> entry : this.getPreferedContext().entrySet()) {
-			for (int i = 0; i < entry.getValue(); i++ ) {
-				TimeUtil.allYearsAndTimePeriod.addValue(entry.getKey());
-			}
-		}
+		String contextSize = Defacto.DEFACTO_CONFIG.getStringSetting("settings", "context-size");
+		int context = YearStatistics.getContext(contextSize);
+		TimeStatistics.current().getYearOccurrences(context).merge(this.getPreferedContext());
 
-		DefactoTimePeriodSearcher searcher = null;
-		if ( Defacto.DEFACTO_CONFIG.getStringSetting("settings", "TIME_PERIOD_SEARCHER").equals("domain") ) searcher = new DomainSpecificTimePeriodSearcher();
-		else if  ( Defacto.DEFACTO_CONFIG.getStringSetting("settings", "TIME_PERIOD_SEARCHER").equals("global") ) searcher = new GlobalTimePeriodSearcher();
-		else if ( Defacto.DEFACTO_CONFIG.getStringSetting("settings", "TIME_PERIOD_SEARCHER").equals("occurrence") ) searcher = new OccurrenceTimePeriodSearcher();
-		else throw new RuntimeException("Not supported time period searcher: " + Defacto.DEFACTO_CONFIG.getStringSetting("settings", "global"));
+		DefactoTimePeriodSearcher searcher = getTimePeriodSearcher(Defacto.DEFACTO_CONFIG.getStringSetting("settings", "TIME_PERIOD_SEARCHER"));
+		// the searcher reads the configured context size only
+		TimeDistribution distribution = TimeDistribution.of(this, context);
 		
 		// from and to are equal
-		if ( this.model.getTimePeriod().isTimePoint() ) this.defactoTimePeriod = searcher.getTimePoint(this);
+		if ( this.model.getTimePeriod().isTimePoint() ) this.defactoTimePeriod = searcher.getTimePoint(distribution, context);
 		// time periods spans multiple years
-		else this.defactoTimePeriod = searcher.getTimePeriod(this);
+		else this.defactoTimePeriod = searcher.getTimePeriod(distribution, context, Defacto.DEFACTO_CONFIG.getStringSetting("settings", "periodSearchMethod"));
 		
 		if ( this.defactoTimePeriod == null ) this.defactoTimePeriod = new DefactoTimePeriod(0,0);
 	}
+	
+	/**
+	 * 
+	 * @param name domain, global or occurrence
+	 * @return
+	 */
+	public static DefactoTimePeriodSearcher getTimePeriodSearcher(String name) {
+		
+		if ( name.equals("domain") ) return new DomainSpecificTimePeriodSearcher();
+		else if  ( name.equals("global") ) return new GlobalTimePeriodSearcher();
+		else if ( name.equals("occurrence") ) return new OccurrenceTimePeriodSearcher();
+		else throw new RuntimeException("Not supported time period searcher: " + name);
+	}
 }
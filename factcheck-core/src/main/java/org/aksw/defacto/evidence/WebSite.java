@@ -10,24 +10,28 @@ import java.util.*;
 
 public class WebSite {
 
-    private String text = "";
+    private static final Word[] NO_TOPIC_TERMS = new Word[0];
+    private static final int[] NO_OCCURRENCES = new int[0];
+
+    private ArticleText text = ArticleText.EMPTY;
     private String title = "";
     private String url = "";
     private float pagerank = Defacto.DEFACTO_CONFIG.getIntegerSetting("evidence", "UNASSIGNED_PAGE_RANK");
     private double score = 0D;
     private MetaQuery query = null;
 
-    private Map<Word, Integer> topicTermsOccurrences = new LinkedHashMap<Word, Integer>();
+    // the topic terms and how often they occur, in the order they were set
+    private Word[] topicTerms = NO_TOPIC_TERMS;
+    private int[] topicTermOccurrences = NO_OCCURRENCES;
     private float rank;
     private boolean cached;
-    private Double topicMajorityWeb = 0D;
-    private Double topicMajoritySearch = 0D;
-    private Double pageRankScore = 0D;
-    private Double topicCoverageScore = 0D;
+    private double topicMajorityWeb = 0D;
+    private double topicMajoritySearch = 0D;
+    private double pageRankScore = 0D;
+    private double topicCoverageScore = 0D;
     private String annotatedSentences;
     private String language = "";
     private String predicate = "";
-    private String lowerCaseText = null;
     private String lowerCaseTitle = null;
 
     /**
@@ -44,15 +48,18 @@ public class WebSite {
 
         this.query = query;
         this.url = url;
-        this.language = language;
+        this.setLanguage(language);
     }
 
     /**
+     * Keeps the text in the {@link ArticleTextStore}, websites with the same
+     * text share it.
+     *
      * @param text
      */
     public void setText(String text) {
 
-        this.text = text;
+        this.text = ArticleTextStore.intern(text);
     }
 
     public void setTitle(String title) {
@@ -73,7 +80,7 @@ public class WebSite {
     }
 
     public void setPredicate(String predicate) {
-        this.predicate = predicate;
+        this.predicate = predicate == null ? null : predicate.intern();
     }
 
     /**
@@ -97,6 +104,14 @@ public class WebSite {
      */
     public String getText() {
 
+        return this.text == null ? null : this.text.toString();
+    }
+
+    /**
+     * @return the shared text, decoded only when its characters are read
+     */
+    public ArticleText getArticleText() {
+
         return this.text;
     }
 
@@ -105,10 +120,28 @@ public class WebSite {
      */
     public void setTopicTerms(String language, Collection<Word> topicTerms) {
 
-        String text = this.text.toLowerCase();
+        String text = this.getLowerCaseText();
+
+        for (Word topicTerm : topicTerms) {
 
-        for (Word topicTerm : topicTerms)
-            this.topicTermsOccurrences.put(topicTerm, StringUtils.countMatches(text, topicTerm.getWord().toLowerCase()));
+            int occurrences = StringUtils.countMatches(text, topicTerm.getWord().toLowerCase());
+            int index = this.indexOfTopicTerm(topicTerm);
+            if (index < 0) {
+
+                index = this.topicTerms.length;
+                this.topicTerms = Arrays.copyOf(this.topicTerms, index + 1);
+                this.topicTermOccurrences = Arrays.copyOf(this.topicTermOccurrences, index + 1);
+                this.topicTerms[index] = topicTerm;
+            }
+            this.topicTermOccurrences[index] = occurrences;
+        }
+    }
+
+    private int indexOfTopicTerm(Word topicTerm) {
+
+        for (int i = 0; i < this.topicTerms.length; i++)
+            if (this.topicTerms[i] == topicTerm) return i;
+        return -1;
     }
 
     /**
@@ -116,7 +149,9 @@ public class WebSite {
      */
     public List<Integer> getTopicTerms() {
 
-        return new ArrayList<Integer>(this.topicTermsOccurrences.values());
+        List<Integer> occurrences = new ArrayList<Integer>(this.topicTermOccurrences.length);
+        for (int occurrence : this.topicTermOccurrences) occurrences.add(occurrence);
+        return occurrences;
     }
 
     public void setPageRank(int pagerank) {
@@ -132,7 +167,7 @@ public class WebSite {
 
         StringBuilder builder = new StringBuilder();
         builder.append("WebSite [text.length=");
-        builder.append(text.length());
+        builder.append(text == null ? 0 : text.length());
         builder.append(", url=");
         builder.append(url);
         builder.append(", pagerank=");
@@ -140,7 +175,10 @@ public class WebSite {
         builder.append(", score=");
         builder.append(score);
         builder.append(", topicTermsOccurrences=");
-        builder.append(topicTermsOccurrences);
+        builder.append("{");
+        for (int i = 0; i < topicTerms.length; i++)
+            builder.append(i == 0 ? "" : ", ").append(topicTerms[i]).append("=").append(topicTermOccurrences[i]);
+        builder.append("}");
         builder.append("]");
         return builder.toString();
     }
@@ -173,9 +211,9 @@ public class WebSite {
     public List<Word> getOccurringTopicTerms() {
 
         List<Word> words = new ArrayList<Word>();
-        for (Map.Entry<Word, Integer> wordToOccurrence : this.topicTermsOccurrences.entrySet()) {
+        for (int i = 0; i < this.topicTerms.length; i++) {
 
-            if (wordToOccurrence.getValue() > 0) words.add(wordToOccurrence.getKey());
+            if (this.topicTermOccurrences[i] > 0) words.add(this.topicTerms[i]);
         }
         return words;
     }
@@ -242,37 +280,37 @@ public class WebSite {
         this.topicMajorityWeb = topicMajority;
     }
 
-    public Double getTopicMajorityWebFeature() {
+    public double getTopicMajorityWebFeature() {
 
         return this.topicMajorityWeb;
     }
 
-    public void setTopicMajoritySearchFeature(Double topicMajoritySearch) {
+    public void setTopicMajoritySearchFeature(double topicMajoritySearch) {
 
         this.topicMajoritySearch = topicMajoritySearch;
     }
 
-    public Double getTopicMajoritySearchFeature() {
+    public double getTopicMajoritySearchFeature() {
 
         return this.topicMajoritySearch;
     }
 
-    public void setPageRankScore(Double score) {
+    public void setPageRankScore(double score) {
 
         this.pageRankScore = score;
     }
 
-    public Double getPageRankScore() {
+    public double getPageRankScore() {
 
         return this.pageRankScore;
     }
 
-    public void setTopicCoverageScore(Double score) {
+    public void setTopicCoverageScore(double score) {
 
         this.topicCoverageScore = score;
     }
 
-    public Double getTopicCoverageScore() {
+    public double getTopicCoverageScore() {
 
         return this.topicCoverageScore;
     }
@@ -287,20 +325,24 @@ public class WebSite {
         this.annotatedSentences = annotatedSentences;
     }
 
+    /**
+     * @param language interned, there are only a few of them
+     */
     public void setLanguage(String language) {
 
-        this.language = language;
+        this.language = language == null ? null : language.intern();
     }
 
     public String getLanguage() {
         return this.language;
     }
 
+    /**
+     * @return the lower cased text, see {@link ArticleText#toLowerCase()}
+     */
     public String getLowerCaseText() {
 
-        if (this.lowerCaseText == null) this.lowerCaseText = this.text.toLowerCase();
-
-        return this.lowerCaseText;
+        return this.text.toLowerCase();
     }
 
     public String getLowerCaseTitle() {
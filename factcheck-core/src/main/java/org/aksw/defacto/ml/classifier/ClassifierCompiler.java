@@ -0,0 +1,131 @@
+package org.aksw.defacto.ml.classifier;
+
+import java.lang.reflect.Field;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import weka.classifiers.Classifier;
+import weka.classifiers.functions.SMO;
+import weka.classifiers.trees.J48;
+import weka.core.Instance;
+import weka.core.Instances;
+
+/**
+ * Turns loaded weka classifiers into {@link CompiledClassifier}s. J48 trees
+ * and binary SMOs with a linear or polynomial kernel are compiled to plain
+ * arrays, all other models (and models using options the compiled versions
+ * do not support) are scored by weka itself.
+ *
+ * Weka does not expose the trained models, so the compilers read the model
+ * fields reflectively. To make sure a weka update does not silently change
+ * the scores, every compiled model is compared with weka on a few probe
+ * vectors and replaced by weka if they differ. In the verification mode every
+ * single score is compared as well, see {@link VerifyingClassifier}.
+ */
+public class ClassifierCompiler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClassifierCompiler.class);
+
+    /**
+     * @param classifier a trained classifier
+     * @param header the header the classifier was trained on, see {@link ScoringSchema#getHeader()}
+     * @param verify compare every compiled score with the score of weka
+     * @return
+     */
+    public static CompiledClassifier compile(Classifier classifier, Instances header, boolean verify) {
+
+        WekaClassifier weka = new WekaClassifier(classifier, header);
+        String name = classifier.getClass().getSimpleName();
+
+        CompiledClassifier compiled;
+        try {
+
+            if ( classifier.getClass() == J48.class ) compiled = CompiledJ48.compile((J48) classifier, header);
+            else if ( classifier.getClass() == SMO.class ) compiled = CompiledSMO.compile((SMO) classifier, header);
+            else {
+
+                LOGGER.info("No compiled version of " + name + " available, scoring with weka");
+                return weka;
+            }
+
+            String mismatch = probe(compiled, weka, header);
+            if ( mismatch != null ) {
+
+                LOGGER.warn("Compiled " + name + " differs from weka for " + mismatch + ", scoring with weka");
+                return weka;
+            }
+        }
+        catch (Exception e) {
+
+            LOGGER.warn("Could not compile " + name + ", scoring with weka", e);
+            return weka;
+        }
+
+        LOGGER.info("Compiled " + name + (verify ? ", verifying every score against weka" : ""));
+        return verify ? new VerifyingClassifier(compiled, weka) : compiled;
+    }
+
+    /**
+     * Compares both classifiers on the all zero vector, the vector with every
+     * attribute missing and one vector per attribute with only this attribute
+     * set to 1.
+     *
+     * @return a description of the first vector both disagree on or null
+     */
+    private static String probe(CompiledClassifier compiled, WekaClassifier weka, Instances header) {
+
+        double[] zero = new double[header.numAttributes()];
+        zero[header.classIndex()] = Instance.missingValue();
+
+        double[] missing = new double[header.numAttributes()];
+        for ( int i = 0; i < missing.length; i++ ) missing[i] = Instance.missingValue();
+
+        if ( !matches(compiled, weka, zero, header) ) return "the zero vector";
+        if ( !matches(compiled, weka, missing, header) ) return "the missing vector";
+
+        for ( int i = 0; i < header.numAttributes(); i++ ) {
+
+            if ( i == header.classIndex() ) continue;
+            double[] unit = zero.clone();
+            unit[i] = 1D;
+            if ( !matches(compiled, weka, unit, header) ) return header.attribute(i).name() + " = 1";
+        }
+        return null;
+    }
+
+    private static boolean matches(CompiledClassifier compiled, WekaClassifier weka, double[] values, Instances header) {
+
+        for ( int classValue = 0; classValue < header.numClasses(); classValue++ )
+            if ( !VerifyingClassifier.matches(weka.getProbability(values, classValue), compiled.getProbability(values, classValue)) )
+                return false;
+
+        return true;
+    }
+
+    /**
+     * Reads a (non public) field of a weka object.
+     *
+     * @param object
+     * @param name the name of the field, declared in the class of the object or one of its super classes
+     * @return the value of the field
+     * @throws ReflectiveOperationException if there is no such field
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T getField(Object object, String name) throws ReflectiveOperationException {
+
+        for ( Class<?> clazz = object.getClass(); clazz != null; clazz = clazz.getSuperclass() ) {
+
+            try {
+
+                Field field = clazz.getDeclaredField(name);
+                field.setAccessible(true);
+                return (T) field.get(object);
+            }
+            catch (NoSuchFieldException e) {
+                // declared in a super class
+            }
+        }
+        throw new NoSuchFieldException(object.getClass().getName() + "." + name);
+    }
+}
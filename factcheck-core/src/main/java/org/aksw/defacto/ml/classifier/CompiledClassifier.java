@@ -0,0 +1,17 @@
+package org.aksw.defacto.ml.classifier;
+
+/**
+ * A trained classifier which scores plain attribute vectors. The vectors are
+ * laid out like the header of a {@link ScoringSchema}, nominal values are
+ * given by their index and missing values are NaN. Implementations have to be
+ * thread safe.
+ */
+public interface CompiledClassifier {
+
+    /**
+     * @param values the attribute values, must not be changed
+     * @param classValue the index of the class value
+     * @return the probability the classifier assigns to the class value
+     */
+    double getProbability(double[] values, int classValue);
+}
@@ -0,0 +1,168 @@
+package org.aksw.defacto.ml.classifier;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import weka.classifiers.trees.J48;
+import weka.classifiers.trees.j48.C45Split;
+import weka.classifiers.trees.j48.ClassifierSplitModel;
+import weka.classifiers.trees.j48.Distribution;
+import weka.classifiers.trees.j48.NoSplit;
+import weka.core.Instances;
+
+/**
+ * A J48 tree flattened into arrays. Every node is an index, the children of
+ * a node are stored next to each other. Leaves keep the class probabilities
+ * of the tree, empty children get the probabilities of the split they belong
+ * to (like weka does). Missing values are handled like in C4.5: every non
+ * empty child is visited and weighted with its share of the training data.
+ *
+ * Only the C4.5 splits of a tree without laplace smoothing are supported,
+ * {@link #compile(J48, Instances)} throws an exception for everything else.
+ */
+public class CompiledJ48 implements CompiledClassifier {
+
+    /** see weka.core.Utils#SMALL */
+    private static final double SMALL = 1e-6;
+
+    private final int[] attribute;
+    private final boolean[] nominal;
+    private final double[] splitPoint;
+    private final int[] firstChild;
+    private final int[] numberOfChildren;
+    private final boolean[] empty;
+    private final double[][] missingWeights;
+    private final double[][] probabilities;
+
+    private CompiledJ48(List<Node> nodes) {
+
+        int size = nodes.size();
+        this.attribute = new int[size];
+        this.nominal = new boolean[size];
+        this.splitPoint = new double[size];
+        this.firstChild = new int[size];
+        this.numberOfChildren = new int[size];
+        this.empty = new boolean[size];
+        this.missingWeights = new double[size][];
+        this.probabilities = new double[size][];
+
+        for ( int i = 0; i < size; i++ ) {
+
+            Node node = nodes.get(i);
+            this.attribute[i] = node.attribute;
+            this.nominal[i] = node.nominal;
+            this.splitPoint[i] = node.splitPoint;
+            this.firstChild[i] = node.firstChild;
+            this.numberOfChildren[i] = node.numberOfChildren;
+            this.empty[i] = node.empty;
+            this.missingWeights[i] = node.missingWeights;
+            this.probabilities[i] = node.probabilities;
+        }
+    }
+
+    /**
+     * @param tree a trained J48 tree
+     * @param header the header the tree was trained on
+     * @return
+     * @throws Exception if the tree uses features which can not be compiled
+     */
+    public static CompiledJ48 compile(J48 tree, Instances header) throws Exception {
+
+        if ( tree.getUseLaplace() ) throw new UnsupportedOperationException("Laplace smoothing is not supported");
+
+        List<Node> nodes = new ArrayList<Node>();
+        nodes.add(new Node());
+        compile(ClassifierCompiler.getField(tree, "m_root"), nodes, 0, header);
+
+        return new CompiledJ48(nodes);
+    }
+
+    private static void compile(Object classifierTree, List<Node> nodes, int index, Instances header) throws Exception {
+
+        Node node = nodes.get(index);
+        ClassifierSplitModel model = ClassifierCompiler.getField(classifierTree, "m_localModel");
+        int numClasses = header.numClasses();
+
+        if ( (Boolean) ClassifierCompiler.getField(classifierTree, "m_isLeaf") ) {
+
+            if ( !(model instanceof NoSplit) ) throw new UnsupportedOperationException("Unsupported leaf model: " + model.getClass());
+
+            node.probabilities = new double[numClasses];
+            for ( int i = 0; i < numClasses; i++ ) node.probabilities[i] = model.classProb(i, null, -1);
+            return;
+        }
+        if ( model.getClass() != C45Split.class ) throw new UnsupportedOperationException("Unsupported split model: " + model.getClass());
+
+        Object[] sons = ClassifierCompiler.getField(classifierTree, "m_sons");
+        Distribution distribution = model.distribution();
+
+        node.attribute = ClassifierCompiler.<Integer>getField(model, "m_attIndex");
+        node.nominal = header.attribute(node.attribute).isNominal();
+        node.splitPoint = ClassifierCompiler.<Double>getField(model, "m_splitPoint");
+        node.firstChild = nodes.size();
+        node.numberOfChildren = sons.length;
+        node.missingWeights = new double[sons.length];
+        for ( int i = 0; i < sons.length; i++ ) {
+
+            node.missingWeights[i] = distribution.perBag(i) / distribution.total();
+            nodes.add(new Node());
+        }
+
+        for ( int i = 0; i < sons.length; i++ ) {
+
+            Node son = nodes.get(node.firstChild + i);
+            if ( (Boolean) ClassifierCompiler.getField(sons[i], "m_isEmpty") ) {
+
+                son.empty = true;
+                son.probabilities = new double[numClasses];
+                for ( int j = 0; j < numClasses; j++ ) son.probabilities[j] = model.classProb(j, null, i);
+            }
+            else compile(sons[i], nodes, node.firstChild + i, header);
+        }
+    }
+
+    @Override
+    public double getProbability(double[] values, int classValue) {
+        return getProbability(0, values, classValue, 1D);
+    }
+
+    private double getProbability(int node, double[] values, int classValue, double weight) {
+
+        if ( this.attribute[node] < 0 ) return weight * this.probabilities[node][classValue];
+
+        double value = values[this.attribute[node]];
+        if ( Double.isNaN(value) ) {
+
+            double probability = 0D;
+            for ( int i = 0; i < this.numberOfChildren[node]; i++ ) {
+
+                int child = this.firstChild[node] + i;
+                if ( !this.empty[child] )
+                    probability += getProbability(child, values, classValue, this.missingWeights[node][i] * weight);
+            }
+            return probability;
+        }
+
+        int subset = this.nominal[node] ? (int) value : value - this.splitPoint[node] < SMALL ? 0 : 1;
+        return getProbability(this.firstChild[node] + subset, values, classValue, weight);
+    }
+
+    /**
+     * @return the number of nodes (including leaves) of the tree
+     */
+    public int size() {
+        return attribute.length;
+    }
+
+    private static class Node {
+
+        private int attribute = -1;
+        private boolean nominal;
+        private double splitPoint;
+        private int firstChild;
+        private int numberOfChildren;
+        private boolean empty;
+        private double[] missingWeights;
+        private double[] probabilities;
+    }
+}
@@ -0,0 +1,376 @@
+package org.aksw.defacto.ml.classifier;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import weka.classifiers.functions.Logistic;
+import weka.classifiers.functions.SMO;
+import weka.classifiers.functions.supportVector.Kernel;
+import weka.classifiers.functions.supportVector.PolyKernel;
+import weka.classifiers.functions.supportVector.SMOset;
+import weka.core.Instance;
+import weka.core.Instances;
+import weka.filters.Filter;
+
+/**
+ * A binary SMO with a linear or polynomial kernel compiled to plain arrays.
+ *
+ * SMO filters every instance (replace missing values, nominal to binary,
+ * normalization) before it is scored. All of these filters map every input
+ * attribute on its own, so they are compiled by running probe vectors through
+ * the filters once: the filtered vector of an input is the filtered vector of
+ * the all zero input plus the change every single attribute causes. For a
+ * linear kernel this folds the filters and the weight vector into one
+ * coefficient (or one lookup table for nominal attributes) per attribute, for
+ * a polynomial kernel the filtered vector is built in a per thread buffer and
+ * compared with the support vectors. The logistic model fitted on top of the
+ * SVM output is a sigmoid of an affine function of the output and compiled to
+ * two numbers.
+ */
+public class CompiledSMO implements CompiledClassifier {
+
+    private static final int NUMERIC = 1;
+    private static final int NOMINAL = 2;
+
+    // the filters, as change of the filtered vector per attribute
+    private final int[] types;
+    private final double[] filteredBase;
+    private final int[][] unitIndexes;
+    private final double[][] unitDeltas;
+    private final int[][][] valueIndexes;
+    private final double[][][] valueDeltas;
+    private final int[][] missingIndexes;
+    private final double[][] missingDeltas;
+
+    // linear kernel: everything folded into the attributes
+    private final boolean linear;
+    private final double bias;
+    private final double[] coefficients;
+    private final double[][] valueTerms;
+    private final double[] missingTerms;
+
+    // polynomial kernel
+    private final double[][] supportVectors;
+    private final double[] supportVectorWeights;
+    private final double exponent;
+    private final boolean lowerOrder;
+    private final double b;
+    private final ThreadLocal<double[]> buffers;
+
+    // logistic model
+    private final boolean logistic;
+    private final double logisticIntercept;
+    private final double logisticSlope;
+
+    private CompiledSMO(SMO smo, Instances header) throws Exception {
+
+        if ( header.numClasses() != 2 ) throw new UnsupportedOperationException("Only binary SMOs are supported");
+
+        Object[][] machines = ClassifierCompiler.getField(smo, "m_classifiers");
+        Object machine = machines[0][1];
+        double[] alpha = ClassifierCompiler.getField(machine, "m_alpha");
+        double[] sparseWeights = ClassifierCompiler.getField(machine, "m_sparseWeights");
+        if ( alpha == null && sparseWeights == null ) throw new UnsupportedOperationException("SMO without a trained machine");
+        this.b = ClassifierCompiler.<Double>getField(machine, "m_b");
+
+        // compile the filters by probing
+        Preprocessing preprocessing = new Preprocessing(smo, header);
+        double[] zero = new double[header.numAttributes()];
+        zero[header.classIndex()] = Instance.missingValue();
+        this.filteredBase = preprocessing.filter(zero);
+        this.filteredBase[preprocessing.classIndex] = 0D;
+
+        int numAttributes = header.numAttributes();
+        this.types = new int[numAttributes];
+        this.unitIndexes = new int[numAttributes][];
+        this.unitDeltas = new double[numAttributes][];
+        this.valueIndexes = new int[numAttributes][][];
+        this.valueDeltas = new double[numAttributes][][];
+        this.missingIndexes = new int[numAttributes][];
+        this.missingDeltas = new double[numAttributes][];
+
+        for ( int attribute = 0; attribute < numAttributes; attribute++ ) {
+
+            if ( attribute == header.classIndex() ) continue;
+
+            double[] probe = zero.clone();
+            probe[attribute] = Instance.missingValue();
+            double[] missing = delta(preprocessing.filter(probe), preprocessing.classIndex);
+            this.missingIndexes[attribute] = indexes(missing);
+            this.missingDeltas[attribute] = values(missing, this.missingIndexes[attribute]);
+
+            if ( header.attribute(attribute).isNumeric() ) {
+
+                this.types[attribute] = NUMERIC;
+                probe[attribute] = 1D;
+                double[] unit = delta(preprocessing.filter(probe), preprocessing.classIndex);
+                probe[attribute] = 2D;
+                double[] twice = delta(preprocessing.filter(probe), preprocessing.classIndex);
+                for ( int i = 0; i < unit.length; i++ )
+                    if ( !VerifyingClassifier.matches(2 * unit[i], twice[i]) )
+                        throw new UnsupportedOperationException("Filter is not linear for attribute: " + header.attribute(attribute).name());
+
+                this.unitIndexes[attribute] = indexes(unit);
+                this.unitDeltas[attribute] = values(unit, this.unitIndexes[attribute]);
+            }
+            else if ( header.attribute(attribute).isNominal() ) {
+
+                this.types[attribute] = NOMINAL;
+                int numValues = header.attribute(attribute).numValues();
+                this.valueIndexes[attribute] = new int[numValues][];
+                this.valueDeltas[attribute] = new double[numValues][];
+                for ( int value = 0; value < numValues; value++ ) {
+
+                    probe[attribute] = value;
+                    double[] delta = delta(preprocessing.filter(probe), preprocessing.classIndex);
+                    this.valueIndexes[attribute][value] = indexes(delta);
+                    this.valueDeltas[attribute][value] = values(delta, this.valueIndexes[attribute][value]);
+                }
+            }
+            else throw new UnsupportedOperationException("Unsupported attribute type: " + header.attribute(attribute));
+        }
+
+        this.linear = ClassifierCompiler.<Boolean>getField(smo, "m_KernelIsLinear");
+        if ( this.linear ) {
+
+            // the weight vector of the filtered attributes
+            double[] weights = new double[this.filteredBase.length];
+            if ( sparseWeights != null ) {
+
+                int[] sparseIndices = ClassifierCompiler.getField(machine, "m_sparseIndices");
+                for ( int i = 0; i < sparseIndices.length; i++ ) weights[sparseIndices[i]] = sparseWeights[i];
+            }
+            else {
+
+                double[] denseWeights = ClassifierCompiler.getField(machine, "m_weights");
+                System.arraycopy(denseWeights, 0, weights, 0, Math.min(denseWeights.length, weights.length));
+            }
+            weights[preprocessing.classIndex] = 0D;
+
+            double bias = -this.b;
+            for ( int i = 0; i < weights.length; i++ ) bias += weights[i] * this.filteredBase[i];
+            this.bias = bias;
+
+            this.coefficients = new double[numAttributes];
+            this.missingTerms = new double[numAttributes];
+            this.valueTerms = new double[numAttributes][];
+            for ( int attribute = 0; attribute < numAttributes; attribute++ ) {
+
+                if ( this.types[attribute] == 0 ) continue;
+                this.missingTerms[attribute] = dot(weights, this.missingIndexes[attribute], this.missingDeltas[attribute]);
+                if ( this.types[attribute] == NUMERIC )
+                    this.coefficients[attribute] = dot(weights, this.unitIndexes[attribute], this.unitDeltas[attribute]);
+                else {
+
+                    this.valueTerms[attribute] = new double[this.valueIndexes[attribute].length];
+                    for ( int value = 0; value < this.valueTerms[attribute].length; value++ )
+                        this.valueTerms[attribute][value] = dot(weights, this.valueIndexes[attribute][value], this.valueDeltas[attribute][value]);
+                }
+            }
+
+            this.supportVectors = null;
+            this.supportVectorWeights = null;
+            this.exponent = 1D;
+            this.lowerOrder = false;
+            this.buffers = null;
+        }
+        else {
+
+            Kernel kernel = ClassifierCompiler.getField(machine, "m_kernel");
+            if ( kernel == null || kernel.getClass() != PolyKernel.class )
+                throw new UnsupportedOperationException("Unsupported kernel: " + (kernel == null ? null : kernel.getClass()));
+
+            this.exponent = ((PolyKernel) kernel).getExponent();
+            this.lowerOrder = ((PolyKernel) kernel).getUseLowerOrder();
+
+            Instances data = ClassifierCompiler.getField(machine, "m_data");
+            if ( data == null ) data = ClassifierCompiler.getField(kernel, "m_data");
+            double[] classes = ClassifierCompiler.getField(machine, "m_class");
+            SMOset supportVectorSet = ClassifierCompiler.getField(machine, "m_supportVectors");
+
+            List<double[]> vectors = new ArrayList<double[]>();
+            List<Double> vectorWeights = new ArrayList<Double>();
+            for ( int i = supportVectorSet.getNext(-1); i != -1; i = supportVectorSet.getNext(i) ) {
+
+                double[] vector = data.instance(i).toDoubleArray();
+                vector[data.classIndex()] = 0D;
+                vectors.add(vector);
+                vectorWeights.add(classes[i] * alpha[i]);
+            }
+            this.supportVectors = vectors.toArray(new double[vectors.size()][]);
+            this.supportVectorWeights = new double[vectorWeights.size()];
+            for ( int i = 0; i < this.supportVectorWeights.length; i++ ) this.supportVectorWeights[i] = vectorWeights.get(i);
+
+            final int length = this.filteredBase.length;
+            this.buffers = ThreadLocal.withInitial(() -> new double[length]);
+
+            this.bias = 0D;
+            this.coefficients = null;
+            this.valueTerms = null;
+            this.missingTerms = null;
+        }
+
+        this.logistic = ClassifierCompiler.<Boolean>getField(smo, "m_fitLogisticModels");
+        if ( this.logistic ) {
+
+            Logistic model = ClassifierCompiler.getField(machine, "m_logistic");
+            double logitAtZero = logit(model, 0D);
+            this.logisticIntercept = logitAtZero;
+            this.logisticSlope = (logit(model, 1D) - logit(model, -1D)) / 2D;
+        }
+        else {
+
+            this.logisticIntercept = 0D;
+            this.logisticSlope = 0D;
+        }
+    }
+
+    /**
+     * @param smo a trained SMO
+     * @param header the header the SMO was trained on
+     * @return
+     * @throws Exception if the SMO uses features which can not be compiled
+     */
+    public static CompiledSMO compile(SMO smo, Instances header) throws Exception {
+        return new CompiledSMO(smo, header);
+    }
+
+    @Override
+    public double getProbability(double[] values, int classValue) {
+
+        double output = this.linear ? linearOutput(values) : polynomialOutput(values);
+        double firstClass = this.logistic
+                ? 1D / (1D + Math.exp(-(this.logisticIntercept + this.logisticSlope * output)))
+                : output > 0 ? 0D : 1D;
+
+        return classValue == 0 ? firstClass : 1D - firstClass;
+    }
+
+    private double linearOutput(double[] values) {
+
+        double output = this.bias;
+        for ( int attribute = 0; attribute < values.length; attribute++ ) {
+
+            double value = values[attribute];
+            switch ( this.types[attribute] ) {
+
+                case NUMERIC : output += Double.isNaN(value) ? this.missingTerms[attribute] : this.coefficients[attribute] * value; break;
+                case NOMINAL : output += Double.isNaN(value) ? this.missingTerms[attribute] : this.valueTerms[attribute][(int) value]; break;
+                default: break;
+            }
+        }
+        return output;
+    }
+
+    private double polynomialOutput(double[] values) {
+
+        double[] filtered = this.buffers.get();
+        System.arraycopy(this.filteredBase, 0, filtered, 0, filtered.length);
+
+        for ( int attribute = 0; attribute < values.length; attribute++ ) {
+
+            double value = values[attribute];
+            if ( this.types[attribute] == 0 ) continue;
+            if ( Double.isNaN(value) ) add(filtered, this.missingIndexes[attribute], this.missingDeltas[attribute], 1D);
+            else if ( this.types[attribute] == NUMERIC ) add(filtered, this.unitIndexes[attribute], this.unitDeltas[attribute], value);
+            else add(filtered, this.valueIndexes[attribute][(int) value], this.valueDeltas[attribute][(int) value], 1D);
+        }
+
+        double output = 0D;
+        for ( int i = 0; i < this.supportVectors.length; i++ ) {
+
+            double[] supportVector = this.supportVectors[i];
+            double kernel = 0D;
+            for ( int j = 0; j < filtered.length; j++ ) kernel += filtered[j] * supportVector[j];
+            if ( this.lowerOrder ) kernel += 1D;
+            if ( this.exponent != 1D ) kernel = Math.pow(kernel, this.exponent);
+
+            output += this.supportVectorWeights[i] * kernel;
+        }
+        return output - this.b;
+    }
+
+    private static void add(double[] filtered, int[] indexes, double[] deltas, double factor) {
+
+        for ( int i = 0; i < indexes.length; i++ ) filtered[indexes[i]] += factor * deltas[i];
+    }
+
+    private static double dot(double[] weights, int[] indexes, double[] deltas) {
+
+        double result = 0D;
+        for ( int i = 0; i < indexes.length; i++ ) result += weights[indexes[i]] * deltas[i];
+        return result;
+    }
+
+    /**
+     * the log odds of the first class for the given SVM output, weka passes
+     * the output and a missing class to the logistic model
+     */
+    private static double logit(Logistic model, double output) throws Exception {
+
+        double[] distribution = model.distributionForInstance(new Instance(1, new double[]{ output, Instance.missingValue() }));
+        return Math.log(distribution[0] / distribution[1]);
+    }
+
+    private double[] delta(double[] filtered, int classIndex) {
+
+        for ( int i = 0; i < filtered.length; i++ ) filtered[i] -= this.filteredBase[i];
+        filtered[classIndex] = 0D;
+        return filtered;
+    }
+
+    private static int[] indexes(double[] delta) {
+
+        int size = 0;
+        for ( double value : delta ) if ( value != 0D || Double.isNaN(value) ) size++;
+
+        int[] indexes = new int[size];
+        for ( int i = 0, j = 0; i < delta.length; i++ )
+            if ( delta[i] != 0D || Double.isNaN(delta[i]) ) indexes[j++] = i;
+
+        return indexes;
+    }
+
+    private static double[] values(double[] delta, int[] indexes) {
+
+        double[] values = new double[indexes.length];
+        for ( int i = 0; i < indexes.length; i++ ) values[i] = delta[indexes[i]];
+        return values;
+    }
+
+    /**
+     * The filter chain of SMO#distributionForInstance, only used while compiling.
+     */
+    private static class Preprocessing {
+
+        private final Instances header;
+        private final Filter missing;
+        private final Filter nominalToBinary;
+        private final Filter normalization;
+        private int classIndex;
+
+        private Preprocessing(SMO smo, Instances header) throws Exception {
+
+            this.header = header;
+            this.missing = ClassifierCompiler.<Boolean>getField(smo, "m_checksTurnedOff") ? null : ClassifierCompiler.<Filter>getField(smo, "m_Missing");
+            this.nominalToBinary = ClassifierCompiler.<Boolean>getField(smo, "m_onlyNumeric") ? null : ClassifierCompiler.<Filter>getField(smo, "m_NominalToBinary");
+            this.normalization = ClassifierCompiler.getField(smo, "m_Filter");
+        }
+
+        private double[] filter(double[] values) throws Exception {
+
+            Instance instance = new Instance(1D, values.clone());
+            instance.setDataset(this.header);
+
+            for ( Filter filter : new Filter[]{ this.missing, this.nominalToBinary, this.normalization } ) {
+
+                if ( filter == null ) continue;
+                filter.input(instance);
+                filter.batchFinished();
+                instance = filter.output();
+            }
+            this.classIndex = instance.classIndex();
+            return instance.toDoubleArray();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.aksw.defacto.ml.classifier;
+
+import weka.core.Attribute;
+import weka.core.Instance;
+import weka.core.Instances;
+
+/**
+ * The mapping from a feature vector (of a proof or an evidence) to the input
+ * of a classifier. The classifiers are trained without the string (debugging)
+ * attributes, so the schema keeps an empty header without them and for every
+ * attribute of this header the index of the attribute with the same name in
+ * the feature vector. It is computed once at startup and shared by all
+ * scorers, the header is never changed afterwards.
+ */
+public class ScoringSchema {
+
+    private final Instances header;
+    private final int[] projection;
+
+    /**
+     * @param featureHeader the header of the feature vectors, e.g. {@link org.aksw.defacto.ml.feature.fact.AbstractFactFeatures#factFeatures}
+     */
+    public ScoringSchema(Instances featureHeader) {
+
+        this.header = new Instances(featureHeader, 0);
+        this.header.setClassIndex(this.header.numAttributes() - 1);
+        this.header.deleteStringAttributes();
+
+        this.projection = new int[this.header.numAttributes()];
+        for ( int i = 0; i < this.projection.length; i++ ) {
+
+            Attribute feature = featureHeader.attribute(this.header.attribute(i).name());
+            // the class is unknown at scoring time
+            this.projection[i] = i == this.header.classIndex() || feature == null ? -1 : feature.index();
+        }
+    }
+
+    /**
+     * @return the header the classifier input is bound to, must not be changed
+     */
+    public Instances getHeader() {
+        return header;
+    }
+
+    /**
+     * @return the length of the classifier input
+     */
+    public int numAttributes() {
+        return projection.length;
+    }
+
+    /**
+     * Writes the classifier input of a single feature vector to the given
+     * array, missing values (and the class) are NaN.
+     *
+     * @param features the feature vector
+     * @param values an array of length {@link #numAttributes()}
+     */
+    public void project(Instance features, double[] values) {
+
+        for ( int i = 0; i < values.length; i++ )
+            values[i] = this.projection[i] < 0 ? Instance.missingValue() : features.value(this.projection[i]);
+    }
+}
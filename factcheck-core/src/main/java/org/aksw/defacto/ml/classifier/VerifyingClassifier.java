@@ -0,0 +1,64 @@
+package org.aksw.defacto.ml.classifier;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs a compiled classifier and its weka reference side by side and logs
+ * every result which differs by more than {@link #TOLERANCE}. The weka result
+ * is returned, so switching the verification on never changes any score.
+ */
+public class VerifyingClassifier implements CompiledClassifier {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(VerifyingClassifier.class);
+
+    /** compiled models sum up in a different order than weka */
+    public static final double TOLERANCE = 1E-9;
+
+    private final CompiledClassifier compiled;
+    private final WekaClassifier reference;
+    private final AtomicLong checks = new AtomicLong();
+    private final AtomicLong mismatches = new AtomicLong();
+
+    public VerifyingClassifier(CompiledClassifier compiled, WekaClassifier reference) {
+
+        this.compiled = compiled;
+        this.reference = reference;
+    }
+
+    @Override
+    public double getProbability(double[] values, int classValue) {
+
+        double expected = this.reference.getProbability(values, classValue);
+        double actual = this.compiled.getProbability(values, classValue);
+        this.checks.incrementAndGet();
+
+        if ( !matches(expected, actual) ) {
+
+            LOGGER.warn("Compiled " + this.compiled.getClass().getSimpleName() + " returned " + actual
+                    + " instead of " + expected + " (" + this.mismatches.incrementAndGet() + " of "
+                    + this.checks.get() + " checks failed)");
+        }
+        return expected;
+    }
+
+    /**
+     * @param expected
+     * @param actual
+     * @return true if both are NaN or differ by at most {@link #TOLERANCE}
+     */
+    public static boolean matches(double expected, double actual) {
+
+        if ( Double.isNaN(expected) || Double.isNaN(actual) ) return Double.isNaN(expected) && Double.isNaN(actual);
+        return Math.abs(expected - actual) <= TOLERANCE;
+    }
+
+    /**
+     * @return how many results differed from weka so far
+     */
+    public long getMismatches() {
+        return mismatches.get();
+    }
+}
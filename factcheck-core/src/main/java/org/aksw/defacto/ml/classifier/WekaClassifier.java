@@ -0,0 +1,49 @@
+package org.aksw.defacto.ml.classifier;
+
+import weka.classifiers.Classifier;
+import weka.core.Instance;
+import weka.core.Instances;
+
+/**
+ * Scores the attribute vectors with the weka classifier itself. Used for all
+ * model types which can not be compiled and as the reference in the
+ * verification mode.
+ */
+public class WekaClassifier implements CompiledClassifier {
+
+    private final Classifier classifier;
+    private final Instances header;
+
+    /**
+     * @param classifier
+     * @param header the header the classifier was trained on
+     */
+    public WekaClassifier(Classifier classifier, Instances header) {
+
+        this.classifier = classifier;
+        this.header = header;
+    }
+
+    /**
+     * Weka classifiers (e.g. the filters of SMO) are not thread safe.
+     */
+    @Override
+    public synchronized double getProbability(double[] values, int classValue) {
+
+        Instance instance = new Instance(1D, values.clone());
+        instance.setDataset(this.header);
+
+        try {
+
+            return this.classifier.distributionForInstance(instance)[classValue];
+        }
+        catch (Exception e) {
+
+            throw new RuntimeException("Could not classify instance: " + instance, e);
+        }
+    }
+
+    public Classifier getClassifier() {
+        return classifier;
+    }
+}
@@ -0,0 +1,154 @@
+package org.aksw.defacto.ml.feature;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Runs a set of {@link ScheduledFeature}s concurrently while respecting their
+ * data dependencies. The dependency graph is built once from the declared
+ * inputs and outputs: a feature waits for all features producing one of its
+ * inputs and starts as soon as the last of them is done. Inputs nobody in the
+ * set produces have to be available when the features are scheduled.
+ */
+public class FeatureScheduler<F extends ScheduledFeature> {
+
+    private final List<F> order;
+    private final Map<F, List<F>> dependencies;
+    private final Set<String> externalInputs;
+
+    /**
+     * @param features
+     * @throws IllegalArgumentException if two features write the same output
+     *          or the features depend on each other in a cycle
+     */
+    public FeatureScheduler(Collection<F> features) {
+
+        Map<String, F> producers = new HashMap<String, F>();
+        for ( F feature : features ) {
+            for ( String output : feature.getOutputs() ) {
+
+                F other = producers.put(output, feature);
+                if ( other != null && other != feature )
+                    throw new IllegalArgumentException(output + " is written by " + name(other) + " and " + name(feature));
+            }
+        }
+
+        this.dependencies = new HashMap<F, List<F>>();
+        this.externalInputs = new HashSet<String>();
+        for ( F feature : features ) {
+
+            Set<F> producersOfInputs = new LinkedHashSet<F>();
+            for ( String input : feature.getInputs() ) {
+
+                F producer = producers.get(input);
+                if ( producer == null ) this.externalInputs.add(input);
+                else if ( producer != feature ) producersOfInputs.add(producer);
+            }
+            this.dependencies.put(feature, new ArrayList<F>(producersOfInputs));
+        }
+
+        this.order = new ArrayList<F>(features.size());
+        Set<F> visiting = new HashSet<F>();
+        Set<F> visited = new HashSet<F>();
+        for ( F feature : features ) visit(feature, visiting, visited);
+    }
+
+    /**
+     * depth first topological sort, every feature comes after its dependencies
+     */
+    private void visit(F feature, Set<F> visiting, Set<F> visited) {
+
+        if ( visited.contains(feature) ) return;
+        if ( !visiting.add(feature) ) throw new IllegalArgumentException("Cyclic feature dependency at " + name(feature));
+
+        for ( F dependency : this.dependencies.get(feature) ) visit(dependency, visiting, visited);
+
+        visiting.remove(feature);
+        visited.add(feature);
+        this.order.add(feature);
+    }
+
+    /**
+     * @param available the inputs available from outside
+     * @return the features which can run with the given inputs, i.e. all whose
+     *          inputs are available or produced by other runnable features
+     */
+    public List<F> getRunnable(Set<String> available) {
+
+        List<F> runnable = new ArrayList<F>();
+        Set<String> produced = new HashSet<String>(available);
+        // the order guarantees that the producers have been checked before
+        for ( F feature : this.order ) {
+
+            boolean ready = true;
+            for ( String input : feature.getInputs() ) {
+
+                if ( !produced.contains(input) && !feature.getOutputs().contains(input) ) {
+
+                    ready = false;
+                    break;
+                }
+            }
+            if ( ready ) {
+
+                runnable.add(feature);
+                produced.addAll(feature.getOutputs());
+            }
+        }
+        return runnable;
+    }
+
+    /**
+     * @return the features in dependency order
+     */
+    public List<F> getFeatures() {
+        return Collections.unmodifiableList(order);
+    }
+
+    /**
+     * Starts all features on the executor. A feature which fails lets all
+     * features depending on it fail, the others run anyway.
+     *
+     * @param available the inputs available from outside
+     * @param extractor runs a single feature
+     * @param executor
+     * @return completes when all features are done, exceptionally if one failed
+     * @throws IllegalStateException if an input is neither available nor produced by a feature
+     */
+    public CompletableFuture<Void> schedule(Set<String> available, final Consumer<F> extractor, Executor executor) {
+
+        for ( String input : this.externalInputs )
+            if ( !available.contains(input) ) throw new IllegalStateException("Input " + input + " is not available");
+
+        Map<F, CompletableFuture<Void>> futures = new HashMap<F, CompletableFuture<Void>>();
+        for ( final F feature : this.order ) {
+
+            List<F> dependencies = this.dependencies.get(feature);
+            CompletableFuture<?>[] inputs = new CompletableFuture<?>[dependencies.size()];
+            for ( int i = 0; i < inputs.length; i++ ) inputs[i] = futures.get(dependencies.get(i));
+
+            futures.put(feature, CompletableFuture.allOf(inputs).thenRunAsync(new Runnable() {
+
+                @Override
+                public void run() {
+                    extractor.accept(feature);
+                }
+            }, executor));
+        }
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[futures.size()]));
+    }
+
+    private static String name(Object feature) {
+        return feature.getClass().getSimpleName();
+    }
+}
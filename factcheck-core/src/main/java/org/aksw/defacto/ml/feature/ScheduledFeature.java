@@ -0,0 +1,22 @@
+package org.aksw.defacto.ml.feature;
+
+import java.util.Set;
+
+/**
+ * A feature which declares what it reads and what it writes, so the
+ * {@link FeatureScheduler} can run it as soon as its inputs are available.
+ * Inputs and outputs are plain names, a feature depends on every other
+ * feature which lists one of its inputs as an output.
+ */
+public interface ScheduledFeature {
+
+    /**
+     * @return the names of the values this feature reads
+     */
+    public Set<String> getInputs();
+
+    /**
+     * @return the names of the values this feature writes
+     */
+    public Set<String> getOutputs();
+}
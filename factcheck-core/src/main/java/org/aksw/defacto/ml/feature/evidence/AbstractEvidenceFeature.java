@@ -1,5 +1,10 @@
 package org.aksw.defacto.ml.feature.evidence;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
 import weka.core.Attribute;
 import weka.core.FastVector;
 import weka.core.Instances;
@@ -42,6 +47,25 @@ public abstract class AbstractEvidenceFeature implements EvidenceFeature {
     	createInstances();
     }
     
+    /**
+     * @param inputs the stages of the evidence read by a feature
+     * @return
+     */
+    protected static Set<String> inputs(String... inputs) {
+        return Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(inputs)));
+    }
+
+    /**
+     * @param attributes the attributes written by a feature
+     * @return
+     */
+    protected static Set<String> outputs(Attribute... attributes) {
+
+        Set<String> names = new HashSet<String>();
+        for ( Attribute attribute : attributes ) names.add(attribute.name());
+        return Collections.unmodifiableSet(names);
+    }
+
     public static void createInstances(){
     	
     	attributes = new FastVector();
@@ -1,12 +1,49 @@
 package org.aksw.defacto.ml.feature.evidence;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
 import org.aksw.defacto.evidence.Evidence;
+import org.aksw.defacto.ml.feature.ScheduledFeature;
 
 /**
- * 
+ * Evidence features read some of the stages of the evidence and write weka
+ * attributes. The outputs are the names of the written attributes.
+ *
  * @author Daniel Gerber <dgerber@informatik.uni-leipzig.de>
  */
-public interface EvidenceFeature {
-    
+public interface EvidenceFeature extends ScheduledFeature {
+
+    /**
+     * the fact itself, known before anything is crawled
+     */
+    public static final String MODEL = "model";
+    /**
+     * the crawled websites, hit counts, topic terms and the similarity matrix
+     */
+    public static final String SEARCH_RESULTS = "search_results";
+    /**
+     * the scores of the proofs and websites assigned by the fact scorer
+     */
+    public static final String PROOF_SCORES = "proof_scores";
+
+    public static final Set<String> ALL_INPUTS = Collections.unmodifiableSet(
+            new HashSet<String>(Arrays.asList(MODEL, SEARCH_RESULTS, PROOF_SCORES)));
+
     public void extractFeature(Evidence evidence);
+
+    /**
+     * Features which do not declare their inputs wait for everything.
+     */
+    @Override
+    public default Set<String> getInputs() {
+        return ALL_INPUTS;
+    }
+
+    @Override
+    public default Set<String> getOutputs() {
+        return Collections.emptySet();
+    }
 }
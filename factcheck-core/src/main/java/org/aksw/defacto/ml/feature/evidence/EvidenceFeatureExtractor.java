@@ -1,10 +1,22 @@
 package org.aksw.defacto.ml.feature.evidence;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import org.aksw.defacto.Defacto;
 import org.aksw.defacto.evidence.Evidence;
+import org.aksw.defacto.ml.feature.FeatureScheduler;
 import org.aksw.defacto.ml.feature.evidence.impl.DomainRangeCheckFeature;
 import org.aksw.defacto.ml.feature.evidence.impl.GoodnessFeature;
 import org.aksw.defacto.ml.feature.evidence.impl.NameFeature;
@@ -14,17 +26,30 @@ import org.aksw.defacto.ml.feature.evidence.impl.TopicCoverageFeature;
 import org.aksw.defacto.ml.feature.evidence.impl.TopicMajoritySearchFeature;
 import org.aksw.defacto.ml.feature.evidence.impl.TopicMajorityWebFeature;
 import org.aksw.defacto.ml.feature.evidence.impl.TotalHitCountFeature;
-import org.aksw.defacto.ml.feature.fact.FactFeatureExtraction;
-import org.aksw.defacto.util.TimeUtil;
+import org.aksw.defacto.model.DefactoModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import weka.core.Attribute;
+import weka.core.Instance;
 
 /**
- * 
+ * Runs the evidence features on a {@link FeatureScheduler}. Features which
+ * only need the model can be started with {@link #startModelFeatures(DefactoModel)}
+ * before the evidence is crawled, all others run concurrently once the fact
+ * scorer is done. A feature which fails is logged and leaves its outputs
+ * missing, the fact is checked with the other features.
+ *
  * @author Daniel Gerber <dgerber@informatik.uni-leipzig.de>
  */
 public class EvidenceFeatureExtractor {
 
-    public static Set<EvidenceFeature> features = new HashSet<EvidenceFeature>();
-    
+    private static final Logger LOGGER = LoggerFactory.getLogger(EvidenceFeatureExtractor.class);
+
+    private static ExecutorService executor;
+
+    public static Set<EvidenceFeature> features = new LinkedHashSet<EvidenceFeature>();
+
     static {
 
     	EvidenceFeatureExtractor.features.add(new DomainRangeCheckFeature());
@@ -37,19 +62,162 @@ public class EvidenceFeatureExtractor {
         EvidenceFeatureExtractor.features.add(new ProofFeature());
         EvidenceFeatureExtractor.features.add(new NameFeature());
     }
-    
+
+    /**
+     * The features of the model which are computed while the evidence is
+     * crawled. They are written to a placeholder evidence and copied to the
+     * crawled evidence later.
+     */
+    public static class ModelFeatures {
+
+        private final Evidence placeholder;
+        private final List<EvidenceFeature> features;
+        private final CompletableFuture<Void> done;
+
+        private ModelFeatures(Evidence placeholder, List<EvidenceFeature> features, CompletableFuture<Void> done) {
+
+            this.placeholder = placeholder;
+            this.features = features;
+            this.done = done;
+        }
+    }
+
+    /**
+     * Starts all features which only need the model in the background.
+     *
+     * @param model
+     * @return the running features, to be passed to {@link #extractFeatureForEvidence(Evidence, ModelFeatures)}
+     */
+    public ModelFeatures startModelFeatures(DefactoModel model) {
+
+        List<EvidenceFeature> modelFeatures = new FeatureScheduler<EvidenceFeature>(features)
+                .getRunnable(Collections.singleton(EvidenceFeature.MODEL));
+
+        Evidence placeholder = new Evidence(model);
+        return new ModelFeatures(placeholder, modelFeatures, schedule(modelFeatures,
+                Collections.singleton(EvidenceFeature.MODEL), placeholder));
+    }
+
     /**
-     * 
+     *
      * @param evidence
      */
     public void extractFeatureForEvidence(Evidence evidence) {
 
+        this.extractFeatureForEvidence(evidence, null);
+    }
+
+    /**
+     * Waits for the model features, copies their values and runs the remaining
+     * features.
+     *
+     * @param evidence the crawled and scored evidence
+     * @param started the features started for the model of the evidence or null
+     */
+    public void extractFeatureForEvidence(Evidence evidence, ModelFeatures started) {
+
+        Set<String> available = new HashSet<String>(EvidenceFeature.ALL_INPUTS);
+        List<EvidenceFeature> remaining = new ArrayList<EvidenceFeature>(features);
+        if ( started != null ) {
+
+            join(started.done);
+            for ( EvidenceFeature feature : started.features ) {
+
+                copyOutputs(feature, started.placeholder, evidence);
+                available.addAll(feature.getOutputs());
+            }
+            remaining.removeAll(started.features);
+        }
+
         // score the collected evidence with every feature extractor defined
-        for ( EvidenceFeature feature : EvidenceFeatureExtractor.features ) 
-            feature.extractFeature(evidence);
-        
+        join(schedule(remaining, available, evidence));
+
         // we only need to add the feature vector to the weka instances object if we plan to write the training file
         if ( Defacto.DEFACTO_CONFIG.getBooleanSetting("evidence", "OVERWRITE_EVIDENCE_TRAINING_FILE") )
             AbstractEvidenceFeature.provenance.add(evidence.getFeatures());
     }
+
+    private static CompletableFuture<Void> schedule(List<EvidenceFeature> features, Set<String> available, final Evidence evidence) {
+
+        return new FeatureScheduler<EvidenceFeature>(features).schedule(available, new Consumer<EvidenceFeature>() {
+
+            @Override
+            public void accept(EvidenceFeature feature) {
+
+                try {
+
+                    feature.extractFeature(evidence);
+                }
+                catch (RuntimeException e) {
+
+                    LOGGER.error(feature.getClass().getSimpleName() + " failed for " + evidence.getModel() + ", its outputs stay missing", e);
+                    setMissing(feature, evidence);
+                }
+            }
+        }, getExecutor());
+    }
+
+    private static void copyOutputs(EvidenceFeature feature, Evidence from, Evidence to) {
+
+        Instance values = from.getFeatures();
+        for ( String output : feature.getOutputs() ) {
+
+            Attribute attribute = AbstractEvidenceFeature.provenance.attribute(output);
+            if ( attribute == null || values.isMissing(attribute) ) continue;
+
+            if ( attribute.isNumeric() ) to.setFeatureValue(attribute, values.value(attribute));
+            else to.setFeatureValue(attribute, values.stringValue(attribute));
+        }
+    }
+
+    /**
+     * the classifier handles missing values, a half written output would be worse
+     */
+    private static void setMissing(EvidenceFeature feature, Evidence evidence) {
+
+        for ( String output : feature.getOutputs() ) {
+
+            Attribute attribute = AbstractEvidenceFeature.provenance.attribute(output);
+            if ( attribute != null ) evidence.setFeatureMissing(attribute);
+        }
+    }
+
+    private static void join(CompletableFuture<Void> future) {
+
+        try {
+
+            future.join();
+        }
+        catch (CompletionException e) {
+
+            if ( e.getCause() instanceof RuntimeException ) throw (RuntimeException) e.getCause();
+            throw new RuntimeException("Evidence feature extraction failed", e.getCause());
+        }
+    }
+
+    /**
+     * The pool is shared by all facts. The model features block on lookups,
+     * so by default there is a thread for every feature.
+     */
+    private static synchronized ExecutorService getExecutor() {
+
+        if ( executor == null ) {
+
+            int threads = Defacto.DEFACTO_CONFIG.getIntegerSetting("evidence", "FEATURE_EXTRACTION_THREADS");
+            if ( threads < 1 ) threads = features.size();
+
+            final AtomicInteger counter = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+
+                @Override
+                public Thread newThread(Runnable runnable) {
+
+                    Thread thread = new Thread(runnable, "evidence-feature-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return executor;
+    }
 }
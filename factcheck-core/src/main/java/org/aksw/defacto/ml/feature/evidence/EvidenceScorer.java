@@ -5,13 +5,14 @@ import java.io.File;
 import org.aksw.defacto.Defacto;
 import org.aksw.defacto.config.DefactoConfig;
 import org.aksw.defacto.evidence.Evidence;
+import org.aksw.defacto.ml.classifier.CompiledClassifier;
+import org.aksw.defacto.ml.classifier.ScoringSchema;
+import org.aksw.defacto.ml.classifier.WekaClassifier;
 import org.aksw.defacto.ml.feature.fact.FactScorer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import weka.classifiers.Classifier;
-import weka.core.Instance;
-import weka.core.Instances;
 
 /**
  * @author Daniel Gerber <dgerber@informatik.uni-leipzig.de>
@@ -24,7 +25,8 @@ public class EvidenceScorer implements Scorer {
 //    private String pathToEvaluation     = "resources/classifier/evidence/" + Defacto.DEFACTO_CONFIG.getStringSetting("evidence", "EVIDENCE_CLASSIFIER_TYPE") + ".eval.model";
 //    private String pathToTrainingData   = Defacto.DEFACTO_CONFIG.getStringSetting("evidence", "EVIDENCE_TRAINING_DATA_FILENAME");
 
-    private Classifier classifier;
+    private CompiledClassifier classifier;
+    private ScoringSchema schema;
 
     /**
      *
@@ -36,7 +38,8 @@ public class EvidenceScorer implements Scorer {
         if (new File(pathToClassifier).exists()) {
 
             LOGGER.info("Loading machine learning model: " + Defacto.DEFACTO_CONFIG.getStringSetting("evidence", "EVIDENCE_CLASSIFIER_TYPE"));
-            this.classifier = this.loadClassifier();
+            this.schema = new ScoringSchema(AbstractEvidenceFeature.provenance);
+            this.classifier = new WekaClassifier(this.loadClassifier(), this.schema.getHeader());
         } else {
             throw new RuntimeException("No classifier at: " + pathToClassifier);
             //logger.info("Train classifier: " + Defacto.DEFACTO_CONFIG.getStringSetting("evidence", "EVIDENCE_CLASSIFIER_TYPE"));
@@ -46,7 +49,18 @@ public class EvidenceScorer implements Scorer {
 
     public EvidenceScorer(Classifier classifier) {
 
+        this.schema = new ScoringSchema(AbstractEvidenceFeature.provenance);
+        this.classifier = new WekaClassifier(classifier, this.schema.getHeader());
+    }
+
+    /**
+     * @param classifier the (compiled) evidence classifier
+     * @param schema the projection of the evidence features to the classifier input
+     */
+    public EvidenceScorer(CompiledClassifier classifier, ScoringSchema schema) {
+
         this.classifier = classifier;
+        this.schema = schema;
     }
 
     /**
@@ -130,18 +144,13 @@ public class EvidenceScorer implements Scorer {
 
         try {
 
-            Instances withoutName = new Instances(AbstractEvidenceFeature.provenance);
-            withoutName.setClassIndex(withoutName.numAttributes() - 1);
-            withoutName.deleteStringAttributes();
-
-            Instance newInstance = new Instance(evidence.getFeatures());
-            newInstance.deleteAttributeAt(1);
-            newInstance.setDataset(withoutName);
+            double[] values = new double[this.schema.numAttributes()];
+            this.schema.project(evidence.getFeatures(), values);
 
             // this gives us the probability distribution for an input triple
             // [0.33, 0.66] means it's 33% likely to be true and 66% likely to be false
             // we are only interested in the true value
-            evidence.setDeFactoScore(this.classifier.distributionForInstance(newInstance)[0]);
+            evidence.setDeFactoScore(this.classifier.getProbability(values, 0));
         } catch (Exception e) {
 
             e.printStackTrace();
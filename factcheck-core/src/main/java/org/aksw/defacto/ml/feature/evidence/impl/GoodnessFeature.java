@@ -3,88 +3,70 @@
  */
 package org.aksw.defacto.ml.feature.evidence.impl;
 
-import org.aksw.defacto.Constants;
-import org.aksw.defacto.Defacto;
-import org.aksw.defacto.config.DefactoConfig;
-import org.aksw.defacto.evidence.ComplexProof;
-import org.aksw.defacto.evidence.Evidence;
-import org.aksw.defacto.ml.feature.evidence.AbstractEvidenceFeature;
-import org.aksw.sparql.metrics.DatabaseBackedSPARQLEndpointMetrics;
-import org.dllearner.core.owl.Individual;
-import org.dllearner.core.owl.ObjectProperty;
-import org.dllearner.kb.sparql.SparqlEndpoint;
-import org.ini4j.Ini;
-import org.ini4j.InvalidFileFormatException;
-
 import java.io.File;
 import java.io.IOException;
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.SQLException;
+import java.util.Set;
+
+import org.aksw.defacto.evidence.Evidence;
+import org.aksw.defacto.ml.feature.evidence.AbstractEvidenceFeature;
+import org.aksw.defacto.ontology.GoodnessStore;
+import org.aksw.defacto.ontology.OntologyIndex;
+import org.aksw.defacto.ontology.TypeIndex;
 
 /**
+ * The goodness (PMI of the predicate and the subject and object types, as in
+ * the DL-Learner sparql metrics) of the fact, looked up in the precomputed
+ * {@link GoodnessStore}.
+ * 
  * @author Daniel Gerber <dgerber@informatik.uni-leipzig.de>
  *
  */
 public class GoodnessFeature extends AbstractEvidenceFeature {
-
-    private static DatabaseBackedSPARQLEndpointMetrics metric = null;
-	private static SparqlEndpoint endpoint = SparqlEndpoint.getEndpointDBpedia();
 	
-	static {
-		
-		try {
-			if ( Defacto.DEFACTO_CONFIG  == null )
-				Defacto.DEFACTO_CONFIG = new DefactoConfig(new Ini(new File(Constants.RESOURCE_PATH + "defacto.ini")));
+    private static final Set<String> INPUTS = inputs(MODEL);
+    private static final Set<String> OUTPUTS = outputs(AbstractEvidenceFeature.GOODNESS);
 
-			Class.forName("com.mysql.jdbc.Driver");
-			
-			String dbHost = Defacto.DEFACTO_CONFIG.getStringSetting("mysql", "DBHOST");
-			String dbPort = Defacto.DEFACTO_CONFIG.getStringSetting("mysql", "PORT");
-			String database = Defacto.DEFACTO_CONFIG.getStringSetting("mysql", "DATABASE");
-			String dbUser = Defacto.DEFACTO_CONFIG.getStringSetting("mysql", "DBUSER");
-            String pw = Defacto.DEFACTO_CONFIG.getStringSetting("mysql", "PASSWORD");
+    @Override
+    public Set<String> getInputs() {
+        return INPUTS;
+    }
+
+    @Override
+    public Set<String> getOutputs() {
+        return OUTPUTS;
+    }
 
-            Connection conn = DriverManager.getConnection("jdbc:mysql://" + dbHost + ":" + dbPort + "/" + database + "?" + "user=" + dbUser + "&password=" + pw);
-			metric = new DatabaseBackedSPARQLEndpointMetrics(endpoint, "pmi-cache", conn);
-		} catch (ClassNotFoundException e1) {
-			// TODO Auto-generated catch block
-			e1.printStackTrace();
-		} catch (SQLException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		} catch (InvalidFileFormatException e) {
-			e.printStackTrace();
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
-	}
-	
     @Override
     public void extractFeature(Evidence evidence) {
     	
     	String subject = evidence.getModel().getDBpediaSubjectUri();
     	String object = evidence.getModel().getDBpediaObjectUri();
     	
+    	GoodnessStore store = GoodnessStore.getInstance();
+    	OntologyIndex ontology = OntologyIndex.getInstance();
+    	
     	double goodness = -1;
-    	if ( subject != null && object != null  ) {
+    	if ( subject != null && object != null && store != null && ontology != null ) {
     		
-    		goodness = metric.getGoodness(
-    				new Individual(subject), new ObjectProperty(evidence.getModel().getPropertyUri()), new Individual(object));
+    		// the store is built from the asserted types, so no super classes here
+    		TypeIndex types = ontology.getTypeIndex();
+    		goodness = store.getGoodness(
+    				types.getTypes(subject), evidence.getModel().getPropertyUri(), types.getTypes(object));
     		
-    		evidence.getFeatures().setValue(AbstractEvidenceFeature.GOODNESS, goodness);
+    		evidence.setFeatureValue(AbstractEvidenceFeature.GOODNESS, goodness);
     	}
 
     }
     
     
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
 		
-    	ObjectProperty property = new ObjectProperty("http://dbpedia.org/ontology/author");
-		Individual subject = new Individual("http://dbpedia.org/resource/The_Da_Vinci_Code");
-		Individual object = new Individual("http://dbpedia.org/resource/Dan_Brown");
+    	TypeIndex types = TypeIndex.open(new File(args[0]));
+    	GoodnessStore store = GoodnessStore.load(new File(args[1]));
+		String subject = "http://dbpedia.org/resource/The_Da_Vinci_Code";
+		String object = "http://dbpedia.org/resource/Dan_Brown";
 		
-		System.out.println(metric.getGoodness(subject, property, object));
-		System.out.println(metric.getGoodness(subject, new ObjectProperty("http://dbpedia.org/ontology/writer"), object));
+		System.out.println(store.getGoodness(types.getTypes(subject), "http://dbpedia.org/ontology/author", types.getTypes(object)));
+		System.out.println(store.getGoodness(types.getTypes(subject), "http://dbpedia.org/ontology/writer", types.getTypes(object)));
 	}
-}
\ No newline at end of file
+}
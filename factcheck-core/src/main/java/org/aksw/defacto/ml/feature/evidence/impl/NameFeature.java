@@ -1,5 +1,7 @@
 package org.aksw.defacto.ml.feature.evidence.impl;
 
+import java.util.Set;
+
 import org.aksw.defacto.evidence.Evidence;
 import org.aksw.defacto.ml.feature.evidence.AbstractEvidenceFeature;
 import org.aksw.defacto.ml.feature.fact.AbstractFactFeatures;
@@ -10,13 +12,26 @@ import org.aksw.defacto.ml.feature.fact.AbstractFactFeatures;
  */
 public class NameFeature extends AbstractEvidenceFeature {
 
+    private static final Set<String> INPUTS = inputs(MODEL);
+    private static final Set<String> OUTPUTS = outputs(AbstractEvidenceFeature.MODEL_NAME, AbstractEvidenceFeature.PROPERTY_NAME);
+
+    @Override
+    public Set<String> getInputs() {
+        return INPUTS;
+    }
+
+    @Override
+    public Set<String> getOutputs() {
+        return OUTPUTS;
+    }
+
     @Override
     public void extractFeature(Evidence evidence) {
 
-        evidence.getFeatures().setValue(AbstractEvidenceFeature.MODEL_NAME, evidence.getModel().getName());
+        evidence.setFeatureValue(AbstractEvidenceFeature.MODEL_NAME, evidence.getModel().getName());
         String uri = evidence.getModel().getPropertyUri().replace("http://dbpedia.org/ontology/", "");
     	if ( uri.equals("office") )
     	    uri = "leaderName";
-    	evidence.getFeatures().setValue(AbstractEvidenceFeature.PROPERTY_NAME, uri);
+    	evidence.setFeatureValue(AbstractEvidenceFeature.PROPERTY_NAME, uri);
     }
 }
@@ -2,6 +2,7 @@ package org.aksw.defacto.ml.feature.evidence.impl;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.aksw.defacto.Defacto;
 import org.aksw.defacto.boa.Pattern;
@@ -15,6 +16,19 @@ import org.aksw.defacto.ml.feature.evidence.AbstractEvidenceFeature;
  */
 public class PageRankFeature extends AbstractEvidenceFeature {
 
+    private static final Set<String> INPUTS = inputs(SEARCH_RESULTS, PROOF_SCORES);
+    private static final Set<String> OUTPUTS = outputs(AbstractEvidenceFeature.PAGE_RANK_MAX, AbstractEvidenceFeature.PAGE_RANK_SUM);
+
+    @Override
+    public Set<String> getInputs() {
+        return INPUTS;
+    }
+
+    @Override
+    public Set<String> getOutputs() {
+        return OUTPUTS;
+    }
+
     @Override
     public void extractFeature(Evidence evidence) {
 
@@ -52,15 +66,15 @@ public class PageRankFeature extends AbstractEvidenceFeature {
             }
         }
         
-        evidence.getFeatures().setValue(AbstractEvidenceFeature.PAGE_RANK_MAX, maxScore);
-        evidence.getFeatures().setValue(AbstractEvidenceFeature.PAGE_RANK_SUM, sumScore);
+        evidence.setFeatureValue(AbstractEvidenceFeature.PAGE_RANK_MAX, maxScore);
+        evidence.setFeatureValue(AbstractEvidenceFeature.PAGE_RANK_SUM, sumScore);
         
 //        Double numberOfConfirmingWebsitesAverage = (double) pageRankSumConfirming / (double) numberOfConfirmingWebsites;
-//        evidence.getFeatures().setValue(AbstractFeature.PAGE_RANK_CONFIRMING_FEATURE, 
+//        evidence.setFeatureValue(AbstractFeature.PAGE_RANK_CONFIRMING_FEATURE, 
 //                !numberOfConfirmingWebsitesAverage.isNaN() && !numberOfConfirmingWebsitesAverage.isInfinite() ? numberOfConfirmingWebsitesAverage : 0D);
 //        
 //        Double numberOfNonConfirmingWebsitesAverage = (double) pageRankSumNonConfirming / (double) numberOfNonConfirmingWebsites;
-//        evidence.getFeatures().setValue(AbstractFeature.PAGE_RANK_NON_CONFIRMING_FEATURE, 
+//        evidence.setFeatureValue(AbstractFeature.PAGE_RANK_NON_CONFIRMING_FEATURE, 
 //                !numberOfNonConfirmingWebsitesAverage.isNaN() && !numberOfNonConfirmingWebsitesAverage.isInfinite() ? numberOfNonConfirmingWebsitesAverage : 0D);
     }
 }
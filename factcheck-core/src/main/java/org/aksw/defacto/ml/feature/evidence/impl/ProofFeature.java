@@ -18,6 +18,21 @@ import org.aksw.defacto.ml.feature.evidence.AbstractEvidenceFeature;
  */
 public class ProofFeature extends AbstractEvidenceFeature {
 
+    private static final Set<String> INPUTS = inputs(SEARCH_RESULTS, PROOF_SCORES);
+    private static final Set<String> OUTPUTS = outputs(AbstractEvidenceFeature.NUMBER_OF_PROOFS,
+            AbstractEvidenceFeature.NUMBER_OF_CONFIRMING_PROOFS, AbstractEvidenceFeature.TOTAL_POSITIVES_EVIDENCE_SCORE,
+            AbstractEvidenceFeature.TOTAL_NEGATIVES_EVIDENCE_SCORE);
+
+    @Override
+    public Set<String> getInputs() {
+        return INPUTS;
+    }
+
+    @Override
+    public Set<String> getOutputs() {
+        return OUTPUTS;
+    }
+
     /* (non-Javadoc)
      * @see org.aksw.defacto.ml.feature.Feature#extractFeature(org.aksw.defacto.evidence.Evidence)
      */
@@ -25,7 +40,7 @@ public class ProofFeature extends AbstractEvidenceFeature {
     public void extractFeature(Evidence evidence) {
 
         // how many boa pattern did we find
-        evidence.getFeatures().setValue(AbstractEvidenceFeature.NUMBER_OF_PROOFS, evidence.getComplexProofs().size());
+        evidence.setFeatureValue(AbstractEvidenceFeature.NUMBER_OF_PROOFS, evidence.getComplexProofs().size());
         
         double scorePositives = 1D;
         double scoreNegatives = 1D;
@@ -44,8 +59,8 @@ public class ProofFeature extends AbstractEvidenceFeature {
                 scoreNegatives *= ( 1D - p.getScore());
             }
         }
-        evidence.getFeatures().setValue(AbstractEvidenceFeature.NUMBER_OF_CONFIRMING_PROOFS, proofWebsites.size());
-        evidence.getFeatures().setValue(AbstractEvidenceFeature.TOTAL_POSITIVES_EVIDENCE_SCORE, 1D - scorePositives);
-        evidence.getFeatures().setValue(AbstractEvidenceFeature.TOTAL_NEGATIVES_EVIDENCE_SCORE, 1D - scoreNegatives);
+        evidence.setFeatureValue(AbstractEvidenceFeature.NUMBER_OF_CONFIRMING_PROOFS, proofWebsites.size());
+        evidence.setFeatureValue(AbstractEvidenceFeature.TOTAL_POSITIVES_EVIDENCE_SCORE, 1D - scorePositives);
+        evidence.setFeatureValue(AbstractEvidenceFeature.TOTAL_NEGATIVES_EVIDENCE_SCORE, 1D - scoreNegatives);
     }
 }
@@ -2,6 +2,7 @@ package org.aksw.defacto.ml.feature.evidence.impl;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import org.aksw.defacto.evidence.Evidence;
 import org.aksw.defacto.evidence.WebSite;
@@ -14,6 +15,19 @@ import org.dice.factcheck.topicterms.Word;
  */
 public class TopicCoverageFeature extends AbstractEvidenceFeature {
 
+    private static final Set<String> INPUTS = inputs(SEARCH_RESULTS, PROOF_SCORES);
+    private static final Set<String> OUTPUTS = outputs(AbstractEvidenceFeature.TOPIC_COVERAGE_MAX, AbstractEvidenceFeature.TOPIC_COVERAGE_SUM);
+
+    @Override
+    public Set<String> getInputs() {
+        return INPUTS;
+    }
+
+    @Override
+    public Set<String> getOutputs() {
+        return OUTPUTS;
+    }
+
     @Override
     public void extractFeature(Evidence evidence) {
 
@@ -51,17 +65,17 @@ public class TopicCoverageFeature extends AbstractEvidenceFeature {
             }
         }
         
-        evidence.getFeatures().setValue(AbstractEvidenceFeature.TOPIC_COVERAGE_MAX, maxScore);
-        evidence.getFeatures().setValue(AbstractEvidenceFeature.TOPIC_COVERAGE_SUM, sumScore);
+        evidence.setFeatureValue(AbstractEvidenceFeature.TOPIC_COVERAGE_MAX, maxScore);
+        evidence.setFeatureValue(AbstractEvidenceFeature.TOPIC_COVERAGE_SUM, sumScore);
         
 //        // average the topic coverage of confirming pages
 //        Double topicCoverageAverageConfirming = (double) totalTopicCoverageConfirming / (double) totalNumberOfConfirmingWebSites;
-//        evidence.getFeatures().setValue(AbstractFeature.TOPIC_COVERAGE_CONFIRMING_FEATURE, 
+//        evidence.setFeatureValue(AbstractFeature.TOPIC_COVERAGE_CONFIRMING_FEATURE, 
 //                !topicCoverageAverageConfirming.isNaN() && !topicCoverageAverageConfirming.isInfinite() ? topicCoverageAverageConfirming : 0D);
 //        
 //        // average the topic coverage of non confirming pages
 //        Double topicCoverageAverageNonConfirming = (double) totalTopicCoverageNonConfirming / (double) totalNumberOfNonConfirmingWebSites;
-//        evidence.getFeatures().setValue(AbstractFeature.TOPIC_COVERAGE_NON_CONFIRMING_FEATURE, 
+//        evidence.setFeatureValue(AbstractFeature.TOPIC_COVERAGE_NON_CONFIRMING_FEATURE, 
 //                !topicCoverageAverageNonConfirming.isNaN() && !topicCoverageAverageNonConfirming.isInfinite() ? topicCoverageAverageNonConfirming : 0D);
     }
 }
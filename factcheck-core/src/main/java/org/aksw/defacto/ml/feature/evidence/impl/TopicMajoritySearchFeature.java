@@ -5,6 +5,7 @@ package org.aksw.defacto.ml.feature.evidence.impl;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import org.aksw.defacto.Defacto;
 import org.aksw.defacto.evidence.Evidence;
@@ -17,6 +18,20 @@ import org.aksw.defacto.ml.feature.evidence.AbstractEvidenceFeature;
  */
 public class TopicMajoritySearchFeature extends AbstractEvidenceFeature {
 
+    private static final Set<String> INPUTS = inputs(SEARCH_RESULTS, PROOF_SCORES);
+    private static final Set<String> OUTPUTS = outputs(AbstractEvidenceFeature.TOPIC_MAJORITY_SEARCH_RESULT_SUM,
+            AbstractEvidenceFeature.TOPIC_MAJORITY_SEARCH_RESULT_MAX);
+
+    @Override
+    public Set<String> getInputs() {
+        return INPUTS;
+    }
+
+    @Override
+    public Set<String> getOutputs() {
+        return OUTPUTS;
+    }
+
     /* (non-Javadoc)
      * @see org.aksw.defacto.ml.feature.Feature#extractFeature(org.aksw.defacto.evidence.Evidence)
      */
@@ -55,17 +70,17 @@ public class TopicMajoritySearchFeature extends AbstractEvidenceFeature {
             }
         }
         
-        evidence.getFeatures().setValue(AbstractEvidenceFeature.TOPIC_MAJORITY_SEARCH_RESULT_SUM, sumScore);
-        evidence.getFeatures().setValue(AbstractEvidenceFeature.TOPIC_MAJORITY_SEARCH_RESULT_MAX, maxScore);
+        evidence.setFeatureValue(AbstractEvidenceFeature.TOPIC_MAJORITY_SEARCH_RESULT_SUM, sumScore);
+        evidence.setFeatureValue(AbstractEvidenceFeature.TOPIC_MAJORITY_SEARCH_RESULT_MAX, maxScore);
         
 //        // average the topic majority search of confirming pages
 //        Double similarWebSitesAverageConfirming = (double) numberOfConfirmingWebSites / (double) allWebsites.size();
-//        evidence.getFeatures().setValue(AbstractFeature.TOPIC_MAJORITY_SEARCH_CONFIRMING_FEATURE, 
+//        evidence.setFeatureValue(AbstractFeature.TOPIC_MAJORITY_SEARCH_CONFIRMING_FEATURE, 
 //                !similarWebSitesAverageConfirming.isNaN() && !similarWebSitesAverageConfirming.isInfinite() ? similarWebSitesAverageConfirming : 0D);
 //        
 //        // average the topic majority search of non confirming pages
 //        Double similarWebSitesAverageNonConfirming = (double) numberOfNonConfirmingWebSites / (double) allWebsites.size();
-//        evidence.getFeatures().setValue(AbstractFeature.TOPIC_MAJORITY_SEARCH_NON_CONFIRMING_FEATURE, 
+//        evidence.setFeatureValue(AbstractFeature.TOPIC_MAJORITY_SEARCH_NON_CONFIRMING_FEATURE, 
 //                !similarWebSitesAverageNonConfirming.isNaN() && !similarWebSitesAverageNonConfirming.isInfinite() ? similarWebSitesAverageNonConfirming : 0D);
     }
 }
@@ -3,8 +3,10 @@
  */
 package org.aksw.defacto.ml.feature.evidence.impl;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import org.aksw.defacto.evidence.Evidence;
 import org.aksw.defacto.evidence.WebSite;
@@ -18,8 +20,21 @@ import org.dice.factcheck.topicterms.Word;
  */
 public class TopicMajorityWebFeature extends AbstractEvidenceFeature {
 
+    private static final Set<String> INPUTS = inputs(SEARCH_RESULTS, PROOF_SCORES);
+    private static final Set<String> OUTPUTS = outputs(AbstractEvidenceFeature.TOPIC_MAJORITY_WEB_SUM, AbstractEvidenceFeature.TOPIC_MAJORITY_WEB_MAX);
+
 //    private Logger logger = Logger.getLogger(TopicMajorityWebFeature.class);
     
+    @Override
+    public Set<String> getInputs() {
+        return INPUTS;
+    }
+
+    @Override
+    public Set<String> getOutputs() {
+        return OUTPUTS;
+    }
+
     /* (non-Javadoc)
      * @see org.aksw.defacto.ml.feature.Feature#extractFeature(org.aksw.defacto.evidence.Evidence)
      */
@@ -34,24 +49,31 @@ public class TopicMajorityWebFeature extends AbstractEvidenceFeature {
         double sumScore = 0D;
         double maxScore = 0D;
         
+        // every text is read once per website and topic term, the shared lru is too small to keep them all
+        List<WebSite> websites = evidence.getAllWebSites();
+        String[] lowerCaseTexts = new String[websites.size()];
+        for ( int i = 0; i < lowerCaseTexts.length; i++ ) lowerCaseTexts[i] = websites.get(i).getLowerCaseText();
+        
         // prepare the callables
-        for (WebSite website : evidence.getAllWebSites() ) {
+        for (WebSite website : websites ) {
             
             int topicMajority = 0;
             
-            List<Word> topicTerms = website.getOccurringTopicTerms();
+            // sort a copy, the topic coverage reads the terms at the same time
+            List<Word> topicTerms = new ArrayList<Word>(website.getOccurringTopicTerms());
             Collections.sort(topicTerms, new TopicTermsCoherence.WordComparator());
             
             // we want this only for the first three websites
             for ( int i = 0 ; i < topicTerms.size() ; i++) {
                 
+                String topicTerm = topicTerms.get(i).getWord().toLowerCase();
                 // we need to compare each website with each website
-                for ( WebSite allWebSite : evidence.getAllWebSites() ) {
+                for ( int j = 0 ; j < websites.size() ; j++ ) {
                 
                     // exclude the identity comparison
-                    if ( !allWebSite.equals(website) ) {
+                    if ( !websites.get(j).equals(website) ) {
 
-                        if ( allWebSite.getText().toLowerCase().contains(topicTerms.get(i).getWord().toLowerCase()) ) topicMajority++;
+                        if ( lowerCaseTexts[j].contains(topicTerm) ) topicMajority++;
                     }
                 }
             }
@@ -71,17 +93,17 @@ public class TopicMajorityWebFeature extends AbstractEvidenceFeature {
 //            }
         }
         
-        evidence.getFeatures().setValue(AbstractEvidenceFeature.TOPIC_MAJORITY_WEB_SUM, sumScore);
-        evidence.getFeatures().setValue(AbstractEvidenceFeature.TOPIC_MAJORITY_WEB_MAX, maxScore);
+        evidence.setFeatureValue(AbstractEvidenceFeature.TOPIC_MAJORITY_WEB_SUM, sumScore);
+        evidence.setFeatureValue(AbstractEvidenceFeature.TOPIC_MAJORITY_WEB_MAX, maxScore);
         
 //        // average the topic majority of confirming pages
 //        Double topicMajorityWebAverageConfirming = (double) positives / (double) positiveWebsites;// / (double) positives.size();
-//        evidence.getFeatures().setValue(AbstractFeature.TOPIC_MAJORITY_WEB_CONFIRMING_FEATURE, 
+//        evidence.setFeatureValue(AbstractFeature.TOPIC_MAJORITY_WEB_CONFIRMING_FEATURE, 
 //                !topicMajorityWebAverageConfirming.isNaN() && !topicMajorityWebAverageConfirming.isInfinite() ? topicMajorityWebAverageConfirming : 0D);
 //        
 //        // average the topic majority of non confirming pages
 //        Double topicMajorityWebAverageNonConfirming = (double) negatives / (double) negativeWebsites;// / (double) negatives.size();
-//        evidence.getFeatures().setValue(AbstractFeature.TOPIC_MAJORITY_WEB_NON_CONFIRMING_FEATURE, 
+//        evidence.setFeatureValue(AbstractFeature.TOPIC_MAJORITY_WEB_NON_CONFIRMING_FEATURE, 
 //                !topicMajorityWebAverageNonConfirming.isNaN() && !topicMajorityWebAverageNonConfirming.isInfinite() ? topicMajorityWebAverageNonConfirming : 0D);
     }
     
@@ -1,5 +1,7 @@
 package org.aksw.defacto.ml.feature.evidence.impl;
 
+import java.util.Set;
+
 import org.aksw.defacto.evidence.Evidence;
 import org.aksw.defacto.ml.feature.evidence.AbstractEvidenceFeature;
 
@@ -9,9 +11,22 @@ import org.aksw.defacto.ml.feature.evidence.AbstractEvidenceFeature;
  */
 public class TotalHitCountFeature extends AbstractEvidenceFeature {
 
+    private static final Set<String> INPUTS = inputs(SEARCH_RESULTS);
+    private static final Set<String> OUTPUTS = outputs(AbstractEvidenceFeature.TOTAL_HIT_COUNT_FEATURE);
+
+    @Override
+    public Set<String> getInputs() {
+        return INPUTS;
+    }
+
+    @Override
+    public Set<String> getOutputs() {
+        return OUTPUTS;
+    }
+
     @Override
     public void extractFeature(Evidence evidence) {
 
-        evidence.getFeatures().setValue(AbstractEvidenceFeature.TOTAL_HIT_COUNT_FEATURE, evidence.getTotalHitCount());
+        evidence.setFeatureValue(AbstractEvidenceFeature.TOTAL_HIT_COUNT_FEATURE, evidence.getTotalHitCount());
     }
 }
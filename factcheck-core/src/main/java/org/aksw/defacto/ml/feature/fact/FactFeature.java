@@ -4,14 +4,34 @@ import org.aksw.defacto.evidence.ComplexProof;
 import org.aksw.defacto.evidence.Evidence;
 
 /**
- * 
+ * A feature of a single proof. Implementations must not keep any state
+ * between calls: everything shared by the proofs of a fact comes from the
+ * {@link FactFeatureContext} and the feature values are written to the
+ * {@link FactFeatureResult}. This way the proofs of a fact can be processed
+ * in parallel (see {@link FactFeatureExtraction}).
+ *
  * @author Daniel Gerber <dgerber@informatik.uni-leipzig.de>
  */
 public interface FactFeature {
 
     /**
-     * 
+     *
+     * @param proof the proof to extract the feature for, must not be changed
+     * @param context the shared and read-only inputs of the fact
+     * @param result the feature values of this proof
+     */
+    void extractFeature(ComplexProof proof, FactFeatureContext context, FactFeatureResult result);
+
+    /**
+     * Extracts the feature for a single proof and writes it directly to the
+     * proof's features.
+     *
      * @param evidence
      */
-    void extractFeature(ComplexProof proof, Evidence evidence);
+    default void extractFeature(ComplexProof proof, Evidence evidence) {
+
+        FactFeatureResult result = new FactFeatureResult();
+        extractFeature(proof, new FactFeatureContext(evidence), result);
+        result.applyTo(proof.getFeatures());
+    }
 }
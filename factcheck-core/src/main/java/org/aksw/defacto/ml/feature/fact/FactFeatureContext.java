@@ -0,0 +1,132 @@
+package org.aksw.defacto.ml.feature.fact;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.aksw.defacto.boa.BoaPatternRegistry;
+import org.aksw.defacto.boa.Pattern;
+import org.aksw.defacto.evidence.ComplexProof;
+import org.aksw.defacto.evidence.Evidence;
+import org.aksw.defacto.model.DefactoModel;
+
+/**
+ * Everything the fact features share between the proofs of one fact. The
+ * context is created once per fact before any feature runs and is never
+ * changed afterwards, so the features of different proofs can read it from
+ * different threads.
+ */
+public class FactFeatureContext {
+
+    /** how many patterns the pattern based features (wordnet, dependency parse) look at */
+    public static final int NUMBER_OF_FEATURE_PATTERNS = BoaPatternRegistry.NUMBER_OF_FEATURE_PATTERNS;
+
+    private final Evidence evidence;
+    private final DefactoModel model;
+    private final String propertyUri;
+    private final List<String> subjectLabels;
+    private final List<String> objectLabels;
+    private final Map<String, Integer> normalizedProofPhraseOccurrences;
+    private final Map<String, float[]> pageTitleSimilarities = new ConcurrentHashMap<String, float[]>();
+
+    /**
+     * @param evidence the evidence of the fact, all proofs have to be added already
+     */
+    public FactFeatureContext(Evidence evidence) {
+
+        this.evidence = evidence;
+        this.model = evidence.getModel();
+        this.propertyUri = this.model.getPropertyUri();
+
+        this.subjectLabels = toList(this.model.getSubjectLabels(), this.model.getSubjectAltLabels());
+        this.objectLabels = toList(this.model.getObjectLabels(), this.model.getObjectAltLabels());
+
+        Map<String, Integer> occurrences = new HashMap<String, Integer>();
+        for ( ComplexProof proof : evidence.getComplexProofs() ) {
+
+            Integer count = occurrences.get(proof.getNormalizedProofPhrase());
+            occurrences.put(proof.getNormalizedProofPhrase(), count == null ? 1 : count + 1);
+        }
+        this.normalizedProofPhraseOccurrences = Collections.unmodifiableMap(occurrences);
+    }
+
+    public Evidence getEvidence() {
+        return evidence;
+    }
+
+    public DefactoModel getModel() {
+        return model;
+    }
+
+    public String getPropertyUri() {
+        return propertyUri;
+    }
+
+    /**
+     * @return the distinct labels and alternative labels of the subject in all languages
+     */
+    public List<String> getSubjectLabels() {
+        return subjectLabels;
+    }
+
+    /**
+     * @return the distinct labels and alternative labels of the object in all languages
+     */
+    public List<String> getObjectLabels() {
+        return objectLabels;
+    }
+
+    /**
+     * Many proofs come from the same website and the labels do not change
+     * within a fact, so the similarities of a page title to the labels are
+     * computed once per title.
+     *
+     * @param pageTitle
+     * @param similarities computes the similarities of a title to the labels
+     * @return
+     */
+    public float[] getPageTitleSimilarities(String pageTitle, Function<String, float[]> similarities) {
+
+        if ( pageTitle == null ) return similarities.apply(pageTitle);
+        return this.pageTitleSimilarities.computeIfAbsent(pageTitle, similarities);
+    }
+
+    /**
+     * @param normalizedProofPhrase
+     * @return how many proofs of this fact have the given normalized proof phrase
+     */
+    public int getOccurrences(String normalizedProofPhrase) {
+
+        Integer count = this.normalizedProofPhraseOccurrences.get(normalizedProofPhrase);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * copies the labels into an array once, the model hands out new sets on every call
+     */
+    private static List<String> toList(Collection<String> labels, Collection<String> altLabels) {
+
+        Set<String> distinct = new LinkedHashSet<String>(labels);
+        distinct.addAll(altLabels);
+        return Collections.unmodifiableList(Arrays.asList(distinct.toArray(new String[distinct.size()])));
+    }
+
+    /**
+     * Returns the best NUMBER_OF_FEATURE_PATTERNS patterns of the property in the
+     * given language from the {@link BoaPatternRegistry}.
+     *
+     * @param language
+     * @return an unmodifiable list of patterns
+     */
+    public List<Pattern> getPatterns(String language) {
+
+        return BoaPatternRegistry.getPatterns(this.propertyUri, language, NUMBER_OF_FEATURE_PATTERNS, 0);
+    }
+}
@@ -3,8 +3,17 @@
  */
 package org.aksw.defacto.ml.feature.fact;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.aksw.defacto.Defacto;
 import org.aksw.defacto.evidence.ComplexProof;
@@ -21,6 +30,8 @@ import org.aksw.defacto.ml.feature.fact.impl.TotalOccurrenceFeature;
 import org.aksw.defacto.ml.feature.fact.impl.WordnetExpensionFeature;
 import org.dice.factcheck.ml.feature.fact.impl.ContextProofNegationIdentifierFeature;
 import org.dice.factcheck.ml.feature.fact.impl.DependencyParseFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * @author Daniel Gerber <dgerber@informatik.uni-leipzig.de>
@@ -28,7 +39,10 @@ import org.dice.factcheck.ml.feature.fact.impl.DependencyParseFeature;
  */
 public class FactFeatureExtraction {
 
-    public static Set<FactFeature> factFeatures = new HashSet<FactFeature>();
+    private static final Logger LOGGER = LoggerFactory.getLogger(FactFeatureExtraction.class);
+    private static ExecutorService executor;
+
+    public static Set<FactFeature> factFeatures = new LinkedHashSet<FactFeature>();
     
     static {
 
@@ -48,22 +62,104 @@ public class FactFeatureExtraction {
     }
     
     /**
+     * Extracts the features of all proofs of the evidence. The proofs of a
+     * website are handled by one task, so its text stays in the decoded text
+     * LRU of {@link org.aksw.defacto.evidence.ArticleText} while the features
+     * cut contexts from it. The features of a proof run one after another.
+     * The collected values are written to the proofs on the calling thread.
      * 
      * @param evidence
      */
     public void extractFeatureForFact(Evidence evidence) {
 
-        // score the collected evidence with every feature extractor defined
-        for ( ComplexProof proof : evidence.getComplexProofs() ) {
-            
-            for ( FactFeature feature : FactFeatureExtraction.factFeatures ) {
-                
-                feature.extractFeature(proof, evidence);
+        final FactFeatureContext context = new FactFeatureContext(evidence);
+        List<ComplexProof> proofs = new ArrayList<ComplexProof>();
+        List<Callable<List<FactFeatureResult>>> tasks = new ArrayList<Callable<List<FactFeatureResult>>>();
+        for ( final List<ComplexProof> websiteProofs : evidence.getComplexProofsByWebSite().values() ) {
+
+            proofs.addAll(websiteProofs);
+            tasks.add(new Callable<List<FactFeatureResult>>() {
+
+                @Override
+                public List<FactFeatureResult> call() {
+
+                    List<FactFeatureResult> results = new ArrayList<FactFeatureResult>();
+                    for ( ComplexProof proof : websiteProofs ) {
+
+                        FactFeatureResult result = new FactFeatureResult();
+                        for ( FactFeature feature : FactFeatureExtraction.factFeatures )
+                            feature.extractFeature(proof, context, result);
+                        results.add(result);
+                    }
+                    return results;
+                }
+            });
+        }
+
+        List<Future<List<FactFeatureResult>>> results;
+        try {
+
+            results = getExecutor().invokeAll(tasks);
+        }
+        catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Fact feature extraction was interrupted", e);
+        }
+
+        List<FactFeatureResult> proofResults = new ArrayList<FactFeatureResult>();
+        for ( Future<List<FactFeatureResult>> result : results ) {
+
+            try {
+
+                proofResults.addAll(result.get());
+            }
+            catch (InterruptedException e) {
+
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Fact feature extraction was interrupted", e);
             }
+            catch (ExecutionException e) {
+
+                LOGGER.error("Could not extract the proof features of a website", e.getCause());
+                throw new RuntimeException(e.getCause());
+            }
+        }
+
+        for ( int i = 0; i < proofs.size(); i++ ) {
+
+            ComplexProof proof = proofs.get(i);
+            proofResults.get(i).applyTo(proof.getFeatures());
             // all features for this proof are completed so add it to the instances data
             // we only need to add the feature vector to the weka instances object if we plan to write the training file
             if ( Defacto.DEFACTO_CONFIG.getBooleanSetting("fact", "OVERWRITE_FACT_TRAINING_FILE") )
                 AbstractFactFeatures.factFeatures.add(proof.getFeatures());
         }
     }
+
+    /**
+     * The pool is shared by all facts, so checking facts in parallel does not
+     * multiply the number of extraction threads.
+     */
+    private static synchronized ExecutorService getExecutor() {
+
+        if ( executor == null ) {
+
+            int threads = Defacto.DEFACTO_CONFIG.getIntegerSetting("fact", "FEATURE_EXTRACTION_THREADS");
+            if ( threads < 1 ) threads = Runtime.getRuntime().availableProcessors();
+
+            final AtomicInteger counter = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+
+                @Override
+                public Thread newThread(Runnable runnable) {
+
+                    Thread thread = new Thread(runnable, "fact-feature-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return executor;
+    }
 }
@@ -0,0 +1,56 @@
+package org.aksw.defacto.ml.feature.fact;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import weka.core.Attribute;
+import weka.core.Instance;
+
+/**
+ * Collects the feature values of a single proof. Features write into the
+ * result instead of the proof's weka instance, since setting a string value
+ * adds it to the (shared) attribute and is not thread safe. The values are
+ * copied to the instance with {@link #applyTo(Instance)} once all features
+ * of the proof are done.
+ */
+public class FactFeatureResult {
+
+    private final Map<Attribute, Object> values = new LinkedHashMap<Attribute, Object>();
+
+    public void setValue(Attribute attribute, double value) {
+        this.values.put(attribute, value);
+    }
+
+    /**
+     * @param attribute a nominal or string attribute
+     * @param value
+     */
+    public void setValue(Attribute attribute, String value) {
+        this.values.put(attribute, value);
+    }
+
+    /**
+     * @param attribute a numeric attribute
+     * @param defaultValue
+     * @return the value set by a previous feature or the default value
+     */
+    public double value(Attribute attribute, double defaultValue) {
+
+        Object value = this.values.get(attribute);
+        return value instanceof Double ? (Double) value : defaultValue;
+    }
+
+    /**
+     * Writes all collected values to the given instance.
+     *
+     * @param instance
+     */
+    public void applyTo(Instance instance) {
+
+        for ( Map.Entry<Attribute, Object> entry : this.values.entrySet() ) {
+
+            if ( entry.getValue() instanceof String ) instance.setValue(entry.getKey(), (String) entry.getValue());
+            else instance.setValue(entry.getKey(), (Double) entry.getValue());
+        }
+    }
+}
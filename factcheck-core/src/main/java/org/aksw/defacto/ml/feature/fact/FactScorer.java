@@ -3,26 +3,18 @@
  */
 package org.aksw.defacto.ml.feature.fact;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
 
 import org.aksw.defacto.Defacto;
 import org.aksw.defacto.config.DefactoConfig;
 import org.aksw.defacto.evidence.ComplexProof;
 import org.aksw.defacto.evidence.Evidence;
 import org.aksw.defacto.evidence.WebSite;
-import org.aksw.defacto.ml.feature.evidence.AbstractEvidenceFeature;
+import org.aksw.defacto.ml.classifier.CompiledClassifier;
+import org.aksw.defacto.ml.classifier.ScoringSchema;
+import org.aksw.defacto.ml.classifier.WekaClassifier;
 
 import weka.classifiers.Classifier;
-import weka.core.Attribute;
-import weka.core.Instance;
-import weka.core.Instances;
 
 
 /**
@@ -30,34 +22,27 @@ import weka.core.Instances;
  */
 public class FactScorer {
 
-    private Classifier classifier = null;
-    private Instances trainingInstances = null;
+    private CompiledClassifier classifier = null;
+    private ScoringSchema schema = null;
 
     /**
-     *
+     * @param classifier the (compiled) fact classifier
+     * @param schema the projection of the proof features to the classifier input
      */
-    public FactScorer(Classifier classifier, Instances instances) {
+    public FactScorer(CompiledClassifier classifier, ScoringSchema schema) {
 
-        // this.classifier = loadClassifier();
         this.classifier = classifier;
-        this.trainingInstances = instances;
-
-       /*
-        try {
-
-//            this.trainingInstances = new Instances(new BufferedReader(new FileReader(
-//            		loadFileName("/training/arff/fact/defacto_fact_word.arff"))));
-        	this.trainingInstances = new Instances(new BufferedReader(new FileReader(
-        			DefactoConfig.DEFACTO_DATA_DIR + Defacto.DEFACTO_CONFIG.getStringSetting("fact", "ARFF_TRAINING_DATA_FILENAME"))));
-        }
-        catch (FileNotFoundException e) {
+        this.schema = schema;
+    }
 
-            throw new RuntimeException(e);
-        }
-        catch (IOException e) {
+    /**
+     * Scores with weka and a new scoring schema of the fact features, prefer
+     * sharing the ones created at startup.
+     */
+    public FactScorer(Classifier classifier) {
 
-            throw new RuntimeException(e);
-        }*/
+        this.schema = new ScoringSchema(AbstractFactFeatures.factFeatures);
+        this.classifier = new WekaClassifier(classifier, this.schema.getHeader());
     }
 
     /**
@@ -65,46 +50,12 @@ public class FactScorer {
      */
     public void scoreEvidence(Evidence evidence) {
 
-        Instances instancesWithStringVector = new Instances(trainingInstances);
-        instancesWithStringVector.setClassIndex(26);
-
+        // all proofs of the fact are projected into the same buffer and scored one after another
+        double[] values = new double[this.schema.numAttributes()];
         for (ComplexProof proof : evidence.getComplexProofs()) {
 
-            try {
-
-                // create new instance and delete debugging features
-                Instance newInstance = new Instance(proof.getFeatures());
-                newInstance.deleteAttributeAt(28);
-                newInstance.deleteAttributeAt(28);
-                newInstance.deleteAttributeAt(28);
-                newInstance.deleteAttributeAt(28);
-                newInstance.deleteAttributeAt(28);
-                Instances withoutName = new Instances(AbstractFactFeatures.factFeatures);
-                withoutName.setClassIndex(withoutName.numAttributes() - 1);
-                withoutName.deleteStringAttributes();
-                newInstance.setDataset(withoutName);
-
-                // insert all the words which occur
-                /*for ( int i = 26 + 1 ; i < instancesWithStringVector.numAttributes(); i++) {
-                    
-                	List<String> parts = Arrays.asList(proof.getTinyContext().split(" "));
-                    newInstance.insertAttributeAt(i);
-                    Attribute attribute = instancesWithStringVector.attribute(i);
-                    newInstance.setValue(attribute, parts.contains(attribute.name()) ? 1D : 0D);
-                }
-                newInstance.setDataset(instancesWithStringVector);
-                instancesWithStringVector.add(newInstance);*/
-                //System.out.println(this.classifier.distributionForInstance(newInstance)[0]);
-                proof.setScore(this.classifier.distributionForInstance(newInstance)[0]);
-//                System.out.println(proof.getScore() + " -> " + this.classifier.classifyInstance(newInstance) + " -> " + proof.getTinyContext());
-
-                // remove the new instance again
-                //instancesWithStringVector.delete();
-            } catch (Exception e) {
-
-                e.printStackTrace();
-                System.exit(0);
-            }
+            this.schema.project(proof.getFeatures(), values);
+            proof.setScore(this.classifier.getProbability(values, 0));
         }
 
         // set for each website the score by multiplying the proofs found on this site
@@ -5,13 +5,18 @@ package org.aksw.defacto.ml.feature.fact.impl;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
-import org.aksw.defacto.boa.BoaPatternSearcher;
-import org.aksw.defacto.boa.Pattern;
+import org.aksw.defacto.Defacto;
+import org.aksw.defacto.boa.BoaPatternIndex;
+import org.aksw.defacto.boa.BoaPatternIndex.BoaSimilarity;
+import org.aksw.defacto.boa.BoaPatternRegistry;
 import org.aksw.defacto.evidence.ComplexProof;
-import org.aksw.defacto.evidence.Evidence;
 import org.aksw.defacto.ml.feature.fact.AbstractFactFeatures;
 import org.aksw.defacto.ml.feature.fact.FactFeature;
+import org.aksw.defacto.ml.feature.fact.FactFeatureContext;
+import org.aksw.defacto.ml.feature.fact.FactFeatureResult;
 
 import uk.ac.shef.wit.simmetrics.similaritymetrics.AbstractStringMetric;
 import uk.ac.shef.wit.simmetrics.similaritymetrics.BlockDistance;
@@ -32,146 +37,79 @@ import uk.ac.shef.wit.simmetrics.similaritymetrics.SmithWaterman;
  */
 public class BoaFeature implements FactFeature {
 
-	private static SmithWaterman smithWaterman = new SmithWaterman();
-	private static QGramsDistance qgrams		= new QGramsDistance();
-	private static Levenshtein lev				= new Levenshtein();
-	private static BoaPatternSearcher searcher = new BoaPatternSearcher();
-
-	private float smithWatermanSimilarity = 0f;
-	private float qgramsSimilarity = 0f;
-	private float levSimilarity = 0f;
-	private int patternCounter = 0, patternNormalizedCounter = 0;
-	private Pattern swPattern = null;
-	private Pattern qgramPattern = null;
-	private Pattern levPattern = null;
-	private String proofSubString = "";
-	private boolean subjectObject = false;
+	private static ConcurrentMap<String, BoaPatternIndex> indexes = new ConcurrentHashMap<String, BoaPatternIndex>();
 
 	@Override
-	public void extractFeature(ComplexProof proof, Evidence evidence) {
-
-		String subjectLowerCase = proof.getSubject().toLowerCase();
-		String objectLowerCase = proof.getObject().toLowerCase();
-		String normalizedProofLowerCase = proof.getNormalizedProofPhrase().toLowerCase();
+	public void extractFeature(ComplexProof proof, FactFeatureContext context, FactFeatureResult result) {
 
 		// we set this to 0 and over write it if we find a pattern
-		proof.getFeatures().setValue(AbstractFactFeatures.SMITH_WATERMAN_BOA_SCORE, 0);
-		proof.getFeatures().setValue(AbstractFactFeatures.SMITH_WATERMAN, 0);
+		result.setValue(AbstractFactFeatures.SMITH_WATERMAN_BOA_SCORE, 0);
+		result.setValue(AbstractFactFeatures.SMITH_WATERMAN, 0);
 
-		proof.getFeatures().setValue(AbstractFactFeatures.QGRAMS_BOA_SCORE, 0);
-		proof.getFeatures().setValue(AbstractFactFeatures.QGRAMS, 0);
+		result.setValue(AbstractFactFeatures.QGRAMS_BOA_SCORE, 0);
+		result.setValue(AbstractFactFeatures.QGRAMS, 0);
 
-		proof.getFeatures().setValue(AbstractFactFeatures.LEVENSHTEIN_BOA_SCORE, 0);
-		proof.getFeatures().setValue(AbstractFactFeatures.LEVENSHTEIN, 0);
+		result.setValue(AbstractFactFeatures.LEVENSHTEIN_BOA_SCORE, 0);
+		result.setValue(AbstractFactFeatures.LEVENSHTEIN, 0);
 
-		proof.getFeatures().setValue(AbstractFactFeatures.BOA_PATTERN_COUNT, 0);
-		proof.getFeatures().setValue(AbstractFactFeatures.BOA_PATTERN_NORMALIZED_COUNT, 0);
+		result.setValue(AbstractFactFeatures.BOA_PATTERN_COUNT, 0);
+		result.setValue(AbstractFactFeatures.BOA_PATTERN_NORMALIZED_COUNT, 0);
 
 		if ( proof.getProofPhrase().trim().isEmpty() ) return; 
 
-		//List<Pattern> patterns = searcher.querySolrIndex(evidence.getModel().getPropertyUri(), 20, 0, proof.getLanguage());
-		List<Pattern> patterns = searcher.getNaturalLanguageRepresentations(evidence.getModel().getPredicate().getURI(), proof.getLanguage());
-
-		for ( Pattern p : patterns ) {
-
-			if ( p.getNormalized().trim().isEmpty() ) continue;
-
-			float swSimilarity = smithWaterman.getSimilarity(p.naturalLanguageRepresentationWithoutVariables, proof.getNormalizedProofPhrase());
-			if ( swSimilarity > smithWatermanSimilarity ) {
-
-				smithWatermanSimilarity = swSimilarity;
-				swPattern = p;
-			}
-
-			float qgramsSimil = qgrams.getSimilarity(p.naturalLanguageRepresentationWithoutVariables, proof.getNormalizedProofPhrase());
-			if ( qgramsSimil > qgramsSimilarity ) {
-
-				qgramsSimilarity = qgramsSimil; 
-				qgramPattern = p;
-			}
-
-			float levSimil = lev.getSimilarity(p.naturalLanguageRepresentationWithoutVariables, proof.getNormalizedProofPhrase());
-			if ( levSimil > levSimilarity ) {
-
-				levSimilarity = levSimil; 
-				levPattern = p;
-			}
-
-			if ( proof.getProofPhrase().contains(p.getNormalized()) ) patternCounter++; 
-			if ( normalizedProofLowerCase.contains(p.getNormalized()) ) patternNormalizedCounter++;
-			
-			// Recursively find better distance measures subject and object labels in proof phrase
-			if(!(org.apache.commons.lang3.StringUtils.substringBetween(normalizedProofLowerCase, subjectLowerCase, objectLowerCase)==null))
-			{
-				proofSubString = org.apache.commons.lang3.StringUtils.substringBetween(normalizedProofLowerCase, subjectLowerCase, objectLowerCase);
-				subjectObject = true;
-				calucaletDistanceSimilarities(proof, p);
-			}
-			else
-			{
-				proofSubString = org.apache.commons.lang3.StringUtils.substringBetween(normalizedProofLowerCase, objectLowerCase, subjectLowerCase);
-				subjectObject = false;
-				calucaletDistanceSimilarities(proof, p);
-			}
-		}
-	}
-
-	private void calucaletDistanceSimilarities(ComplexProof proof, Pattern p)
-	{
-		String subjectLowerCase = proof.getSubject().toLowerCase();
-		String objectLowerCase = proof.getObject().toLowerCase();
-		while(proofSubString!=null)
-		{
-
-			float swSim = smithWaterman.getSimilarity(p.naturalLanguageRepresentationWithoutVariables, proofSubString.trim());
-			if ( swSim > smithWatermanSimilarity ) {
-
-				smithWatermanSimilarity = swSim;
-				swPattern = p;
-			}
+		BoaPatternIndex index = getIndex(context.getModel().getPredicate().getURI(), proof.getLanguage());
+		if ( index.size() == 0 ) return;
 
-			float qgramsSim = qgrams.getSimilarity(p.naturalLanguageRepresentationWithoutVariables, proofSubString.trim());
-			if ( qgramsSim > qgramsSimilarity ) {
-
-				qgramsSimilarity = qgramsSim; 
-				qgramPattern = p;
-			}
-
-			float levSim = lev.getSimilarity(p.naturalLanguageRepresentationWithoutVariables, proofSubString.trim());
-			if ( levSim > levSimilarity ) {
-
-				levSimilarity = levSim; 
-				levPattern = p;
-			}			
-			if(subjectObject)
-				proofSubString = org.apache.commons.lang3.StringUtils.substringBetween(proofSubString+objectLowerCase, subjectLowerCase, objectLowerCase);
-			else
-				proofSubString = org.apache.commons.lang3.StringUtils.substringBetween(proofSubString+subjectLowerCase, objectLowerCase, subjectLowerCase);
+		String normalizedProofLowerCase = proof.getNormalizedProofPhrase().toLowerCase();
+		result.setValue(AbstractFactFeatures.BOA_PATTERN_COUNT, index.countContainedPatterns(proof.getProofPhrase()));
+		result.setValue(AbstractFactFeatures.BOA_PATTERN_NORMALIZED_COUNT, index.countContainedPatterns(normalizedProofLowerCase));
 
-		}
-		
-		proof.getFeatures().setValue(AbstractFactFeatures.BOA_PATTERN_COUNT, patternCounter);
-		proof.getFeatures().setValue(AbstractFactFeatures.BOA_PATTERN_NORMALIZED_COUNT, patternNormalizedCounter);
+		// the best match of the proof phrase and the parts between subject and object label
+		BoaSimilarity similarity = index.getSimilarity(proof.getNormalizedProofPhrase(),
+				proof.getSubject().toLowerCase(), proof.getObject().toLowerCase());
 
-		if ( levPattern != null ) {
+		if ( similarity.getLevenshtein() > 0 ) {
 
-			proof.getFeatures().setValue(AbstractFactFeatures.LEVENSHTEIN, levSimilarity);
-			proof.getFeatures().setValue(AbstractFactFeatures.LEVENSHTEIN_BOA_SCORE, levPattern.boaScore);
+			result.setValue(AbstractFactFeatures.LEVENSHTEIN, similarity.getLevenshtein());
+			result.setValue(AbstractFactFeatures.LEVENSHTEIN_BOA_SCORE, similarity.getLevenshteinBoaScore());
 		}
 
-		if ( qgramPattern != null ) {
+		if ( similarity.getQGrams() > 0 ) {
 
-			proof.getFeatures().setValue(AbstractFactFeatures.QGRAMS, qgramsSimilarity);
-			proof.getFeatures().setValue(AbstractFactFeatures.QGRAMS_BOA_SCORE, qgramPattern.boaScore);
+			result.setValue(AbstractFactFeatures.QGRAMS, similarity.getQGrams());
+			result.setValue(AbstractFactFeatures.QGRAMS_BOA_SCORE, similarity.getQGramsBoaScore());
 		}
 
-		if ( swPattern != null ) {
+		if ( similarity.getSmithWaterman() > 0 ) {
 
-			proof.getFeatures().setValue(AbstractFactFeatures.SMITH_WATERMAN, smithWatermanSimilarity);
-			proof.getFeatures().setValue(AbstractFactFeatures.SMITH_WATERMAN_BOA_SCORE, swPattern.boaScore);
+			result.setValue(AbstractFactFeatures.SMITH_WATERMAN, similarity.getSmithWaterman());
+			result.setValue(AbstractFactFeatures.SMITH_WATERMAN_BOA_SCORE, similarity.getSmithWatermanBoaScore());
 		}
 	}
 
+	/**
+	 * Returns the compiled pattern index for the given predicate and language,
+	 * the index is built on first access and shared by all proofs afterwards.
+	 * 
+	 * @param predicateUri
+	 * @param language
+	 * @return
+	 */
+	private static BoaPatternIndex getIndex(String predicateUri, String language) {
+
+		String key = predicateUri + "\t" + language;
+		BoaPatternIndex index = indexes.get(key);
+		if ( index != null ) return index;
+
+		// built outside of any lock, concurrent first calls for a key build it twice but only one is kept
+		index = new BoaPatternIndex(BoaPatternRegistry.getPatterns(predicateUri, language,
+				BoaPatternRegistry.NUMBER_OF_QUERY_PATTERNS, Defacto.DEFACTO_CONFIG.getDoubleSetting("boa", "PATTERN_SCORE_THRESHOLD")));
+		// don't remember failed lookups
+		if ( index.size() == 0 ) return index;
+
+		BoaPatternIndex previous = indexes.putIfAbsent(key, index);
+		return previous != null ? previous : index;
+	}
 
 	public static void main(String[] args) {
 
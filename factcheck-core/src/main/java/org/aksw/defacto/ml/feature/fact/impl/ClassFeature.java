@@ -4,9 +4,10 @@
 package org.aksw.defacto.ml.feature.fact.impl;
 
 import org.aksw.defacto.evidence.ComplexProof;
-import org.aksw.defacto.evidence.Evidence;
 import org.aksw.defacto.ml.feature.fact.AbstractFactFeatures;
 import org.aksw.defacto.ml.feature.fact.FactFeature;
+import org.aksw.defacto.ml.feature.fact.FactFeatureContext;
+import org.aksw.defacto.ml.feature.fact.FactFeatureResult;
 
 
 /**
@@ -19,8 +20,8 @@ public class ClassFeature implements FactFeature {
      * @see org.aksw.defacto.ml.feature.fact.FactFeature#extractFeature(org.aksw.defacto.evidence.ComplexProof, java.util.Set)
      */
     @Override
-    public void extractFeature(ComplexProof proof, Evidence evidence) {
+    public void extractFeature(ComplexProof proof, FactFeatureContext context, FactFeatureResult result) {
 
-        proof.getFeatures().setValue(AbstractFactFeatures.CLASS, String.valueOf(evidence.getModel().isCorrect()));
+        result.setValue(AbstractFactFeatures.CLASS, String.valueOf(context.getModel().isCorrect()));
     }
 }
@@ -4,9 +4,10 @@
 package org.aksw.defacto.ml.feature.fact.impl;
 
 import org.aksw.defacto.evidence.ComplexProof;
-import org.aksw.defacto.evidence.Evidence;
 import org.aksw.defacto.ml.feature.fact.AbstractFactFeatures;
 import org.aksw.defacto.ml.feature.fact.FactFeature;
+import org.aksw.defacto.ml.feature.fact.FactFeatureContext;
+import org.aksw.defacto.ml.feature.fact.FactFeatureResult;
 import org.apache.commons.lang3.StringUtils;
 
 
@@ -20,10 +21,10 @@ public class EndOfSentenceCharacterFeature implements FactFeature {
      * @see org.aksw.defacto.ml.feature.fact.FactFeature#extractFeature(org.aksw.defacto.evidence.ComplexProof)
      */
     @Override
-    public void extractFeature(ComplexProof proof, Evidence evidence) {
+    public void extractFeature(ComplexProof proof, FactFeatureContext context, FactFeatureResult result) {
 
-        proof.getFeatures().setValue(AbstractFactFeatures.END_OF_SENTENCE_DOT, StringUtils.countMatches(proof.getProofPhrase(), ".") );
-        proof.getFeatures().setValue(AbstractFactFeatures.END_OF_SENTENCE_EXCLAMATION_MARK, StringUtils.countMatches(proof.getProofPhrase(), "!"));
-        proof.getFeatures().setValue(AbstractFactFeatures.END_OF_SENTENCE_QUESTION_MARK, StringUtils.countMatches(proof.getProofPhrase(), "?"));
+        result.setValue(AbstractFactFeatures.END_OF_SENTENCE_DOT, StringUtils.countMatches(proof.getProofPhrase(), ".") );
+        result.setValue(AbstractFactFeatures.END_OF_SENTENCE_EXCLAMATION_MARK, StringUtils.countMatches(proof.getProofPhrase(), "!"));
+        result.setValue(AbstractFactFeatures.END_OF_SENTENCE_QUESTION_MARK, StringUtils.countMatches(proof.getProofPhrase(), "?"));
     }
 }
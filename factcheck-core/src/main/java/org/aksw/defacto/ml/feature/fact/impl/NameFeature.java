@@ -4,9 +4,10 @@
 package org.aksw.defacto.ml.feature.fact.impl;
 
 import org.aksw.defacto.evidence.ComplexProof;
-import org.aksw.defacto.evidence.Evidence;
 import org.aksw.defacto.ml.feature.fact.AbstractFactFeatures;
 import org.aksw.defacto.ml.feature.fact.FactFeature;
+import org.aksw.defacto.ml.feature.fact.FactFeatureContext;
+import org.aksw.defacto.ml.feature.fact.FactFeatureResult;
 
 import weka.core.Utils;
 
@@ -21,13 +22,13 @@ public class NameFeature implements FactFeature {
      * @see org.aksw.defacto.ml.feature.fact.FactFeature#extractFeature(org.aksw.defacto.evidence.ComplexProof, java.util.Set)
      */
     @Override
-    public void extractFeature(ComplexProof proof, Evidence evidence) {
+    public void extractFeature(ComplexProof proof, FactFeatureContext context, FactFeatureResult result) {
 
-        proof.getFeatures().setValue(AbstractFactFeatures.SUBJECT, Utils.quote(proof.getSubject()));
-        proof.getFeatures().setValue(AbstractFactFeatures.PHRASE, Utils.quote(proof.getProofPhrase()));
-        proof.getFeatures().setValue(AbstractFactFeatures.OBJECT, Utils.quote(proof.getObject()));
-        proof.getFeatures().setValue(AbstractFactFeatures.CONTEXT, "");
-        proof.getFeatures().setValue(AbstractFactFeatures.FILE_NAME, proof.getModel().getName());
-        proof.getFeatures().setValue(AbstractFactFeatures.LANGUAGE, proof.getLanguage());
+        result.setValue(AbstractFactFeatures.SUBJECT, Utils.quote(proof.getSubject()));
+        result.setValue(AbstractFactFeatures.PHRASE, Utils.quote(proof.getProofPhrase()));
+        result.setValue(AbstractFactFeatures.OBJECT, Utils.quote(proof.getObject()));
+        result.setValue(AbstractFactFeatures.CONTEXT, "");
+        result.setValue(AbstractFactFeatures.FILE_NAME, proof.getModel().getName());
+        result.setValue(AbstractFactFeatures.LANGUAGE, proof.getLanguage());
     }
 }
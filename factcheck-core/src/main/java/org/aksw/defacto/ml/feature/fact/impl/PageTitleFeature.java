@@ -3,12 +3,14 @@
  */
 package org.aksw.defacto.ml.feature.fact.impl;
 
-import java.util.Set;
+import java.util.List;
+import java.util.function.Function;
 
 import org.aksw.defacto.evidence.ComplexProof;
-import org.aksw.defacto.evidence.Evidence;
 import org.aksw.defacto.ml.feature.fact.AbstractFactFeatures;
 import org.aksw.defacto.ml.feature.fact.FactFeature;
+import org.aksw.defacto.ml.feature.fact.FactFeatureContext;
+import org.aksw.defacto.ml.feature.fact.FactFeatureResult;
 
 import uk.ac.shef.wit.simmetrics.similaritymetrics.AbstractStringMetric;
 import uk.ac.shef.wit.simmetrics.similaritymetrics.QGramsDistance;
@@ -26,29 +28,35 @@ public class PageTitleFeature implements FactFeature {
      * @see org.aksw.defacto.ml.feature.fact.FactFeature#extractFeature(org.aksw.defacto.evidence.ComplexProof)
      */
     @Override
-    public void extractFeature(ComplexProof proof, Evidence evidence) {
-
-        String pageTitle = proof.getWebSite().getTitle();
-        
-        Set<String> subjectLabels  = proof.getModel().getSubjectLabels();
-        subjectLabels.addAll(proof.getModel().getSubjectAltLabels());
-        Set<String> objectLabels  = proof.getModel().getObjectLabels();
-        objectLabels.addAll(proof.getModel().getObjectAltLabels());
-        
-        float subjectSimilarity = 0f;
-        for ( String label : subjectLabels) {
-        	
-        	float sim = metric.getSimilarity(pageTitle, label);
-        	if ( sim >= subjectSimilarity ) subjectSimilarity = sim; 
-        }
-        float objectSimilarity = 0f;
-        for ( String label : objectLabels) {
-        	
-        	float sim = metric.getSimilarity(pageTitle, label);
-        	if ( sim >= objectSimilarity ) objectSimilarity = sim; 
+    public void extractFeature(ComplexProof proof, final FactFeatureContext context, FactFeatureResult result) {
+
+        float[] similarities = context.getPageTitleSimilarities(proof.getWebSite().getTitle(), new Function<String, float[]>() {
+
+            @Override
+            public float[] apply(String pageTitle) {
+
+                return new float[]{ getSimilarity(pageTitle, context.getSubjectLabels()),
+                        getSimilarity(pageTitle, context.getObjectLabels()) };
+            }
+        });
+
+        result.setValue(AbstractFactFeatures.PAGE_TITLE_SUBJECT, similarities[0]);
+        result.setValue(AbstractFactFeatures.PAGE_TITLE_OBJECT, similarities[1]);
+    }
+
+    /**
+     * @param pageTitle
+     * @param labels
+     * @return the highest similarity of the title to one of the labels
+     */
+    private float getSimilarity(String pageTitle, List<String> labels) {
+
+        float similarity = 0f;
+        for ( int i = 0; i < labels.size(); i++ ) {
+
+            float sim = metric.getSimilarity(pageTitle, labels.get(i));
+            if ( sim >= similarity ) similarity = sim;
         }
-        
-        proof.getFeatures().setValue(AbstractFactFeatures.PAGE_TITLE_SUBJECT, subjectSimilarity);
-        proof.getFeatures().setValue(AbstractFactFeatures.PAGE_TITLE_OBJECT, objectSimilarity);
+        return similarity;
     }
 }
@@ -4,9 +4,10 @@
 package org.aksw.defacto.ml.feature.fact.impl;
 
 import org.aksw.defacto.evidence.ComplexProof;
-import org.aksw.defacto.evidence.Evidence;
 import org.aksw.defacto.ml.feature.fact.AbstractFactFeatures;
 import org.aksw.defacto.ml.feature.fact.FactFeature;
+import org.aksw.defacto.ml.feature.fact.FactFeatureContext;
+import org.aksw.defacto.ml.feature.fact.FactFeatureResult;
 
 /**
  * @author Daniel Gerber <dgerber@informatik.uni-leipzig.de>
@@ -15,8 +16,8 @@ import org.aksw.defacto.ml.feature.fact.FactFeature;
 public class PossessiveFeature implements FactFeature {
 
     @Override
-    public void extractFeature(ComplexProof proof, Evidence evidence) {
+    public void extractFeature(ComplexProof proof, FactFeatureContext context, FactFeatureResult result) {
 
-    	proof.getFeatures().setValue(AbstractFactFeatures.POSSESSIVE_FEATURE, proof.getTinyContext().contains("'s") ? 1 : 0);
+    	result.setValue(AbstractFactFeatures.POSSESSIVE_FEATURE, proof.getTinyContext().contains("'s") ? 1 : 0);
     }
 }
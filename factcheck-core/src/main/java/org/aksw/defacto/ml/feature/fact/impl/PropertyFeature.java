@@ -4,10 +4,11 @@
 package org.aksw.defacto.ml.feature.fact.impl;
 
 import org.aksw.defacto.evidence.ComplexProof;
-import org.aksw.defacto.evidence.Evidence;
 import org.aksw.defacto.ml.feature.evidence.AbstractEvidenceFeature;
 import org.aksw.defacto.ml.feature.fact.AbstractFactFeatures;
 import org.aksw.defacto.ml.feature.fact.FactFeature;
+import org.aksw.defacto.ml.feature.fact.FactFeatureContext;
+import org.aksw.defacto.ml.feature.fact.FactFeatureResult;
 
 /**
  * @author Daniel Gerber <dgerber@informatik.uni-leipzig.de>
@@ -19,10 +20,10 @@ public class PropertyFeature implements FactFeature {
      * @see org.aksw.defacto.ml.feature.fact.FactFeature#extractFeature(org.aksw.defacto.evidence.ComplexProof, java.util.Set)
      */
     @Override
-    public void extractFeature(ComplexProof proof, Evidence evidence) {
+    public void extractFeature(ComplexProof proof, FactFeatureContext context, FactFeatureResult result) {
 
     	String uri = proof.getModel().getPropertyUri().replace("http://dbpedia.org/ontology/", "");
     	if ( uri.equals("office") ) uri = "leaderName";
-        proof.getFeatures().setValue(AbstractFactFeatures.PROPERTY_NAME, uri);
+        result.setValue(AbstractFactFeatures.PROPERTY_NAME, uri);
     }
 }
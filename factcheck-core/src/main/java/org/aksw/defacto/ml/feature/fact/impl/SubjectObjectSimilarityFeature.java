@@ -4,9 +4,10 @@
 package org.aksw.defacto.ml.feature.fact.impl;
 
 import org.aksw.defacto.evidence.ComplexProof;
-import org.aksw.defacto.evidence.Evidence;
 import org.aksw.defacto.ml.feature.fact.AbstractFactFeatures;
 import org.aksw.defacto.ml.feature.fact.FactFeature;
+import org.aksw.defacto.ml.feature.fact.FactFeatureContext;
+import org.aksw.defacto.ml.feature.fact.FactFeatureResult;
 
 import uk.ac.shef.wit.simmetrics.similaritymetrics.Levenshtein;
 
@@ -19,14 +20,14 @@ public class SubjectObjectSimilarityFeature implements FactFeature {
     Levenshtein lev		= new Levenshtein();
 
     @Override
-    public void extractFeature(ComplexProof proof, Evidence evidence) {
+    public void extractFeature(ComplexProof proof, FactFeatureContext context, FactFeatureResult result) {
     	
-    	String subjectLabel = evidence.getModel().getSubjectLabel(proof.getLanguage()).toLowerCase();
-    	String objectLabel = evidence.getModel().getObjectLabel(proof.getLanguage()).toLowerCase();
+    	String subjectLabel = context.getModel().getSubjectLabel(proof.getLanguage()).toLowerCase();
+    	String objectLabel = context.getModel().getObjectLabel(proof.getLanguage()).toLowerCase();
     	
-        proof.getFeatures().setValue(AbstractFactFeatures.SUBJECT_SIMILARITY, 
+        result.setValue(AbstractFactFeatures.SUBJECT_SIMILARITY, 
         		Math.max(lev.getSimilarity(proof.getSubject().toLowerCase(), subjectLabel), lev.getSimilarity(proof.getSubject().toLowerCase(), objectLabel)));
-        proof.getFeatures().setValue(AbstractFactFeatures.OBJECT_SIMILARITY, 
+        result.setValue(AbstractFactFeatures.OBJECT_SIMILARITY, 
         		Math.max(lev.getSimilarity(proof.getObject().toLowerCase(), objectLabel), lev.getSimilarity(proof.getObject().toLowerCase(), subjectLabel)));
     }
 }
@@ -7,6 +7,8 @@ import org.aksw.defacto.evidence.ComplexProof;
 import org.aksw.defacto.evidence.Evidence;
 import org.aksw.defacto.ml.feature.fact.AbstractFactFeatures;
 import org.aksw.defacto.ml.feature.fact.FactFeature;
+import org.aksw.defacto.ml.feature.fact.FactFeatureContext;
+import org.aksw.defacto.ml.feature.fact.FactFeatureResult;
 import org.apache.commons.lang3.StringUtils;
 
 
@@ -20,9 +22,9 @@ public class TokenDistanceFeature implements FactFeature {
      * @see org.aksw.defacto.ml.feature.Feature#extractFeature(org.aksw.defacto.evidence.Evidence)
      */
     @Override
-    public void extractFeature(ComplexProof complexProof, Evidence evidence) {
+    public void extractFeature(ComplexProof complexProof, FactFeatureContext context, FactFeatureResult result) {
 
-        complexProof.getFeatures().setValue(AbstractFactFeatures.TOKEN_DISTANCE, complexProof.getProofPhrase().split(" ").length);
+        result.setValue(AbstractFactFeatures.TOKEN_DISTANCE, complexProof.getProofPhrase().split(" ").length);
         
         String normalCaseProof = complexProof.getProofPhrase();
 		String[] patternParts = normalCaseProof.split(" ");
@@ -45,12 +47,12 @@ public class TokenDistanceFeature implements FactFeature {
 			if (!StringUtils.isAlphaSpace(normalCaseProof.charAt(i)+"")) nonAlphaSpaceCharacterCount++;
 		}
 		
-		complexProof.getFeatures().setValue(AbstractFactFeatures.CHARACTER_COUNT, Double.valueOf(characterCount));
-		complexProof.getFeatures().setValue(AbstractFactFeatures.UPPERCASE_LETTER_COUNT, Double.valueOf(upperCaseCharacterCount));
-		complexProof.getFeatures().setValue(AbstractFactFeatures.AVERAGE_TOKEN_LENGHT, averageTokenLength);
-		complexProof.getFeatures().setValue(AbstractFactFeatures.DIGIT_COUNT, Double.valueOf(digitCount));
-		complexProof.getFeatures().setValue(AbstractFactFeatures.COMMA_COUNT, Double.valueOf(StringUtils.countMatches(normalCaseProof, ",")));
-		complexProof.getFeatures().setValue(AbstractFactFeatures.NUMBER_OF_NON_ALPHA_NUMERIC_CHARACTERS, Double.valueOf(nonAlphaSpaceCharacterCount));
+		result.setValue(AbstractFactFeatures.CHARACTER_COUNT, Double.valueOf(characterCount));
+		result.setValue(AbstractFactFeatures.UPPERCASE_LETTER_COUNT, Double.valueOf(upperCaseCharacterCount));
+		result.setValue(AbstractFactFeatures.AVERAGE_TOKEN_LENGHT, averageTokenLength);
+		result.setValue(AbstractFactFeatures.DIGIT_COUNT, Double.valueOf(digitCount));
+		result.setValue(AbstractFactFeatures.COMMA_COUNT, Double.valueOf(StringUtils.countMatches(normalCaseProof, ",")));
+		result.setValue(AbstractFactFeatures.NUMBER_OF_NON_ALPHA_NUMERIC_CHARACTERS, Double.valueOf(nonAlphaSpaceCharacterCount));
     }
     
     public static void main(String[] args) {
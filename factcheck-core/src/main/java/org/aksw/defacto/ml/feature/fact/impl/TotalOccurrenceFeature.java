@@ -4,9 +4,10 @@
 package org.aksw.defacto.ml.feature.fact.impl;
 
 import org.aksw.defacto.evidence.ComplexProof;
-import org.aksw.defacto.evidence.Evidence;
 import org.aksw.defacto.ml.feature.fact.AbstractFactFeatures;
 import org.aksw.defacto.ml.feature.fact.FactFeature;
+import org.aksw.defacto.ml.feature.fact.FactFeatureContext;
+import org.aksw.defacto.ml.feature.fact.FactFeatureResult;
 
 
 /**
@@ -19,13 +20,8 @@ public class TotalOccurrenceFeature implements FactFeature {
      * @see org.aksw.defacto.ml.feature.fact.FactFeature#extractFeature(org.aksw.defacto.evidence.ComplexProof)
      */
     @Override
-    public void extractFeature(ComplexProof proof, Evidence evidence) {
+    public void extractFeature(ComplexProof proof, FactFeatureContext context, FactFeatureResult result) {
 
-        int numberOfOccurrences = 0;
-        
-        for ( ComplexProof complexProof : evidence.getComplexProofs())
-            if ( complexProof.getNormalizedProofPhrase().equals(proof.getNormalizedProofPhrase()) ) numberOfOccurrences++;
-
-        proof.getFeatures().setValue(AbstractFactFeatures.TOTAL_OCCURRENCE, numberOfOccurrences);
+        result.setValue(AbstractFactFeatures.TOTAL_OCCURRENCE, context.getOccurrences(proof.getNormalizedProofPhrase()));
     }
 }
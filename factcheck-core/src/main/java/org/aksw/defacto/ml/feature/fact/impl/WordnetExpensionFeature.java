@@ -5,14 +5,16 @@ package org.aksw.defacto.ml.feature.fact.impl;
 
 import java.io.File;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.aksw.defacto.Defacto;
-import org.aksw.defacto.boa.BoaPatternSearcher;
 import org.aksw.defacto.boa.Pattern;
 import org.aksw.defacto.evidence.ComplexProof;
-import org.aksw.defacto.evidence.Evidence;
 import org.aksw.defacto.ml.feature.fact.AbstractFactFeatures;
 import org.aksw.defacto.ml.feature.fact.FactFeature;
+import org.aksw.defacto.ml.feature.fact.FactFeatureContext;
+import org.aksw.defacto.ml.feature.fact.FactFeatureResult;
 import org.aksw.defacto.wordnet.WordNetExpansion;
 
 
@@ -24,30 +26,56 @@ public class WordnetExpensionFeature implements FactFeature {
     //    WordNetExpansion wordnetExpansion = new WordNetExpansion(new File(WordnetExpensionFeature.class.getResource("/wordnet/dict").getFile()).getAbsolutePath());
     private static WordNetExpansion wordnetExpansion;
 
-
-    BoaPatternSearcher searcher = new BoaPatternSearcher();
+    // the expanded patterns of a property and language
+    private static Map<String, long[][]> patternExpansions = new ConcurrentHashMap<String, long[][]>();
 
     public static void init() {
-        wordnetExpansion = new WordNetExpansion(Defacto.DEFACTO_CONFIG.getStringSetting("evidence", "WORDNET_DICTIONARY"));
+        String dictionary = Defacto.DEFACTO_CONFIG.getStringSetting("evidence", "WORDNET_DICTIONARY");
+        wordnetExpansion = new WordNetExpansion(dictionary, Defacto.DEFACTO_CONFIG.getIntegerSetting("evidence", "WORDNET_CACHE_SIZE"));
+        if (Defacto.DEFACTO_CONFIG.getBooleanSetting("evidence", "WORDNET_PRELOAD"))
+            wordnetExpansion.preload(dictionary);
     }
 
     /* (non-Javadoc)
      * @see org.aksw.defacto.ml.feature.fact.FactFeature#extractFeature(org.aksw.defacto.evidence.ComplexProof)
      */
     @Override
-    public void extractFeature(ComplexProof proof, Evidence evidence) {
+    public void extractFeature(ComplexProof proof, FactFeatureContext context, FactFeatureResult result) {
 
         double similarity = 0;
 
-        List<Pattern> patterns = searcher.querySolrIndex(evidence.getModel().getPropertyUri(), 20, 0, proof.getLanguage());
-
-        for (Pattern pattern : patterns) {
-            similarity = Math.max(similarity, wordnetExpansion.getExpandedJaccardSimilarity(proof.getProofPhrase(), pattern.getNormalized()));
+        long[] proofExpansion = wordnetExpansion.expand(proof.getProofPhrase());
+        for (long[] patternExpansion : getPatternExpansions(context, proof.getLanguage())) {
+            similarity = Math.max(similarity, WordNetExpansion.getJaccardSimilarity(proofExpansion, patternExpansion));
         }
 
         if (Double.isInfinite(similarity) || Double.isNaN(similarity))
-            proof.getFeatures().setValue(AbstractFactFeatures.WORDNET_EXPANSION, 0D);
-        else proof.getFeatures().setValue(AbstractFactFeatures.WORDNET_EXPANSION, similarity);
+            result.setValue(AbstractFactFeatures.WORDNET_EXPANSION, 0D);
+        else result.setValue(AbstractFactFeatures.WORDNET_EXPANSION, similarity);
+    }
+
+    /**
+     * Returns the wordnet expansions of the normalized patterns of a property,
+     * they are computed once per property and language.
+     *
+     * @param context
+     * @param language
+     * @return
+     */
+    private static long[][] getPatternExpansions(FactFeatureContext context, String language) {
+
+        String key = context.getPropertyUri() + "\t" + language;
+        long[][] expansions = patternExpansions.get(key);
+        if (expansions == null) {
+
+            List<Pattern> patterns = context.getPatterns(language);
+            expansions = new long[patterns.size()][];
+            for (int i = 0; i < patterns.size(); i++)
+                expansions[i] = wordnetExpansion.expand(patterns.get(i).getNormalized());
+
+            if (expansions.length > 0) patternExpansions.put(key, expansions);
+        }
+        return expansions;
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,357 @@
+package org.aksw.defacto.ontology;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.aksw.defacto.Defacto;
+import org.aksw.defacto.config.DefactoConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The precomputed counts behind the goodness of a triple. The goodness is the
+ * one of the DL-Learner sparql metrics the classifier was trained with, the
+ * best sum of the directed PMI of the subject type with the predicate, of the
+ * predicate with the object type and twice the PMI of both types:
+ *
+ * <pre>
+ * goodness(s, p, o) = max_{C in types(s), D in types(o)} pmi(C, p) + pmi(p, D) + 2 * pmi(C, D)
+ * pmi(C, p) = log(f(?s a C. ?s p ?o) * N / (f(?s a C. ?s ?p ?o) * f(?s p ?o)))
+ * pmi(p, D) = log(f(?o a D. ?s p ?o) * N / (f(?o a D. ?s ?p ?o) * f(?s p ?o)))
+ * pmi(C, D) = log(f(?s a C. ?s ?p ?o. ?o a D) * N / (f(?s a C. ?s ?p ?o) * f(?o a D. ?s ?p ?o)))
+ * </pre>
+ *
+ * where f counts the triples matching the pattern and N is the number of
+ * triples, so every probability is relative to the same population. A pmi is
+ * 0 if one of its counts is 0. Only types of the DBpedia ontology are used and
+ * without such types, or if every sum is negative, the goodness is
+ * {@link Double#MIN_VALUE}, like in the metrics.
+ *
+ * The counts are computed offline by {@link #build(TypeIndex, File, File)} from
+ * the complete dump the endpoint was loaded from and the type index, and kept
+ * in memory as sorted arrays, so the goodness is a couple of binary searches.
+ */
+public class GoodnessStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GoodnessStore.class);
+
+    private static final int MAGIC = 0x44464753;
+    private static final int VERSION = 2;
+
+    private static GoodnessStore instance;
+
+    private final long numberOfTriples;
+    private final Map<String, Integer> classIds;
+    private final long[] subjectClassCounts;
+    private final long[] objectClassCounts;
+    private final Map<String, Integer> predicateIds;
+    private final long[] predicateCounts;
+    // keys are the first id in the upper and the second id in the lower 32 bits
+    private final long[] subjectPredicateKeys;
+    private final long[] subjectPredicateCounts;
+    private final long[] predicateObjectKeys;
+    private final long[] predicateObjectCounts;
+    private final long[] subjectObjectKeys;
+    private final long[] subjectObjectCounts;
+
+    private GoodnessStore(DataInputStream in) throws IOException {
+
+        if ( in.readInt() != MAGIC ) throw new IOException("Not a goodness store");
+        if ( in.readInt() != VERSION ) throw new IOException("Unsupported goodness store version");
+
+        this.numberOfTriples = in.readLong();
+
+        this.classIds = new HashMap<String, Integer>();
+        this.subjectClassCounts = readCounts(in, this.classIds);
+        this.objectClassCounts = new long[this.subjectClassCounts.length];
+        for ( int i = 0; i < this.objectClassCounts.length; i++ ) this.objectClassCounts[i] = in.readLong();
+        this.predicateIds = new HashMap<String, Integer>();
+        this.predicateCounts = readCounts(in, this.predicateIds);
+
+        this.subjectPredicateKeys = readKeys(in);
+        this.subjectPredicateCounts = readValues(in, this.subjectPredicateKeys.length);
+        this.predicateObjectKeys = readKeys(in);
+        this.predicateObjectCounts = readValues(in, this.predicateObjectKeys.length);
+        this.subjectObjectKeys = readKeys(in);
+        this.subjectObjectCounts = readValues(in, this.subjectObjectKeys.length);
+    }
+
+    /**
+     * @param store a file written by {@link #build(TypeIndex, File, File)}
+     * @return
+     * @throws IOException
+     */
+    public static GoodnessStore load(File store) throws IOException {
+
+        try ( DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(store), 1 << 16)) ) {
+
+            return new GoodnessStore(in);
+        }
+    }
+
+    /**
+     * Loads the store configured in the evidence section. Without a store the
+     * goodness feature is not available.
+     */
+    public static void init() {
+
+        String storeFile = Defacto.DEFACTO_CONFIG.getStringSetting("evidence", "GOODNESS_STORE_FILE");
+        if ( storeFile == null || storeFile.isEmpty() ) {
+
+            LOGGER.warn("No goodness store configured, the goodness feature is not available");
+            return;
+        }
+
+        File store = new File(DefactoConfig.DEFACTO_DATA_DIR + storeFile);
+        if ( !store.exists() ) {
+
+            LOGGER.warn("Goodness store " + store.getAbsolutePath() + " not found, the goodness feature is not available");
+            return;
+        }
+
+        try {
+
+            instance = load(store);
+            LOGGER.info("Loaded goodness store with " + instance.predicateIds.size() + " predicates and "
+                    + instance.classIds.size() + " classes");
+        }
+        catch (IOException e) {
+
+            LOGGER.error("Could not load goodness store, the goodness feature is not available", e);
+        }
+    }
+
+    /**
+     * @return the store loaded by {@link #init()} or null if it is not available
+     */
+    public static GoodnessStore getInstance() {
+        return instance;
+    }
+
+    /**
+     * @param subjectTypes
+     * @param predicate
+     * @param objectTypes
+     * @return the goodness of the triple, {@link Double#MIN_VALUE} if no pair of types scores better
+     */
+    public double getGoodness(Collection<String> subjectTypes, String predicate, Collection<String> objectTypes) {
+
+        Integer predicateId = this.predicateIds.get(predicate);
+        double goodness = Double.MIN_VALUE;
+
+        for ( String subjectType : subjectTypes ) {
+
+            if ( !subjectType.startsWith(OntologyIndex.DBPEDIA_ONTOLOGY) ) continue;
+            Integer subjectId = this.classIds.get(subjectType);
+
+            double subjectPmi = predicateId == null || subjectId == null ? 0D : pmi(
+                    count(this.subjectPredicateKeys, this.subjectPredicateCounts, key(subjectId, predicateId)),
+                    this.subjectClassCounts[subjectId], this.predicateCounts[predicateId]);
+
+            for ( String objectType : objectTypes ) {
+
+                if ( !objectType.startsWith(OntologyIndex.DBPEDIA_ONTOLOGY) ) continue;
+                Integer objectId = this.classIds.get(objectType);
+
+                double objectPmi = predicateId == null || objectId == null ? 0D : pmi(
+                        count(this.predicateObjectKeys, this.predicateObjectCounts, key(predicateId, objectId)),
+                        this.objectClassCounts[objectId], this.predicateCounts[predicateId]);
+                double typesPmi = subjectId == null || objectId == null ? 0D : pmi(
+                        count(this.subjectObjectKeys, this.subjectObjectCounts, key(subjectId, objectId)),
+                        this.subjectClassCounts[subjectId], this.objectClassCounts[objectId]);
+
+                goodness = Math.max(goodness, subjectPmi + objectPmi + 2 * typesPmi);
+            }
+        }
+        return goodness;
+    }
+
+    private double pmi(long joint, long first, long second) {
+
+        if ( joint <= 0 || first <= 0 || second <= 0 ) return 0D;
+        return Math.log((double) joint * this.numberOfTriples / ((double) first * second));
+    }
+
+    private static long count(long[] keys, long[] counts, long key) {
+
+        int index = Arrays.binarySearch(keys, key);
+        return index < 0 ? 0 : counts[index];
+    }
+
+    private static long key(int first, int second) {
+        return ((long) first << 32) | second;
+    }
+
+    /**
+     * Counts the triples in total, of every predicate, with a subject or
+     * object of every type and of every pair of predicate and subject type,
+     * predicate and object type and subject and object type.
+     *
+     * @param types the rdf:type assertions of the resources
+     * @param triples a (gzipped) n-triples dump of all triples, literal and type triples included
+     * @param store the file to write
+     * @throws IOException
+     */
+    public static void build(TypeIndex types, File triples, File store) throws IOException {
+
+        long start = System.currentTimeMillis();
+        List<String> classes = new ArrayList<String>(types.countResourcesPerType().keySet());
+        Collections.sort(classes);
+        Map<String, Integer> classIds = new HashMap<String, Integer>();
+        for ( String clazz : classes ) classIds.put(clazz, classIds.size());
+        long[] subjectClassCounts = new long[classes.size()];
+        long[] objectClassCounts = new long[classes.size()];
+
+        Map<String, Integer> predicateIds = new HashMap<String, Integer>();
+        List<String> predicates = new ArrayList<String>();
+        List<Long> predicateCounts = new ArrayList<Long>();
+        Map<Long, Long> subjectPredicateCounts = new HashMap<Long, Long>();
+        Map<Long, Long> predicateObjectCounts = new HashMap<Long, Long>();
+        Map<Long, Long> subjectObjectCounts = new HashMap<Long, Long>();
+        long numberOfTriples = 0;
+
+        InputStream input = new FileInputStream(triples);
+        if ( triples.getName().endsWith(".gz") ) input = new GZIPInputStream(input, 1 << 16);
+
+        try ( BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 1 << 16) ) {
+
+            String line;
+            while ( (line = reader.readLine()) != null ) {
+
+                // blank node subjects count as well, they just have no types
+                if ( !line.startsWith("<") && !line.startsWith("_:") ) continue;
+                int subjectEnd = line.indexOf(' ');
+                int predicateStart = subjectEnd < 0 ? -1 : line.indexOf('<', subjectEnd);
+                int predicateEnd = predicateStart < 0 ? -1 : line.indexOf('>', predicateStart);
+                if ( predicateEnd < 0 ) continue;
+                int objectStart = predicateEnd + 1;
+                while ( objectStart < line.length() && line.charAt(objectStart) == ' ' ) objectStart++;
+                if ( objectStart >= line.length() ) continue;
+
+                String predicate = line.substring(predicateStart + 1, predicateEnd);
+                Integer predicateId = predicateIds.get(predicate);
+                if ( predicateId == null ) {
+
+                    predicateIds.put(predicate, predicateId = predicates.size());
+                    predicates.add(predicate);
+                    predicateCounts.add(0L);
+                }
+                predicateCounts.set(predicateId, predicateCounts.get(predicateId) + 1);
+                numberOfTriples++;
+
+                List<String> subjectTypes = line.charAt(0) == '<'
+                        ? types.getTypes(TypeIndex.unescape(line.substring(1, subjectEnd - 1))) : Collections.<String>emptyList();
+                int objectEnd = line.charAt(objectStart) == '<' ? line.indexOf('>', objectStart) : -1;
+                List<String> objectTypes = objectEnd < 0
+                        ? Collections.<String>emptyList() : types.getTypes(TypeIndex.unescape(line.substring(objectStart + 1, objectEnd)));
+
+                for ( String type : subjectTypes ) {
+
+                    int classId = classIds.get(type);
+                    subjectClassCounts[classId]++;
+                    subjectPredicateCounts.merge(key(classId, predicateId), 1L, Long::sum);
+                    for ( String objectType : objectTypes )
+                        subjectObjectCounts.merge(key(classId, classIds.get(objectType)), 1L, Long::sum);
+                }
+                for ( String type : objectTypes ) {
+
+                    int classId = classIds.get(type);
+                    objectClassCounts[classId]++;
+                    predicateObjectCounts.merge(key(predicateId, classId), 1L, Long::sum);
+                }
+            }
+        }
+
+        try ( DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(store), 1 << 16)) ) {
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(numberOfTriples);
+
+            out.writeInt(classes.size());
+            for ( int i = 0; i < classes.size(); i++ ) writeCount(out, classes.get(i), subjectClassCounts[i]);
+            for ( long count : objectClassCounts ) out.writeLong(count);
+            out.writeInt(predicates.size());
+            for ( int i = 0; i < predicates.size(); i++ ) writeCount(out, predicates.get(i), predicateCounts.get(i));
+
+            writePairs(out, subjectPredicateCounts);
+            writePairs(out, predicateObjectCounts);
+            writePairs(out, subjectObjectCounts);
+        }
+
+        LOGGER.info("Counted " + numberOfTriples + " triples of " + predicates.size() + " predicates from " + triples
+                + " in " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    private static void writeCount(DataOutputStream out, String uri, long count) throws IOException {
+
+        byte[] bytes = uri.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        out.writeLong(count);
+    }
+
+    private static void writePairs(DataOutputStream out, Map<Long, Long> counts) throws IOException {
+
+        long[] keys = new long[counts.size()];
+        int i = 0;
+        for ( Long key : counts.keySet() ) keys[i++] = key;
+        Arrays.sort(keys);
+
+        out.writeInt(keys.length);
+        for ( long key : keys ) out.writeLong(key);
+        for ( long key : keys ) out.writeLong(counts.get(key));
+    }
+
+    private static long[] readKeys(DataInputStream in) throws IOException {
+        return readValues(in, in.readInt());
+    }
+
+    private static long[] readValues(DataInputStream in, int length) throws IOException {
+
+        long[] values = new long[length];
+        for ( int i = 0; i < length; i++ ) values[i] = in.readLong();
+        return values;
+    }
+
+    private static long[] readCounts(DataInputStream in, Map<String, Integer> ids) throws IOException {
+
+        long[] counts = new long[in.readInt()];
+        for ( int i = 0; i < counts.length; i++ ) {
+
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            ids.put(new String(bytes, StandardCharsets.UTF_8), i);
+            counts[i] = in.readLong();
+        }
+        return counts;
+    }
+
+    public static void main(String[] args) throws IOException {
+
+        if ( args.length < 3 ) {
+
+            System.out.println("Usage: GoodnessStore <type index> <n-triples dump of all triples> <store file>");
+            return;
+        }
+        build(TypeIndex.open(new File(args[0])), new File(args[1]), new File(args[2]));
+    }
+}
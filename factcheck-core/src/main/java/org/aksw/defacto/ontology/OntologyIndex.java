@@ -0,0 +1,196 @@
+package org.aksw.defacto.ontology;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.aksw.defacto.Defacto;
+import org.aksw.defacto.config.DefactoConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.Property;
+import com.hp.hpl.jena.rdf.model.RDFNode;
+import com.hp.hpl.jena.rdf.model.Statement;
+import com.hp.hpl.jena.rdf.model.StmtIterator;
+import com.hp.hpl.jena.util.FileManager;
+import com.hp.hpl.jena.vocabulary.RDFS;
+
+/**
+ * Answers the domain, range and type questions of the domain range check
+ * in-process. The rdfs:domain, rdfs:range and rdfs:subClassOf axioms are read
+ * from the DBpedia ontology file on startup, the rdf:type assertions of the
+ * resources come from a memory mapped {@link TypeIndex}. The types of a
+ * resource always include all super classes, so it does not matter if the
+ * index was built from the transitive or the plain DBpedia types dump.
+ */
+public class OntologyIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OntologyIndex.class);
+
+    public static final String DBPEDIA_ONTOLOGY = "http://dbpedia.org/ontology/";
+
+    private static OntologyIndex instance;
+
+    private final Map<String, String> domains;
+    private final Map<String, String> ranges;
+    private final Map<String, Set<String>> superClasses;
+    private final TypeIndex types;
+
+    /**
+     * @param ontology the ontology model containing the domain, range and sub class axioms
+     * @param types the type assertions of the resources
+     */
+    public OntologyIndex(Model ontology, TypeIndex types) {
+
+        this.domains = Collections.unmodifiableMap(getObjects(ontology, RDFS.domain));
+        this.ranges = Collections.unmodifiableMap(getObjects(ontology, RDFS.range));
+        this.types = types;
+
+        Map<String, Set<String>> directSuperClasses = new HashMap<String, Set<String>>();
+        StmtIterator iterator = ontology.listStatements(null, RDFS.subClassOf, (RDFNode) null);
+        while ( iterator.hasNext() ) {
+
+            Statement statement = iterator.next();
+            if ( !statement.getSubject().isURIResource() || !statement.getObject().isURIResource() ) continue;
+
+            String subClass = statement.getSubject().getURI();
+            if ( !directSuperClasses.containsKey(subClass) ) directSuperClasses.put(subClass, new HashSet<String>());
+            directSuperClasses.get(subClass).add(statement.getObject().asResource().getURI());
+        }
+
+        Map<String, Set<String>> superClasses = new HashMap<String, Set<String>>();
+        for ( String clazz : directSuperClasses.keySet() ) {
+
+            Set<String> closure = new HashSet<String>();
+            addSuperClasses(clazz, directSuperClasses, closure);
+            superClasses.put(clazz, Collections.unmodifiableSet(closure));
+        }
+        this.superClasses = Collections.unmodifiableMap(superClasses);
+    }
+
+    /**
+     * Loads the ontology file and opens the type index configured in the
+     * evidence section. The type index is built from the types dump if it
+     * does not exist yet. Without an ontology file the domain range check is
+     * not available.
+     */
+    public static void init() {
+
+        String ontologyFile = Defacto.DEFACTO_CONFIG.getStringSetting("evidence", "ONTOLOGY_FILE");
+        String typeIndexFile = Defacto.DEFACTO_CONFIG.getStringSetting("evidence", "TYPE_INDEX_FILE");
+        String typeDumpFile = Defacto.DEFACTO_CONFIG.getStringSetting("evidence", "TYPE_DUMP_FILE");
+
+        if ( ontologyFile == null || typeIndexFile == null ) {
+
+            LOGGER.warn("No ontology or type index configured, the domain range check is not available");
+            return;
+        }
+
+        File ontology = new File(DefactoConfig.DEFACTO_DATA_DIR + ontologyFile);
+        File typeIndex = new File(DefactoConfig.DEFACTO_DATA_DIR + typeIndexFile);
+
+        try {
+
+            if ( !typeIndex.exists() && typeDumpFile != null && new File(DefactoConfig.DEFACTO_DATA_DIR + typeDumpFile).exists() ) {
+
+                LOGGER.info("Building type index: " + typeIndex.getAbsolutePath());
+                TypeIndex.build(new File(DefactoConfig.DEFACTO_DATA_DIR + typeDumpFile), typeIndex, DBPEDIA_ONTOLOGY);
+            }
+            if ( !ontology.exists() || !typeIndex.exists() ) {
+
+                LOGGER.warn("Ontology " + ontology.getAbsolutePath() + " or type index " + typeIndex.getAbsolutePath()
+                        + " not found, the domain range check is not available");
+                return;
+            }
+
+            long start = System.currentTimeMillis();
+            instance = new OntologyIndex(FileManager.get().loadModel(ontology.getAbsolutePath()), TypeIndex.open(typeIndex));
+            LOGGER.info("Loaded ontology index with " + instance.types.size() + " typed resources in "
+                    + (System.currentTimeMillis() - start) + "ms");
+        }
+        catch (IOException e) {
+
+            LOGGER.error("Could not load the type index, the domain range check is not available", e);
+        }
+    }
+
+    /**
+     * @return the index loaded by {@link #init()} or null if it is not available
+     */
+    public static OntologyIndex getInstance() {
+        return instance;
+    }
+
+    /**
+     * @param propertyUri
+     * @return the domain of the property or null if it has none
+     */
+    public String getDomain(String propertyUri) {
+        return domains.get(propertyUri);
+    }
+
+    /**
+     * @param propertyUri
+     * @return the range of the property or null if it has none
+     */
+    public String getRange(String propertyUri) {
+        return ranges.get(propertyUri);
+    }
+
+    /**
+     * @param resourceUri
+     * @return the DBpedia ontology types of the resource and all their super classes
+     */
+    public Set<String> getTypes(String resourceUri) {
+
+        Set<String> resourceTypes = new LinkedHashSet<String>();
+        for ( String type : this.types.getTypes(resourceUri) ) {
+
+            resourceTypes.add(type);
+            Set<String> closure = this.superClasses.get(type);
+            if ( closure != null ) resourceTypes.addAll(closure);
+        }
+        return resourceTypes;
+    }
+
+    /**
+     * @return the rdf:type assertions of the resources, without any super classes
+     */
+    public TypeIndex getTypeIndex() {
+        return types;
+    }
+
+    private static void addSuperClasses(String clazz, Map<String, Set<String>> directSuperClasses, Set<String> closure) {
+
+        Set<String> direct = directSuperClasses.get(clazz);
+        if ( direct == null ) return;
+
+        for ( String superClass : direct )
+            if ( closure.add(superClass) ) addSuperClasses(superClass, directSuperClasses, closure);
+    }
+
+    /**
+     * the first URI object of every subject with the given property, like the
+     * first row of a SPARQL query
+     */
+    private static Map<String, String> getObjects(Model ontology, Property property) {
+
+        Map<String, String> objects = new HashMap<String, String>();
+        StmtIterator iterator = ontology.listStatements(null, property, (RDFNode) null);
+        while ( iterator.hasNext() ) {
+
+            Statement statement = iterator.next();
+            if ( statement.getSubject().isURIResource() && statement.getObject().isURIResource()
+                    && !objects.containsKey(statement.getSubject().getURI()) )
+                objects.put(statement.getSubject().getURI(), statement.getObject().asResource().getURI());
+        }
+        return objects;
+    }
+}
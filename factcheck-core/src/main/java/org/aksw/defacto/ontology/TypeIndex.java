@@ -0,0 +1,302 @@
+package org.aksw.defacto.ontology;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A read-only, memory mapped index of rdf:type assertions. Resources are
+ * stored as 47 bit hashes of their URI and types as 16 bit ids, so a dump of
+ * millions of resources fits into a few dozen megabytes and is never loaded
+ * on the heap. The index is built once from an n-triples dump with
+ * {@link #build(File, File, String)}.
+ *
+ * Only the hash of a URI is stored, not the URI. Two URIs with the same
+ * hash share their types and the lookup of a resource which is not indexed
+ * returns the types of an indexed one if their hashes collide. For n indexed
+ * resources the chance of such a false hit is n / 2^47, about 4e-8 for the 5
+ * million typed resources of DBpedia, and the expected number of colliding
+ * pairs in the index is n^2 / 2^48, below 0.1. {@link #build(File, File, String)}
+ * logs the latter; the domain range check and the goodness tolerate both.
+ *
+ * The file contains (big endian): the magic number and version, the type
+ * URIs, the sorted resource hashes, the offset of the types of every resource
+ * and the type ids.
+ */
+public class TypeIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TypeIndex.class);
+
+    private static final int MAGIC = 0x44465449;
+    private static final int VERSION = 1;
+    private static final String RDF_TYPE = "<http://www.w3.org/1999/02/22-rdf-syntax-ns#type>";
+    private static final long KEY_MASK = 0x7FFFFFFFFFFFL;
+    private static final int TYPE_BITS = 16;
+
+    private final MappedByteBuffer buffer;
+    private final String[] types;
+    private final int numberOfResources;
+    private final int keysOffset;
+    private final int offsetsOffset;
+    private final int typesOffset;
+
+    private TypeIndex(MappedByteBuffer buffer) throws IOException {
+
+        this.buffer = buffer;
+        if ( buffer.getInt() != MAGIC ) throw new IOException("Not a type index");
+        if ( buffer.getInt() != VERSION ) throw new IOException("Unsupported type index version");
+
+        this.types = new String[buffer.getInt()];
+        for ( int i = 0; i < this.types.length; i++ ) {
+
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            this.types[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        this.numberOfResources = buffer.getInt();
+        int numberOfAssertions = buffer.getInt();
+
+        this.keysOffset = buffer.position();
+        this.offsetsOffset = this.keysOffset + this.numberOfResources * 8;
+        this.typesOffset = this.offsetsOffset + (this.numberOfResources + 1) * 4;
+        if ( this.typesOffset + numberOfAssertions * 2 > buffer.limit() ) throw new IOException("Truncated type index");
+    }
+
+    /**
+     * Maps the given index file.
+     *
+     * @param index
+     * @return
+     * @throws IOException if the file is no valid type index
+     */
+    public static TypeIndex open(File index) throws IOException {
+
+        try ( RandomAccessFile file = new RandomAccessFile(index, "r"); FileChannel channel = file.getChannel() ) {
+
+            return new TypeIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * @param resourceUri
+     * @return the types of the resource, empty if the resource is unknown
+     */
+    public List<String> getTypes(String resourceUri) {
+
+        long key = key(resourceUri);
+        int low = 0, high = this.numberOfResources - 1;
+        while ( low <= high ) {
+
+            int middle = (low + high) >>> 1;
+            // absolute reads do not touch the position, so the buffer can be shared
+            long current = this.buffer.getLong(this.keysOffset + middle * 8);
+            if ( current < key ) low = middle + 1;
+            else if ( current > key ) high = middle - 1;
+            else {
+
+                int from = this.buffer.getInt(this.offsetsOffset + middle * 4);
+                int to = this.buffer.getInt(this.offsetsOffset + (middle + 1) * 4);
+                List<String> resourceTypes = new ArrayList<String>(to - from);
+                for ( int i = from; i < to; i++ )
+                    resourceTypes.add(this.types[this.buffer.getShort(this.typesOffset + i * 2) & 0xFFFF]);
+
+                return resourceTypes;
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * @return the number of resources with at least one type
+     */
+    public int size() {
+        return numberOfResources;
+    }
+
+    /**
+     * @return the number of resources of every type
+     */
+    public Map<String, Long> countResourcesPerType() {
+
+        long[] counts = new long[this.types.length];
+        int numberOfAssertions = this.buffer.getInt(this.offsetsOffset + this.numberOfResources * 4);
+        for ( int i = 0; i < numberOfAssertions; i++ )
+            counts[this.buffer.getShort(this.typesOffset + i * 2) & 0xFFFF]++;
+
+        Map<String, Long> resourcesPerType = new HashMap<String, Long>();
+        for ( int i = 0; i < counts.length; i++ ) resourcesPerType.put(this.types[i], counts[i]);
+        return resourcesPerType;
+    }
+
+    /**
+     * Builds a type index from a (gzipped) n-triples dump. Only the rdf:type
+     * assertions whose type starts with the given prefix are indexed.
+     *
+     * @param dump
+     * @param index
+     * @param typePrefix e.g. http://dbpedia.org/ontology/
+     * @throws IOException
+     */
+    public static void build(File dump, File index, String typePrefix) throws IOException {
+
+        long start = System.currentTimeMillis();
+        Map<String, Integer> typeIds = new HashMap<String, Integer>();
+        List<String> typeUris = new ArrayList<String>();
+        // the resource key in the upper and the type id in the lower bits
+        long[] assertions = new long[1 << 20];
+        int size = 0;
+
+        InputStream input = new FileInputStream(dump);
+        if ( dump.getName().endsWith(".gz") ) input = new GZIPInputStream(input, 1 << 16);
+
+        try ( BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 1 << 16) ) {
+
+            String line;
+            while ( (line = reader.readLine()) != null ) {
+
+                if ( !line.startsWith("<") ) continue;
+                int subjectEnd = line.indexOf('>');
+                int predicateStart = line.indexOf('<', subjectEnd);
+                if ( subjectEnd < 0 || predicateStart < 0 || !line.startsWith(RDF_TYPE, predicateStart) ) continue;
+
+                int typeStart = line.indexOf('<', predicateStart + RDF_TYPE.length());
+                int typeEnd = typeStart < 0 ? -1 : line.indexOf('>', typeStart);
+                if ( typeEnd < 0 ) continue;
+
+                String type = unescape(line.substring(typeStart + 1, typeEnd));
+                if ( !type.startsWith(typePrefix) ) continue;
+
+                Integer typeId = typeIds.get(type);
+                if ( typeId == null ) {
+
+                    if ( typeUris.size() == 1 << TYPE_BITS ) throw new IOException("Too many types in " + dump);
+                    typeIds.put(type, typeId = typeUris.size());
+                    typeUris.add(type);
+                }
+
+                if ( size == assertions.length ) assertions = Arrays.copyOf(assertions, size * 2);
+                assertions[size++] = (key(unescape(line.substring(1, subjectEnd))) << TYPE_BITS) | typeId;
+            }
+        }
+
+        // sorting groups the assertions by resource and removes the need for a map
+        Arrays.sort(assertions, 0, size);
+        int distinct = 0, resources = 0;
+        for ( int i = 0; i < size; i++ ) {
+
+            if ( distinct > 0 && assertions[i] == assertions[distinct - 1] ) continue;
+            if ( distinct == 0 || (assertions[i] >>> TYPE_BITS) != (assertions[distinct - 1] >>> TYPE_BITS) ) resources++;
+            assertions[distinct++] = assertions[i];
+        }
+
+        try ( DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(index), 1 << 16)) ) {
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(typeUris.size());
+            for ( String type : typeUris ) {
+
+                byte[] bytes = type.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            out.writeInt(resources);
+            out.writeInt(distinct);
+
+            for ( int i = 0; i < distinct; i++ )
+                if ( i == 0 || (assertions[i] >>> TYPE_BITS) != (assertions[i - 1] >>> TYPE_BITS) )
+                    out.writeLong(assertions[i] >>> TYPE_BITS);
+
+            for ( int i = 0; i < distinct; i++ )
+                if ( i == 0 || (assertions[i] >>> TYPE_BITS) != (assertions[i - 1] >>> TYPE_BITS) ) out.writeInt(i);
+            out.writeInt(distinct);
+
+            for ( int i = 0; i < distinct; i++ ) out.writeShort((int) (assertions[i] & ((1 << TYPE_BITS) - 1)));
+        }
+
+        LOGGER.info("Indexed " + distinct + " types of " + resources + " resources from " + dump + " in "
+                + (System.currentTimeMillis() - start) + "ms");
+        LOGGER.info(String.format("Expected number of resources sharing a hash: %.3f", (double) resources * resources / (1L << 48)));
+    }
+
+    /**
+     * Decodes the \\uXXXX and \\UXXXXXXXX escapes of an n-triples IRI, the
+     * model passes the URIs with the characters themselves. A malformed
+     * escape is kept as it is.
+     *
+     * @param iri the IRI between the angle brackets
+     * @return
+     */
+    static String unescape(String iri) {
+
+        int backslash = iri.indexOf('\\');
+        if ( backslash < 0 ) return iri;
+
+        StringBuilder unescaped = new StringBuilder(iri.length());
+        unescaped.append(iri, 0, backslash);
+        for ( int i = backslash; i < iri.length(); i++ ) {
+
+            char c = iri.charAt(i);
+            int digits = c != '\\' || i + 1 == iri.length() ? 0 : iri.charAt(i + 1) == 'u' ? 4 : iri.charAt(i + 1) == 'U' ? 8 : 0;
+            int codePoint = digits > 0 && i + 2 + digits <= iri.length() ? 0 : -1;
+            for ( int j = i + 2; codePoint >= 0 && j < i + 2 + digits; j++ ) {
+
+                int digit = Character.digit(iri.charAt(j), 16);
+                codePoint = digit < 0 ? -1 : codePoint * 16 + digit;
+            }
+
+            if ( codePoint >= 0 && Character.isValidCodePoint(codePoint) ) {
+
+                unescaped.appendCodePoint(codePoint);
+                i += 1 + digits;
+            }
+            else unescaped.append(c);
+        }
+        return unescaped.toString();
+    }
+
+    /**
+     * FNV-1a hash of the URI, cut to 47 bits so the packed assertions stay
+     * positive. See the class comment for the collision rate.
+     */
+    private static long key(String uri) {
+
+        long hash = 0xcbf29ce484222325L;
+        for ( int i = 0; i < uri.length(); i++ ) {
+
+            hash ^= uri.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash & KEY_MASK;
+    }
+
+    public static void main(String[] args) throws IOException {
+
+        if ( args.length < 2 ) {
+
+            System.out.println("Usage: TypeIndex <n-triples dump> <index file> [type prefix]");
+            return;
+        }
+        build(new File(args[0]), new File(args[1]), args.length > 2 ? args[2] : OntologyIndex.DBPEDIA_ONTOLOGY);
+    }
+}
@@ -0,0 +1,282 @@
+package org.aksw.defacto.search.cache.local;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.aksw.defacto.Defacto;
+import org.aksw.defacto.cache.Cache;
+import org.aksw.defacto.cache.WriteBehindCache;
+import org.aksw.defacto.config.DefactoConfig;
+import org.aksw.defacto.evidence.WebSite;
+import org.aksw.defacto.search.query.MetaQuery;
+import org.aksw.defacto.search.result.DefaultSearchResult;
+import org.aksw.defacto.search.result.SearchResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the search results on the local disk in a {@link LogStore}. The
+ * results are identified by the string of their {@link MetaQuery}, the
+ * websites of a result including the article text are stored as one deflate
+ * compressed value. Single writes are asynchronous, a result is readable right
+ * after it was added. {@link #addAll(List)} returns once the batch is on disk,
+ * so the {@link WriteBehindCache} in front of it cannot outrun the store.
+ */
+public class LocalSearchResultCache implements Cache<SearchResult> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocalSearchResultCache.class);
+
+    private static final int VERSION = 1;
+
+    private static LogStore store;
+    private static WriteBehindCache<SearchResult> writeBehindCache;
+
+    /**
+     * Opens the store configured in the crawl section. Without a store all
+     * lookups miss and all additions are dropped.
+     */
+    public static synchronized void init() {
+
+        if ( store != null ) return;
+
+        String directory = Defacto.DEFACTO_CONFIG.getStringSetting("crawl", "SEARCH_RESULT_STORE");
+        if ( directory == null ) {
+
+            LOGGER.warn("No search result store configured, search results are not cached");
+            return;
+        }
+
+        long maxBytes = Defacto.DEFACTO_CONFIG.getIntegerSetting("crawl", "SEARCH_RESULT_STORE_MAX_SIZE_MB") * 1024L * 1024L;
+        long segmentBytes = Math.max(1L << 20, Math.min(64L << 20, maxBytes / 8));
+        try {
+
+            store = new LogStore(new File(DefactoConfig.DEFACTO_DATA_DIR + directory), maxBytes, segmentBytes);
+            if ( Defacto.DEFACTO_CONFIG.getBooleanSetting("crawl", "CACHE_SEARCH_RESULTS") )
+                writeBehindCache = new WriteBehindCache<SearchResult>(new LocalSearchResultCache(), "search-result-cache",
+                        Defacto.DEFACTO_CONFIG.getIntegerSetting("crawl", "SEARCH_RESULT_WRITE_QUEUE_SIZE"),
+                        Defacto.DEFACTO_CONFIG.getIntegerSetting("crawl", "SEARCH_RESULT_WRITE_BATCH_SIZE"), 1000);
+            Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+
+                @Override
+                public void run() {
+                    close();
+                }
+            }, "search-result-store-shutdown"));
+        }
+        catch (IOException e) {
+
+            LOGGER.error("Could not open the search result store, search results are not cached", e);
+        }
+    }
+
+    /**
+     * @return the cache the crawler writes new search results to, null if
+     *          search results are not cached
+     */
+    public static WriteBehindCache<SearchResult> getWriteBehindCache() {
+        return writeBehindCache;
+    }
+
+    /**
+     * Writes all queued and pending results and closes the store.
+     */
+    public static synchronized void close() {
+
+        if ( writeBehindCache != null ) writeBehindCache.close();
+        writeBehindCache = null;
+
+        if ( store == null ) return;
+        try {
+
+            store.close();
+        }
+        catch (IOException e) {
+
+            LOGGER.error("Could not close the search result store", e);
+        }
+        store = null;
+    }
+
+    @Override
+    public boolean contains(String identifier) {
+
+        LogStore store = LocalSearchResultCache.store;
+        return store != null && store.contains(identifier);
+    }
+
+    @Override
+    public SearchResult getEntry(String identifier) {
+
+        LogStore store = LocalSearchResultCache.store;
+        if ( store == null ) return null;
+
+        try {
+
+            byte[] value = store.get(identifier);
+            return value == null ? null : decode(value);
+        }
+        catch (IOException e) {
+
+            LOGGER.error("Could not read search result: " + identifier, e);
+            return null;
+        }
+    }
+
+    @Override
+    public SearchResult removeEntryByPrimaryKey(String primaryKey) {
+
+        LogStore store = LocalSearchResultCache.store;
+        SearchResult result = this.getEntry(primaryKey);
+        if ( result != null && store != null ) store.remove(primaryKey);
+        return result;
+    }
+
+    @Override
+    public boolean updateEntry(SearchResult object) {
+
+        LogStore store = LocalSearchResultCache.store;
+        if ( store == null ) return false;
+        store.put(object.getQuery().toString(), encode(object));
+        return true;
+    }
+
+    /**
+     * Writes the results and waits until they are on disk.
+     *
+     * @throws IllegalStateException if the store could not write them
+     */
+    @Override
+    public List<SearchResult> addAll(List<SearchResult> listToAdd) {
+
+        LogStore store = LocalSearchResultCache.store;
+        if ( store == null ) return listToAdd;
+
+        for ( SearchResult result : listToAdd ) this.add(result);
+        try {
+
+            store.flush();
+        }
+        catch (IOException e) {
+
+            throw new IllegalStateException("Could not write " + listToAdd.size() + " search results", e);
+        }
+        return listToAdd;
+    }
+
+    /**
+     * results coming from the cache are not written again
+     */
+    @Override
+    public SearchResult add(SearchResult entry) {
+
+        LogStore store = LocalSearchResultCache.store;
+        if ( store != null && !entry.isCached() ) store.put(entry.getQuery().toString(), encode(entry));
+        return entry;
+    }
+
+    /**
+     * @param result
+     * @return the compressed result
+     */
+    static byte[] encode(SearchResult result) {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try ( DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes, deflater, 1 << 13)) ) {
+
+            out.writeInt(VERSION);
+            writeString(out, result.getQuery().toString());
+            out.writeLong(result.getTotalHitCount());
+            out.writeInt(result.getWebSites().size());
+            for ( WebSite site : result.getWebSites() ) {
+
+                writeString(out, site.getUrl());
+                writeString(out, site.getTitle());
+                writeString(out, site.getText());
+                writeString(out, site.getTaggedText());
+                writeString(out, site.getLanguage());
+                out.writeFloat(site.getSearchRank());
+                out.writeFloat(site.getPageRank());
+            }
+        }
+        catch (IOException e) {
+
+            // there is no I/O on a byte array
+            throw new IllegalStateException(e);
+        }
+        finally {
+
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param value
+     * @return the result with all websites marked as cached
+     * @throws IOException
+     */
+    static SearchResult decode(byte[] value) throws IOException {
+
+        Inflater inflater = new Inflater();
+        try ( DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(value), inflater, 1 << 13)) ) {
+
+            if ( in.readInt() != VERSION ) throw new IOException("Unsupported search result version");
+
+            MetaQuery query = new MetaQuery(readString(in));
+            long hitCount = in.readLong();
+            int numberOfWebsites = in.readInt();
+            List<WebSite> websites = new ArrayList<WebSite>(numberOfWebsites);
+            for ( int i = 0; i < numberOfWebsites; i++ ) {
+
+                WebSite site = new WebSite(query, readString(in));
+                site.setTitle(readString(in));
+                site.setText(readString(in));
+                site.setTaggedText(readString(in));
+                site.setLanguage(readString(in));
+                site.setRank(in.readFloat());
+                site.setPageRank((int) in.readFloat());
+                site.setCached(true);
+                websites.add(site);
+            }
+            return new DefaultSearchResult(websites, hitCount, query, true);
+        }
+        finally {
+
+            inflater.end();
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+
+        if ( value == null ) {
+
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+
+        int length = in.readInt();
+        if ( length < 0 ) return null;
+
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,609 @@
+package org.aksw.defacto.search.cache.local;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A log structured key value store on the local disk. All writes are appended
+ * to the newest segment file by a single background thread, which takes the
+ * queued writes in batches so a batch costs one write and one sync. The
+ * position of the latest value of every key is kept in memory, a lookup is a
+ * single positional read.
+ *
+ * Every record carries a CRC32, so a record torn by a crash is detected and
+ * cut off when the store is opened again (warm restart). If the segments
+ * grow beyond the size cap the oldest segment is dropped, if more than half
+ * of the disk space is taken by overwritten or removed values the live
+ * values are compacted into new segments.
+ *
+ * A segment file starts with the magic number and version, followed by the
+ * records (big endian): the checksum of the rest of the record, the key
+ * length, the value length (-1 for removals), the key and the value.
+ */
+public class LogStore implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LogStore.class);
+
+    private static final int MAGIC = 0x44464c53;
+    private static final int VERSION = 1;
+    private static final int SEGMENT_HEADER = 8;
+    private static final int RECORD_HEADER = 12;
+    private static final int REMOVED_LENGTH = -1;
+    private static final int BATCH_SIZE = 256;
+    private static final String SUFFIX = ".seg";
+
+    /** marks a pending removal, compared by identity */
+    private static final byte[] REMOVED = new byte[0];
+
+    private final File directory;
+    private final long maxBytes;
+    private final long segmentBytes;
+
+    private final Map<String, Location> index = new ConcurrentHashMap<String, Location>();
+    private final Map<String, byte[]> pending = new ConcurrentHashMap<String, byte[]>();
+    private final BlockingQueue<Write> queue = new LinkedBlockingQueue<Write>();
+    // guards the segment map, writes only happen on the writer thread
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<Integer, Segment> segments = new TreeMap<Integer, Segment>();
+    private final Thread writer;
+
+    private volatile boolean closed = false;
+    private volatile IOException failure;
+    private long liveBytes = 0;
+    private long totalBytes = 0;
+
+    /**
+     * Opens the store in the given directory and reads the keys of all
+     * existing segments.
+     *
+     * @param directory created if it does not exist
+     * @param maxBytes the size cap of all segments
+     * @param segmentBytes the size after which a new segment is started
+     * @throws IOException
+     */
+    public LogStore(File directory, long maxBytes, long segmentBytes) throws IOException {
+
+        if ( !directory.isDirectory() && !directory.mkdirs() ) throw new IOException("Could not create " + directory);
+
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.segmentBytes = segmentBytes;
+
+        File[] files = directory.listFiles();
+        List<Integer> ids = new ArrayList<Integer>();
+        for ( File file : files ) {
+
+            String name = file.getName();
+            if ( name.endsWith(SUFFIX) ) ids.add(Integer.parseInt(name.substring(0, name.length() - SUFFIX.length())));
+        }
+        Collections.sort(ids);
+        for ( int id : ids ) this.recover(this.openSegment(id));
+        if ( this.segments.isEmpty() ) this.createSegment(1);
+
+        LOGGER.info("Opened store " + directory + " with " + this.index.size() + " entries in "
+                + this.segments.size() + " segments (" + (this.totalBytes >> 20) + "MB)");
+
+        this.writer = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                writeLoop();
+            }
+        }, "log-store-writer-" + directory.getName());
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * @param key
+     * @return the value or null if the key is unknown
+     * @throws IOException
+     */
+    public byte[] get(String key) throws IOException {
+
+        while ( true ) {
+
+            byte[] value = this.pending.get(key);
+            if ( value != null ) return value == REMOVED ? null : value;
+
+            Location location = this.index.get(key);
+            if ( location == null ) return null;
+
+            this.lock.readLock().lock();
+            try {
+
+                Segment segment = this.segments.get(location.segment);
+                if ( segment != null ) return segment.read(location.offset, location.length);
+            }
+            finally {
+                this.lock.readLock().unlock();
+            }
+            // the segment was evicted or compacted while we looked the key up
+            if ( this.index.get(key) == location ) return null;
+        }
+    }
+
+    /**
+     * @param key
+     * @return true if a value is stored or about to be stored for the key
+     */
+    public boolean contains(String key) {
+
+        byte[] value = this.pending.get(key);
+        if ( value != null ) return value != REMOVED;
+        return this.index.containsKey(key);
+    }
+
+    /**
+     * Stores the value asynchronously, it is visible to {@link #get(String)} immediately.
+     *
+     * @param key
+     * @param value
+     */
+    public void put(String key, byte[] value) {
+
+        if ( value == null || value.length == 0 ) throw new IllegalArgumentException("Empty value for " + key);
+        this.enqueue(new Write(key, value));
+    }
+
+    /**
+     * Removes the value asynchronously.
+     *
+     * @param key
+     */
+    public void remove(String key) {
+
+        this.enqueue(new Write(key, REMOVED));
+    }
+
+    private void enqueue(Write write) {
+
+        if ( this.closed ) throw new IllegalStateException("Store " + this.directory + " is closed");
+        if ( write.key != null ) this.pending.put(write.key, write.value);
+        this.queue.add(write);
+    }
+
+    /**
+     * Blocks until all writes issued before are on disk.
+     *
+     * @throws IOException if the background writer failed
+     */
+    public void flush() throws IOException {
+
+        Write barrier = new Write(null, null);
+        this.enqueue(barrier);
+        try {
+
+            barrier.done.await();
+        }
+        catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while flushing " + this.directory, e);
+        }
+        IOException failure = this.failure;
+        if ( failure != null ) {
+
+            this.failure = null;
+            throw failure;
+        }
+    }
+
+    /**
+     * @return the number of stored keys
+     */
+    public int size() {
+        return this.index.size();
+    }
+
+    /**
+     * @return the size of all segments in bytes
+     */
+    public synchronized long getDiskSize() {
+        return this.totalBytes;
+    }
+
+    /**
+     * Flushes all pending writes and closes the segments.
+     */
+    @Override
+    public void close() throws IOException {
+
+        if ( this.closed ) return;
+        this.flush();
+        this.closed = true;
+        try {
+
+            this.writer.join();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        this.lock.writeLock().lock();
+        try {
+
+            for ( Segment segment : this.segments.values() ) segment.channel.close();
+        }
+        finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    private void writeLoop() {
+
+        List<Write> batch = new ArrayList<Write>(BATCH_SIZE);
+        while ( !this.closed || !this.queue.isEmpty() ) {
+
+            try {
+
+                Write first = this.queue.poll(100, TimeUnit.MILLISECONDS);
+                if ( first == null ) continue;
+
+                batch.add(first);
+                this.queue.drainTo(batch, BATCH_SIZE - 1);
+                this.write(batch);
+            }
+            catch (InterruptedException e) {
+
+                Thread.currentThread().interrupt();
+                return;
+            }
+            catch (IOException e) {
+
+                LOGGER.error("Could not write to " + this.directory, e);
+                this.failure = e;
+                // keep the values readable from memory, they are lost on restart
+            }
+            finally {
+
+                for ( Write write : batch ) if ( write.key == null ) write.done.countDown();
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * appends the batch with one write per segment, then publishes the new locations
+     */
+    private void write(List<Write> batch) throws IOException {
+
+        Segment segment = this.segments.lastEntry().getValue();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        List<Location> locations = new ArrayList<Location>(batch.size());
+        long written = 0;
+        for ( Write write : batch ) {
+
+            if ( write.key == null ) {
+
+                locations.add(null);
+                continue;
+            }
+            if ( segment.size + bytes.size() >= this.segmentBytes ) {
+
+                written += bytes.size();
+                segment.append(ByteBuffer.wrap(bytes.toByteArray()));
+                bytes.reset();
+                segment = this.createSegment(segment.id + 1);
+            }
+            long offset = segment.size + bytes.size();
+            int length = writeRecord(out, write.key, write.value == REMOVED ? null : write.value);
+            locations.add(new Location(segment.id, offset, length));
+        }
+        written += bytes.size();
+        if ( bytes.size() > 0 ) segment.append(ByteBuffer.wrap(bytes.toByteArray()));
+        if ( written == 0 ) return;
+
+        synchronized (this) {
+
+            this.totalBytes += written;
+            for ( int i = 0; i < batch.size(); i++ ) {
+
+                Write write = batch.get(i);
+                if ( write.key == null ) continue;
+
+                Location old = write.value == REMOVED ? this.index.remove(write.key) : this.index.put(write.key, locations.get(i));
+                if ( old != null ) this.liveBytes -= old.length;
+                if ( write.value != REMOVED ) this.liveBytes += locations.get(i).length;
+                // a newer value for the same key stays pending
+                this.pending.remove(write.key, write.value);
+            }
+        }
+
+        this.enforceLimits();
+    }
+
+    private void enforceLimits() throws IOException {
+
+        while ( this.getDiskSize() > this.maxBytes && this.segments.size() > 1 ) this.evictOldestSegment();
+
+        synchronized (this) {
+            if ( this.totalBytes < this.segmentBytes || this.liveBytes * 2 > this.totalBytes ) return;
+        }
+        this.compact();
+    }
+
+    private void evictOldestSegment() throws IOException {
+
+        Segment oldest;
+        this.lock.writeLock().lock();
+        try {
+
+            oldest = this.segments.pollFirstEntry().getValue();
+        }
+        finally {
+            this.lock.writeLock().unlock();
+        }
+
+        int evicted = 0;
+        synchronized (this) {
+
+            for ( Map.Entry<String, Location> entry : this.index.entrySet() ) {
+
+                Location location = entry.getValue();
+                if ( location.segment == oldest.id && this.index.remove(entry.getKey(), location) ) {
+
+                    this.liveBytes -= location.length;
+                    evicted++;
+                }
+            }
+            this.totalBytes -= oldest.size;
+        }
+        oldest.delete();
+        LOGGER.info("Evicted " + evicted + " entries of segment " + oldest.id + " from " + this.directory);
+    }
+
+    /**
+     * copies the live records into new segments and deletes all old ones
+     */
+    private void compact() throws IOException {
+
+        long start = System.currentTimeMillis();
+        List<Segment> old = new ArrayList<Segment>(this.segments.values());
+        Segment target = this.createSegment(this.segments.lastKey() + 1);
+        Map<String, Location> moved = new HashMap<String, Location>();
+
+        for ( Map.Entry<String, Location> entry : this.index.entrySet() ) {
+
+            Location location = entry.getValue();
+            Segment source = this.segments.get(location.segment);
+            if ( source == null || source.id >= target.id ) continue;
+
+            if ( target.size >= this.segmentBytes ) target = this.createSegment(target.id + 1);
+            long offset = target.size;
+            target.append(ByteBuffer.wrap(source.readRecord(location.offset, location.length)));
+            moved.put(entry.getKey(), new Location(target.id, offset, location.length));
+        }
+
+        synchronized (this) {
+
+            for ( Map.Entry<String, Location> entry : moved.entrySet() ) this.index.put(entry.getKey(), entry.getValue());
+
+            this.totalBytes = 0;
+            this.lock.writeLock().lock();
+            try {
+
+                for ( Segment segment : old ) this.segments.remove(segment.id);
+                for ( Segment segment : this.segments.values() ) this.totalBytes += segment.size;
+            }
+            finally {
+                this.lock.writeLock().unlock();
+            }
+        }
+        for ( Segment segment : old ) segment.delete();
+
+        LOGGER.info("Compacted " + moved.size() + " entries of " + this.directory + " into "
+                + (this.getDiskSize() >> 20) + "MB in " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    /**
+     * reads all records of the segment into the index and cuts off a torn tail
+     */
+    private void recover(Segment segment) throws IOException {
+
+        long position = SEGMENT_HEADER;
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER);
+        while ( position + RECORD_HEADER <= segment.size ) {
+
+            header.clear();
+            segment.readFully(header, position);
+            header.flip();
+            int checksum = header.getInt();
+            int keyLength = header.getInt();
+            int valueLength = header.getInt();
+            if ( keyLength < 0 || valueLength < REMOVED_LENGTH ) break;
+
+            long length = RECORD_HEADER + (long) keyLength + Math.max(0, valueLength);
+            if ( position + length > segment.size ) break;
+
+            byte[] record = segment.readRecord(position, (int) length);
+            CRC32 crc = new CRC32();
+            crc.update(record, 4, record.length - 4);
+            if ( (int) crc.getValue() != checksum ) break;
+
+            String key = new String(record, RECORD_HEADER, keyLength, StandardCharsets.UTF_8);
+            Location old = valueLength == REMOVED_LENGTH ? this.index.remove(key)
+                    : this.index.put(key, new Location(segment.id, position, (int) length));
+            if ( old != null ) this.liveBytes -= old.length;
+            if ( valueLength != REMOVED_LENGTH ) this.liveBytes += length;
+            position += length;
+        }
+
+        if ( position < segment.size ) {
+
+            LOGGER.warn("Cutting off " + (segment.size - position) + " corrupt bytes of " + segment.file);
+            segment.channel.truncate(position);
+            segment.size = position;
+        }
+        this.totalBytes += segment.size;
+    }
+
+    private Segment openSegment(int id) throws IOException {
+
+        Segment segment = new Segment(id, new File(this.directory, String.format("%08d", id) + SUFFIX));
+        ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER);
+        if ( segment.size < SEGMENT_HEADER ) throw new IOException("Truncated segment " + segment.file);
+        segment.readFully(header, 0);
+        header.flip();
+        if ( header.getInt() != MAGIC || header.getInt() != VERSION ) throw new IOException("Not a store segment: " + segment.file);
+
+        this.segments.put(id, segment);
+        return segment;
+    }
+
+    private Segment createSegment(int id) throws IOException {
+
+        Segment segment = new Segment(id, new File(this.directory, String.format("%08d", id) + SUFFIX));
+        ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER);
+        header.putInt(MAGIC).putInt(VERSION).flip();
+        segment.append(header);
+
+        this.lock.writeLock().lock();
+        try {
+
+            this.segments.put(id, segment);
+        }
+        finally {
+            this.lock.writeLock().unlock();
+        }
+        synchronized (this) {
+            this.totalBytes += SEGMENT_HEADER;
+        }
+        return segment;
+    }
+
+    /**
+     * @return the length of the record
+     */
+    private static int writeRecord(DataOutputStream out, String key, byte[] value) throws IOException {
+
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER + keyBytes.length + (value == null ? 0 : value.length));
+        record.putInt(0);
+        record.putInt(keyBytes.length);
+        record.putInt(value == null ? REMOVED_LENGTH : value.length);
+        record.put(keyBytes);
+        if ( value != null ) record.put(value);
+
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 4, record.capacity() - 4);
+        record.putInt(0, (int) crc.getValue());
+
+        out.write(record.array());
+        return record.capacity();
+    }
+
+    private static class Write {
+
+        private final String key;
+        private final byte[] value;
+        private final CountDownLatch done;
+
+        private Write(String key, byte[] value) {
+
+            this.key = key;
+            this.value = value;
+            this.done = key == null ? new CountDownLatch(1) : null;
+        }
+    }
+
+    private static class Location {
+
+        private final int segment;
+        private final long offset;
+        private final int length;
+
+        private Location(int segment, long offset, int length) {
+
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private static class Segment {
+
+        private final int id;
+        private final File file;
+        private final FileChannel channel;
+        private volatile long size;
+
+        private Segment(int id, File file) throws IOException {
+
+            this.id = id;
+            this.file = file;
+            this.channel = new RandomAccessFile(file, "rw").getChannel();
+            this.size = this.channel.size();
+        }
+
+        /**
+         * only called by the writer thread
+         */
+        private void append(ByteBuffer buffer) throws IOException {
+
+            long position = this.size;
+            while ( buffer.hasRemaining() ) position += this.channel.write(buffer, position);
+            this.channel.force(false);
+            this.size = position;
+        }
+
+        private byte[] readRecord(long offset, int length) throws IOException {
+
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            this.readFully(buffer, offset);
+            return buffer.array();
+        }
+
+        /**
+         * @return the value of the record
+         */
+        private byte[] read(long offset, int length) throws IOException {
+
+            byte[] record = this.readRecord(offset, length);
+            int keyLength = ByteBuffer.wrap(record, 4, 4).getInt();
+            return Arrays.copyOfRange(record, RECORD_HEADER + keyLength, record.length);
+        }
+
+        private void readFully(ByteBuffer buffer, long position) throws IOException {
+
+            while ( buffer.hasRemaining() ) {
+
+                int read = this.channel.read(buffer, position);
+                if ( read < 0 ) throw new EOFException("Unexpected end of " + this.file);
+                position += read;
+            }
+        }
+
+        private void delete() throws IOException {
+
+            this.channel.close();
+            if ( !this.file.delete() ) LOGGER.warn("Could not delete " + this.file);
+        }
+    }
+}
@@ -3,6 +3,7 @@
  */
 package org.aksw.defacto.search.concurrent;
 
+import java.util.List;
 import java.util.concurrent.Callable;
 
 import org.aksw.defacto.evidence.ComplexProof;
@@ -16,35 +17,41 @@ import org.apache.log4j.Logger;
  * @author gerb
  *
  */
-public class RegexParseCallable implements Callable<ComplexProof>, ParseCallable {
+public class RegexParseCallable implements Callable<List<ComplexProof>>, ParseCallable {
 
-	private ComplexProof proof;
+	private List<ComplexProof> proofs;
 	private Logger logger = Logger.getLogger(RegexParseCallable.class);
 	private RegexTagger dateTagger = new RegexTagger();
 
-	public RegexParseCallable(ComplexProof proofsSublist) {
+	/**
+	 * @param websiteProofs the proofs of one website, its text is decoded once for all of them
+	 */
+	public RegexParseCallable(List<ComplexProof> websiteProofs) {
 
-		this.proof = proofsSublist;
+		this.proofs = websiteProofs;
 	}
 
 	@Override
-	public ComplexProof call() throws Exception {
+	public List<ComplexProof> call() throws Exception {
 		
-//		for ( ComplexProof proof : this.proofs ) {
+		if ( this.proofs.isEmpty() ) return this.proofs;
+		String text = this.proofs.get(0).getWebSite().getText();
+		
+		for ( ComplexProof proof : this.proofs ) {
 			
-			String merged = StringUtils.join(NlpUtil.mergeConsecutiveNerTags(dateTagger.getAnnotatedSentences(proof.getLargeContext())), "-=-");
+			String merged = StringUtils.join(NlpUtil.mergeConsecutiveNerTags(dateTagger.getAnnotatedSentences(proof.getContext(3, text))), "-=-");
 			proof.setTaggedLargeContext(merged);
 			
-			merged = StringUtils.join(NlpUtil.mergeConsecutiveNerTags(dateTagger.getAnnotatedSentences(proof.getMediumContext())), "-=-");
+			merged = StringUtils.join(NlpUtil.mergeConsecutiveNerTags(dateTagger.getAnnotatedSentences(proof.getContext(2, text))), "-=-");
 			proof.setTaggedMediumContext(merged);
 			
-			merged = StringUtils.join(NlpUtil.mergeConsecutiveNerTags(dateTagger.getAnnotatedSentences(proof.getSmallContext())), "-=-");
+			merged = StringUtils.join(NlpUtil.mergeConsecutiveNerTags(dateTagger.getAnnotatedSentences(proof.getContext(1, text))), "-=-");
 			proof.setTaggedSmallContext(merged);
 			
-			merged = StringUtils.join(NlpUtil.mergeConsecutiveNerTags(dateTagger.getAnnotatedSentences(proof.getTinyContext())), "-=-");
+			merged = StringUtils.join(NlpUtil.mergeConsecutiveNerTags(dateTagger.getAnnotatedSentences(proof.getContext(0, text))), "-=-");
 			proof.setTaggedTinyContext(merged);
-//		}
+		}
 		
-		return this.proof;
+		return this.proofs;
 	}
 }
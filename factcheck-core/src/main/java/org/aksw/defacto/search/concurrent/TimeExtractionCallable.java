@@ -0,0 +1,29 @@
+package org.aksw.defacto.search.concurrent;
+
+import java.util.concurrent.Callable;
+
+import org.aksw.defacto.evidence.WebSite;
+import org.aksw.defacto.search.time.TimeDistributionExtractor;
+
+public class TimeExtractionCallable implements Callable<WebSite> {
+
+    private WebSite website;
+    private TimeDistributionExtractor extractor;
+
+    /**
+     * @param website
+     * @param extractor
+     */
+    public TimeExtractionCallable(WebSite website, TimeDistributionExtractor extractor) {
+
+        this.website = website;
+        this.extractor = extractor;
+    }
+
+    @Override
+    public WebSite call() {
+
+        extractor.extract(website);
+        return website;
+    }
+}
@@ -19,24 +19,25 @@ import java.util.regex.Matcher;
 import org.aksw.defacto.Constants;
 import org.aksw.defacto.Defacto;
 import org.aksw.defacto.Defacto.TIME_DISTRIBUTION_ONLY;
-import org.aksw.defacto.boa.BoaPatternSearcher;
+import org.aksw.defacto.boa.BoaPatternRegistry;
 import org.aksw.defacto.boa.Pattern;
 import org.aksw.defacto.cache.Cache;
 import org.aksw.defacto.evidence.ComplexProof;
 import org.aksw.defacto.evidence.Evidence;
 import org.aksw.defacto.evidence.WebSite;
 import org.aksw.defacto.model.DefactoModel;
-import org.aksw.defacto.search.cache.solr.Solr4SearchResultCache;
+import org.aksw.defacto.search.cache.local.LocalSearchResultCache;
 import org.aksw.defacto.search.concurrent.HtmlCrawlerCallable;
 import org.aksw.defacto.search.concurrent.RegexParseCallable;
 import org.aksw.defacto.search.concurrent.WebSiteScoreCallable;
 import org.aksw.defacto.search.query.MetaQuery;
 import org.aksw.defacto.search.result.SearchResult;
+import org.aksw.defacto.search.time.TimeDistributionExtractor;
+import org.aksw.defacto.search.time.YearHistogram;
 import org.aksw.defacto.topic.TopicTermExtractor;
 import org.apache.http.HttpHost;
 import org.dice.factcheck.search.engine.elastic.ElasticSearchEngine;
 import org.dice.factcheck.topicterms.Word;
-import org.aksw.defacto.util.Frequency;
 import org.aksw.defacto.util.TimeUtil;
 import org.apache.commons.lang3.StringUtils;
 import org.dice.factcheck.topicterms.TopicTermsCoherence;
@@ -57,7 +58,6 @@ public class EvidenceCrawler {
     java.util.regex.Pattern pattern = java.util.regex.Pattern.compile("[0-9]{4}");
     private Map<Pattern, MetaQuery> patternToQueries;
     private DefactoModel model;
-    BoaPatternSearcher searcher = new BoaPatternSearcher();
     private static String CORENLP_SERVER1;
     private static String CORENLP_PORT1;
     private static String CORENLP_SERVER2;
@@ -120,8 +120,8 @@ public class EvidenceCrawler {
 
 
             scoreSearchResults(searchResults, model, evidence);
-            // put it in solr cache
-            //cacheSearchResults(searchResults);
+            // put it in the local cache, the results are written in the background
+            cacheSearchResults(searchResults);
 
 
             // start multiple threads to download the text of the websites simultaneously
@@ -154,7 +154,8 @@ public class EvidenceCrawler {
                         Word object = new Word(objectLabel, 0);
                         topicTerms.add(subject);
                         topicTerms.add(object);
-                        List<Pattern> patterns = searcher.querySolrIndex(evidence.getModel().getPropertyUri(), 20, 0, language);
+                        List<Pattern> patterns = BoaPatternRegistry.getPatterns(evidence.getModel().getPropertyUri(), language,
+                                BoaPatternRegistry.NUMBER_OF_FEATURE_PATTERNS, 0);
                         for (Pattern p : patterns) {
                             Word predicate = new Word(p.getNormalized().trim(), 0);
                             topicTerms.add(predicate);
@@ -172,21 +173,65 @@ public class EvidenceCrawler {
     }
 
     /**
+     * Crawls an evidence which only has the year distribution. The websites
+     * are scanned for the labels of subject and object and the years around
+     * them are counted, see {@link TimeDistributionExtractor}. Since these
+     * evidences lack everything a fact check needs they are not cached, but a
+     * fully crawled evidence from the cache is returned as it is.
+     *
+     * @param listener notified after each website, may be null
+     * @return
+     */
+    public Evidence crawlTimeDistribution(TimeDistributionExtractor.Listener listener) {
+
+        if (evidenceCache.containsKey(this.model)) return evidenceCache.get(this.model);
+
+        long start = System.currentTimeMillis();
+        Set<SearchResult> searchResults = this.generateSearchResultsInParallel();
+        LOGGER.info("Finished getting search results in " + TimeUtil.formatTime(System.currentTimeMillis() - start));
+
+        this.filterSearchResults(searchResults);
+
+        Long totalHitCount = 0L;
+        for (SearchResult result : searchResults) {
+            totalHitCount += result.getTotalHitCount();
+        }
+
+        Evidence evidence = new Evidence(model, totalHitCount, patternToQueries.keySet());
+        cacheSearchResults(searchResults);
+
+        List<WebSite> websites = new ArrayList<WebSite>();
+        for (SearchResult result : searchResults) {
+
+            evidence.addWebSites(result.getPattern(), result.getWebSites());
+            websites.addAll(result.getWebSites());
+        }
+
+        start = System.currentTimeMillis();
+        new TimeDistributionExtractor(evidence, listener).extract(websites);
+        LOGGER.info(String.format("Extraction of years from %s websites took %s", websites.size(), TimeUtil.formatTime(System.currentTimeMillis() - start)));
+
+        return evidence;
+    }
+
+    /**
+     * Queues the new search results for the write behind cache. This only
+     * blocks if the writer falls behind.
+     *
      * @param searchResults
      */
     private void cacheSearchResults(Set<SearchResult> searchResults) {
 
-        long start = System.currentTimeMillis();
+        Cache<SearchResult> cache = LocalSearchResultCache.getWriteBehindCache();
+        if ( cache == null ) return;
+
+        // results coming from the cache do not need to be written again
         List<SearchResult> results = new ArrayList<SearchResult>();
-        // add the results of the crawl to the cache
-        Cache<SearchResult> cache = new Solr4SearchResultCache();
-        // this filters out links which are in the result of multiple search engine quries
         for (SearchResult result : searchResults)
-            if (!cache.contains(result.getQuery().toString()))
+            if (!result.isCached())
                 results.add(result);
 
         cache.addAll(results);
-        LOGGER.debug(String.format("Caching took %sms", TimeUtil.formatTime(System.currentTimeMillis() - start)));
     }
 
     /**
@@ -262,11 +307,9 @@ public class EvidenceCrawler {
         // ########################################
         // 2. parse the pages to look for dates
         List<RegexParseCallable> parsers = new ArrayList<RegexParseCallable>();
-        List<ComplexProof> proofs = new ArrayList<ComplexProof>(evidence.getComplexProofs());
-
-        // create |CPU| parsers for n websites and split them to the parsers
-        for (ComplexProof proofsSublist : proofs)
-            parsers.add(new RegexParseCallable(proofsSublist));
+        // one parser per website, it decodes the website text once for all its proofs
+        for (List<ComplexProof> websiteProofs : evidence.getComplexProofsByWebSite().values())
+            parsers.add(new RegexParseCallable(websiteProofs));
 
         start = System.currentTimeMillis();
         LOGGER.debug(String.format("Proof parsing %s websites per parser, %s at a time!", parsers.size(), Defacto.DEFACTO_CONFIG.getIntegerSetting("extract", "NUMBER_NLP_STANFORD_MODELS")));
@@ -328,30 +371,26 @@ public class EvidenceCrawler {
      */
     private void extractDates(Evidence evidence) {
 
-        Frequency tinyContextFrequency = new Frequency();
-        Frequency smallContextFrequency = new Frequency();
-        Frequency mediumContextFrequency = new Frequency();
-        Frequency largeContextFrequency = new Frequency();
+        // a cached evidence is crawled again, its occurrences are counted from scratch
+        evidence.tinyContextYearOccurrences.clear();
+        evidence.smallContextYearOccurrences.clear();
+        evidence.mediumContextYearOccurrences.clear();
+        evidence.largeContextYearOccurrences.clear();
 
-        for (ComplexProof proof : evidence.getComplexProofs()) {
+        for (Map.Entry<WebSite, List<ComplexProof>> websiteProofs : evidence.getComplexProofsByWebSite().entrySet()) {
 
-            addFrequency(proof.getTinyContext(), proof.getTaggedTinyContext(), proof, tinyContextFrequency, evidence);
-            addFrequency(proof.getSmallContext(), proof.getTaggedSmallContext(), proof, smallContextFrequency, evidence);
-            addFrequency(proof.getMediumContext(), proof.getTaggedMediumContext(), proof, mediumContextFrequency, evidence);
-            addFrequency(proof.getLargeContext(), proof.getTaggedLargeContext(), proof, largeContextFrequency, evidence);
-        }
+            String text = websiteProofs.getKey().getText();
+            for (ComplexProof proof : websiteProofs.getValue()) {
 
-        for (Map.Entry<Comparable<?>, Long> entry : tinyContextFrequency.sortByValue())
-            evidence.tinyContextYearOccurrences.put((String) entry.getKey(), entry.getValue());
-        for (Map.Entry<Comparable<?>, Long> entry : smallContextFrequency.sortByValue())
-            evidence.smallContextYearOccurrences.put((String) entry.getKey(), entry.getValue());
-        for (Map.Entry<Comparable<?>, Long> entry : mediumContextFrequency.sortByValue())
-            evidence.mediumContextYearOccurrences.put((String) entry.getKey(), entry.getValue());
-        for (Map.Entry<Comparable<?>, Long> entry : largeContextFrequency.sortByValue())
-            evidence.largeContextYearOccurrences.put((String) entry.getKey(), entry.getValue());
+                addFrequency(proof.getContext(0, text), proof.getTaggedTinyContext(), proof, evidence.tinyContextYearOccurrences, evidence);
+                addFrequency(proof.getContext(1, text), proof.getTaggedSmallContext(), proof, evidence.smallContextYearOccurrences, evidence);
+                addFrequency(proof.getContext(2, text), proof.getTaggedMediumContext(), proof, evidence.mediumContextYearOccurrences, evidence);
+                addFrequency(proof.getContext(3, text), proof.getTaggedLargeContext(), proof, evidence.largeContextYearOccurrences, evidence);
+            }
+        }
     }
 
-    private void addFrequency(String context, String taggedContext, ComplexProof proof, Frequency frequency, Evidence evidence) {
+    private void addFrequency(String context, String taggedContext, ComplexProof proof, YearHistogram frequency, Evidence evidence) {
 
         if (taggedContext == null) return;
 
@@ -376,7 +415,7 @@ public class EvidenceCrawler {
                     else distance = mediumIndex - indexOfDate;
 
                     evidence.addDate(match, distance);
-                    frequency.addValue(match);
+                    frequency.increment(Integer.parseInt(match));
                 }
             }
         }
@@ -7,7 +7,7 @@ import org.aksw.defacto.Defacto;
 import org.aksw.defacto.boa.Pattern;
 import org.aksw.defacto.cache.Cache;
 import org.aksw.defacto.evidence.WebSite;
-import org.aksw.defacto.search.cache.solr.Solr4SearchResultCache;
+import org.aksw.defacto.search.cache.local.LocalSearchResultCache;
 import org.aksw.defacto.search.query.MetaQuery;
 import org.aksw.defacto.search.result.SearchResult;
 import org.slf4j.Logger;
@@ -21,7 +21,7 @@ import org.slf4j.LoggerFactory;
 public abstract class DefaultSearchEngine implements SearchEngine {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(DefaultSearchEngine.class);
-    protected Cache<SearchResult> searchResultsCache = new Solr4SearchResultCache();
+    protected Cache<SearchResult> searchResultsCache = new LocalSearchResultCache();
 
     /* (non-Javadoc)
      * @see org.aksw.defacto.search.engine.SearchEngine#getSearchResults(org.aksw.defacto.search.query.MetaQuery)
@@ -29,14 +29,14 @@ public abstract class DefaultSearchEngine implements SearchEngine {
     @Override
     public SearchResult getSearchResults(MetaQuery query, Pattern pattern) {
 
-//        if ( searchResultsCache.contains(query.toString()) ) {
-//            
-//            // search results will be identified by the string we used to search in search engine
-//        	LOGGER.info(String.format("Query: '%s' cached! Starting to get from cache!", query.toString()));
-//            SearchResult result = searchResultsCache.getEntry(query.toString());
-//            result.setPattern(pattern);
-//            return result;
-//        }
+        // search results will be identified by the string we used to search in search engine
+        SearchResult result = searchResultsCache.getEntry(query.toString());
+        if ( result != null ) {
+
+            LOGGER.info(String.format("Query: '%s' cached! Starting to get from cache!", query.toString()));
+            result.setPattern(pattern);
+            return result;
+        }
         return query(query, pattern);
     }
     
@@ -44,7 +44,7 @@ public abstract class DefaultSearchEngine implements SearchEngine {
 		
     	Defacto.init();
     	
-    	Cache<SearchResult> searchResultsCache = new Solr4SearchResultCache();
+    	Cache<SearchResult> searchResultsCache = new LocalSearchResultCache();
     	SearchResult result = searchResultsCache.getEntry(new MetaQuery("Philipp Lenard|-|?D? won the ?R?|-|Nobel Prize in Physics|-|en").toString());
     	
     	for ( WebSite site : result.getWebSites()) {
@@ -66,10 +66,13 @@ public class DefaultFactSearcher implements FactSearcher {
         if ( subjectLabels == null ) subjectLabels = new HashSet<String>(Arrays.asList(model.getSubjectLabel(website.getLanguage())));
         if ( objectLabels == null ) objectLabels = new HashSet<String>(Arrays.asList(model.getObjectLabel(website.getLanguage())));
         
+        // decoded once, the loop reads it for every occurrence
+        String text = website.getText();
+        
         // this walks threw all occurrences of the nlr of the pattern in the text
-        for ( int index = website.getText().indexOf(pattern.naturalLanguageRepresentationWithoutVariables) ; 
+        for ( int index = text.indexOf(pattern.naturalLanguageRepresentationWithoutVariables) ; 
                 index >= 0 ; 
-                index = website.getText().indexOf(pattern.naturalLanguageRepresentationWithoutVariables, index + 1)) {
+                index = text.indexOf(pattern.naturalLanguageRepresentationWithoutVariables, index + 1)) {
             
             int middleOfPatternIndex = index + (pattern.naturalLanguageRepresentationWithoutVariables.length() / 2);
             
@@ -77,9 +80,9 @@ public class DefaultFactSearcher implements FactSearcher {
             int rightBoundary = middleOfPatternIndex + 200;
             
             // make sure we get the start and the end correct
-            if ( website.getText().length() > rightBoundary && leftBoundary > 0 ) {
+            if ( text.length() > rightBoundary && leftBoundary > 0 ) {
                 
-                String phrase = website.getText().substring(leftBoundary, rightBoundary);
+                String phrase = text.substring(leftBoundary, rightBoundary);
                 
                 // take the smaller set, so if we dont find an entry for this we dont need to do that for the longer set again
                 for ( String firstLabel : subjectLabels.size() >= objectLabels.size() ? objectLabels : subjectLabels) {
@@ -72,7 +72,9 @@ public class SubjectObjectFactSearcher implements FactSearcher {
     @Override
     public void generateProofs(Evidence evidence, WebSite website, DefactoModel model, Pattern pattern) {
 
-        String websiteText  = website.getText().toLowerCase();
+        // decoded once, the proofs of every label pair cut their context out of the same strings
+        String originalText = website.getText();
+        String websiteText  = website.getLowerCaseText();
         Set<String> subjectLabels = new HashSet<String>();
         Set<String> objectLabels = new HashSet<String>();
         
@@ -85,27 +87,6 @@ public class SubjectObjectFactSearcher implements FactSearcher {
         }
         subjectLabels.removeAll(Collections.singleton(Constants.NO_LABEL));
         objectLabels.removeAll(Collections.singleton(Constants.NO_LABEL));
-        toLowerCase(subjectLabels);
-        toLowerCase(objectLabels);
-        String[] subject  = new String[subjectLabels.size()];
-        String[] normalized  = new String[subjectLabels.size()];
-        subjectLabels.toArray(subject);
-        for (int i=0 ; i<subjectLabels.size();i++) {
-			normalized[i] = "Albert Einstein";
-		}
-        
-        String[] object  = new String[subjectLabels.size()];
-        String[] objnormalized  = new String[subjectLabels.size()];
-        objectLabels.toArray(object);
-        for (int i=0 ; i<objectLabels.size();i++) {
-			objnormalized[i] = "Prize";
-		}
-        
-        //System.out.println(websiteText);
-        String subjectnormwebsite = StringUtils.replaceEach(websiteText, subject, normalized);
-        String objectnormwebsite = StringUtils.replaceEach(subjectnormwebsite, object, objnormalized);
-        //System.out.println(objectnormwebsite);
-        
         toLowerCase(subjectLabels);
         toLowerCase(objectLabels);
         // combine the list to make processing a little easier
@@ -136,9 +117,9 @@ public class SubjectObjectFactSearcher implements FactSearcher {
                 if (objectSubjectMatches != null) for ( String s : objectSubjectMatches) objectSubjectOccurrences.add(breakString(s, objectLabel, subjectLabel));
                 
                 // direction: subject property object
-                createProofsForEvidence(evidence, subjectObjectOccurrences, subjectLabel, objectLabel, websiteText, website, surfaceForms);
+                createProofsForEvidence(evidence, subjectObjectOccurrences, subjectLabel, objectLabel, originalText, websiteText, website, surfaceForms);
                 // direction: object property subject 
-                createProofsForEvidence(evidence, objectSubjectOccurrences, objectLabel, subjectLabel, websiteText, website, surfaceForms);
+                createProofsForEvidence(evidence, objectSubjectOccurrences, objectLabel, subjectLabel, originalText, websiteText, website, surfaceForms);
             }
         }
         LOGGER.debug("#sLabels: "+  subjectLabels.size() + " #oLabels:" + objectLabels.size() + " #Proofs: " + evidence.getComplexProofs().size() + " #lang: " + model.getLanguages().size());
@@ -186,13 +167,14 @@ public class SubjectObjectFactSearcher implements FactSearcher {
      * @param secondLabel
      * @param site
      */
-    private void createProofsForEvidence(Evidence evidence, List<String> matches, String firstLabel, String secondLabel, String websiteTextLowerCase, WebSite site, Set<String> surfaceForms) {
+    private void createProofsForEvidence(Evidence evidence, List<String> matches, String firstLabel, String secondLabel, String websiteText, String websiteTextLowerCase, WebSite site, Set<String> surfaceForms) {
         
         for ( String occurrence : matches ) {
             
             // it makes no sense to look at longer strings 
             if ( occurrence.split(" ").length < Defacto.DEFACTO_CONFIG.getIntegerSetting("extract", "NUMBER_OF_TOKENS_BETWEEN_ENTITIES") ) {
-                String tinyContext = this.getLeftAndRightContext(site.getText(), websiteTextLowerCase, firstLabel + occurrence + secondLabel, 25);
+                String match = firstLabel + occurrence + secondLabel;
+                String tinyContext = this.getLeftAndRightContext(websiteText, websiteTextLowerCase, match, 25);
                 //System.out.println(firstLabel + occurrence + secondLabel);
                 // first we check if we can find a boa pattern inside the mathing string
 //                for (Pattern boaPattern : evidence.getBoaPatterns()) { // go through all patterns and look if a non empty normalized pattern string is inside the match
@@ -206,11 +188,10 @@ public class SubjectObjectFactSearcher implements FactSearcher {
 //                	if ( boaPattern.normalize().isEmpty() ) continue;
                 	
                 	ComplexProof proof = new ComplexProof(evidence.getModel(), firstLabel, secondLabel, occurrence, normalizeOccurrence(tinyContext,surfaceForms), site);
-                    proof.setTinyContext(this.getLeftAndRightContext(site.getText(), websiteTextLowerCase, firstLabel + occurrence + secondLabel, 25));
+                    // the proof cuts its contexts out of the website text when they are needed
+                    int matchStart = websiteTextLowerCase.indexOf(match);
+                    proof.setContextOffsets(matchStart, matchStart + match.length());
                     //System.out.println(proof.getTinyContext());
-                    proof.setSmallContext(this.getLeftAndRightContext(site.getText(), websiteTextLowerCase, firstLabel + occurrence + secondLabel, 50));
-                    proof.setMediumContext(this.getLeftAndRightContext(site.getText(), websiteTextLowerCase, firstLabel + occurrence + secondLabel, 100));
-                    proof.setLargeContext(this.getLeftAndRightContext(site.getText(), websiteTextLowerCase, firstLabel + occurrence + secondLabel, 150));
 //                    System.out.println("Found Proof in website "+site.getUrl());
 //                    System.out.println(occurrence);
                     
@@ -6,7 +6,8 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.aksw.defacto.Constants;
-import org.aksw.defacto.boa.BoaPatternSearcher;
+import org.aksw.defacto.Defacto;
+import org.aksw.defacto.boa.BoaPatternRegistry;
 import org.aksw.defacto.boa.Pattern;
 import org.aksw.defacto.model.DefactoModel;
 import org.apache.http.HttpEntity;
@@ -32,7 +33,6 @@ import com.hp.hpl.jena.rdf.model.Statement;
  */
 public class QueryGenerator {
 
-    public static final BoaPatternSearcher patternSearcher = new BoaPatternSearcher();
     private static final Logger LOGGER = LoggerFactory.getLogger(QueryGenerator.class);
     private DefactoModel model;
     //private RestClient restClientobj;
@@ -77,7 +77,8 @@ public class QueryGenerator {
         // query boa index and generate the meta queries
         LOGGER.info("Using predicate {}", fact.getPredicate());
         //  System.out.println();
-        for (Pattern pattern : patternSearcher.getNaturalLanguageRepresentations(fact.getPredicate().getURI(), language)) {
+        for (Pattern pattern : BoaPatternRegistry.getPatterns(fact.getPredicate().getURI(), language,
+                BoaPatternRegistry.NUMBER_OF_QUERY_PATTERNS, Defacto.DEFACTO_CONFIG.getDoubleSetting("boa", "PATTERN_SCORE_THRESHOLD"))) {
 
             if (!pattern.getNormalized().trim().isEmpty()) {
 
@@ -1,12 +1,26 @@
 package org.aksw.defacto.search.time;
 
-import org.aksw.defacto.evidence.Evidence;
 import org.aksw.defacto.model.DefactoTimePeriod;
 
+/**
+ * The settings are passed in instead of read from the configuration, so
+ * several configurations can be evaluated on the same distribution at once.
+ */
 public interface DefactoTimePeriodSearcher {
 
-	DefactoTimePeriod getTimePoint(Evidence evidence);
+	/**
+	 * @param distribution
+	 * @param context see {@link YearStatistics#getContext(String)}
+	 * @return null if there is no year
+	 */
+	DefactoTimePeriod getTimePoint(TimeDistribution distribution, int context);
 	
-	DefactoTimePeriod getTimePeriod(Evidence evidence);
+	/**
+	 * @param distribution
+	 * @param context see {@link YearStatistics#getContext(String)}
+	 * @param periodSearchMethod frequency or pattern
+	 * @return
+	 */
+	DefactoTimePeriod getTimePeriod(TimeDistribution distribution, int context, String periodSearchMethod);
 
 }
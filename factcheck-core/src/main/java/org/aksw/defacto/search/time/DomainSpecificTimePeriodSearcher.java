@@ -4,38 +4,37 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 
-import org.aksw.defacto.evidence.Evidence;
 import org.aksw.defacto.model.DefactoTimePeriod;
 
 public class DomainSpecificTimePeriodSearcher implements DefactoTimePeriodSearcher {
 
 	/* (non-Javadoc)
-	 * @see org.aksw.defacto.search.time.DefactoTimePeriodSearcher#getTimePoint(org.aksw.defacto.evidence.Evidence)
+	 * @see org.aksw.defacto.search.time.DefactoTimePeriodSearcher#getTimePoint(org.aksw.defacto.search.time.TimeDistribution, int)
 	 */
 	@Override
-	public DefactoTimePeriod getTimePoint(Evidence evidence) {
+	public DefactoTimePeriod getTimePoint(TimeDistribution distribution, int context) {
 		
-		Map.Entry<String, Long> maxEntry = null;
+		YearStatistics statistics = YearStatistics.getInstance();
+		YearHistogram occurrences = distribution.getOccurrences(context);
+		int maxYear = 0;
 
-		for (Map.Entry<String, Long> entry : evidence.getPreferedContext().entrySet()) {
+		for (int year : occurrences.getYears()) {
 			
-			if (maxEntry == null) maxEntry = entry;
+			if (maxYear == 0) maxYear = year;
 			else {
 				
 //				Double entryNorm = TimeUtil.getDomainNormalizedPopularity(Integer.valueOf(entry.getKey()));
 //				Double maxNorm = TimeUtil.getDomainNormalizedPopularity(Integer.valueOf(maxEntry.getKey()));
-				Double entryNorm = TimeUtil.getDomainNormalizedRootPopularity(Integer.valueOf(entry.getKey()));
-				Double maxNorm = TimeUtil.getDomainNormalizedRootPopularity(Integer.valueOf(maxEntry.getKey()));
+				Double entryNorm = Math.sqrt(statistics.getDomainNormalizedPopularity(year, context));
+				Double maxNorm = Math.sqrt(statistics.getDomainNormalizedPopularity(maxYear, context));
 //				Double entryNorm = TimeUtil.getDomainNormalizedLogPopularity(Integer.valueOf(entry.getKey()));
 //				Double maxNorm = TimeUtil.getDomainNormalizedLogPopularity(Integer.valueOf(maxEntry.getKey()));
 				
-				Double entryPopularity = entryNorm != 0 ? entry.getValue() / entryNorm : 0;
-				Double maxEntryPopularity = maxNorm != 0 ? maxEntry.getValue() / maxNorm : 0;
+				Double entryPopularity = entryNorm != 0 ? occurrences.get(year) / entryNorm : 0;
+				Double maxEntryPopularity = maxNorm != 0 ? occurrences.get(maxYear) / maxNorm : 0;
 				
-				if ( entryPopularity >= maxEntryPopularity ) maxEntry = entry;
+				if ( entryPopularity >= maxEntryPopularity ) maxYear = year;
 			}
 			
 			//Integer year =  Integer.valueOf(entry.getKey());
@@ -44,25 +43,27 @@ public class DomainSpecificTimePeriodSearcher implements DefactoTimePeriodSearch
 			//System.out.println(entry.getKey() + "\t" + trainFreq + "\t" + entry.getValue() + "\t" + entry.getValue() / TimeUtil.getDomainNormalizedRootPopularity(year));
 		}
 		
-		return maxEntry == null ? null : new DefactoTimePeriod(maxEntry.getKey(), maxEntry.getKey());
+		return maxYear == 0 ? null : new DefactoTimePeriod(maxYear, maxYear);
 	}
 
 	/* (non-Javadoc)
-	 * @see org.aksw.defacto.search.time.DefactoTimePeriodSearcher#getTimePeriod(org.aksw.defacto.evidence.Evidence)
+	 * @see org.aksw.defacto.search.time.DefactoTimePeriodSearcher#getTimePeriod(org.aksw.defacto.search.time.TimeDistribution, int, java.lang.String)
 	 */
 	@Override
-	public DefactoTimePeriod getTimePeriod(Evidence evidence) {
+	public DefactoTimePeriod getTimePeriod(TimeDistribution distribution, int context, String periodSearchMethod) {
 		
-		DefactoTimePeriod defactoTimePeriod = PatternTimePeriodSearcher.findTimePeriod(evidence);
+		DefactoTimePeriod defactoTimePeriod = PatternTimePeriodSearcher.findTimePeriod(distribution.getContexts(context), periodSearchMethod);
 		if ( defactoTimePeriod == null ) {
 			
 			List<Score> scores = new ArrayList<>();
-			for ( Entry<String, Long> entry : evidence.getPreferedContext().entrySet()) {
+			YearStatistics statistics = YearStatistics.getInstance();
+			YearHistogram occurrences = distribution.getOccurrences(context);
+			for ( int year : occurrences.getYears() ) {
 				
 //				Double entryNorm = TimeUtil.getDomainNormalizedPopularity(Integer.valueOf(entry.getKey()));
-				Double entryNorm = TimeUtil.getDomainNormalizedRootPopularity(Integer.valueOf(entry.getKey()));
+				Double entryNorm = Math.sqrt(statistics.getDomainNormalizedPopularity(year, context));
 //				Double entryNorm = TimeUtil.getDomainNormalizedLogPopularity(Integer.valueOf(entry.getKey()));
-				scores.add(new Score(entry.getKey(), entryNorm != 0 ? entry.getValue() / entryNorm : 0));
+				scores.add(new Score(year, entryNorm != 0 ? occurrences.get(year) / entryNorm : 0));
 			}
 			
 			Collections.sort(scores, new Comparator<Score>(){
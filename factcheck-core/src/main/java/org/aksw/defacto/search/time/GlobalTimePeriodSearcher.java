@@ -4,55 +4,56 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 
-import org.aksw.defacto.evidence.Evidence;
 import org.aksw.defacto.model.DefactoTimePeriod;
 
 public class GlobalTimePeriodSearcher implements DefactoTimePeriodSearcher {
 
 	@Override
-	public DefactoTimePeriod getTimePoint(Evidence evidence) {
+	public DefactoTimePeriod getTimePoint(TimeDistribution distribution, int context) {
 		
-		Map.Entry<String, Long> maxEntry = null;
+		YearStatistics statistics = YearStatistics.getInstance();
+		YearHistogram occurrences = distribution.getOccurrences(context);
+		int maxYear = 0;
 
-		for (Map.Entry<String, Long> entry : evidence.getPreferedContext().entrySet()) {
+		for (int year : occurrences.getYears()) {
 			
-			if (maxEntry == null) maxEntry = entry;
+			if (maxYear == 0) maxYear = year;
 			else {
 				
 //				Double entryNorm = TimeUtil.getGlobalNormalizedPopularity(Integer.valueOf(entry.getKey()));
 //				Double maxNorm = TimeUtil.getGlobalNormalizedPopularity(Integer.valueOf(maxEntry.getKey()));
-				Double entryNorm = TimeUtil.getGlobalNormalizedRootPopularity(Integer.valueOf(entry.getKey()));
-				Double maxNorm = TimeUtil.getGlobalNormalizedRootPopularity(Integer.valueOf(maxEntry.getKey()));
+				Double entryNorm = Math.sqrt(statistics.getGlobalNormalizedPopularity(year));
+				Double maxNorm = Math.sqrt(statistics.getGlobalNormalizedPopularity(maxYear));
 //				Double entryNorm = TimeUtil.getGlobalNormalizedLogPopularity(Integer.valueOf(entry.getKey()));
 //				Double maxNorm = TimeUtil.getGlobalNormalizedLogPopularity(Integer.valueOf(maxEntry.getKey()));
 				
-				Double entryPopularity = entryNorm != 0 ? entry.getValue() / entryNorm : 0;
-				Double maxEntryPopularity = maxNorm != 0 ? maxEntry.getValue() / maxNorm : 0;
+				Double entryPopularity = entryNorm != 0 ? occurrences.get(year) / entryNorm : 0;
+				Double maxEntryPopularity = maxNorm != 0 ? occurrences.get(maxYear) / maxNorm : 0;
 				
-				if ( entryPopularity > maxEntryPopularity ) maxEntry = entry;
+				if ( entryPopularity > maxEntryPopularity ) maxYear = year;
 			}
 		}
 		    
 		
-		return maxEntry == null ? null : new DefactoTimePeriod(maxEntry.getKey(), maxEntry.getKey());
+		return maxYear == 0 ? null : new DefactoTimePeriod(maxYear, maxYear);
 	}
 
 	@Override
-	public DefactoTimePeriod getTimePeriod(Evidence evidence) {
+	public DefactoTimePeriod getTimePeriod(TimeDistribution distribution, int context, String periodSearchMethod) {
 		
-		DefactoTimePeriod defactoTimePeriod = PatternTimePeriodSearcher.findTimePeriod(evidence);
+		DefactoTimePeriod defactoTimePeriod = PatternTimePeriodSearcher.findTimePeriod(distribution.getContexts(context), periodSearchMethod);
 		if ( defactoTimePeriod == null ) {
 			
 			List<Score> scores = new ArrayList<>();
-			for ( Entry<String, Long> entry : evidence.getPreferedContext().entrySet()) {
+			YearStatistics statistics = YearStatistics.getInstance();
+			YearHistogram occurrences = distribution.getOccurrences(context);
+			for ( int year : occurrences.getYears() ) {
 				
 //				Double entryNorm = TimeUtil.getGlobalNormalizedPopularity(Integer.valueOf(entry.getKey()));
-				Double entryNorm = TimeUtil.getGlobalNormalizedRootPopularity(Integer.valueOf(entry.getKey()));
+				Double entryNorm = Math.sqrt(statistics.getGlobalNormalizedPopularity(year));
 //				Double entryNorm = TimeUtil.getGlobalNormalizedLogPopularity(Integer.valueOf(entry.getKey()));
-				scores.add(new Score(entry.getKey(), entryNorm != 0 ? entry.getValue() / entryNorm : 0));
+				scores.add(new Score(year, entryNorm != 0 ? occurrences.get(year) / entryNorm : 0));
 			}
 			
 			Collections.sort(scores, new Comparator<Score>(){
@@ -1,61 +1,44 @@
 package org.aksw.defacto.search.time;
 
-import java.util.Map;
-import java.util.Map.Entry;
-
-import org.aksw.defacto.Defacto;
-import org.aksw.defacto.evidence.Evidence;
 import org.aksw.defacto.model.DefactoTimePeriod;
-import org.aksw.defacto.util.Frequency;
 
 public class OccurrenceTimePeriodSearcher implements DefactoTimePeriodSearcher {
 
 	@Override
-	public DefactoTimePeriod getTimePoint(Evidence evidence) {
+	public DefactoTimePeriod getTimePoint(TimeDistribution distribution, int context) {
 		
-		Map.Entry<String, Long> maxEntry = null;
-
-		for (Map.Entry<String, Long> entry : evidence.getPreferedContext().entrySet())
-		    if ( maxEntry == null || entry.getValue().compareTo(maxEntry.getValue()) > 0 )
-		    	if ( Integer.valueOf(entry.getKey()) <= 2013 )
-		    		maxEntry = entry;
+		int[] years = getYearsUntil(distribution.getOccurrences(context), 2013, 1);
 		
-		return maxEntry == null ? null : new DefactoTimePeriod(maxEntry.getKey(), maxEntry.getKey());
+		return years.length == 0 ? null : new DefactoTimePeriod(years[0], years[0]);
 	}
 
 	@Override
-	public DefactoTimePeriod getTimePeriod(Evidence evidence) {
+	public DefactoTimePeriod getTimePeriod(TimeDistribution distribution, int context, String periodSearchMethod) {
 		
-		DefactoTimePeriod defactoTimePeriod = PatternTimePeriodSearcher.findTimePeriod(evidence);
+		DefactoTimePeriod defactoTimePeriod = PatternTimePeriodSearcher.findTimePeriod(distribution.getContexts(context), periodSearchMethod);
 		if ( defactoTimePeriod == null ) {
 			
-			Frequency freq = new Frequency();
-			for ( Entry<String, Long> entry : evidence.getPreferedContext().entrySet())
-				for (int i = 0; i < entry.getValue(); i++ )
-					if ( Integer.valueOf(entry.getKey()) <= 2013) 
-						freq.addValue(entry.getKey());
-			
-			int first = 0;
-			int second = 0;
-			
 			// find the first and second most occurring year values
-			for ( Entry<Comparable<?>, Long> entry : freq.sortByValue() ) {
-				
-				if (first == 0) {
-					
-					first = Integer.valueOf((String) entry.getKey());
-					continue;
-				}
-				if (second == 0) {
-					
-					second = Integer.valueOf((String) entry.getKey());
-					break;
-				}
-			}
+			int[] years = getYearsUntil(distribution.getOccurrences(context), 2013, 2);
+			int first = years.length > 0 ? years[0] : 0;
+			int second = years.length > 1 ? years[1] : 0;
 			
 			defactoTimePeriod = new DefactoTimePeriod(Math.min(first, second), Math.max(first, second));
 		}
 		
 		return defactoTimePeriod;
 	}
+	
+	/**
+	 * 
+	 * @param occurrences
+	 * @param maxYear
+	 * @param k
+	 * @return the k most occurring years up to maxYear
+	 */
+	private static int[] getYearsUntil(YearHistogram occurrences, int maxYear, int k) {
+		
+		YearHistogram until = new YearHistogram(occurrences.getMinYear(), Math.max(occurrences.getMinYear(), maxYear));
+		return until.merge(occurrences).getTopYears(k);
+	}
 }
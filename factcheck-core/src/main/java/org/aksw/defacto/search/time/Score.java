@@ -11,6 +11,12 @@ public class Score {
 		this.score = score;
 	}
 	
+	public Score(int year, double score) {
+		
+		this.year = year;
+		this.score = score;
+	}
+	
 	public String toString(){
 		
 		return this.year + ": " + this.score;
@@ -0,0 +1,220 @@
+package org.aksw.defacto.search.time;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.aksw.defacto.evidence.ComplexProof;
+import org.aksw.defacto.evidence.Evidence;
+import org.aksw.defacto.evidence.WebSite;
+
+/**
+ * What the time period searchers read of an evidence: the year occurrences
+ * and the distinct proof contexts of every context size. It is a fraction of
+ * the evidence and can be written to disk, so a fact is crawled only once no
+ * matter how many searcher configurations are evaluated on it. A fact checked
+ * with one configuration only copies the context size it needs, see
+ * {@link #of(Evidence, int)}.
+ */
+public final class TimeDistribution {
+
+    private static final int MAGIC = 0x44465444;
+    private static final int VERSION = 1;
+
+    // both indexed by YearStatistics.getContext(String)
+    private final YearHistogram[] occurrences;
+    private final List<List<String>> contexts;
+
+    /**
+     * @param occurrences the years per context size, copied, null for a size which is not needed
+     * @param contexts the proof contexts per context size, copied, null for a size which is not needed
+     */
+    public TimeDistribution(YearHistogram[] occurrences, List<? extends Collection<String>> contexts) {
+
+        if ( occurrences.length != YearStatistics.CONTEXT_SIZES.length || contexts.size() != YearStatistics.CONTEXT_SIZES.length )
+            throw new IllegalArgumentException("Expected " + YearStatistics.CONTEXT_SIZES.length + " context sizes");
+
+        this.occurrences = new YearHistogram[occurrences.length];
+        List<List<String>> copies = new ArrayList<List<String>>();
+        for ( int i = 0; i < occurrences.length; i++ ) {
+
+            if ( (occurrences[i] == null) != (contexts.get(i) == null) )
+                throw new IllegalArgumentException("The years and contexts of " + YearStatistics.CONTEXT_SIZES[i] + " have to be given both or neither");
+
+            this.occurrences[i] = occurrences[i] == null ? null : new YearHistogram().merge(occurrences[i]);
+            copies.add(contexts.get(i) == null ? null : Collections.unmodifiableList(new ArrayList<String>(contexts.get(i))));
+        }
+        this.contexts = Collections.unmodifiableList(copies);
+    }
+
+    /**
+     * Copies the years and proof contexts of all context sizes, later changes
+     * of the evidence are not visible.
+     *
+     * @param evidence
+     * @return
+     */
+    public static TimeDistribution of(Evidence evidence) {
+        return of(evidence, -1);
+    }
+
+    /**
+     * Copies the years and proof contexts of one context size, the others
+     * cannot be read from the distribution.
+     *
+     * @param evidence
+     * @param context see {@link YearStatistics#getContext(String)}, -1 for all
+     * @return
+     */
+    public static TimeDistribution of(Evidence evidence, int context) {
+
+        YearHistogram[] evidenceOccurrences = { evidence.tinyContextYearOccurrences, evidence.smallContextYearOccurrences,
+                evidence.mediumContextYearOccurrences, evidence.largeContextYearOccurrences };
+
+        YearHistogram[] occurrences = new YearHistogram[YearStatistics.CONTEXT_SIZES.length];
+        List<Set<String>> contexts = new ArrayList<Set<String>>();
+        for ( int i = 0; i < YearStatistics.CONTEXT_SIZES.length; i++ ) {
+
+            boolean needed = context < 0 || context == i;
+            occurrences[i] = needed ? evidenceOccurrences[i] : null;
+            contexts.add(needed ? new LinkedHashSet<String>() : null);
+        }
+
+        for ( Map.Entry<WebSite, List<ComplexProof>> websiteProofs : evidence.getComplexProofsByWebSite().entrySet() ) {
+
+            String text = websiteProofs.getKey().getText();
+            for ( ComplexProof proof : websiteProofs.getValue() )
+                for ( int i = 0; i < YearStatistics.CONTEXT_SIZES.length; i++ )
+                    if ( contexts.get(i) != null ) addContext(contexts.get(i), proof.getContext(i, text));
+        }
+        return new TimeDistribution(occurrences, contexts);
+    }
+
+    private static void addContext(Set<String> contexts, String context) {
+
+        if ( context != null ) contexts.add(context.trim());
+    }
+
+    /**
+     * @param context see {@link YearStatistics#getContext(String)}
+     * @return the years around the proofs, must not be changed
+     */
+    public YearHistogram getOccurrences(int context) {
+        return this.occurrences[checkCopied(context)];
+    }
+
+    /**
+     * @param context see {@link YearStatistics#getContext(String)}
+     * @return the distinct, trimmed contexts of the proofs
+     */
+    public List<String> getContexts(int context) {
+        return this.contexts.get(checkCopied(context));
+    }
+
+    private int checkCopied(int context) {
+
+        if ( this.occurrences[context] == null )
+            throw new IllegalArgumentException("The " + YearStatistics.CONTEXT_SIZES[context] + " context size was not copied");
+        return context;
+    }
+
+    /**
+     * @param file written by {@link #write(File)}
+     * @return
+     * @throws IOException if the file is not readable, has an unknown format
+     * or is corrupt
+     */
+    public static TimeDistribution read(File file) throws IOException {
+
+        // no count or length can exceed the file, a corrupt one must not allocate more
+        long maxLength = file.length();
+        try ( DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file))) ) {
+
+            if ( in.readInt() != MAGIC ) throw new IOException(file + " contains no time distribution");
+            if ( in.readInt() != VERSION ) throw new IOException("Unsupported time distribution version in " + file);
+
+            int contextSizes = in.readInt();
+            if ( contextSizes != YearStatistics.CONTEXT_SIZES.length )
+                throw new IOException("Expected " + YearStatistics.CONTEXT_SIZES.length + " context sizes in " + file + " but found " + contextSizes);
+
+            YearHistogram[] occurrences = new YearHistogram[contextSizes];
+            List<List<String>> contexts = new ArrayList<List<String>>();
+            for ( int i = 0; i < occurrences.length; i++ ) {
+
+                occurrences[i] = new YearHistogram();
+                int years = readLength(in, maxLength, file);
+                for ( int j = 0; j < years; j++ ) occurrences[i].add(in.readInt(), in.readLong());
+
+                List<String> sentences = new ArrayList<String>();
+                int size = readLength(in, maxLength, file);
+                for ( int j = 0; j < size; j++ ) sentences.add(readString(in, maxLength, file));
+                contexts.add(sentences);
+            }
+            return new TimeDistribution(occurrences, contexts);
+        }
+    }
+
+    /**
+     * @param file
+     * @throws IOException
+     * @throws IllegalArgumentException if not all context sizes were copied
+     */
+    public void write(File file) throws IOException {
+
+        for ( int i = 0; i < this.occurrences.length; i++ ) checkCopied(i);
+        try ( DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file))) ) {
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(this.occurrences.length);
+            for ( int i = 0; i < this.occurrences.length; i++ ) {
+
+                int[] years = this.occurrences[i].getYears();
+                out.writeInt(years.length);
+                for ( int year : years ) {
+
+                    out.writeInt(year);
+                    out.writeLong(this.occurrences[i].get(year));
+                }
+
+                out.writeInt(this.contexts.get(i).size());
+                for ( String sentence : this.contexts.get(i) ) writeString(out, sentence);
+            }
+        }
+    }
+
+    // writeUTF is limited to 64k bytes, a large context of a long sentence may exceed that
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in, long maxLength, File file) throws IOException {
+
+        byte[] bytes = new byte[readLength(in, maxLength, file)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int readLength(DataInputStream in, long maxLength, File file) throws IOException {
+
+        int length = in.readInt();
+        if ( length < 0 || length > maxLength ) throw new IOException("Corrupt time distribution " + file + ", invalid length " + length);
+        return length;
+    }
+}
@@ -0,0 +1,181 @@
+package org.aksw.defacto.search.time;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.aksw.defacto.Defacto;
+import org.aksw.defacto.evidence.ComplexProof;
+import org.aksw.defacto.evidence.Evidence;
+import org.aksw.defacto.evidence.WebSite;
+import org.aksw.defacto.search.concurrent.TimeExtractionCallable;
+import org.aksw.defacto.search.fact.SubjectObjectFactSearcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Computes only the year distribution of an evidence. The surface forms of
+ * subject and object are searched in the website texts, and the years in the
+ * contexts around each co-occurrence are counted straight away. There is no
+ * coreference resolution, no date tagging of the contexts and no feature or
+ * classifier work. Every website is added to the year histograms of the
+ * evidence as soon as it is scanned, so a {@link Listener} can follow the
+ * distribution while it grows.
+ *
+ * The years are the same the full pipeline finds: a year is a token of the
+ * context which consists of four digits starting with 1 or 2.
+ */
+public class TimeDistributionExtractor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TimeDistributionExtractor.class);
+
+    private static final java.util.regex.Pattern YEAR = java.util.regex.Pattern.compile("[12][0-9]{3}");
+
+    private static ExecutorService executor;
+
+    /**
+     * Is notified from the extraction threads.
+     */
+    public interface Listener {
+
+        /**
+         * @param website the website which was just scanned
+         * @param evidence with the years of all websites scanned so far
+         */
+        void yearsExtracted(WebSite website, Evidence evidence);
+    }
+
+    private final Evidence evidence;
+    private final Listener listener;
+
+    /**
+     * @param evidence receives the proofs and years
+     * @param listener may be null
+     */
+    public TimeDistributionExtractor(Evidence evidence, Listener listener) {
+
+        this.evidence = evidence;
+        this.listener = listener;
+    }
+
+    /**
+     * Scans the websites in parallel and returns once all are done.
+     *
+     * @param websites
+     */
+    public void extract(Collection<WebSite> websites) {
+
+        List<TimeExtractionCallable> callables = new ArrayList<TimeExtractionCallable>();
+        for ( WebSite website : websites ) callables.add(new TimeExtractionCallable(website, this));
+        if ( callables.isEmpty() ) return;
+
+        try {
+
+            for ( Future<WebSite> result : getExecutor().invokeAll(callables) ) result.get();
+        }
+        catch (InterruptedException e) {
+
+            LOGGER.error("Interrupted exception thrown: ", e);
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException e) {
+
+            LOGGER.error("Execution exception thrown: ", e);
+        }
+    }
+
+    /**
+     * Finds the co-occurrences of subject and object in the website and counts
+     * the years around them. Can be called from several threads.
+     *
+     * @param website
+     */
+    public void extract(WebSite website) {
+
+        // the searcher adds to the evidence it gets, this one only holds the proofs of this website
+        Evidence websiteProofs = new Evidence(this.evidence.getModel());
+        new SubjectObjectFactSearcher().generateProofs(websiteProofs, website, this.evidence.getModel(), null);
+
+        String text = website.getText();
+        for ( ComplexProof proof : websiteProofs.getComplexProofs() ) {
+
+            // the same proof may be found on another website with the same text
+            if ( !this.evidence.addComplexProof(proof) ) continue;
+
+            countYears(proof.getContext(0, text), proof, this.evidence.tinyContextYearOccurrences, this.evidence);
+            countYears(proof.getContext(1, text), proof, this.evidence.smallContextYearOccurrences, this.evidence);
+            countYears(proof.getContext(2, text), proof, this.evidence.mediumContextYearOccurrences, this.evidence);
+            countYears(proof.getContext(3, text), proof, this.evidence.largeContextYearOccurrences, this.evidence);
+        }
+
+        if ( this.listener != null ) this.listener.yearsExtracted(website, this.evidence);
+    }
+
+    /**
+     * Counts the years of the context and adds them with their distance to
+     * the middle of the fact to the evidence.
+     *
+     * @param context
+     * @param proof
+     * @param histogram
+     * @param evidence
+     */
+    public static void countYears(String context, ComplexProof proof, YearHistogram histogram, Evidence evidence) {
+
+        if ( context == null ) return;
+
+        String fact = proof.getSubject().trim() + " " + proof.getProofPhrase().trim() + " " + proof.getObject().trim();
+        int mediumIndex = context.indexOf(fact) + (fact.length() / 2);
+
+        for ( String year : getYears(context) ) {
+
+            evidence.addDate(year, Math.abs(context.indexOf(year) - mediumIndex));
+            histogram.increment(Integer.parseInt(year));
+        }
+    }
+
+    /**
+     * @param context
+     * @return the years of the context in the order they occur, the same the
+     * regex date tagger tags
+     */
+    public static List<String> getYears(String context) {
+
+        List<String> years = new ArrayList<String>();
+        for ( String token : context.split(" ") )
+            if ( YEAR.matcher(token).matches() ) years.add(token);
+        return years;
+    }
+
+    /**
+     * The pool is shared by all facts, so computing several distributions in
+     * parallel does not multiply the number of threads.
+     */
+    private static synchronized ExecutorService getExecutor() {
+
+        if ( executor == null ) {
+
+            int threads = Defacto.DEFACTO_CONFIG.getIntegerSetting("extract", "TIME_EXTRACTION_THREADS");
+            if ( threads < 1 ) threads = Runtime.getRuntime().availableProcessors();
+
+            final AtomicInteger counter = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+
+                @Override
+                public Thread newThread(Runnable runnable) {
+
+                    Thread thread = new Thread(runnable, "time-extraction-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return executor;
+    }
+}
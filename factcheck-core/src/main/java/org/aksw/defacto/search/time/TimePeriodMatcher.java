@@ -0,0 +1,256 @@
+package org.aksw.defacto.search.time;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Finds the time period patterns in sentences. Each pattern counts its own
+ * matches, so a sentence like "from 1990 to 1995" is matched by the English
+ * "from ... to ..." pattern and by the generic "... to ..." pattern, and the
+ * matches of one pattern do not overlap. To keep these semantics the patterns
+ * are not simply merged into one alternation, which would only report the
+ * first pattern matching at a position. Instead:
+ *
+ * <ol>
+ * <li>a sentence without two groups of four digits is skipped, every pattern
+ * contains two years,</li>
+ * <li>one alternation of all patterns scans the rest and finds the first
+ * position any pattern matches at, most sentences stop here,</li>
+ * <li>the individual patterns only search sentences which contain a time
+ * period and start at that position.</li>
+ * </ol>
+ *
+ * Large sets of sentences are matched in parallel.
+ */
+public class TimePeriodMatcher {
+
+    private static final Pattern YEAR = Pattern.compile("[0-9]{4}");
+
+    /**
+     * Below this number of sentences the matching stays on the calling thread.
+     */
+    private static final int PARALLEL_THRESHOLD = 64;
+
+    private static final TimePeriodMatcher DEFAULT = new TimePeriodMatcher();
+
+    static {
+
+        String dash = "\\s*(-|--|–)\\s*";
+
+        DEFAULT.add("numeric", "-LRB-\\s*[0-9]{4}" + dash + "[0-9]{4}\\s*-RRB-");
+        // this one used to require a "}" after the dash and never matched
+        DEFAULT.add("numeric", "\\(\\s*[0-9]{4}" + dash + "[0-9]{4}\\s*\\)");
+        DEFAULT.add("numeric", "[0-9]{4}" + dash + "[0-9]{4}");
+        DEFAULT.add("numeric", "[0-9]{4}\\s*(/|-|--|–)\\s*[0-9]{4}");
+        DEFAULT.add("numeric", "[0-9]{4}\\s*(/|-|--|–)\\s*[0-9]{1,2}\\s*[A-z]*\\s*[0-9]{4}"); // - 20 November
+
+        DEFAULT.add("en", "[bB]etween [0-9]{4} and [0-9]{4}");
+        DEFAULT.add("en", "[Ff]rom [0-9]{4} to [0-9]{4}");
+        DEFAULT.add("en", "[0-9]{4} to [0-9]{4}");
+        DEFAULT.add("en", "[Ff]rom [0-9]{4} through [0-9]{4}");
+        DEFAULT.add("en", "[Ff]rom [0-9]{4} until [0-9]{4}");
+        DEFAULT.add("en", "[Ff]rom [0-9]{4}" + dash + "[0-9]{4}");
+        DEFAULT.add("en", "[bB]etween the years [0-9]{4} and [0-9]{4}");
+
+        DEFAULT.add("fr", "[dD]e [0-9]{4} à [0-9]{4}");
+        DEFAULT.add("fr", "[0-9]{4} à [0-9]{4}");
+        DEFAULT.add("fr", "[dD]e [0-9]{4}" + dash + "[0-9]{4}");
+        DEFAULT.add("fr", "[dD]ans les années [0-9]{4} et [0-9]{4}");
+        DEFAULT.add("fr", "[eE]ntre [0-9]{4} et [0-9]{4}");
+        DEFAULT.add("fr", "[aA]nnées [0-9]{4} et [0-9]{4}");
+        DEFAULT.add("fr", "[dD]urant la période [0-9]{4} - [0-9]{4}");
+        DEFAULT.add("fr", "[eE]n [0-9]{4} et [0-9]{4}");
+        DEFAULT.add("fr", "[eE]ntre les années [0-9]{4} et [0-9]{4}");
+        DEFAULT.add("fr", "[dD]urant les années [0-9]{4} et [0-9]{4}");
+        DEFAULT.add("fr", "[dD]e [0-9]{4} jusqu'en [0-9]{4}");
+        DEFAULT.add("fr", "[dD]e [0-9]{4} et à celui de [0-9]{4}");
+        DEFAULT.add("fr", "[eE]n [0-9]{4} et se termina en [0-9]{4}");
+
+        DEFAULT.add("de", "[vV]on [0-9]{4} bis [0-9]{4}");
+        DEFAULT.add("de", "[vV]on [0-9]{4}" + dash + "[0-9]{4}");
+        DEFAULT.add("de", "[zZ]wischen [0-9]{4} und [0-9]{4}");
+        DEFAULT.add("de", "[zZ]wischen den Jahren [0-9]{4} und [0-9]{4}");
+        DEFAULT.add("de", "[iI]n den Jahren [0-9]{4} bis [0-9]{4}");
+        DEFAULT.add("de", "[0-9]{4} bis [0-9]{4}");
+        DEFAULT.add("de", "[0-9]{4} bis einschließlich [0-9]{4}");
+        DEFAULT.add("de", "[aA]us den Jahren [0-9]{4} und [0-9]{4}");
+    }
+
+    private final List<Pattern> patterns = new ArrayList<Pattern>();
+    private final List<String> families = new ArrayList<String>();
+    private volatile Snapshot snapshot;
+
+    /**
+     * @return the English, French and German time period patterns
+     */
+    public static TimePeriodMatcher getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * @param family the language of the pattern or numeric
+     * @param regex has to contain two four digit years
+     */
+    public synchronized void add(String family, String regex) {
+
+        this.patterns.add(Pattern.compile(regex));
+        this.families.add(family);
+        this.snapshot = null;
+    }
+
+    /**
+     * @return the patterns in the order they are matched
+     */
+    public synchronized List<Pattern> getPatterns() {
+        return new ArrayList<Pattern>(this.patterns);
+    }
+
+    /**
+     * @param sentence
+     * @return the matches of all patterns, ordered by pattern and position
+     */
+    public List<Match> match(String sentence) {
+
+        if ( !containsTwoYears(sentence) ) return Collections.emptyList();
+
+        // patterns added while the sentence is matched apply to the next one
+        Snapshot snapshot = this.getSnapshot();
+        Matcher first = snapshot.combined.matcher(sentence);
+        if ( !first.find() ) return Collections.emptyList();
+        int start = first.start();
+
+        List<Match> matches = new ArrayList<Match>();
+        for ( int i = 0; i < snapshot.patterns.length; i++ ) {
+
+            // no pattern matches before the leftmost match of the alternation
+            Matcher matcher = snapshot.patterns[i].matcher(sentence);
+            if ( !matcher.find(start) ) continue;
+            do {
+
+                matches.add(new Match(snapshot.families[i], snapshot.patterns[i], matcher.group()));
+            }
+            while ( matcher.find() );
+        }
+        return matches;
+    }
+
+    /**
+     * @param sentences
+     * @return the matches of all sentences
+     */
+    public List<Match> matchAll(Collection<String> sentences) {
+
+        Function<String, List<Match>> matcher = new Function<String, List<Match>>() {
+
+            @Override
+            public List<Match> apply(String sentence) {
+                return match(sentence);
+            }
+        };
+
+        List<List<Match>> perSentence = sentences.size() < PARALLEL_THRESHOLD
+                ? sentences.stream().map(matcher).collect(Collectors.<List<Match>>toList())
+                : sentences.parallelStream().map(matcher).collect(Collectors.<List<Match>>toList());
+
+        List<Match> matches = new ArrayList<Match>();
+        for ( List<Match> sentenceMatches : perSentence ) matches.addAll(sentenceMatches);
+        return matches;
+    }
+
+    /**
+     * @param text
+     * @return true if the text has two non overlapping groups of four digits
+     */
+    static boolean containsTwoYears(CharSequence text) {
+
+        int years = 0;
+        int digits = 0;
+        for ( int i = 0; i < text.length(); i++ ) {
+
+            char c = text.charAt(i);
+            if ( c >= '0' && c <= '9' ) {
+
+                if ( ++digits == 4 ) {
+
+                    if ( ++years == 2 ) return true;
+                    digits = 0;
+                }
+            }
+            else digits = 0;
+        }
+        return false;
+    }
+
+    private Snapshot getSnapshot() {
+
+        Snapshot snapshot = this.snapshot;
+        if ( snapshot == null ) {
+
+            synchronized ( this ) {
+
+                snapshot = this.snapshot;
+                if ( snapshot == null ) {
+
+                    snapshot = new Snapshot(this.patterns.toArray(new Pattern[0]), this.families.toArray(new String[0]));
+                    this.snapshot = snapshot;
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * The patterns, their families and their alternation at one point in
+     * time. It is never changed, {@link #add(String, String)} drops it.
+     */
+    private static class Snapshot {
+
+        private final Pattern[] patterns;
+        private final String[] families;
+        private final Pattern combined;
+
+        private Snapshot(Pattern[] patterns, String[] families) {
+
+            this.patterns = patterns;
+            this.families = families;
+
+            StringBuilder alternation = new StringBuilder();
+            for ( Pattern pattern : patterns )
+                alternation.append(alternation.length() == 0 ? "" : "|").append("(?:").append(pattern.pattern()).append(")");
+            this.combined = Pattern.compile(alternation.toString());
+        }
+    }
+
+    /**
+     * A match of one time period pattern.
+     */
+    public static class Match {
+
+        public final String family;
+        public final Pattern pattern;
+        public final String text;
+        // all groups of four digits in the match, the two years if it is well formed
+        public final List<String> years = new ArrayList<String>(2);
+
+        Match(String family, Pattern pattern, String text) {
+
+            this.family = family;
+            this.pattern = pattern;
+            this.text = text;
+
+            Matcher year = YEAR.matcher(text);
+            while ( year.find() ) this.years.add(year.group());
+        }
+
+        @Override
+        public String toString() {
+            return this.family + ": " + this.text;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package org.aksw.defacto.search.time;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The counts collected while time periods are searched: the years found in
+ * the contexts of the proofs, per context size, and how often each time
+ * period pattern matched. Every year and every pattern has its own atomic
+ * counter, so facts can be checked in parallel without losing counts.
+ *
+ * There is one set of statistics for the whole JVM. An evaluation run which
+ * wants its own numbers binds its statistics to the current thread with
+ * {@link #scope(TimeStatistics)}. The binding is not inherited, pooled
+ * threads outlive the run which created them. Work handed to a pool gets the
+ * statistics passed and binds them itself, like
+ * {@link org.aksw.defacto.evaluation.TimePeriodSweep} does:
+ *
+ * <pre>
+ * TimeStatistics statistics = new TimeStatistics("run 1");
+ * try ( TimeStatistics.Scope scope = TimeStatistics.scope(statistics) ) {
+ *     // everything counted here ends up in statistics
+ * }
+ * </pre>
+ */
+public final class TimeStatistics {
+
+    private static final TimeStatistics GLOBAL = new TimeStatistics("global");
+
+    private static final ThreadLocal<TimeStatistics> CURRENT = new ThreadLocal<TimeStatistics>();
+
+    private final String name;
+    // indexed by YearStatistics.getContext(String)
+    private final YearHistogram[] yearOccurrences = new YearHistogram[YearStatistics.CONTEXT_SIZES.length];
+    private final YearHistogram[] proofYears = new YearHistogram[YearStatistics.CONTEXT_SIZES.length];
+    private final ConcurrentMap<String, AtomicLong> patternMatches = new ConcurrentHashMap<String, AtomicLong>();
+
+    /**
+     * @param name of the run, only used for logging
+     */
+    public TimeStatistics(String name) {
+
+        this.name = name;
+        for ( int i = 0; i < YearStatistics.CONTEXT_SIZES.length; i++ ) {
+
+            this.yearOccurrences[i] = new YearHistogram();
+            this.proofYears[i] = new YearHistogram();
+        }
+    }
+
+    /**
+     * @return the statistics of the JVM, whatever is bound to the thread
+     */
+    public static TimeStatistics getGlobal() {
+        return GLOBAL;
+    }
+
+    /**
+     * @return the statistics of the run of this thread, the global ones if
+     * there is no run
+     */
+    public static TimeStatistics current() {
+
+        TimeStatistics statistics = CURRENT.get();
+        return statistics == null ? GLOBAL : statistics;
+    }
+
+    /**
+     * Binds the statistics to this thread until the scope is closed, the
+     * previous binding is restored then.
+     *
+     * @param statistics
+     * @return
+     */
+    public static Scope scope(TimeStatistics statistics) {
+
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(statistics);
+        return scope;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * The occurrences of all facts whose time period was searched.
+     *
+     * @param context see {@link YearStatistics#getContext(String)}
+     * @return
+     */
+    public YearHistogram getYearOccurrences(int context) {
+        return this.yearOccurrences[context];
+    }
+
+    /**
+     * The occurrences of the facts the proof frequencies are learned from.
+     *
+     * @param context see {@link YearStatistics#getContext(String)}
+     * @return
+     */
+    public YearHistogram getProofYears(int context) {
+        return this.proofYears[context];
+    }
+
+    /**
+     * @param pattern the regex of the time period pattern which matched
+     */
+    public void countPatternMatch(String pattern) {
+
+        this.patternMatches.computeIfAbsent(pattern, key -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * @param pattern
+     * @return how often the pattern matched
+     */
+    public long getPatternMatches(String pattern) {
+
+        AtomicLong counter = this.patternMatches.get(pattern);
+        return counter == null ? 0L : counter.get();
+    }
+
+    /**
+     * @return the patterns which matched, most frequent first
+     */
+    public Map<String, Long> getPatternMatches() {
+
+        List<Map.Entry<String, Long>> entries = new ArrayList<Map.Entry<String, Long>>();
+        for ( Map.Entry<String, AtomicLong> entry : this.patternMatches.entrySet() )
+            if ( entry.getValue().get() > 0 ) entries.add(new AbstractMap.SimpleEntry<String, Long>(entry.getKey(), entry.getValue().get()));
+
+        Collections.sort(entries, new Comparator<Map.Entry<String, Long>>() {
+
+            @Override
+            public int compare(Map.Entry<String, Long> e1, Map.Entry<String, Long> e2) {
+
+                int byCount = e2.getValue().compareTo(e1.getValue());
+                return byCount != 0 ? byCount : e1.getKey().compareTo(e2.getKey());
+            }
+        });
+
+        Map<String, Long> matches = new LinkedHashMap<String, Long>();
+        for ( Map.Entry<String, Long> entry : entries ) matches.put(entry.getKey(), entry.getValue());
+        return matches;
+    }
+
+    /**
+     * @return a copy which does not change anymore
+     */
+    public TimeStatistics snapshot() {
+        return this.copy(false);
+    }
+
+    /**
+     * Starts over and returns what was counted until now. Counts added at the
+     * same time are either in the returned copy or in these statistics, never
+     * in both or in neither.
+     *
+     * @return
+     */
+    public TimeStatistics reset() {
+        return this.copy(true);
+    }
+
+    private TimeStatistics copy(boolean drain) {
+
+        TimeStatistics copy = new TimeStatistics(this.name);
+        for ( int i = 0; i < this.yearOccurrences.length; i++ ) {
+
+            copy.yearOccurrences[i].merge(drain ? this.yearOccurrences[i].drain() : this.yearOccurrences[i]);
+            copy.proofYears[i].merge(drain ? this.proofYears[i].drain() : this.proofYears[i]);
+        }
+        for ( Map.Entry<String, AtomicLong> entry : this.patternMatches.entrySet() ) {
+
+            long count = drain ? entry.getValue().getAndSet(0L) : entry.getValue().get();
+            if ( count > 0 ) copy.patternMatches.put(entry.getKey(), new AtomicLong(count));
+        }
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return this.name + ": " + this.getPatternMatches().size() + " patterns, " + this.yearOccurrences[0].getTotal() + " tiny context years";
+    }
+
+    /**
+     * Restores the statistics bound to the thread before.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final TimeStatistics previous;
+
+        private Scope(TimeStatistics previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+
+            if ( this.previous == null ) CURRENT.remove();
+            else CURRENT.set(this.previous);
+        }
+    }
+}
@@ -3,75 +3,25 @@
  */
 package org.aksw.defacto.search.time;
 
-import java.io.*;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
-import org.aksw.defacto.Constants;
 import org.aksw.defacto.Defacto;
-import org.aksw.defacto.util.BufferedFileReader;
-import org.aksw.defacto.util.Encoder.Encoding;
-import org.aksw.defacto.util.Frequency;
 
 /**
+ * The popularity lookups are answered by {@link YearStatistics}, this class
+ * only keeps the web and training frequencies it is built from. The years
+ * counted while checking facts are kept in {@link TimeStatistics}.
+ * 
  * @author Daniel Gerber <dgerber@informatik.uni-leipzig.de>
  *
  */
 public class TimeUtil {
 
 	public static Map<Integer,Long> webFreq = new LinkedHashMap<>();
-	public static Map<Integer,Long> tinyFreq = new LinkedHashMap<>();
-	public static Map<Integer,Long> smallFreq = new LinkedHashMap<>();
-	public static Map<Integer,Long> mediumFreq = new LinkedHashMap<>();
-	public static Map<Integer,Long> largeFreq = new LinkedHashMap<>();
 	public static Map<Integer,Long> trainFreq = new LinkedHashMap<>();
 	
-	public static Frequency allYears = new Frequency();
-	public static Frequency allYearsAndTimePeriod = new Frequency();
-	public static Long tfPfSum 		= 0L;
-	public static Long wf_sum 		= 0L;
-	public static Double wf_average = 0D;
-	
-	static {
-		
-		Defacto.init();
-		readProofFreq("tiny");
-		readProofFreq("small");
-		readProofFreq("medium");
-		readProofFreq("large");
-	}
-	
-	private static void readProofFreq(String contextSize) {
-		
-//		String path = new File(TimeUtil.class.getResource("/normalization/").getFile()).getAbsolutePath() + "/" + contextSize+".tsv";
-//		BufferedFileReader reader = new BufferedFileReader(path, Encoding.UTF_8);
-		
-		try {
-//			BufferedReader reader = new BufferedReader(new InputStreamReader(TimeUtil.class.getClassLoader().getResourceAsStream("normalization/"+ contextSize +".tsv")));
-			BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(Constants.RESOURCE_PATH + "normalization/"+ contextSize +".tsv")));
-			String line = "";
-			while ((line = reader.readLine()) != null ) {
-				
-				String[] parts = line.split("\t"); 
-				
-				switch ( contextSize ) {
-				
-					case "tiny" :	tinyFreq.put(Integer.valueOf(parts[0]), Long.valueOf(parts[1])); break;
-					case "small" : 	smallFreq.put(Integer.valueOf(parts[0]), Long.valueOf(parts[1])); break;
-					case "medium" : mediumFreq.put(Integer.valueOf(parts[0]), Long.valueOf(parts[1])); break;
-					case "large" :	largeFreq.put(Integer.valueOf(parts[0]), Long.valueOf(parts[1])); break;
-				
-					default: throw new RuntimeException("Context size: " + 
-						Defacto.DEFACTO_CONFIG.getStringSetting("settings", "context-size") + " not supported!");
-				}
-			}
-			reader.close();
-		} catch (NumberFormatException e) {
-			e.printStackTrace();
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
-	}
 
 	/**
 	 * 
@@ -80,8 +30,7 @@ public class TimeUtil {
 	 */
 	public static Double getGlobalNormalizedPopularity(Integer year) {
 		
-		long count = webFreq.containsKey(year) ? webFreq.get(year) : 0; 
-		return count / ((1 / (double) webFreq.size()) * wf_sum);
+		return YearStatistics.getInstance().getGlobalNormalizedPopularity(year);
 	}
 	
 	/**
@@ -104,29 +53,16 @@ public class TimeUtil {
 	}
 	
 	/**
+	 * Uses the configured context size, searchers looking up many years
+	 * should resolve it once and ask {@link YearStatistics} directly.
 	 * 
 	 * @param year
 	 * @return
 	 */
 	public static Double getDomainNormalizedPopularity(Integer year) {
 		
-		long proofFreq;
-		
-		switch ( Defacto.DEFACTO_CONFIG.getStringSetting("settings", "context-size") ) {
-		
-			case "tiny" :	proofFreq = TimeUtil.tinyFreq.containsKey(year) ? TimeUtil.tinyFreq.get(year) : 0L; break;
-			case "small" : 	proofFreq = TimeUtil.smallFreq.containsKey(year) ? TimeUtil.smallFreq.get(year) : 0L; break;
-			case "medium" : proofFreq = TimeUtil.mediumFreq.containsKey(year) ? TimeUtil.mediumFreq.get(year) : 0L; break;
-			case "large" :	proofFreq = TimeUtil.largeFreq.containsKey(year) ? TimeUtil.largeFreq.get(year) : 0L; break;
-		
-			default: throw new RuntimeException("Context size: " + 
-				Defacto.DEFACTO_CONFIG.getStringSetting("settings", "context-size") + " not supported!");
-		}
-		
-		long trainFreq = TimeUtil.trainFreq.containsKey(year) ? TimeUtil.trainFreq.get(year) : 0;
-		
-		if ( trainFreq == 0 ) return 0D;
-		return ( proofFreq / (double) trainFreq ) / ((1 / (double) webFreq.size()) * tfPfSum);
+		int context = YearStatistics.getContext(Defacto.DEFACTO_CONFIG.getStringSetting("settings", "context-size"));
+		return YearStatistics.getInstance().getDomainNormalizedPopularity(year, context);
 	}
 	
 	/**
@@ -149,37 +85,16 @@ public class TimeUtil {
 	
 	public static void main(String[] args) {
 		
-//		int year = 2013;
-//		System.out.println(String.format("%s\t%s\t%s", year, getGlobalNormalizedPopularity(year), getDomainNormalizedPopularity(year)));
-		
-//		System.out.println("TrainFreq");
-//		for ( Map.Entry<Integer,Long> entry : trainFreq.entrySet())
-//			System.out.println(entry.getKey() + "\t" + entry.getValue());
-		
-		System.out.println("tiny");
-		System.out.println(tinyFreq.size());
-		Defacto.DEFACTO_CONFIG.setStringSetting("settings", "context-size", "tiny");
-		System.out.println(getDomainNormalizedPopularity(2013));
-		
-		System.out.println("small");
-		System.out.println(smallFreq.size());
-		Defacto.DEFACTO_CONFIG.setStringSetting("settings", "context-size", "small");
-		System.out.println(getDomainNormalizedPopularity(2013));
-		
-		System.out.println("medium");
-		System.out.println(mediumFreq.size());
-		Defacto.DEFACTO_CONFIG.setStringSetting("settings", "context-size", "medium");
-		System.out.println(getDomainNormalizedPopularity(2013));
-		
-		System.out.println("large");
-		System.out.println(largeFreq.size());
-		Defacto.DEFACTO_CONFIG.setStringSetting("settings", "context-size", "large");
-		System.out.println(getDomainNormalizedPopularity(2013));
+		Defacto.init();
+		YearStatistics statistics = YearStatistics.getInstance();
 		
-//		for ( int i = 1980 ; i < 2014 ; i++ ) {
-//			
-//			System.out.println(String.format("%s\t%s\t%s", i, getGlobalNormalizedPopularity(i), getDomainNormalizedPopularity(i)));
-//		}
+		for ( String contextSize : YearStatistics.CONTEXT_SIZES ) {
+			
+			System.out.println(contextSize);
+			System.out.println(statistics.getNumberOfProofYears(YearStatistics.getContext(contextSize)));
+			Defacto.DEFACTO_CONFIG.setStringSetting("settings", "context-size", contextSize);
+			System.out.println(getDomainNormalizedPopularity(2013));
+		}
 	}
 	
 	static {
@@ -329,9 +244,6 @@ public class TimeUtil {
 		trainFreq.put(1955, 1L);
 		trainFreq.put(1960, 1L);
 		
-		for ( Map.Entry<Integer, Long> entry : webFreq.entrySet()) wf_sum += entry.getValue();
-		wf_average = wf_sum / (double) webFreq.size();
-		
 		webFreq.put(1000, 3610000000L);
 		webFreq.put(1001, 361000000L);
 		webFreq.put(1002, 140000000L);
@@ -1347,26 +1259,8 @@ public class TimeUtil {
 		webFreq.put(2012, 22010000000L);
 		webFreq.put(2013, 25270000000L);
 		
-		for ( Map.Entry<Integer, Long> entry : webFreq.entrySet()) wf_sum += entry.getValue();
-		wf_average = wf_sum / (double) webFreq.size();
-		
-		
-		for ( Integer year : webFreq.keySet()) {
-			
-			Long pfV = 0L;
-			switch ( Defacto.DEFACTO_CONFIG.getStringSetting("settings", "context-size") ) {
-			
-				case "tiny" :	pfV = TimeUtil.tinyFreq.containsKey(year) ? TimeUtil.tinyFreq.get(year) : 0L; break;
-				case "small" : 	pfV = TimeUtil.smallFreq.containsKey(year) ? TimeUtil.smallFreq.get(year) : 0L; break;
-				case "medium" : pfV = TimeUtil.mediumFreq.containsKey(year) ? TimeUtil.mediumFreq.get(year) : 0L; break;
-				case "large" :	pfV = TimeUtil.largeFreq.containsKey(year) ? TimeUtil.largeFreq.get(year) : 0L; break;
-			
-				default: throw new RuntimeException("Context size: " + 
-					Defacto.DEFACTO_CONFIG.getStringSetting("settings", "context-size") + " not supported!");
-			}
-			Long tfV = trainFreq.get(year);
-			
-			if ( pfV != null && tfV != null ) tfPfSum  += ( pfV / tfV );
-		}
+		// read by every thread checking a fact, so nobody may change them
+		webFreq = Collections.unmodifiableMap(webFreq);
+		trainFreq = Collections.unmodifiableMap(trainFreq);
 	}
 }
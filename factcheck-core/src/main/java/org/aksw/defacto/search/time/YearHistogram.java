@@ -0,0 +1,295 @@
+package org.aksw.defacto.search.time;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts how often each year occurs. The counts are a dense array over a
+ * bounded range of years, so counting a year is an atomic add on an array
+ * slot and needs neither a boxed key nor a lock. Threads counting different
+ * years never touch the same slot, several threads can fill and merge one
+ * histogram at the same time.
+ *
+ * Years are ordered by their count, most frequent first, and by the year for
+ * equal counts, which is the order {@link org.aksw.defacto.util.Frequency#sortByValue()}
+ * returned for the year strings.
+ */
+public class YearHistogram {
+
+    /**
+     * Four digit numbers outside of this range are not taken as years.
+     */
+    public static final int MIN_YEAR = 1000;
+    public static final int MAX_YEAR = 2199;
+
+    private final int minYear;
+    private final AtomicLongArray counts;
+
+    public YearHistogram() {
+        this(MIN_YEAR, MAX_YEAR);
+    }
+
+    /**
+     * @param minYear the first year counted
+     * @param maxYear the last year counted
+     */
+    public YearHistogram(int minYear, int maxYear) {
+
+        if ( maxYear < minYear ) throw new IllegalArgumentException("Empty year range: " + minYear + " - " + maxYear);
+        this.minYear = minYear;
+        this.counts = new AtomicLongArray(maxYear - minYear + 1);
+    }
+
+    public int getMinYear() {
+        return this.minYear;
+    }
+
+    public int getMaxYear() {
+        return this.minYear + this.counts.length() - 1;
+    }
+
+    /**
+     * @param year
+     * @return false if the year is out of range and was not counted
+     */
+    public boolean increment(int year) {
+        return this.add(year, 1);
+    }
+
+    /**
+     * @param year
+     * @param count
+     * @return false if the year is out of range and was not counted
+     */
+    public boolean add(int year, long count) {
+
+        int index = year - this.minYear;
+        if ( index < 0 || index >= this.counts.length() ) return false;
+        this.counts.addAndGet(index, count);
+        return true;
+    }
+
+    public void clear() {
+
+        for ( int i = 0; i < this.counts.length(); i++ ) this.counts.set(i, 0L);
+    }
+
+    /**
+     * @param year
+     * @return how often the year was counted, 0 if it is out of range
+     */
+    public long get(int year) {
+
+        int index = year - this.minYear;
+        return index >= 0 && index < this.counts.length() ? this.counts.get(index) : 0L;
+    }
+
+    /**
+     * @param year
+     * @return true if the year was counted at least once
+     */
+    public boolean contains(int year) {
+        return this.get(year) > 0;
+    }
+
+    /**
+     * @return the number of different years counted
+     */
+    public int size() {
+
+        int size = 0;
+        for ( int i = 0; i < this.counts.length(); i++ )
+            if ( this.counts.get(i) > 0 ) size++;
+        return size;
+    }
+
+    public boolean isEmpty() {
+
+        for ( int i = 0; i < this.counts.length(); i++ )
+            if ( this.counts.get(i) > 0 ) return false;
+        return true;
+    }
+
+    /**
+     * @return the sum of all counts
+     */
+    public long getTotal() {
+
+        long total = 0;
+        for ( int i = 0; i < this.counts.length(); i++ ) total += this.counts.get(i);
+        return total;
+    }
+
+    /**
+     * Adds the counts of the other histogram, years outside of this range
+     * are dropped.
+     *
+     * @param other
+     * @return this histogram
+     */
+    public YearHistogram merge(YearHistogram other) {
+
+        for ( int i = 0; i < other.counts.length(); i++ ) {
+
+            long count = other.counts.get(i);
+            if ( count != 0 ) this.add(other.minYear + i, count);
+        }
+        return this;
+    }
+
+    /**
+     * Moves all counts into a new histogram with the same range and leaves
+     * this one empty. A year counted at the same time ends up in exactly one
+     * of the two.
+     *
+     * @return the counts up to now
+     */
+    public YearHistogram drain() {
+
+        YearHistogram drained = new YearHistogram(this.getMinYear(), this.getMaxYear());
+        for ( int i = 0; i < this.counts.length(); i++ ) {
+
+            long count = this.counts.getAndSet(i, 0L);
+            if ( count != 0 ) drained.counts.set(i, count);
+        }
+        return drained;
+    }
+
+    /**
+     * @param year
+     * @return the 1 based position of the year in {@link #getYears()}, -1 if
+     * it was not counted
+     */
+    public int getRank(int year) {
+
+        long count = this.get(year);
+        if ( count <= 0 ) return -1;
+
+        int rank = 1;
+        for ( int i = 0; i < this.counts.length(); i++ ) {
+
+            long other = this.counts.get(i);
+            if ( other > count || (other == count && this.minYear + i < year) ) rank++;
+        }
+        return rank;
+    }
+
+    /**
+     * @return all counted years, most frequent first
+     */
+    public int[] getYears() {
+        return this.getTopYears(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Selects the most frequent years with a heap of size k instead of sorting
+     * all years.
+     *
+     * @param k
+     * @return at most k years, most frequent first
+     */
+    public int[] getTopYears(int k) {
+
+        // a snapshot keeps the order consistent while other threads count
+        long[] counts = new long[this.counts.length()];
+        for ( int i = 0; i < counts.length; i++ ) counts[i] = this.counts.get(i);
+
+        // min heap of array indexes, the root is the least frequent year kept
+        int[] heap = new int[Math.min(k, counts.length)];
+        int size = 0;
+        for ( int i = 0; i < counts.length; i++ ) {
+
+            if ( counts[i] <= 0 || heap.length == 0 ) continue;
+            if ( size < heap.length ) {
+
+                heap[size] = i;
+                siftUp(heap, size++, counts);
+            }
+            else if ( before(i, heap[0], counts) ) {
+
+                heap[0] = i;
+                siftDown(heap, size, counts);
+            }
+        }
+
+        // taking the root each time leaves the most frequent year at the front
+        int[] years = new int[size];
+        for ( int last = size - 1; last >= 0; last-- ) {
+
+            years[last] = this.minYear + heap[0];
+            heap[0] = heap[last];
+            siftDown(heap, last, counts);
+        }
+        return years;
+    }
+
+    /**
+     * @return the counted years with their counts, most frequent first
+     */
+    public Map<String, Long> toMap() {
+
+        Map<String, Long> map = new LinkedHashMap<String, Long>();
+        for ( int year : this.getYears() ) map.put(String.valueOf(year), this.get(year));
+        return map;
+    }
+
+    /**
+     * @return true if index a comes before index b in the year order
+     */
+    private static boolean before(int a, int b, long[] counts) {
+        return counts[a] > counts[b] || (counts[a] == counts[b] && a < b);
+    }
+
+    private static void siftUp(int[] heap, int position, long[] counts) {
+
+        while ( position > 0 ) {
+
+            int parent = (position - 1) >>> 1;
+            if ( !before(heap[parent], heap[position], counts) ) break;
+            swap(heap, parent, position);
+            position = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, long[] counts) {
+
+        int position = 0;
+        while ( true ) {
+
+            int child = 2 * position + 1;
+            if ( child >= size ) break;
+            if ( child + 1 < size && before(heap[child], heap[child + 1], counts) ) child++;
+            if ( !before(heap[position], heap[child], counts) ) break;
+            swap(heap, position, child);
+            position = child;
+        }
+    }
+
+    private static void swap(int[] heap, int i, int j) {
+
+        int tmp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = tmp;
+    }
+
+    @Override
+    public String toString() {
+        return this.toMap().toString();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+
+        if ( this == obj ) return true;
+        if ( !(obj instanceof YearHistogram) ) return false;
+        YearHistogram other = (YearHistogram) obj;
+        return this.toMap().equals(other.toMap());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(this.getYears());
+    }
+}
@@ -0,0 +1,363 @@
+package org.aksw.defacto.search.time;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.aksw.defacto.Constants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The year frequencies the time period searchers normalize with: how often a
+ * year occurs on the web, in the training data and in the proofs of each
+ * context size. Every table is a long[] indexed by year minus its first year,
+ * and the normalized popularities are computed once when the tables are
+ * loaded, so a lookup is an array read.
+ *
+ * The default statistics are loaded on the first call of {@link #getInstance()}
+ * from normalization/years.bin in the resource folder, which {@link #main(String[])}
+ * converts from the tsv files. Without that file the tsv files are read
+ * directly. Neither needs Defacto to be initialized.
+ */
+public final class YearStatistics {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(YearStatistics.class);
+
+    private static final int MAGIC = 0x44465953;
+    private static final int VERSION = 1;
+
+    public static final String[] CONTEXT_SIZES = { "tiny", "small", "medium", "large" };
+
+    public static final String NORMALIZATION_DIRECTORY = Constants.RESOURCE_PATH + "normalization/";
+    public static final String BINARY_FILE = NORMALIZATION_DIRECTORY + "years.bin";
+
+    private final YearTable web;
+    private final YearTable train;
+    private final YearTable[] proofs;
+
+    // indexed like the web table
+    private final double[] globalPopularity;
+    // per context size, indexed like the train table
+    private final double[][] domainPopularity;
+
+    private YearStatistics(YearTable web, YearTable train, YearTable[] proofs) {
+
+        this.web = web;
+        this.train = train;
+        this.proofs = proofs;
+
+        long webSum = web.sum();
+        this.globalPopularity = new double[web.counts.length];
+        for ( int i = 0; i < web.counts.length; i++ )
+            this.globalPopularity[i] = web.counts[i] / ((1 / (double) web.entries) * webSum);
+
+        this.domainPopularity = new double[proofs.length][train.counts.length];
+        for ( int context = 0; context < proofs.length; context++ ) {
+
+            // the quotients are summed up as integers, like they always were
+            long trainProofSum = 0;
+            for ( int year = web.minYear; year < web.minYear + web.counts.length; year++ ) {
+
+                if ( !web.contains(year) ) continue;
+                long trainFrequency = train.get(year);
+                if ( trainFrequency != 0 ) trainProofSum += proofs[context].get(year) / trainFrequency;
+            }
+
+            for ( int i = 0; i < train.counts.length; i++ ) {
+
+                long trainFrequency = train.counts[i];
+                if ( trainFrequency == 0 ) continue;
+                long proofFrequency = proofs[context].get(train.minYear + i);
+                this.domainPopularity[context][i] = (proofFrequency / (double) trainFrequency) / ((1 / (double) web.entries) * trainProofSum);
+            }
+        }
+    }
+
+    /**
+     * @return the default statistics, loaded on the first call
+     */
+    public static YearStatistics getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * @param contextSize tiny, small, medium or large
+     * @return the index of the context size for the lookups
+     */
+    public static int getContext(String contextSize) {
+
+        for ( int i = 0; i < CONTEXT_SIZES.length; i++ )
+            if ( CONTEXT_SIZES[i].equals(contextSize) ) return i;
+        throw new RuntimeException("Context size: " + contextSize + " not supported!");
+    }
+
+    /**
+     * @param year
+     * @return how often the year occurs on the web relative to the average year
+     */
+    public double getGlobalNormalizedPopularity(int year) {
+
+        int index = year - this.web.minYear;
+        return index >= 0 && index < this.globalPopularity.length ? this.globalPopularity[index] : 0D;
+    }
+
+    /**
+     * @param year
+     * @param context see {@link #getContext(String)}
+     * @return how often the year occurs in proofs relative to the training data
+     */
+    public double getDomainNormalizedPopularity(int year, int context) {
+
+        int index = year - this.train.minYear;
+        return index >= 0 && index < this.train.counts.length ? this.domainPopularity[context][index] : 0D;
+    }
+
+    public long getWebFrequency(int year) {
+        return this.web.get(year);
+    }
+
+    public long getTrainFrequency(int year) {
+        return this.train.get(year);
+    }
+
+    /**
+     * @param year
+     * @param context see {@link #getContext(String)}
+     * @return
+     */
+    public long getProofFrequency(int year, int context) {
+        return this.proofs[context].get(year);
+    }
+
+    /**
+     * @param context see {@link #getContext(String)}
+     * @return the number of years with a proof frequency
+     */
+    public int getNumberOfProofYears(int context) {
+        return this.proofs[context].entries;
+    }
+
+    /**
+     * Reads the proof frequencies from the tsv files of each context size in
+     * the directory. A missing file leaves that context size empty.
+     *
+     * @param directory contains tiny.tsv, small.tsv, medium.tsv and large.tsv
+     * @param trainFrequencies
+     * @param webFrequencies
+     * @return
+     */
+    public static YearStatistics fromTsv(File directory, Map<Integer, Long> trainFrequencies, Map<Integer, Long> webFrequencies) {
+
+        YearTable[] proofs = new YearTable[CONTEXT_SIZES.length];
+        for ( int i = 0; i < CONTEXT_SIZES.length; i++ )
+            proofs[i] = YearTable.of(readTsv(new File(directory, CONTEXT_SIZES[i] + ".tsv")));
+
+        return new YearStatistics(YearTable.of(webFrequencies), YearTable.of(trainFrequencies), proofs);
+    }
+
+    private static Map<Integer, Long> readTsv(File file) {
+
+        Map<Integer, Long> frequencies = new LinkedHashMap<Integer, Long>();
+        try ( BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) ) {
+
+            String line;
+            while ( (line = reader.readLine()) != null ) {
+
+                String[] parts = line.split("\t");
+                try {
+
+                    frequencies.put(Integer.valueOf(parts[0].trim()), Long.valueOf(parts[1].trim()));
+                }
+                catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+
+                    LOGGER.warn("Skipping malformed line in " + file + ": " + line);
+                }
+            }
+        }
+        catch (IOException e) {
+
+            LOGGER.error("Could not read the year frequencies from " + file, e);
+            return Collections.emptyMap();
+        }
+        return frequencies;
+    }
+
+    /**
+     * @param file written by {@link #write(File)}
+     * @return
+     * @throws IOException if the file is not readable or has an unknown format
+     */
+    public static YearStatistics read(File file) throws IOException {
+
+        try ( DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file))) ) {
+
+            if ( in.readInt() != MAGIC ) throw new IOException(file + " contains no year statistics");
+            if ( in.readInt() != VERSION ) throw new IOException("Unsupported year statistics version in " + file);
+
+            YearTable web = YearTable.read(in);
+            YearTable train = YearTable.read(in);
+            YearTable[] proofs = new YearTable[in.readInt()];
+            for ( int i = 0; i < proofs.length; i++ ) proofs[i] = YearTable.read(in);
+            return new YearStatistics(web, train, proofs);
+        }
+    }
+
+    /**
+     * @param file
+     * @throws IOException
+     */
+    public void write(File file) throws IOException {
+
+        try ( DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file))) ) {
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            this.web.write(out);
+            this.train.write(out);
+            out.writeInt(this.proofs.length);
+            for ( YearTable table : this.proofs ) table.write(out);
+        }
+    }
+
+    private static YearStatistics load() {
+
+        long start = System.currentTimeMillis();
+        File binary = new File(BINARY_FILE);
+        YearStatistics statistics = null;
+        if ( binary.exists() ) {
+
+            try {
+
+                statistics = read(binary);
+            }
+            catch (IOException e) {
+
+                LOGGER.error("Could not read " + binary + ", falling back to the tsv files", e);
+            }
+        }
+        if ( statistics == null )
+            statistics = fromTsv(new File(NORMALIZATION_DIRECTORY), TimeUtil.trainFreq, TimeUtil.webFreq);
+
+        LOGGER.info("Loading the year statistics took " + (System.currentTimeMillis() - start) + "ms");
+        return statistics;
+    }
+
+    /**
+     * Converts the tsv files to the binary format.
+     *
+     * @param args the normalization directory and the output file, both optional
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+
+        File directory = new File(args.length > 0 ? args[0] : NORMALIZATION_DIRECTORY);
+        File output = new File(args.length > 1 ? args[1] : BINARY_FILE);
+
+        fromTsv(directory, TimeUtil.trainFreq, TimeUtil.webFreq).write(output);
+        System.out.println("Wrote " + output + " (" + output.length() + " bytes)");
+    }
+
+    private static final class Holder {
+
+        private static final YearStatistics INSTANCE = load();
+    }
+
+    /**
+     * The frequencies of a contiguous range of years, 0 for a missing year.
+     */
+    private static final class YearTable {
+
+        private final int minYear;
+        private final long[] counts;
+        // the number of years which had a frequency in the source, zeros included
+        private final int entries;
+        private final boolean[] present;
+
+        private YearTable(int minYear, long[] counts, boolean[] present, int entries) {
+
+            this.minYear = minYear;
+            this.counts = counts;
+            this.present = present;
+            this.entries = entries;
+        }
+
+        private static YearTable of(Map<Integer, Long> frequencies) {
+
+            if ( frequencies.isEmpty() ) return new YearTable(0, new long[0], new boolean[0], 0);
+
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            for ( Integer year : frequencies.keySet() ) {
+
+                min = Math.min(min, year);
+                max = Math.max(max, year);
+            }
+
+            long[] counts = new long[max - min + 1];
+            boolean[] present = new boolean[counts.length];
+            for ( Map.Entry<Integer, Long> entry : frequencies.entrySet() ) {
+
+                counts[entry.getKey() - min] = entry.getValue();
+                present[entry.getKey() - min] = true;
+            }
+            return new YearTable(min, counts, present, frequencies.size());
+        }
+
+        private long get(int year) {
+
+            int index = year - this.minYear;
+            return index >= 0 && index < this.counts.length ? this.counts[index] : 0L;
+        }
+
+        private boolean contains(int year) {
+
+            int index = year - this.minYear;
+            return index >= 0 && index < this.present.length && this.present[index];
+        }
+
+        private long sum() {
+
+            long sum = 0;
+            for ( long count : this.counts ) sum += count;
+            return sum;
+        }
+
+        private static YearTable read(DataInputStream in) throws IOException {
+
+            int minYear = in.readInt();
+            long[] counts = new long[in.readInt()];
+            boolean[] present = new boolean[counts.length];
+            int entries = 0;
+            for ( int i = 0; i < counts.length; i++ ) {
+
+                present[i] = in.readBoolean();
+                counts[i] = in.readLong();
+                if ( present[i] ) entries++;
+            }
+            return new YearTable(minYear, counts, present, entries);
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+
+            out.writeInt(this.minYear);
+            out.writeInt(this.counts.length);
+            for ( int i = 0; i < this.counts.length; i++ ) {
+
+                out.writeBoolean(this.present[i]);
+                out.writeLong(this.counts[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package org.aksw.defacto.topic;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import org.aksw.defacto.Defacto;
+import org.aksw.defacto.cache.Cache;
+import org.aksw.defacto.cache.MemoryTier;
+import org.aksw.defacto.cache.Serializer;
+import org.aksw.defacto.cache.TieredCache;
+import org.aksw.defacto.config.DefactoConfig;
+import org.aksw.defacto.search.cache.local.LogStore;
+import org.aksw.defacto.search.cache.solr.TopicTermSolr4Cache;
+import org.aksw.defacto.topic.frequency.Word;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the topic terms of labels in a {@link TieredCache}: a bounded in
+ * memory LRU tier, a {@link LogStore} on the local disk and optionally the
+ * topic term Solr core. {@link #get(String, Function)} computes missing
+ * entries once per label. The related topics of the cached terms are
+ * unmodifiable.
+ */
+public class TopicTermCache extends TieredCache<TopicTerm> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TopicTermCache.class);
+
+    private static final int VERSION = 1;
+
+    private static TopicTermCache instance;
+
+    /**
+     * @param maximumSize the number of labels kept in memory
+     * @param store the local store, null to keep the terms in memory only
+     * @param remote the remote cache, null if there is none
+     */
+    public TopicTermCache(int maximumSize, LogStore store, Cache<TopicTerm> remote) {
+
+        super("topic-terms", new Function<TopicTerm, String>() {
+
+            @Override
+            public String apply(TopicTerm term) {
+                return term.label;
+            }
+        }, new MemoryTier<TopicTerm>(maximumSize, MemoryTier.Policy.LRU));
+
+        if ( store != null ) this.setDiskTier(store, new Serializer<TopicTerm>() {
+
+            @Override
+            public byte[] serialize(TopicTerm entry) {
+                return encode(entry);
+            }
+
+            @Override
+            public TopicTerm deserialize(String identifier, byte[] bytes) throws IOException {
+                return decode(identifier, bytes);
+            }
+        });
+        this.setRemoteTier(remote);
+    }
+
+    /**
+     * Creates the cache configured in the topicTerms section on the first call.
+     *
+     * @return
+     */
+    public static synchronized TopicTermCache getInstance() {
+
+        if ( instance != null ) return instance;
+
+        LogStore store = null;
+        String directory = Defacto.DEFACTO_CONFIG.getStringSetting("topicTerms", "TOPIC_TERM_STORE");
+        if ( directory != null && !directory.trim().isEmpty() ) {
+
+            long maxBytes = Defacto.DEFACTO_CONFIG.getIntegerSetting("topicTerms", "TOPIC_TERM_STORE_MAX_SIZE_MB") * 1024L * 1024L;
+            try {
+
+                store = new LogStore(new File(DefactoConfig.DEFACTO_DATA_DIR + directory), maxBytes,
+                        Math.max(1L << 20, Math.min(64L << 20, maxBytes / 8)));
+            }
+            catch (IOException e) {
+
+                LOGGER.error("Could not open the topic term store, topic terms are only cached in memory", e);
+            }
+        }
+
+        Cache<TopicTerm> remote = Defacto.DEFACTO_CONFIG.getBooleanSetting("topicTerms", "TOPIC_TERM_SOLR_CACHE") ? new TopicTermSolr4Cache() : null;
+        instance = new TopicTermCache(Defacto.DEFACTO_CONFIG.getIntegerSetting("topicTerms", "TOPIC_TERM_CACHE_SIZE"), store, remote);
+
+        final TopicTermCache cache = instance;
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                cache.close();
+            }
+        }, "topic-term-store-shutdown"));
+
+        return instance;
+    }
+
+    /**
+     * @return a copy of the term with unmodifiable related topics
+     */
+    @Override
+    protected TopicTerm toCached(TopicTerm entry) {
+
+        List<Word> related = entry.relatedTopics == null ? Collections.<Word>emptyList() : entry.relatedTopics;
+        return new TopicTerm(entry.label, Collections.unmodifiableList(new ArrayList<Word>(related)));
+    }
+
+    /**
+     * @param term
+     * @return the related topics and their frequencies
+     */
+    static byte[] encode(TopicTerm term) {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try ( DataOutputStream out = new DataOutputStream(bytes) ) {
+
+            out.writeInt(VERSION);
+            out.writeInt(term.relatedTopics.size());
+            for ( Word word : term.relatedTopics ) {
+
+                out.writeUTF(word.getWord());
+                out.writeInt((int) word.getFrequency());
+            }
+        }
+        catch (IOException e) {
+
+            // there is no I/O on a byte array
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param label
+     * @param value
+     * @return the term with unmodifiable related topics
+     * @throws IOException
+     */
+    static TopicTerm decode(String label, byte[] value) throws IOException {
+
+        try ( DataInputStream in = new DataInputStream(new ByteArrayInputStream(value)) ) {
+
+            if ( in.readInt() != VERSION ) throw new IOException("Unsupported topic term version");
+
+            int size = in.readInt();
+            List<Word> related = new ArrayList<Word>(size);
+            for ( int i = 0; i < size; i++ ) related.add(new Word(in.readUTF(), in.readInt()));
+            return new TopicTerm(label, Collections.unmodifiableList(related));
+        }
+    }
+}
@@ -16,12 +16,12 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.function.Function;
 
 import org.aksw.defacto.Defacto;
 import org.aksw.defacto.config.DefactoConfig;
 import org.aksw.defacto.evidence.Evidence;
 import org.aksw.defacto.evidence.WebSite;
-import org.aksw.defacto.search.cache.solr.TopicTermSolr4Cache;
 import org.aksw.defacto.topic.frequency.Word;
 import org.aksw.defacto.wikipedia.WikipediaPageCrawler;
 import org.aksw.defacto.wikipedia.WikipediaSearchResult;
@@ -54,12 +54,9 @@ public class TopicTermExtractor {
     //private static String ELASTIC_SERVER = Defacto.DEFACTO_CONFIG.getStringSetting("elastic", "SERVER_ADDRESS");;
 	//private static String ELASTIC_PORT = Defacto.DEFACTO_CONFIG.getStringSetting("elastic", "PORT_NUMBER");
 
-    private static TopicTermSolr4Cache cache = new TopicTermSolr4Cache();
-    
     public static void main(String[] args) throws InvalidFileFormatException, IOException {
     	
     	Defacto.init();
-    	cache = new TopicTermSolr4Cache();
         //for ( Word w : getPotentialTopicTerms("Amazon", "Jeff Bezos"))  System.out.println(w + " " + w.getFrequency());;
     }
     
@@ -105,15 +102,29 @@ public class TopicTermExtractor {
 	}
 
     /**
+     * Returns the cached topic terms of the label, see {@link TopicTermCache}.
      * 
      * @param label
      * @return
      */
-	private static List<Word> getPotentialTopicTermsFor(String label, String language) {
+	private static List<Word> getPotentialTopicTermsFor(String label, final String language) {
+
+        return TopicTermCache.getInstance().get(label, new Function<String, TopicTerm>() {
+
+            @Override
+            public TopicTerm apply(String label) {
+                return new TopicTerm(label, crawlTopicTerms(label, language));
+            }
+        }).relatedTopics;
+	}
+
+    /**
+     * 
+     * @param label
+     * @return the 20 most frequent terms of the wikipedia pages of the label
+     */
+	private static List<Word> crawlTopicTerms(String label, String language) {
 
-		// go query for the subject in cache if it's no in there put it in
-        if ( cache.contains(label) ) return cache.getEntry(label).relatedTopics;
-		
     	List<Word> potentialTopicTerms = new ArrayList<Word>();
         potentialTopicTerms.addAll(queryWikipediaPageAndGetTopicTerms(WikipediaSearcher.queryWikipedia(label, language)));
         
@@ -126,8 +137,7 @@ public class TopicTermExtractor {
         Collections.sort(topicTerms, new WordFrequencyComparator());
         topicTerms = topicTerms.size() >= 20 ? topicTerms.subList(0, 20) : topicTerms;
         
-        // add it to the cache and return only the related topics
-        return cache.add(new TopicTerm(label, topicTerms)).relatedTopics;
+        return topicTerms;
 	}
 
 	private static List<Word> queryWikipediaPageAndGetTopicTerms(List<WikipediaSearchResult> wikiSearchResults) {
@@ -195,20 +195,20 @@ public class DefactoTimePeriodService {
 	private void buildYearOccurrences(JSONObject result, Evidence ev) throws JSONException {
 		
 		JSONObject tiny = new JSONObject();
-        for ( Map.Entry<String,Long> times : ev.tinyContextYearOccurrences.entrySet()) 
-        	tiny.put(times.getKey(), times.getValue());
+        for ( int year : ev.tinyContextYearOccurrences.getYears() ) 
+        	tiny.put(String.valueOf(year), ev.tinyContextYearOccurrences.get(year));
 		
         JSONObject small = new JSONObject();
-        for ( Map.Entry<String,Long> times : ev.smallContextYearOccurrences.entrySet()) 
-        	small.put(times.getKey(), times.getValue());
+        for ( int year : ev.smallContextYearOccurrences.getYears() ) 
+        	small.put(String.valueOf(year), ev.smallContextYearOccurrences.get(year));
         
         JSONObject medium = new JSONObject();
-        for ( Map.Entry<String,Long> times : ev.mediumContextYearOccurrences.entrySet()) 
-        	medium.put(times.getKey(), times.getValue());
+        for ( int year : ev.mediumContextYearOccurrences.getYears() ) 
+        	medium.put(String.valueOf(year), ev.mediumContextYearOccurrences.get(year));
         
         JSONObject large = new JSONObject();
-        for ( Map.Entry<String,Long> times : ev.largeContextYearOccurrences.entrySet()) 
-        	large.put(times.getKey(), times.getValue());
+        for ( int year : ev.largeContextYearOccurrences.getYears() ) 
+        	large.put(String.valueOf(year), ev.largeContextYearOccurrences.get(year));
 
         result.put("tiny", tiny);
         result.put("small", small);
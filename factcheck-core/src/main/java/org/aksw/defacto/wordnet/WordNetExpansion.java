@@ -4,34 +4,86 @@
  */
 package org.aksw.defacto.wordnet;
 
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.log4j.Logger;
 
 import edu.smu.tspell.wordnet.Synset;
 import edu.smu.tspell.wordnet.WordNetDatabase;
 
 /**
+ * Expands strings with the synonyms of their tokens. Every word is mapped to
+ * a 64 bit hash id and the synonyms of a token are kept in memory as a sorted
+ * id array, so WordNet is only asked once per distinct token. Expansions of
+ * whole strings are sorted id arrays as well and the jaccard similarity is
+ * computed by merging two of them.
+ *
+ * The ids are computed, not interned, so arbitrary proof tokens don't grow
+ * any table. The synonyms of the preloaded WordNet lemmas are kept for good,
+ * those of other tokens in an LRU of bounded size.
  *
  * @author ngonga
  */
 public class WordNetExpansion {
 
+    private static final Logger logger = Logger.getLogger(WordNetExpansion.class);
+    private static final long[] NO_TOKENS = new long[0];
+    private static final int DEFAULT_CACHE_SIZE = 10000;
+    private static final String[] INDEX_FILES = new String[]{ "index.noun", "index.verb", "index.adj", "index.adv" };
+
     WordNetDatabase database;
 
+    // filled by preload only, read without locking afterwards
+    private final Map<String, long[]> lemmaIds = new ConcurrentHashMap<String, long[]>();
+    private final Map<String, long[]> tokenIds;
+
     public WordNetExpansion(String dictionary) {
+        this(dictionary, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param dictionary The WordNet dict directory
+     * @param cacheSize The number of expanded tokens kept in memory besides the preloaded lemmas
+     */
+    public WordNetExpansion(String dictionary, final int cacheSize) {
         System.setProperty("wordnet.database.dir", dictionary);
-        database = WordNetDatabase.getFileInstance();        
+        database = WordNetDatabase.getFileInstance();
+        tokenIds = Collections.synchronizedMap(new LinkedHashMap<String, long[]>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, long[]> eldest) {
+                return size() > cacheSize;
+            }
+        });
     }
-    
+
     /** Expands a single keyword by retrieving all the elements of all its synsets
-     * 
+     *
      * @param keyword Input token
      * @return All elements of all synsets of keyword
      */
     private Set<String> getSynset(String keyword)
     {
         Set<String> result = new HashSet<String>();
-        Synset[] synsets = database.getSynsets(keyword);
+        Synset[] synsets;
+        // JAWS reads the dictionary files on demand
+        synchronized (database) {
+            synsets = database.getSynsets(keyword);
+        }
         for (int i = 0; i < synsets.length; i++) {
             String[] s = synsets[i].getWordForms();
             for (int j = 0; j < s.length; j++) {
@@ -40,34 +92,121 @@ public class WordNetExpansion {
         }
         return result;
     }
-    
+
+    /** Returns the ids of all elements of all synsets of a keyword, the
+     * result is kept in memory afterwards
+     *
+     * @param keyword Input token
+     * @return Sorted ids of all elements of all synsets of keyword
+     */
+    private long[] getSynsetIds(String keyword)
+    {
+        long[] ids = lemmaIds.get(keyword);
+        if (ids == null) ids = tokenIds.get(keyword);
+        if (ids == null) {
+
+            ids = computeSynsetIds(keyword);
+            tokenIds.put(keyword, ids);
+        }
+        return ids;
+    }
+
+    private long[] computeSynsetIds(String keyword)
+    {
+        Set<String> synset = getSynset(keyword);
+        long[] ids = new long[synset.size()];
+        int i = 0;
+        for (String word : synset)
+            ids[i++] = getWordId(word);
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    /** FNV-1a hash of the word. With 64 bits a collision within the WordNet
+     * vocabulary and the tokens of a fact is practically impossible, so two
+     * words have the same id only if they are equal.
+     */
+    static long getWordId(String word)
+    {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < word.length(); i++) {
+            hash ^= word.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /** Expands every lemma of the WordNet index files, so that later lookups
+     * never have to touch the dictionary files. Inflected forms which are no
+     * lemma are still expanded on first use.
+     *
+     * @param dictionary The WordNet dict directory
+     */
+    public void preload(String dictionary)
+    {
+        long start = System.currentTimeMillis();
+        for (String indexFile : INDEX_FILES) {
+
+            File file = new File(dictionary, indexFile);
+            if (!file.exists()) continue;
+
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+
+                String line;
+                while ((line = reader.readLine()) != null) {
+
+                    // license header lines start with spaces
+                    if (line.isEmpty() || line.charAt(0) == ' ') continue;
+                    String lemma = line.substring(0, line.indexOf(' ') > 0 ? line.indexOf(' ') : line.length()).replace('_', ' ');
+                    if (lemma.length() > 2 && lemma.indexOf(' ') < 0 && !lemmaIds.containsKey(lemma))
+                        lemmaIds.put(lemma, computeSynsetIds(lemma));
+                }
+            }
+            catch (IOException e) {
+
+                logger.warn("Could not preload WordNet index file: " + file, e);
+            }
+        }
+        logger.info("Preloaded " + lemmaIds.size() + " WordNet lemmas in " + (System.currentTimeMillis() - start) + "ms");
+    }
+
     /** Expand a string by chunking it into tokens and expanding each of the
      * tokens using WordNet
      * @param keywords Input string
-     * @return  Set of tokens after Wordnet expansion
+     * @return  Sorted and distinct ids of the tokens after Wordnet expansion
      */
-    private Set<String> expand(String keywords)
+    public long[] expand(String keywords)
     {
         String[] split = keywords.split(" ");
-        Set<String> result = new HashSet<String>();
-        Set<String> buffer;
+        long[][] expansions = new long[split.length][];
+        int size = 0;
         for(int i=0; i<split.length; i++)
         {
             // no need to expand prepositions and the like
             if(split[i].length() > 2)
-            {
-                buffer = getSynset(split[i]);
-                for(String s: buffer)
-                    result.add(s);
-            }
+                expansions[i] = getSynsetIds(split[i]);
             else
-            {
-                result.add(split[i]);
-            }
+                expansions[i] = new long[]{ getWordId(split[i]) };
+            size += expansions[i].length;
         }
-        return result;
+        if (size == 0) return NO_TOKENS;
+
+        long[] result = new long[size];
+        int offset = 0;
+        for (long[] expansion : expansions) {
+            System.arraycopy(expansion, 0, result, offset, expansion.length);
+            offset += expansion.length;
+        }
+        Arrays.sort(result);
+
+        // remove duplicates
+        int distinct = 1;
+        for (int i = 1; i < result.length; i++)
+            if (result[i] != result[distinct - 1]) result[distinct++] = result[i];
+
+        return distinct == result.length ? result : Arrays.copyOf(result, distinct);
     }
-    
+
     /** Computes the jaccard similarity of two strings after carrying out a WordNet
      * expansion of each of the tokens of the input string
      * @param s1 First input string
@@ -76,17 +215,28 @@ public class WordNetExpansion {
      */
     public double getExpandedJaccardSimilarity(String s1, String s2)
     {
-        Set<String> tokens1 = expand(s1);
-        Set<String> tokens2 = expand(s2);
-        
-        Set<String> intersection = new HashSet(tokens1);
-        intersection.retainAll(tokens2);
-        Set<String> union = new HashSet(tokens1);
-        union.addAll(tokens2);
-        
-        return ((double)intersection.size())/((double)union.size());
+        return getJaccardSimilarity(expand(s1), expand(s2));
+    }
+
+    /** Computes the jaccard similarity of two expansions
+     * @param tokens1 Sorted and distinct ids of the first expansion
+     * @param tokens2 Sorted and distinct ids of the second expansion
+     * @return Similarity value between 0 and 1, NaN if both are empty.
+     */
+    public static double getJaccardSimilarity(long[] tokens1, long[] tokens2)
+    {
+        int i = 0, j = 0, intersection = 0;
+        while (i < tokens1.length && j < tokens2.length) {
+
+            if (tokens1[i] < tokens2[j]) i++;
+            else if (tokens1[i] > tokens2[j]) j++;
+            else { intersection++; i++; j++; }
+        }
+        int union = tokens1.length + tokens2.length - intersection;
+
+        return ((double)intersection)/((double)union);
     }
-    
+
     public static void main(String args[])
     {
         WordNetExpansion wne = new WordNetExpansion("C:\\Program Files (x86)\\WordNet\\2.1\\dict");
@@ -95,6 +245,6 @@ public class WordNetExpansion {
         String token2 = "table";
         System.out.println(wne.getSynset(token2));
         System.out.println(wne.getExpandedJaccardSimilarity(token, token2));
-        
+
     }
 }
@@ -9,12 +9,13 @@ import edu.stanford.nlp.semgraph.SemanticGraph;
 import edu.stanford.nlp.semgraph.SemanticGraphCoreAnnotations;
 import edu.stanford.nlp.semgraph.SemanticGraphEdge;
 import edu.stanford.nlp.util.CoreMap;
-import org.aksw.defacto.boa.BoaPatternSearcher;
 import org.aksw.defacto.boa.Pattern;
 import org.aksw.defacto.evidence.ComplexProof;
-import org.aksw.defacto.evidence.Evidence;
 import org.aksw.defacto.ml.feature.fact.AbstractFactFeatures;
 import org.aksw.defacto.ml.feature.fact.FactFeature;
+import org.aksw.defacto.ml.feature.fact.FactFeatureContext;
+import org.aksw.defacto.ml.feature.fact.FactFeatureResult;
+import org.aksw.defacto.model.DefactoModel;
 
 import java.util.List;
 import java.util.Properties;
@@ -23,24 +24,19 @@ import java.util.Properties;
  * @author DANISH AHMED on 6/30/2018
  */
 public class ContextProofNegationIdentifierFeature implements FactFeature {
-    public String predicate = "";
-    public String subject = "";
-    public String object = "";
-    public Evidence evidence;
 
     @Override
-    public void extractFeature(ComplexProof proof, Evidence evidence) {
-        BoaPatternSearcher searcher = new BoaPatternSearcher();
+    public void extractFeature(ComplexProof proof, FactFeatureContext context, FactFeatureResult result) {
         float score = (float) 0.0;
 
-        this.evidence = evidence;
-        subject = proof.getSubject().toLowerCase();
-        object = proof.getObject().toLowerCase();
-//        String context = proof.getProofPhrase().toLowerCase();
-        String context = "albert einstein is not a winner of nobel prize in physics .";
-        List<Pattern> patterns = searcher.querySolrIndex(evidence.getModel().getPropertyUri(), 20, 0, proof.getLanguage());
+        String subject = proof.getSubject().toLowerCase();
+        String object = proof.getObject().toLowerCase();
+        String predicate = "";
+//        String proofContext = proof.getProofPhrase().toLowerCase();
+        String proofContext = "albert einstein is not a winner of nobel prize in physics .";
+        List<Pattern> patterns = context.getPatterns(proof.getLanguage());
 
-        System.out.println(context);
+        System.out.println(proofContext);
 
         for ( Pattern p : patterns ) {
             if ( p.getNormalized().trim().isEmpty() ) continue;
@@ -53,12 +49,14 @@ public class ContextProofNegationIdentifierFeature implements FactFeature {
         predicate = "winner";
 
         String[] properties = {"annotators", "tokenize, ssplit, pos, lemma, ner, parse, dcoref"};
-        List<CoreMap> sentences = getMappedSentences(properties, context);
+        List<CoreMap> sentences = getMappedSentences(context.getModel(), properties, proofContext);
 //        score = 1 - processNegation(sentences);
-        double dependencyValue = proof.getFeatures().value(AbstractFactFeatures.DEPENDENCY_SUBJECT_OBJECT);
-        score = (float)(dependencyValue) - processNegation(sentences);
+        // the dependency feature runs before this one
+        double dependencyValue = result.value(AbstractFactFeatures.DEPENDENCY_SUBJECT_OBJECT,
+                proof.getFeatures().value(AbstractFactFeatures.DEPENDENCY_SUBJECT_OBJECT));
+        score = (float)(dependencyValue) - processNegation(sentences, predicate, subject, object);
 
-        proof.getFeatures().setValue(AbstractFactFeatures.DEPENDENCY_SUBJECT_OBJECT, score);
+        result.setValue(AbstractFactFeatures.DEPENDENCY_SUBJECT_OBJECT, score);
     }
 
     public StanfordCoreNLP getPipeline(String propertyKey, String propertyValue) {
@@ -74,7 +72,7 @@ public class ContextProofNegationIdentifierFeature implements FactFeature {
         return document;
     }
 
-    public List<CoreMap> getMappedSentences(String[] properties, String context) {
+    public List<CoreMap> getMappedSentences(DefactoModel model, String[] properties, String context) {
         /*String propertyKey = properties[0];
         String propertyValue = properties[1];
 
@@ -82,11 +80,11 @@ public class ContextProofNegationIdentifierFeature implements FactFeature {
         Annotation document = annotateDocument(context, pipeline);
 
         return document.get(CoreAnnotations.SentencesAnnotation.class);*/
-        Annotation document = evidence.getModel().corenlpClient.corefAnnotation(context);
+        Annotation document = model.corenlpClient.corefAnnotation(context);
         return document.get(CoreAnnotations.SentencesAnnotation.class);
     }
 
-    public float processNegation(List<CoreMap> sentences) {
+    public float processNegation(List<CoreMap> sentences, String predicate, String subject, String object) {
         Boolean hasNegation = false;
         for(CoreMap sentence: sentences) {
             for (CoreLabel token: sentence.get(CoreAnnotations.TokensAnnotation.class)) {
@@ -99,13 +97,13 @@ public class ContextProofNegationIdentifierFeature implements FactFeature {
 
             if (hasNegation) {
                 SemanticGraph dependencies = sentence.get(SemanticGraphCoreAnnotations.CollapsedCCProcessedDependenciesAnnotation.class);
-                return negationOfInputPredicate(dependencies);
+                return negationOfInputPredicate(dependencies, predicate, subject, object);
             }
         }
         return 0;
     }
 
-    public float negationOfInputPredicate(SemanticGraph dependencies) {
+    public float negationOfInputPredicate(SemanticGraph dependencies, String predicate, String subject, String object) {
         Boolean sentenceNegation = false;
         float score = 0;
         for (IndexedWord rootWord : dependencies.getRoots()) {
@@ -177,12 +175,10 @@ public class ContextProofNegationIdentifierFeature implements FactFeature {
         String object = "noble prize in physics";
         String context = "albert einstein is not a winner of nobel prize in physics .";
         ContextProofNegationIdentifierFeature negationIdentifier = new ContextProofNegationIdentifierFeature();
-        negationIdentifier.predicate = predicate;
-        negationIdentifier.subject = subject;
-        negationIdentifier.object = object;
 
         String[] properties = {"annotators", "tokenize, ssplit, pos, lemma, ner, parse, dcoref"};
-        List<CoreMap> sentences = negationIdentifier.getMappedSentences(properties, context);
-        System.out.println(negationIdentifier.processNegation(sentences));
+        Annotation document = negationIdentifier.annotateDocument(context, negationIdentifier.getPipeline(properties[0], properties[1]));
+        List<CoreMap> sentences = document.get(CoreAnnotations.SentencesAnnotation.class);
+        System.out.println(negationIdentifier.processNegation(sentences, predicate, subject, object));
     }
 }
@@ -4,12 +4,12 @@ package org.dice.factcheck.ml.feature.fact.impl;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
-import org.aksw.defacto.boa.BoaPatternSearcher;
 import org.aksw.defacto.boa.Pattern;
 import org.aksw.defacto.evidence.ComplexProof;
-import org.aksw.defacto.evidence.Evidence;
 import org.aksw.defacto.ml.feature.fact.AbstractFactFeatures;
 import org.aksw.defacto.ml.feature.fact.FactFeature;
+import org.aksw.defacto.ml.feature.fact.FactFeatureContext;
+import org.aksw.defacto.ml.feature.fact.FactFeatureResult;
 
 import edu.stanford.nlp.ling.CoreAnnotations.SentencesAnnotation; 
 import edu.stanford.nlp.ling.CoreAnnotations.TokensAnnotation;
@@ -32,8 +32,6 @@ public class DependencyParseFeature implements FactFeature {
 
 	private final static String PCG_MODEL = "edu/stanford/nlp/models/lexparser/englishPCFG.ser.gz";
 	public LexicalizedParser parser;
-	static boolean found = false;
-	BoaPatternSearcher searcher = new BoaPatternSearcher();
 
 	public DependencyParseFeature() {
 
@@ -41,9 +39,9 @@ public class DependencyParseFeature implements FactFeature {
 	}
 
 	@Override
-	public void extractFeature(ComplexProof proof, Evidence evidence) {
+	public void extractFeature(ComplexProof proof, FactFeatureContext context, FactFeatureResult result) {
 
-		List<Pattern> patterns = searcher.querySolrIndex(evidence.getModel().getPropertyUri(), 20, 0, proof.getLanguage());
+		List<Pattern> patterns = context.getPatterns(proof.getLanguage());
 		float score = (float) 0.0;
 		String patternString = "";
 		for ( Pattern p : patterns ) {
@@ -58,7 +56,7 @@ public class DependencyParseFeature implements FactFeature {
 		if(!(patternString==""))
 		{		
 			List<TypedDependency> tdl = null;
-			Annotation doc = evidence.getModel().corenlpClient.sentenceAnnotation(proof.getProofPhrase());
+			Annotation doc = context.getModel().corenlpClient.sentenceAnnotation(proof.getProofPhrase());
 			for(CoreMap sentence: doc.get(SentencesAnnotation.class)) {
 				if(sentence.get(CoreAnnotations.TextAnnotation.class).toLowerCase().contains(patternString) && sentence.get(CoreAnnotations.TextAnnotation.class).split(" ").length<30)
 				{
@@ -98,7 +96,7 @@ public class DependencyParseFeature implements FactFeature {
 				}
 			}
 		}
-		proof.getFeatures().setValue(AbstractFactFeatures.DEPENDENCY_SUBJECT_OBJECT, score);
+		result.setValue(AbstractFactFeatures.DEPENDENCY_SUBJECT_OBJECT, score);
 
 	}   
 
@@ -1,13 +1,15 @@
 package org.dice.factcheck.ml.feature.fact.impl;
 
 
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import org.aksw.defacto.evidence.ComplexProof;
-import org.aksw.defacto.evidence.Evidence;
 import org.aksw.defacto.ml.feature.fact.AbstractFactFeatures;
 import org.aksw.defacto.ml.feature.fact.FactFeature;
+import org.aksw.defacto.ml.feature.fact.FactFeatureContext;
+import org.aksw.defacto.ml.feature.fact.FactFeatureResult;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpHost;
 import org.apache.http.entity.ContentType;
@@ -33,37 +35,24 @@ public class PattyPatternFeature implements FactFeature {
 	private static SmithWaterman smithWaterman = new SmithWaterman();
 	private static QGramsDistance qgrams		= new QGramsDistance();
 	private static Levenshtein lev				= new Levenshtein();
-	private static float smithWatermanSimilarity = 0f;
-	private static float qgramsSimilarity = 0f;
-	private static float levSimilarity = 0f;
-	private static double smithWatermanScore = 0.00;
-	private static double qgramsSimilarityScore = 0.00;
-	private static double levSimilarityScore = 0.00;
-	private static int patternCounter = 0, patternNormalizedCounter = 0;
-	private static String proofSubString = "";
-	private static boolean subjectObject = false;
-	private Response response;
-	private String json;
-	private JsonNode rootNode;
-	private ObjectMapper mapper = new ObjectMapper();
+	private static ObjectMapper mapper = new ObjectMapper();
 	private static Logger logger =  Logger.getLogger(PattyPatternFeature.class);
 
 	@Override
-	public void extractFeature(ComplexProof proof, Evidence evidence) {
+	public void extractFeature(ComplexProof proof, FactFeatureContext context, FactFeatureResult result) {
 
-		RestClient restClientobj = RestClient.builder(new HttpHost("131.234.28.255" , 6060, "http")).build();
 		//Set all distances to zero
-		proof.getFeatures().setValue(AbstractFactFeatures.SMITH_WATERMAN_BOA_SCORE, 0);
-		proof.getFeatures().setValue(AbstractFactFeatures.SMITH_WATERMAN, 0);
+		result.setValue(AbstractFactFeatures.SMITH_WATERMAN_BOA_SCORE, 0);
+		result.setValue(AbstractFactFeatures.SMITH_WATERMAN, 0);
 
-		proof.getFeatures().setValue(AbstractFactFeatures.QGRAMS_BOA_SCORE, 0);
-		proof.getFeatures().setValue(AbstractFactFeatures.QGRAMS, 0);
+		result.setValue(AbstractFactFeatures.QGRAMS_BOA_SCORE, 0);
+		result.setValue(AbstractFactFeatures.QGRAMS, 0);
 
-		proof.getFeatures().setValue(AbstractFactFeatures.LEVENSHTEIN_BOA_SCORE, 0);
-		proof.getFeatures().setValue(AbstractFactFeatures.LEVENSHTEIN, 0);
+		result.setValue(AbstractFactFeatures.LEVENSHTEIN_BOA_SCORE, 0);
+		result.setValue(AbstractFactFeatures.LEVENSHTEIN, 0);
 
-		proof.getFeatures().setValue(AbstractFactFeatures.BOA_PATTERN_COUNT, 0);
-		proof.getFeatures().setValue(AbstractFactFeatures.BOA_PATTERN_NORMALIZED_COUNT, 0);
+		result.setValue(AbstractFactFeatures.BOA_PATTERN_COUNT, 0);
+		result.setValue(AbstractFactFeatures.BOA_PATTERN_NORMALIZED_COUNT, 0);
 
 		if ( proof.getProofPhrase().trim().isEmpty() ) return; 
 
@@ -76,17 +65,19 @@ public class PattyPatternFeature implements FactFeature {
 						"	\"must\":[\n"+
 						"{\n"+
 						"    \"match\" : {\n"+
-						"	  \"dbpediaRelation\" : \""+evidence.getModel().getPredicate().getLocalName()+"\"\n"+
+						"	  \"dbpediaRelation\" : \""+context.getModel().getPredicate().getLocalName()+"\"\n"+
 						"} \n"+
 						"} \n"+
 						"] \n"+
 						"} \n"+
 						"} \n"+
 						"}", ContentType.APPLICATION_JSON);
+		RestClient restClientobj = RestClient.builder(new HttpHost("131.234.28.255" , 6060, "http")).build();
+		PattySimilarity similarity = new PattySimilarity();
 		try {
-			this.response = restClientobj.performRequest("GET", "/clueweb/pattyPatterns/_search",Collections.singletonMap("pretty", "true"),entity1);
-			this.json = EntityUtils.toString(response.getEntity());
-			this.rootNode = mapper.readValue(json, JsonNode.class);
+			Response response = restClientobj.performRequest("GET", "/clueweb/pattyPatterns/_search",Collections.singletonMap("pretty", "true"),entity1);
+			String json = EntityUtils.toString(response.getEntity());
+			JsonNode rootNode = mapper.readValue(json, JsonNode.class);
 			JsonNode hits = rootNode.get("hits");
 			JsonNode hitCount = hits.get("total");
 			int docCount = Integer.parseInt(hitCount.asText());
@@ -100,98 +91,101 @@ public class PattyPatternFeature implements FactFeature {
 					for (final JsonNode patternMatch : patternStrings) {
 						String normalizedPattern = patternMatch.get("normalizedPattern").asText();
 						double patternScore = Double.parseDouble(patternMatch.get("patternScore").asText());
-						float swSimilarity = smithWaterman.getSimilarity(normalizedPattern, proof.getNormalizedProofPhrase());
-						if ( swSimilarity > smithWatermanSimilarity ) {
-
-							smithWatermanSimilarity = swSimilarity;
-							smithWatermanScore = patternScore;
-						}
-
-						float qgramsSimil = qgrams.getSimilarity(normalizedPattern, proof.getNormalizedProofPhrase());
-						if ( qgramsSimil > qgramsSimilarity ) {
-
-							qgramsSimilarity = qgramsSimil; 
-							qgramsSimilarityScore = patternScore;
-						}
+						similarity.update(normalizedPattern, proof.getNormalizedProofPhrase(), patternScore);
 
-						float levSimil = lev.getSimilarity(normalizedPattern, proof.getNormalizedProofPhrase());
-						if ( levSimil > levSimilarity ) {
-
-							levSimilarity = levSimil; 
-							levSimilarityScore = patternScore;
-						}
-
-						if ( proof.getProofPhrase().contains(normalizedPattern) ) patternCounter++; 
-						if ( proof.getNormalizedProofPhrase().toLowerCase().contains(normalizedPattern) ) patternNormalizedCounter++;
-
-						if(!(org.apache.commons.lang3.StringUtils.substringBetween(proof.getNormalizedProofPhrase().toLowerCase(), proof.getSubject().toLowerCase(), proof.getObject().toLowerCase())==null))
-						{
-							proofSubString = org.apache.commons.lang3.StringUtils.substringBetween(proof.getNormalizedProofPhrase().toLowerCase(), proof.getSubject().toLowerCase(), proof.getObject().toLowerCase());
-							subjectObject = true;
-							// see if we can reduce the distance when we have subject and object label more than once
-							calculateDistanceSimiliarities(proof, normalizedPattern, patternScore);
-						}
+						if ( proof.getProofPhrase().contains(normalizedPattern) ) similarity.patternCounter++; 
+						if ( proof.getNormalizedProofPhrase().toLowerCase().contains(normalizedPattern) ) similarity.patternNormalizedCounter++;
 
+						String proofSubString = org.apache.commons.lang3.StringUtils.substringBetween(proof.getNormalizedProofPhrase().toLowerCase(), proof.getSubject().toLowerCase(), proof.getObject().toLowerCase());
+						// see if we can reduce the distance when we have subject and object label more than once
+						if(proofSubString != null)
+							calculateDistanceSimiliarities(proof, normalizedPattern, patternScore, proofSubString, true, similarity);
 						else
-						{
-							proofSubString = org.apache.commons.lang3.StringUtils.substringBetween(proof.getNormalizedProofPhrase().toLowerCase(), proof.getObject().toLowerCase(), proof.getSubject().toLowerCase());
-							subjectObject = false;
-							// see if we can reduce the distance when we have subject and object label more than once
-							calculateDistanceSimiliarities(proof, normalizedPattern, patternScore);
-						}						
+							calculateDistanceSimiliarities(proof, normalizedPattern, patternScore, 
+									org.apache.commons.lang3.StringUtils.substringBetween(proof.getNormalizedProofPhrase().toLowerCase(), proof.getObject().toLowerCase(), proof.getSubject().toLowerCase()), false, similarity);
+						similarity.found = true;
 					}
 				}			
 			}
-			restClientobj.close();
 		}
-
 		catch (Exception e)
 		{
 			logger.info("Issue with the running Elastic search instance. Please check if the instance is running!");
 		}
+		finally {
+			try {
+				restClientobj.close();
+			}
+			catch (IOException e) {
+				logger.debug("Could not close elastic search client", e);
+			}
+		}
+
+		if ( similarity.found ) {
+
+			result.setValue(AbstractFactFeatures.BOA_PATTERN_COUNT, similarity.patternCounter);
+			result.setValue(AbstractFactFeatures.BOA_PATTERN_NORMALIZED_COUNT, similarity.patternNormalizedCounter);
+
+			result.setValue(AbstractFactFeatures.LEVENSHTEIN, similarity.levSimilarity);
+			result.setValue(AbstractFactFeatures.LEVENSHTEIN_BOA_SCORE, similarity.levSimilarityScore);
+
+			result.setValue(AbstractFactFeatures.QGRAMS, similarity.qgramsSimilarity);
+			result.setValue(AbstractFactFeatures.QGRAMS_BOA_SCORE, similarity.qgramsSimilarityScore);
+
+			result.setValue(AbstractFactFeatures.SMITH_WATERMAN, similarity.smithWatermanSimilarity);
+			result.setValue(AbstractFactFeatures.SMITH_WATERMAN_BOA_SCORE, similarity.smithWatermanScore);
+		}
 	}
 	
-	private static void calculateDistanceSimiliarities(ComplexProof proof, String match, double patternScore)
+	private static void calculateDistanceSimiliarities(ComplexProof proof, String match, double patternScore, String proofSubString, boolean subjectObject, PattySimilarity similarity)
 	{
 		while(proofSubString!=null)
 		{
-			float swSim = smithWaterman.getSimilarity(match, proofSubString.trim());
+			similarity.update(match, proofSubString.trim(), patternScore);
+
+			if(subjectObject)
+				proofSubString = org.apache.commons.lang3.StringUtils.substringBetween(proofSubString+proof.getObject().toLowerCase(), proof.getSubject().toLowerCase(), proof.getObject().toLowerCase());
+			else
+				proofSubString = org.apache.commons.lang3.StringUtils.substringBetween(proofSubString+proof.getSubject().toLowerCase(), proof.getObject().toLowerCase(), proof.getSubject().toLowerCase());
+		}
+	}
+
+	/**
+	 * The best similarities found so far for a single proof.
+	 */
+	private static class PattySimilarity {
+
+		private float smithWatermanSimilarity = 0f;
+		private float qgramsSimilarity = 0f;
+		private float levSimilarity = 0f;
+		private double smithWatermanScore = 0.00;
+		private double qgramsSimilarityScore = 0.00;
+		private double levSimilarityScore = 0.00;
+		private int patternCounter = 0, patternNormalizedCounter = 0;
+		private boolean found = false;
+
+		private void update(String pattern, String phrase, double patternScore) {
+
+			float swSim = smithWaterman.getSimilarity(pattern, phrase);
 			if ( swSim > smithWatermanSimilarity ) {
 				smithWatermanSimilarity = swSim;
 				smithWatermanScore = patternScore;
 			}
 
-			float qgramsSim = qgrams.getSimilarity(match, proofSubString.trim());
+			float qgramsSim = qgrams.getSimilarity(pattern, phrase);
 			if ( qgramsSim > qgramsSimilarity ) {
 				qgramsSimilarity = qgramsSim; 
 				qgramsSimilarityScore = patternScore;
 			}
 
-			float levSim = lev.getSimilarity(match, proofSubString.trim());
+			float levSim = lev.getSimilarity(pattern, phrase);
 			if ( levSim > levSimilarity ) {
 				levSimilarity = levSim; 
 				levSimilarityScore = patternScore;
-			}			
-			if(subjectObject)
-				proofSubString = org.apache.commons.lang3.StringUtils.substringBetween(proofSubString+proof.getObject().toLowerCase(), proof.getSubject().toLowerCase(), proof.getObject().toLowerCase());
-			else
-				proofSubString = org.apache.commons.lang3.StringUtils.substringBetween(proofSubString+proof.getSubject().toLowerCase(), proof.getObject().toLowerCase(), proof.getSubject().toLowerCase());
+			}
 		}
-		
-		proof.getFeatures().setValue(AbstractFactFeatures.BOA_PATTERN_COUNT, patternCounter);
-		proof.getFeatures().setValue(AbstractFactFeatures.BOA_PATTERN_NORMALIZED_COUNT, patternNormalizedCounter);
-
-		proof.getFeatures().setValue(AbstractFactFeatures.LEVENSHTEIN, levSimilarity);
-		proof.getFeatures().setValue(AbstractFactFeatures.LEVENSHTEIN_BOA_SCORE, levSimilarityScore);
-
-		proof.getFeatures().setValue(AbstractFactFeatures.QGRAMS, qgramsSimilarity);
-		proof.getFeatures().setValue(AbstractFactFeatures.QGRAMS_BOA_SCORE, qgramsSimilarityScore);
-
-		proof.getFeatures().setValue(AbstractFactFeatures.SMITH_WATERMAN, smithWatermanSimilarity);
-		proof.getFeatures().setValue(AbstractFactFeatures.SMITH_WATERMAN_BOA_SCORE, smithWatermanScore);
 	}
 
-
 	public static void main(String[] args) {
 
 		List<? extends AbstractStringMetric> metrics = Arrays.asList(
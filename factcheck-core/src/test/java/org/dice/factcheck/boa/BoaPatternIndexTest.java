@@ -0,0 +1,145 @@
+package org.dice.factcheck.boa;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.aksw.defacto.boa.BoaPatternIndex;
+import org.aksw.defacto.boa.BoaPatternIndex.BoaSimilarity;
+import org.aksw.defacto.boa.Pattern;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import uk.ac.shef.wit.simmetrics.similaritymetrics.AbstractStringMetric;
+import uk.ac.shef.wit.simmetrics.similaritymetrics.Levenshtein;
+import uk.ac.shef.wit.simmetrics.similaritymetrics.QGramsDistance;
+import uk.ac.shef.wit.simmetrics.similaritymetrics.SmithWaterman;
+
+public class BoaPatternIndexTest {
+
+	private static final String[] PATTERNS = { "was born in", "is the birthplace of", "born in the city of", "'s",
+		"-LRB- born", "died in", "married", "a native of", "grew up in", "moved to" };
+
+	/**
+	 * Every proof is compared with the scores of the plain loop over all
+	 * patterns and all parts of the proof phrase between the labels.
+	 */
+	@Test
+	public void testSameSimilarityAsAllPatterns() {
+
+		List<Pattern> patterns = new ArrayList<Pattern>();
+		for ( int i = 0; i < PATTERNS.length; i++ ) {
+
+			Pattern pattern = new Pattern(PATTERNS[i], "en");
+			pattern.naturalLanguageRepresentationWithoutVariables = PATTERNS[i];
+			pattern.boaScore = 1D - i / 20D;
+			patterns.add(pattern);
+		}
+		BoaPatternIndex index = new BoaPatternIndex(patterns);
+		// the normalized form of 's is empty
+		Assert.assertEquals(PATTERNS.length - 1, index.size());
+
+		String[][] proofs = {
+			{ "Albert Einstein was born in Ulm", "albert einstein", "ulm" },
+			{ "Ulm is the birthplace of Albert Einstein", "albert einstein", "ulm" },
+			{ "albert einstein , who was born in the city of ulm and grew up in ulm", "albert einstein", "ulm" },
+			{ "albert einstein albert einstein a native of ulm ulm", "albert einstein", "ulm" },
+			{ "Einstein 's Ulm", "einstein", "ulm" },
+			{ "The theory of relativity", "albert einstein", "ulm" },
+			{ "xyz qqq", "albert einstein", "ulm" },
+			{ "Einstein moved to Bern", "", "bern" },
+		};
+		for ( String[] proof : proofs ) {
+
+			BoaSimilarity expected = getSimilarity(patterns, proof[0], proof[1], proof[2]);
+			BoaSimilarity actual = index.getSimilarity(proof[0], proof[1], proof[2]);
+			for ( int i = 0; i < 2; i++ ) {
+
+				Assert.assertEquals(proof[0], expected.getSmithWaterman(), actual.getSmithWaterman(), 0f);
+				Assert.assertEquals(proof[0], expected.getSmithWatermanBoaScore(), actual.getSmithWatermanBoaScore(), 0D);
+				Assert.assertEquals(proof[0], expected.getLevenshtein(), actual.getLevenshtein(), 0f);
+				Assert.assertEquals(proof[0], expected.getLevenshteinBoaScore(), actual.getLevenshteinBoaScore(), 0D);
+				Assert.assertEquals(proof[0], expected.getQGrams(), actual.getQGrams(), 0f);
+				Assert.assertEquals(proof[0], expected.getQGramsBoaScore(), actual.getQGramsBoaScore(), 0D);
+				// the second time the result is memoized
+				actual = index.getSimilarity(proof[0], proof[1], proof[2]);
+			}
+		}
+	}
+
+	@Test
+	public void testCountContainedPatterns() {
+
+		Pattern born = new Pattern("was born in", "en");
+		born.naturalLanguageRepresentationWithoutVariables = "was born in";
+		Pattern died = new Pattern("died in", "en");
+		died.naturalLanguageRepresentationWithoutVariables = "died in";
+		BoaPatternIndex index = new BoaPatternIndex(Arrays.asList(born, died));
+
+		Assert.assertEquals(1, index.countContainedPatterns("einstein" + born.getNormalized() + "ulm"));
+		Assert.assertEquals(0, index.countContainedPatterns("einstein married mileva"));
+	}
+
+	/**
+	 * The loop of the feature before the index: every metric on every
+	 * pattern and every phrase, the first best pattern wins.
+	 */
+	private static BoaSimilarity getSimilarity(List<Pattern> patterns, String normalizedProofPhrase, String subjectLowerCase, String objectLowerCase) {
+
+		List<AbstractStringMetric> metrics = Arrays.<AbstractStringMetric>asList(new SmithWaterman(), new Levenshtein(), new QGramsDistance());
+		float[] similarities = new float[metrics.size()];
+		double[] boaScores = new double[metrics.size()];
+
+		String normalizedProofLowerCase = normalizedProofPhrase.toLowerCase();
+		for ( Pattern pattern : patterns ) {
+
+			if ( pattern.getNormalized().trim().isEmpty() ) continue;
+
+			List<String> phrases = new ArrayList<String>();
+			phrases.add(normalizedProofPhrase);
+			boolean subjectObject = StringUtils.substringBetween(normalizedProofLowerCase, subjectLowerCase, objectLowerCase) != null;
+			String left = subjectObject ? subjectLowerCase : objectLowerCase;
+			String right = subjectObject ? objectLowerCase : subjectLowerCase;
+			String proofSubString = left.isEmpty() ? null : StringUtils.substringBetween(normalizedProofLowerCase, left, right);
+			while ( proofSubString != null ) {
+
+				phrases.add(proofSubString.trim());
+				proofSubString = StringUtils.substringBetween(proofSubString + right, left, right);
+			}
+
+			for ( String phrase : phrases ) {
+				for ( int i = 0; i < metrics.size(); i++ ) {
+
+					float similarity = metrics.get(i).getSimilarity(pattern.naturalLanguageRepresentationWithoutVariables, phrase);
+					if ( similarity > similarities[i] ) {
+
+						similarities[i] = similarity;
+						boaScores[i] = pattern.boaScore;
+					}
+				}
+			}
+		}
+
+		return new ExpectedSimilarity(similarities, boaScores);
+	}
+
+	private static class ExpectedSimilarity extends BoaSimilarity {
+
+		private final float[] similarities;
+		private final double[] boaScores;
+
+		private ExpectedSimilarity(float[] similarities, double[] boaScores) {
+
+			this.similarities = similarities;
+			this.boaScores = boaScores;
+		}
+
+		@Override public float getSmithWaterman() { return similarities[0]; }
+		@Override public double getSmithWatermanBoaScore() { return boaScores[0]; }
+		@Override public float getLevenshtein() { return similarities[1]; }
+		@Override public double getLevenshteinBoaScore() { return boaScores[1]; }
+		@Override public float getQGrams() { return similarities[2]; }
+		@Override public double getQGramsBoaScore() { return boaScores[2]; }
+	}
+}
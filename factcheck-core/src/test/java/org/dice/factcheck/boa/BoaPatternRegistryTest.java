@@ -0,0 +1,146 @@
+package org.dice.factcheck.boa;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.aksw.defacto.Defacto;
+import org.aksw.defacto.boa.BoaPatternRegistry;
+import org.aksw.defacto.boa.BoaPatternSnapshot;
+import org.aksw.defacto.boa.Pattern;
+import org.aksw.defacto.config.DefactoConfig;
+import org.ini4j.Ini;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BoaPatternRegistryTest {
+
+	private static final String BIRTH_PLACE = "http://dbpedia.org/ontology/birthPlace";
+	private static final String SPOUSE = "http://dbpedia.org/ontology/spouse";
+
+	private DefactoConfig config;
+	private String dataDirectory;
+	private FakeBoaIndex en;
+	private FakeBoaIndex de;
+
+	@Before
+	public void setUp() throws IOException {
+
+		this.config = Defacto.DEFACTO_CONFIG;
+		this.dataDirectory = DefactoConfig.DEFACTO_DATA_DIR;
+		Defacto.DEFACTO_CONFIG = new DefactoConfig(new Ini(BoaPatternRegistryTest.class.getClassLoader().getResource("defacto.ini")));
+		Defacto.DEFACTO_CONFIG.setStringSetting("boa", "PATTERN_SOURCE", "solr");
+		BoaPatternSnapshot.init();
+		BoaPatternRegistry.clear();
+
+		this.en = new FakeBoaIndex();
+		for ( int i = 0; i < 30; i++ ) this.en.add(BIRTH_PLACE, "was born in place " + i, 100 - i);
+		this.en.add(SPOUSE, "is married to", 40).add(SPOUSE, "is the husband of", 57);
+		this.de = new FakeBoaIndex();
+		this.de.add(BIRTH_PLACE, "wurde geboren in", 30);
+		Defacto.enIndex = this.en;
+		Defacto.deIndex = this.de;
+		Defacto.frIndex = new FakeBoaIndex();
+	}
+
+	@After
+	public void tearDown() {
+
+		BoaPatternRegistry.clear();
+		Defacto.DEFACTO_CONFIG = this.config;
+		DefactoConfig.DEFACTO_DATA_DIR = this.dataDirectory;
+		Defacto.enIndex = null;
+		Defacto.deIndex = null;
+		Defacto.frIndex = null;
+	}
+
+	@Test
+	public void testKeys() {
+
+		List<Pattern> birthPlace = BoaPatternRegistry.getPatterns(BIRTH_PLACE, "en", 20, 0.5);
+		Assert.assertEquals(1, this.en.getNumberOfQueries());
+		Assert.assertSame(birthPlace, BoaPatternRegistry.getPatterns(BIRTH_PLACE, "en", 20, 0.5));
+		Assert.assertEquals(1, this.en.getNumberOfQueries());
+
+		// every part of the key gets its own list
+		List<Pattern> spouse = BoaPatternRegistry.getPatterns(SPOUSE, "en", 20, 0.5);
+		List<Pattern> german = BoaPatternRegistry.getPatterns(BIRTH_PLACE, "de", 20, 0.5);
+		List<Pattern> fewer = BoaPatternRegistry.getPatterns(BIRTH_PLACE, "en", 2, 0.5);
+		List<Pattern> threshold = BoaPatternRegistry.getPatterns(BIRTH_PLACE, "en", 20, 0);
+		Assert.assertEquals(4, this.en.getNumberOfQueries());
+		Assert.assertEquals(1, this.de.getNumberOfQueries());
+		Assert.assertEquals(5, BoaPatternRegistry.size());
+
+		Assert.assertEquals(10, birthPlace.size());
+		Assert.assertEquals("was born in place 0", birthPlace.get(0).naturalLanguageRepresentationWithoutVariables);
+		Assert.assertEquals("is the husband of", spouse.get(0).naturalLanguageRepresentationWithoutVariables);
+		Assert.assertEquals("wurde geboren in", german.get(0).naturalLanguageRepresentationWithoutVariables);
+		Assert.assertEquals(2, fewer.size());
+		Assert.assertEquals(birthPlace, threshold);
+		Assert.assertNotSame(birthPlace, threshold);
+
+		// the office patterns are indexed as the leader name patterns
+		BoaPatternRegistry.getPatterns("http://dbpedia.org/ontology/leaderName", "en", 20, 0.5);
+		BoaPatternRegistry.getPatterns("http://dbpedia.org/ontology/office", "en", 20, 0.5);
+		Assert.assertEquals(5, this.en.getNumberOfQueries());
+
+		try {
+
+			birthPlace.add(new Pattern());
+			Assert.fail("Modified a shared pattern list");
+		}
+		catch (UnsupportedOperationException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testConcurrentRequestsLoadOnce() throws Exception {
+
+		final CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+
+			List<Future<List<Pattern>>> futures = new ArrayList<Future<List<Pattern>>>();
+			for ( int i = 0; i < 32; i++ ) {
+
+				futures.add(executor.submit(new Callable<List<Pattern>>() {
+
+					@Override
+					public List<Pattern> call() throws Exception {
+
+						start.await();
+						return BoaPatternRegistry.getPatterns(BIRTH_PLACE, "en", 20, 0.5);
+					}
+				}));
+			}
+			start.countDown();
+
+			List<Pattern> first = futures.get(0).get();
+			for ( Future<List<Pattern>> future : futures ) Assert.assertSame(first, future.get());
+			Assert.assertEquals(1, this.en.getNumberOfQueries());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testFailuresAreNotKept() {
+
+		this.en.setAvailable(false);
+		Assert.assertTrue(BoaPatternRegistry.getPatterns(BIRTH_PLACE, "en", 20, 0.5).isEmpty());
+		Assert.assertEquals(0, BoaPatternRegistry.size());
+
+		this.en.setAvailable(true);
+		Assert.assertEquals(10, BoaPatternRegistry.getPatterns(BIRTH_PLACE, "en", 20, 0.5).size());
+		Assert.assertEquals(2, this.en.getNumberOfQueries());
+	}
+}
@@ -0,0 +1,204 @@
+package org.dice.factcheck.boa;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.aksw.defacto.Defacto;
+import org.aksw.defacto.boa.BoaPatternRegistry;
+import org.aksw.defacto.boa.BoaPatternSnapshot;
+import org.aksw.defacto.boa.Pattern;
+import org.aksw.defacto.config.DefactoConfig;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.common.SolrDocument;
+import org.ini4j.Ini;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BoaPatternSnapshotTest {
+
+	private static final String BIRTH_PLACE = "http://dbpedia.org/ontology/birthPlace";
+	private static final String SPOUSE = "http://dbpedia.org/ontology/spouse";
+	private static final String AWARD = "http://dbpedia.org/ontology/award";
+	private static final int[] LIMITS = { 0, 1, 10, 50, 2000 };
+
+	private DefactoConfig config;
+	private String dataDirectory;
+
+	/**
+	 * More birth place patterns than the export reads in one page, some of them
+	 * equally supported and some with the same normalized form.
+	 */
+	private static Map<String, FakeBoaIndex> indexes() {
+
+		FakeBoaIndex en = new FakeBoaIndex();
+		for ( int i = 0; i < 1200; i++ ) en.add(BIRTH_PLACE, "was born in place " + i, 2000 - i / 3);
+		en.add(SPOUSE, "is married to", 40).add(SPOUSE, "married", 40).add(SPOUSE, "'s wife", 12).add(SPOUSE, "is the husband of", 57);
+
+		FakeBoaIndex de = new FakeBoaIndex();
+		de.add(BIRTH_PLACE, "wurde geboren in", 30).add(BIRTH_PLACE, "stammt aus", 10).add(SPOUSE, "ist verheiratet mit", 7);
+
+		Map<String, FakeBoaIndex> indexes = new LinkedHashMap<String, FakeBoaIndex>();
+		indexes.put("en", en);
+		indexes.put("de", de);
+		indexes.put("fr", new FakeBoaIndex());
+		return indexes;
+	}
+
+	private static File export(Map<String, FakeBoaIndex> indexes) throws IOException, SolrServerException {
+
+		File snapshot = File.createTempFile("patterns", ".snapshot");
+		snapshot.deleteOnExit();
+		BoaPatternSnapshot.export(new LinkedHashMap<String, SolrClient>(indexes), snapshot);
+		return snapshot;
+	}
+
+	@Before
+	public void setUp() {
+
+		this.config = Defacto.DEFACTO_CONFIG;
+		this.dataDirectory = DefactoConfig.DEFACTO_DATA_DIR;
+	}
+
+	@After
+	public void tearDown() {
+
+		if ( Defacto.DEFACTO_CONFIG != null ) {
+
+			Defacto.DEFACTO_CONFIG.setStringSetting("boa", "PATTERN_SOURCE", "solr");
+			BoaPatternSnapshot.init();
+		}
+		BoaPatternRegistry.clear();
+		Defacto.DEFACTO_CONFIG = this.config;
+		DefactoConfig.DEFACTO_DATA_DIR = this.dataDirectory;
+		Defacto.enIndex = null;
+		Defacto.deIndex = null;
+		Defacto.frIndex = null;
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException, SolrServerException {
+
+		Map<String, FakeBoaIndex> indexes = indexes();
+		BoaPatternSnapshot snapshot = BoaPatternSnapshot.open(export(indexes));
+
+		// the empty french core has no lists
+		Assert.assertEquals(4, snapshot.size());
+		for ( Map.Entry<String, FakeBoaIndex> index : indexes.entrySet() ) {
+			for ( String propertyUri : Arrays.asList(BIRTH_PLACE, SPOUSE, AWARD) ) {
+				for ( int limit : LIMITS ) {
+
+					SolrQuery query = new SolrQuery("uri:\"" + propertyUri + "\"");
+					if ( limit > 0 ) query.setRows(limit);
+					List<SolrDocument> expected = index.getValue().query(query).getResults();
+
+					List<Pattern> patterns = snapshot.getPatterns(propertyUri, index.getKey(), limit);
+					Assert.assertEquals(propertyUri + " " + index.getKey() + " " + limit, expected.size(), patterns.size());
+					for ( int i = 0; i < expected.size(); i++ ) {
+
+						SolrDocument document = expected.get(i);
+						Pattern pattern = patterns.get(i);
+						Assert.assertEquals(document.get("nlr-var"), pattern.naturalLanguageRepresentation);
+						Assert.assertEquals(document.get("nlr-gen"), pattern.generalized);
+						Assert.assertEquals(document.get("nlr-no-var"), pattern.naturalLanguageRepresentationWithoutVariables);
+						Assert.assertEquals(document.getFirstValue("pos"), pattern.posTags);
+						Assert.assertEquals(document.get("SUPPORT_NUMBER_OF_PAIRS_LEARNED_FROM"), pattern.boaScore);
+						Assert.assertEquals(index.getKey(), pattern.language);
+					}
+				}
+			}
+		}
+	}
+
+	private static void assertRejected(File snapshot, int offset, int value) throws IOException {
+
+		try ( RandomAccessFile out = new RandomAccessFile(snapshot, "rw") ) {
+
+			out.seek(offset);
+			out.writeInt(value);
+		}
+
+		try {
+
+			BoaPatternSnapshot.open(snapshot);
+			Assert.fail("Opened a corrupt snapshot");
+		}
+		catch (IOException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testRejectsCorruptSnapshots() throws IOException, SolrServerException {
+
+		Map<String, FakeBoaIndex> indexes = indexes();
+		// magic number, version and a support of the first pattern, which only the crc notices
+		assertRejected(export(indexes), 0, 0x44464253);
+		assertRejected(export(indexes), 4, 2);
+		assertRejected(export(indexes), 16, 0x7FF00000);
+	}
+
+	private static List<List<Pattern>> getPatterns() {
+
+		BoaPatternRegistry.clear();
+		List<List<Pattern>> patterns = new ArrayList<List<Pattern>>();
+		for ( String language : Arrays.asList("en", "de", "fr") )
+			for ( String propertyUri : Arrays.asList(BIRTH_PLACE, SPOUSE, AWARD) )
+				for ( int limit : LIMITS )
+					patterns.add(BoaPatternRegistry.getPatterns(propertyUri, language, limit, 0.5));
+
+		return patterns;
+	}
+
+	@Test
+	public void testSnapshotSelectsLikeSolr() throws IOException, SolrServerException {
+
+		Map<String, FakeBoaIndex> indexes = indexes();
+		File snapshot = export(indexes);
+
+		Defacto.DEFACTO_CONFIG = new DefactoConfig(new Ini(BoaPatternSnapshotTest.class.getClassLoader().getResource("defacto.ini")));
+		Defacto.enIndex = indexes.get("en");
+		Defacto.deIndex = indexes.get("de");
+		Defacto.frIndex = indexes.get("fr");
+		Defacto.DEFACTO_CONFIG.setStringSetting("boa", "PATTERN_SOURCE", "solr");
+		BoaPatternSnapshot.init();
+		Assert.assertNull(BoaPatternSnapshot.getInstance());
+		List<List<Pattern>> solr = getPatterns();
+
+		DefactoConfig.DEFACTO_DATA_DIR = snapshot.getParentFile().getAbsolutePath() + File.separator;
+		Defacto.DEFACTO_CONFIG.setStringSetting("boa", "PATTERN_SOURCE", "snapshot");
+		Defacto.DEFACTO_CONFIG.setStringSetting("boa", "PATTERN_SNAPSHOT", snapshot.getName());
+		BoaPatternSnapshot.init();
+		Assert.assertNotNull(BoaPatternSnapshot.getInstance());
+		int solrQueries = indexes.get("en").getNumberOfQueries();
+		List<List<Pattern>> snapshotPatterns = getPatterns();
+		Assert.assertEquals(solrQueries, indexes.get("en").getNumberOfQueries());
+
+		Assert.assertEquals(solr.size(), snapshotPatterns.size());
+		for ( int i = 0; i < solr.size(); i++ ) {
+
+			Assert.assertEquals(solr.get(i).size(), snapshotPatterns.get(i).size());
+			for ( int j = 0; j < solr.get(i).size(); j++ ) {
+
+				Pattern expected = solr.get(i).get(j);
+				Pattern actual = snapshotPatterns.get(i).get(j);
+				Assert.assertEquals(expected, actual);
+				Assert.assertEquals(expected.naturalLanguageRepresentationWithoutVariables, actual.naturalLanguageRepresentationWithoutVariables);
+				Assert.assertEquals(expected.generalized, actual.generalized);
+				Assert.assertEquals(expected.posTags, actual.posTags);
+				Assert.assertEquals(expected.boaScore, actual.boaScore);
+				Assert.assertEquals(expected.getNormalized(), actual.getNormalized());
+			}
+		}
+		Assert.assertFalse(solr.get(0).isEmpty());
+	}
+}
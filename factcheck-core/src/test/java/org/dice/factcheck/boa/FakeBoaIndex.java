@@ -0,0 +1,110 @@
+package org.dice.factcheck.boa;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.impl.HttpSolrClient;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.common.util.NamedList;
+
+/**
+ * A BOA core in memory. It answers the uri queries of the searcher and the
+ * snapshot export sorted by the number of supporting pairs, like the cores do,
+ * and the uri facet of the export.
+ */
+public class FakeBoaIndex extends HttpSolrClient {
+
+	private static final Pattern URI_QUERY = Pattern.compile("uri:\"(.*)\"");
+
+	private final List<SolrDocument> documents = new ArrayList<SolrDocument>();
+	private final AtomicInteger queries = new AtomicInteger();
+	private volatile boolean available = true;
+
+	public FakeBoaIndex() {
+		super("http://localhost:8983/solr/boa");
+	}
+
+	/**
+	 * Adds the pattern "?D? pattern ?R?" of the property.
+	 */
+	public FakeBoaIndex add(String propertyUri, String pattern, double support) {
+
+		SolrDocument document = new SolrDocument();
+		document.setField("uri", propertyUri);
+		document.setField("nlr-var", "?D? " + pattern + " ?R?");
+		document.setField("nlr-gen", "?D? " + pattern + " ?R?");
+		document.setField("nlr-no-var", pattern);
+		document.setField("pos", "VBN IN");
+		document.setField("boa-score", support / 100);
+		document.setField("SUPPORT_NUMBER_OF_PAIRS_LEARNED_FROM", support);
+		this.documents.add(document);
+		return this;
+	}
+
+	/**
+	 * @return the number of requests answered so far
+	 */
+	public int getNumberOfQueries() {
+		return this.queries.get();
+	}
+
+	/**
+	 * @param available false to fail every request like an unreachable core
+	 */
+	public void setAvailable(boolean available) {
+		this.available = available;
+	}
+
+	@Override
+	@SuppressWarnings("rawtypes")
+	public NamedList<Object> request(SolrRequest request, String collection) throws SolrServerException {
+
+		this.queries.incrementAndGet();
+		if ( !this.available ) throw new SolrServerException("The boa core is not available");
+		SolrParams params = request.getParams();
+		NamedList<Object> response = new NamedList<Object>();
+
+		if ( params.getBool("facet", false) ) {
+
+			Map<String, Integer> counts = new LinkedHashMap<String, Integer>();
+			for ( SolrDocument document : this.documents ) counts.merge((String) document.get("uri"), 1, Integer::sum);
+
+			NamedList<Object> uris = new NamedList<Object>();
+			for ( Map.Entry<String, Integer> count : counts.entrySet() ) uris.add(count.getKey(), count.getValue());
+			NamedList<Object> fields = new NamedList<Object>();
+			fields.add("uri", uris);
+			NamedList<Object> facets = new NamedList<Object>();
+			facets.add("facet_fields", fields);
+			response.add("facet_counts", facets);
+		}
+
+		Matcher uri = URI_QUERY.matcher(params.get("q"));
+		List<SolrDocument> matching = new ArrayList<SolrDocument>();
+		for ( SolrDocument document : this.documents )
+			if ( !uri.matches() || uri.group(1).equals(document.get("uri")) ) matching.add(document);
+		// stable, so equally supported patterns keep the order they were added in
+		Collections.sort(matching, Comparator.comparing(
+				(SolrDocument document) -> (Double) document.get("SUPPORT_NUMBER_OF_PAIRS_LEARNED_FROM")).reversed());
+
+		int start = Math.min(params.getInt("start", 0), matching.size());
+		int end = Math.min(start + params.getInt("rows", 10), matching.size());
+		SolrDocumentList results = new SolrDocumentList();
+		results.setNumFound(matching.size());
+		results.setStart(start);
+		results.addAll(matching.subList(start, end));
+		response.add("response", results);
+
+		return response;
+	}
+}
@@ -0,0 +1,201 @@
+package org.dice.factcheck.cache;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import org.aksw.defacto.cache.CacheManager;
+import org.aksw.defacto.cache.CacheManager.RowMapper;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Runs the cache manager against in-memory H2 databases. The statements are
+ * counted by a driver which hands out H2 connections for "jdbc:counting:h2:" urls.
+ */
+public class CacheManagerTest {
+
+	private static final String INSERT = "INSERT INTO search_result (id, query) VALUES (?, ?)";
+	private static final String SELECT = "SELECT id FROM search_result WHERE query = ?";
+	private static final RowMapper<String> IDS = row -> row.getString(1);
+
+	private static final Map<String, AtomicInteger> prepared = new ConcurrentHashMap<String, AtomicInteger>();
+
+	static {
+		try {
+			DriverManager.registerDriver(new CountingDriver());
+		}
+		catch (SQLException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@Before
+	public void setUp() {
+		prepared.clear();
+	}
+
+	private static int getPrepared(String query) {
+
+		AtomicInteger count = prepared.get(query);
+		return count == null ? 0 : count.get();
+	}
+
+	@Test
+	public void testStatementsArePreparedOncePerConnection() {
+
+		CacheManager manager = new CacheManager("jdbc:counting:h2:mem:statements;DB_CLOSE_DELAY=-1", 1);
+		for ( int i = 0; i < 20; i++ ) Assert.assertEquals(1, manager.update(INSERT, String.valueOf(i), "query " + i % 2));
+		for ( int i = 0; i < 20; i++ ) Assert.assertEquals(10, manager.query(SELECT, IDS, "query " + i % 2).size());
+
+		Assert.assertEquals(1, manager.getNumberOfConnections());
+		Assert.assertEquals(1, getPrepared(INSERT));
+		Assert.assertEquals(1, getPrepared(SELECT));
+
+		// a connection keeps the 64 statements used last, these push out all earlier ones
+		for ( int i = 0; i < 64; i++ ) manager.query("SELECT id FROM search_result WHERE rank = " + i, IDS);
+		Assert.assertEquals(10, manager.query(SELECT, IDS, "query 0").size());
+		Assert.assertEquals(2, getPrepared(SELECT));
+		manager.close();
+	}
+
+	@Test
+	public void testConcurrentQueriesPrepareOncePerConnection() throws Exception {
+
+		final CacheManager manager = new CacheManager("jdbc:counting:h2:mem:pool;DB_CLOSE_DELAY=-1", 4);
+		for ( int i = 0; i < 10; i++ ) manager.update(INSERT, String.valueOf(i), "query");
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+
+			List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+			for ( int i = 0; i < 8; i++ ) {
+
+				futures.add(executor.submit(new Callable<Integer>() {
+
+					@Override
+					public Integer call() {
+
+						int rows = 0;
+						for ( int j = 0; j < 100; j++ ) rows += manager.query(SELECT, IDS, "query").size();
+						return rows;
+					}
+				}));
+			}
+			for ( Future<Integer> future : futures ) Assert.assertEquals(1000, (int) future.get());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+
+		Assert.assertTrue(manager.getNumberOfConnections() <= 4);
+		Assert.assertTrue(getPrepared(SELECT) >= 1);
+		Assert.assertTrue(getPrepared(SELECT) <= manager.getNumberOfConnections());
+		manager.close();
+	}
+
+	@Test
+	public void testKeySequenceStartsAfterTheHighestId() {
+
+		String url = "jdbc:h2:mem:keys;DB_CLOSE_DELAY=-1";
+		CacheManager manager = new CacheManager(url, 2);
+		// an empty database starts at 0
+		Assert.assertEquals(0, manager.generatePrimaryKey());
+		for ( String id : new String[]{ "7", "41", "abc", "12", "99999999999999999999" } ) Assert.assertEquals(1, manager.update(INSERT, id, "query"));
+		// a database written before the keys came from the sequence
+		Assert.assertEquals(0, manager.update("DROP SEQUENCE search_result_key"));
+		manager.close();
+
+		manager = new CacheManager(url, 2);
+		for ( int i = 0; i < 2 * CacheManager.KEY_BLOCK_SIZE; i++ ) Assert.assertEquals(42 + i, manager.generatePrimaryKey());
+		manager.close();
+
+		// the existing sequence continues after a restart, the rest of a reserved block is skipped
+		manager = new CacheManager(url, 1);
+		Assert.assertEquals(42 + 2 * CacheManager.KEY_BLOCK_SIZE, manager.generatePrimaryKey());
+		manager.close();
+	}
+
+	/**
+	 * Opens H2 connections and counts the statements prepared on them.
+	 */
+	private static class CountingDriver implements Driver {
+
+		private static final String PREFIX = "jdbc:counting:";
+
+		@Override
+		public Connection connect(String url, Properties info) throws SQLException {
+
+			if ( !acceptsURL(url) ) return null;
+			final Connection connection = DriverManager.getConnection("jdbc:" + url.substring(PREFIX.length()), info);
+
+			return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{ Connection.class },
+					new InvocationHandler() {
+
+						@Override
+						public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+							if ( method.getName().equals("prepareStatement") && args != null && args.length == 1 )
+								prepared.computeIfAbsent((String) args[0], query -> new AtomicInteger()).incrementAndGet();
+							try {
+
+								return method.invoke(connection, args);
+							}
+							catch (InvocationTargetException e) {
+
+								throw e.getCause();
+							}
+						}
+					});
+		}
+
+		@Override
+		public boolean acceptsURL(String url) {
+			return url.startsWith(PREFIX);
+		}
+
+		@Override
+		public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+			return new DriverPropertyInfo[0];
+		}
+
+		@Override
+		public int getMajorVersion() {
+			return 1;
+		}
+
+		@Override
+		public int getMinorVersion() {
+			return 0;
+		}
+
+		@Override
+		public boolean jdbcCompliant() {
+			return false;
+		}
+
+		@Override
+		public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+			throw new SQLFeatureNotSupportedException();
+		}
+	}
+}
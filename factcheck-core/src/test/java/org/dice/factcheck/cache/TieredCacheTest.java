@@ -0,0 +1,263 @@
+package org.dice.factcheck.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.aksw.defacto.cache.Cache;
+import org.aksw.defacto.cache.MemoryTier;
+import org.aksw.defacto.cache.Serializer;
+import org.aksw.defacto.cache.TieredCache;
+import org.aksw.defacto.search.cache.local.LogStore;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TieredCacheTest {
+
+	private static final Function<String, String> IDENTITY = new Function<String, String>() {
+
+		@Override
+		public String apply(String entry) {
+			return entry.split("=")[0];
+		}
+	};
+
+	private static final Serializer<String> STRINGS = new Serializer<String>() {
+
+		@Override
+		public byte[] serialize(String entry) {
+			return entry.getBytes(StandardCharsets.UTF_8);
+		}
+
+		@Override
+		public String deserialize(String identifier, byte[] bytes) {
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+	};
+
+	private File directory;
+
+	@Before
+	public void createDirectory() throws IOException {
+		directory = Files.createTempDirectory("tiered").toFile();
+	}
+
+	@After
+	public void deleteDirectory() {
+
+		for ( File file : directory.listFiles() ) file.delete();
+		directory.delete();
+	}
+
+	@Test
+	public void testTinyLfuKeepsPopularEntries() {
+
+		TieredCache<String> cache = new TieredCache<String>("test", IDENTITY, new MemoryTier<String>(100, MemoryTier.Policy.TINY_LFU));
+		for ( int i = 0; i < 50; i++ ) cache.add("hot " + i + "=value");
+		for ( int round = 0; round < 5; round++ )
+			for ( int i = 0; i < 50; i++ ) cache.getEntry("hot " + i);
+
+		// a scan of one-off keys must not flush the popular ones
+		for ( int i = 0; i < 10000; i++ ) cache.add("cold " + i + "=value");
+
+		int hot = 0;
+		for ( int i = 0; i < 50; i++ ) if ( cache.getEntry("hot " + i) != null ) hot++;
+		Assert.assertTrue(hot >= 45);
+		Assert.assertTrue(cache.getMemoryTier().size() <= 100);
+		cache.close();
+	}
+
+	@Test
+	public void testLruEviction() {
+
+		TieredCache<String> cache = new TieredCache<String>("test", IDENTITY, new MemoryTier<String>(2, MemoryTier.Policy.LRU));
+		cache.add("a=1");
+		cache.add("b=2");
+		cache.getEntry("a");
+		cache.add("c=3");
+
+		Assert.assertEquals("a=1", cache.getEntry("a"));
+		Assert.assertNull(cache.getEntry("b"));
+		Assert.assertEquals(1, cache.getMemoryTier().getEvictions());
+		cache.close();
+	}
+
+	@Test
+	public void testReadThroughAndStats() {
+
+		final AtomicInteger loads = new AtomicInteger();
+		TieredCache<String> cache = new TieredCache<String>("test", IDENTITY, new MemoryTier<String>(10, MemoryTier.Policy.LRU));
+		cache.setLoader(new Function<String, String>() {
+
+			@Override
+			public String apply(String identifier) {
+
+				loads.incrementAndGet();
+				return identifier.equals("unknown") ? null : identifier + "=loaded";
+			}
+		});
+
+		Assert.assertEquals("a=loaded", cache.get("a"));
+		Assert.assertEquals("a=loaded", cache.get("a"));
+		Assert.assertNull(cache.get("unknown"));
+
+		Assert.assertEquals(2, loads.get());
+		Assert.assertEquals(3, cache.getStats().getRequests());
+		Assert.assertEquals(1, cache.getStats().getMemoryHits());
+		Assert.assertEquals(2, cache.getStats().getMisses());
+		cache.close();
+	}
+
+	@Test
+	public void testDiskAndRemoteTier() throws IOException {
+
+		MapCache remote = new MapCache();
+		remote.add("remote=value");
+
+		TieredCache<String> cache = new TieredCache<String>("test", IDENTITY, new MemoryTier<String>(1, MemoryTier.Policy.LRU));
+		cache.setDiskTier(new LogStore(directory, 1 << 20, 1 << 16), STRINGS);
+		cache.setRemoteTier(remote);
+		cache.enableWriteBehind(100, 10);
+
+		cache.add("a=1");
+		cache.add("b=2");
+		Assert.assertEquals("remote=value", cache.getEntry("remote"));
+		cache.close();
+		Assert.assertEquals("a=1", remote.getEntry("a"));
+
+		TieredCache<String> reopened = new TieredCache<String>("test", IDENTITY, new MemoryTier<String>(10, MemoryTier.Policy.LRU));
+		reopened.setDiskTier(new LogStore(directory, 1 << 20, 1 << 16), STRINGS);
+		reopened.setRemoteTier(remote);
+
+		Assert.assertEquals("a=1", reopened.getEntry("a"));
+		Assert.assertEquals("remote=value", reopened.getEntry("remote"));
+		Assert.assertEquals(2, reopened.getStats().getDiskHits());
+
+		reopened.updateEntry("a=3");
+		Assert.assertEquals("a=3", reopened.getEntry("a"));
+		Assert.assertEquals("a=3", reopened.removeEntryByPrimaryKey("a"));
+		Assert.assertFalse(reopened.contains("a"));
+		Assert.assertNull(remote.getEntry("a"));
+		reopened.close();
+	}
+
+	@Test
+	public void testRemoveCancelsPendingWrite() throws Exception {
+
+		final CountDownLatch writing = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		MapCache remote = new MapCache() {
+
+			@Override
+			public List<String> addAll(List<String> listToAdd) {
+
+				if ( listToAdd.contains("slow=0") ) {
+
+					writing.countDown();
+					try {
+						release.await(10, TimeUnit.SECONDS);
+					}
+					catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				return super.addAll(listToAdd);
+			}
+		};
+
+		final TieredCache<String> cache = new TieredCache<String>("test", IDENTITY, new MemoryTier<String>(10, MemoryTier.Policy.LRU));
+		cache.setDiskTier(new LogStore(directory, 1 << 20, 1 << 16), STRINGS);
+		cache.setRemoteTier(remote);
+		cache.enableWriteBehind(100, 1);
+
+		// the writer hangs in the first batch, the second one is still queued when it is removed
+		cache.add("slow=0");
+		writing.await(10, TimeUnit.SECONDS);
+		cache.add("a=1");
+		Thread remover = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				cache.removeEntryByPrimaryKey("a");
+			}
+		});
+		remover.start();
+		release.countDown();
+		remover.join();
+		cache.close();
+
+		Assert.assertEquals("slow=0", remote.getEntry("slow"));
+		Assert.assertNull(remote.getEntry("a"));
+
+		TieredCache<String> reopened = new TieredCache<String>("test", IDENTITY, new MemoryTier<String>(10, MemoryTier.Policy.LRU));
+		reopened.setDiskTier(new LogStore(directory, 1 << 20, 1 << 16), STRINGS);
+		Assert.assertNull(reopened.getEntry("a"));
+		Assert.assertEquals("slow=0", reopened.getEntry("slow"));
+		reopened.close();
+	}
+
+	@Test
+	public void testTimeToLive() throws Exception {
+
+		TieredCache<String> cache = new TieredCache<String>("test", IDENTITY, new MemoryTier<String>(10, MemoryTier.Policy.LRU));
+		cache.setDiskTier(new LogStore(directory, 1 << 20, 1 << 16), STRINGS);
+		cache.setTimeToLive(50, TimeUnit.MILLISECONDS);
+
+		cache.add("a=1");
+		Assert.assertEquals("a=1", cache.getEntry("a"));
+		Thread.sleep(100);
+		Assert.assertNull(cache.getEntry("a"));
+		Assert.assertTrue(cache.getStats().getExpirations() >= 1);
+		cache.close();
+	}
+
+	private static class MapCache implements Cache<String> {
+
+		private final Map<String, String> entries = new ConcurrentHashMap<String, String>();
+
+		@Override
+		public boolean contains(String identifier) {
+			return entries.containsKey(identifier);
+		}
+
+		@Override
+		public String getEntry(String identifier) {
+			return entries.get(identifier);
+		}
+
+		@Override
+		public String removeEntryByPrimaryKey(String primaryKey) {
+			return entries.remove(primaryKey);
+		}
+
+		@Override
+		public boolean updateEntry(String object) {
+			throw new RuntimeException("not yet implemented");
+		}
+
+		@Override
+		public List<String> addAll(List<String> listToAdd) {
+
+			for ( String entry : listToAdd ) add(entry);
+			return new ArrayList<String>(listToAdd);
+		}
+
+		@Override
+		public String add(String entry) {
+
+			entries.put(IDENTITY.apply(entry), entry);
+			return entry;
+		}
+	}
+}
@@ -0,0 +1,142 @@
+package org.dice.factcheck.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.aksw.defacto.cache.Cache;
+import org.aksw.defacto.cache.WriteBehindCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WriteBehindCacheTest {
+
+	@Test
+	public void testBatches() throws InterruptedException {
+
+		RecordingCache cache = new RecordingCache(null);
+		WriteBehindCache<String> writeBehind = new WriteBehindCache<String>(cache, "test", 100, 10, 1000);
+		for ( int i = 0; i < 95; i++ ) writeBehind.add("query " + i);
+		writeBehind.flush();
+
+		Assert.assertEquals(95, cache.entries.size());
+		Assert.assertEquals(95, writeBehind.getWritten());
+		Assert.assertTrue(writeBehind.getBatches() >= 10);
+		for ( List<String> batch : cache.batches ) Assert.assertTrue(batch.size() <= 10);
+		Assert.assertTrue(writeBehind.contains("query 42"));
+		writeBehind.close();
+	}
+
+	@Test
+	public void testBackpressure() throws InterruptedException {
+
+		CountDownLatch blocked = new CountDownLatch(1);
+		RecordingCache cache = new RecordingCache(blocked);
+		WriteBehindCache<String> writeBehind = new WriteBehindCache<String>(cache, "test", 2, 1, 50);
+
+		// the writer hangs in the first batch, two more fit into the queue, the fourth is dropped
+		for ( int i = 0; i < 4; i++ ) {
+
+			writeBehind.add("query " + i);
+			if ( i == 0 ) while ( writeBehind.getQueueSize() > 0 ) Thread.sleep(1);
+		}
+		Assert.assertEquals(1, writeBehind.getDropped());
+		Assert.assertEquals(3, writeBehind.getEnqueued());
+
+		blocked.countDown();
+		writeBehind.close();
+		Assert.assertEquals(Arrays.asList("query 0", "query 1", "query 2"), cache.entries);
+	}
+
+	@Test
+	public void testCloseWritesEverything() {
+
+		RecordingCache cache = new RecordingCache(null);
+		WriteBehindCache<String> writeBehind = new WriteBehindCache<String>(cache, "test", 1000, 7, 1000);
+		List<String> entries = new ArrayList<String>();
+		for ( int i = 0; i < 500; i++ ) entries.add("query " + i);
+		writeBehind.addAll(entries);
+		writeBehind.close();
+
+		Assert.assertEquals(entries, cache.entries);
+		Assert.assertEquals(0, writeBehind.getQueueSize());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testAddAfterClose() {
+
+		WriteBehindCache<String> writeBehind = new WriteBehindCache<String>(new RecordingCache(null), "test", 10, 10, 1000);
+		writeBehind.close();
+		writeBehind.add("query");
+	}
+
+	@Test
+	public void testFailedBatch() throws InterruptedException {
+
+		RecordingCache cache = new RecordingCache(null);
+		cache.fail = true;
+		WriteBehindCache<String> writeBehind = new WriteBehindCache<String>(cache, "test", 10, 10, 1000);
+		writeBehind.add("query");
+		writeBehind.flush();
+
+		Assert.assertEquals(1, writeBehind.getFailed());
+		writeBehind.close();
+	}
+
+	private static class RecordingCache implements Cache<String> {
+
+		private final List<String> entries = Collections.synchronizedList(new ArrayList<String>());
+		private final List<List<String>> batches = Collections.synchronizedList(new ArrayList<List<String>>());
+		private final CountDownLatch blocked;
+		private volatile boolean fail = false;
+
+		private RecordingCache(CountDownLatch blocked) {
+			this.blocked = blocked;
+		}
+
+		@Override
+		public boolean contains(String identifier) {
+			return entries.contains(identifier);
+		}
+
+		@Override
+		public String getEntry(String identifier) {
+			return contains(identifier) ? identifier : null;
+		}
+
+		@Override
+		public String removeEntryByPrimaryKey(String primaryKey) {
+			return entries.remove(primaryKey) ? primaryKey : null;
+		}
+
+		@Override
+		public boolean updateEntry(String object) {
+			return false;
+		}
+
+		@Override
+		public List<String> addAll(List<String> listToAdd) {
+
+			if ( fail ) throw new IllegalStateException("index not available");
+			try {
+				if ( blocked != null ) blocked.await(10, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			batches.add(new ArrayList<String>(listToAdd));
+			entries.addAll(listToAdd);
+			return listToAdd;
+		}
+
+		@Override
+		public String add(String entry) {
+
+			entries.add(entry);
+			return entry;
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package org.dice.factcheck.evidence;
+
+import org.aksw.defacto.evidence.ArticleText;
+import org.aksw.defacto.evidence.ArticleTextStore;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ArticleTextStoreTest {
+
+	private static String article(String word, int sentences) {
+
+		StringBuilder builder = new StringBuilder();
+		for ( int i = 0; i < sentences; i++ )
+			builder.append("Die ").append(word).append(" wurde im Jahr ").append(1900 + i).append(" in M\u00fcnchen gegr\u00fcndet. ");
+		return builder.toString();
+	}
+
+	@Test
+	public void testEqualTextsAreShared() {
+
+		String text = article("Universit\u00e4t", 10);
+		ArticleText first = ArticleTextStore.intern(text);
+		ArticleText second = ArticleTextStore.intern(new String(text));
+
+		Assert.assertSame(first, second);
+		Assert.assertNotSame(first, ArticleTextStore.intern(article("Brauerei", 10)));
+		Assert.assertSame(ArticleText.EMPTY, ArticleTextStore.intern(""));
+		Assert.assertNull(ArticleTextStore.intern(null));
+	}
+
+	@Test
+	public void testLongTextsAreCompressed() {
+
+		String text = article("Oper", 500);
+		ArticleText stored = ArticleTextStore.intern(text);
+
+		Assert.assertTrue(stored.isCompressed());
+		Assert.assertTrue(stored.getStoredSize() < text.length() / 4);
+		Assert.assertEquals(text.length(), stored.length());
+		Assert.assertEquals(text, stored.toString());
+		Assert.assertEquals(text.charAt(1234), stored.charAt(1234));
+		Assert.assertFalse(ArticleTextStore.intern("short text").isCompressed());
+	}
+
+	@Test
+	public void testDecodedTextsAreCached() {
+
+		ArticleText text = ArticleTextStore.intern(article("Bibliothek", 100));
+		String lowerCase = text.toLowerCase();
+
+		Assert.assertEquals(article("Bibliothek", 100).toLowerCase(), lowerCase);
+		Assert.assertSame(lowerCase, text.toLowerCase());
+		Assert.assertSame(text.toString(), text.toString());
+
+		// once pushed out of the lru the text is decoded again
+		for ( int i = 0; i <= ArticleText.DECODED_CACHE_SIZE; i++ ) ArticleTextStore.intern(article("Text " + i, 100)).toString();
+		Assert.assertNotSame(lowerCase, text.toLowerCase());
+		Assert.assertEquals(lowerCase, text.toLowerCase());
+	}
+
+	@Test
+	public void testUnreferencedTextsAreDropped() throws InterruptedException {
+
+		for ( int i = 0; i < 100; i++ ) ArticleTextStore.intern(article("Text " + i, 3));
+
+		for ( int i = 0; i < 50 && ArticleTextStore.size() > 10; i++ ) {
+
+			System.gc();
+			Thread.sleep(20);
+		}
+		Assert.assertTrue(ArticleTextStore.size() <= 10);
+	}
+}
@@ -0,0 +1,155 @@
+package org.dice.factcheck.evidence;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import org.aksw.defacto.evidence.ArticleText;
+import org.aksw.defacto.evidence.ArticleTextStore;
+import org.aksw.defacto.evidence.ComplexProof;
+import org.aksw.defacto.evidence.Evidence;
+import org.aksw.defacto.evidence.WebSite;
+import org.aksw.defacto.search.query.MetaQuery;
+import org.aksw.defacto.search.time.TimeDistribution;
+import org.dice.factcheck.ml.feature.fact.impl.AbstractFactFeatureTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ComplexProofLayoutTest extends AbstractFactFeatureTest {
+
+	private static final String TEXT = "Albert Einstein was a German-born theoretical physicist. "
+			+ "In 1921 Einstein received the Nobel Prize for Physics for his services to theoretical physics. "
+			+ "He developed the theory of relativity.";
+
+	private static final String MATCH = "einstein received the nobel prize for physics";
+
+	private static String context(int length) {
+
+		int start = TEXT.toLowerCase().indexOf(MATCH);
+		int end = start + MATCH.length();
+		return TEXT.substring(Math.max(0, start - length), Math.min(end + length, TEXT.length() - 1));
+	}
+
+	private ComplexProof createProof() {
+
+		WebSite website = new WebSite(new MetaQuery("Einstein", "received", "Nobel Prize for Physics", "en", null), "http://en.wikipedia.org/wiki/Albert_Einstein", "en");
+		website.setText(TEXT);
+
+		ComplexProof proof = new ComplexProof(testModel, "einstein", "nobel prize for physics", " received the ", "received the", website);
+		int start = website.getLowerCaseText().indexOf(MATCH);
+		proof.setContextOffsets(start, start + MATCH.length());
+		return proof;
+	}
+
+	@Test
+	public void testContextsAreCutFromTheWebsite() {
+
+		ComplexProof proof = createProof();
+
+		Assert.assertEquals(context(25), proof.getTinyContext());
+		Assert.assertEquals(context(50), proof.getSmallContext());
+		Assert.assertEquals(context(100), proof.getMediumContext());
+		Assert.assertEquals(context(150), proof.getLargeContext());
+
+		proof.setSmallContext("set explicitly");
+		Assert.assertEquals("set explicitly", proof.getSmallContext());
+		Assert.assertEquals(context(25), proof.getTinyContext());
+		Assert.assertNull(proof.getTaggedSmallContext());
+	}
+
+	@Test
+	public void testReadContextsAreNotKept() throws ReflectiveOperationException {
+
+		ComplexProof proof = createProof();
+		Assert.assertEquals(context(25), proof.getTinyContext());
+		Assert.assertEquals(context(50), proof.getSmallContext());
+		Assert.assertEquals(context(100), proof.getMediumContext());
+		Assert.assertEquals(context(150), proof.getLargeContext());
+
+		// the labels and phrases are set by the constructor, nothing else is kept
+		for ( Field field : ComplexProof.class.getDeclaredFields() ) {
+
+			if ( Modifier.isStatic(field.getModifiers()) || field.getType().isPrimitive() || field.getType() == String.class ) continue;
+			if ( field.getName().equals("website") || field.getName().equals("model") ) continue;
+			field.setAccessible(true);
+			Assert.assertNull(field.getName(), field.get(proof));
+		}
+	}
+
+	@Test
+	public void testWebsitesAreDecodedOncePerLoop() {
+
+		// more websites than the lru holds, each with several proofs
+		int websites = ArticleText.DECODED_CACHE_SIZE * 2;
+		Evidence evidence = new Evidence(testModel);
+		for ( int i = 0; i < websites; i++ ) {
+
+			WebSite website = new WebSite(null, "http://en.wikipedia.org/wiki/Page_" + i, "en");
+			StringBuilder text = new StringBuilder();
+			for ( int j = 0; j < 50; j++ ) text.append(TEXT).append(" Page ").append(i).append(' ');
+			website.setText(text.toString());
+
+			for ( int j = 0; j < 3; j++ ) {
+
+				ComplexProof proof = new ComplexProof(testModel, "einstein", "nobel prize for physics", " received the ", "received the", website);
+				int start = website.getLowerCaseText().indexOf(MATCH, j * TEXT.length());
+				proof.setContextOffsets(start, start + MATCH.length());
+				evidence.addComplexProof(proof);
+			}
+		}
+
+		// push the texts read while the proofs were created out of the lru
+		for ( int i = 0; i < ArticleText.DECODED_CACHE_SIZE; i++ ) ArticleTextStore.intern(TEXT + " Other " + i).toString();
+
+		long decodes = ArticleText.getNumberOfDecodes();
+		TimeDistribution distribution = TimeDistribution.of(evidence);
+		Assert.assertEquals(websites, ArticleText.getNumberOfDecodes() - decodes);
+		Assert.assertFalse(distribution.getContexts(0).isEmpty());
+	}
+
+	@Test
+	public void testEqualityIgnoresTheText() throws ReflectiveOperationException {
+
+		ComplexProof proof = createProof();
+		ComplexProof same = createProof();
+		Assert.assertEquals(proof, same);
+		Assert.assertEquals(proof.hashCode(), same.hashCode());
+
+		Field contexts = ComplexProof.class.getDeclaredField("contexts");
+		contexts.setAccessible(true);
+		Assert.assertNull(contexts.get(proof));
+		Assert.assertNull(contexts.get(same));
+	}
+
+	@Test
+	public void testProofFootprint() throws IllegalAccessException {
+
+		int strings = 0;
+		for ( Field field : ComplexProof.class.getDeclaredFields() )
+			if ( !Modifier.isStatic(field.getModifiers()) && field.getType() == String.class ) strings++;
+		// labels and phrases only, the contexts are not copied
+		Assert.assertEquals(4, strings);
+
+		// nothing but the proof itself is allocated until the features are computed
+		ComplexProof proof = createProof();
+		for ( Field field : ComplexProof.class.getDeclaredFields() ) {
+
+			if ( Modifier.isStatic(field.getModifiers()) || field.getType().isPrimitive() || field.getType() == String.class ) continue;
+			field.setAccessible(true);
+			if ( field.getName().equals("website") || field.getName().equals("model") ) continue;
+			Assert.assertNull(field.getName(), field.get(proof));
+		}
+		Assert.assertNotNull(proof.getFeatures());
+	}
+
+	@Test
+	public void testWebSiteFootprint() {
+
+		WebSite first = new WebSite(null, "http://a.org", new String("en"));
+		WebSite second = new WebSite(null, "http://b.org", new String("en"));
+		first.setText(TEXT);
+		second.setText(new String(TEXT));
+
+		Assert.assertSame(first.getLanguage(), second.getLanguage());
+		Assert.assertSame(first.getArticleText(), second.getArticleText());
+	}
+}
@@ -0,0 +1,126 @@
+package org.dice.factcheck.ml.classifier;
+
+import java.util.Random;
+
+import org.aksw.defacto.ml.classifier.ClassifierCompiler;
+import org.aksw.defacto.ml.classifier.CompiledClassifier;
+import org.aksw.defacto.ml.classifier.CompiledJ48;
+import org.aksw.defacto.ml.classifier.CompiledSMO;
+import org.aksw.defacto.ml.classifier.WekaClassifier;
+import org.junit.Assert;
+import org.junit.Test;
+
+import weka.classifiers.Classifier;
+import weka.classifiers.functions.SMO;
+import weka.classifiers.functions.supportVector.PolyKernel;
+import weka.classifiers.trees.J48;
+import weka.core.Attribute;
+import weka.core.FastVector;
+import weka.core.Instance;
+import weka.core.Instances;
+
+/**
+ * Compares the compiled classifiers with weka on random data.
+ */
+public class ClassifierCompilerTest {
+
+	private static final double DELTA = 1E-9;
+
+	@Test
+	public void testJ48() throws Exception {
+
+		Instances data = createData(500);
+		J48 tree = new J48();
+		tree.buildClassifier(data);
+
+		assertSameScores(tree, data, CompiledJ48.class);
+	}
+
+	@Test
+	public void testLinearSMO() throws Exception {
+
+		Instances data = createData(200);
+		SMO smo = new SMO();
+		smo.setBuildLogisticModels(true);
+		smo.buildClassifier(data);
+
+		assertSameScores(smo, data, CompiledSMO.class);
+	}
+
+	@Test
+	public void testPolynomialSMO() throws Exception {
+
+		Instances data = createData(200);
+		PolyKernel kernel = new PolyKernel();
+		kernel.setExponent(2D);
+		SMO smo = new SMO();
+		smo.setKernel(kernel);
+		smo.buildClassifier(data);
+
+		assertSameScores(smo, data, CompiledSMO.class);
+	}
+
+	private static void assertSameScores(Classifier classifier, Instances data, Class<?> expectedType) {
+
+		Instances header = new Instances(data, 0);
+		CompiledClassifier compiled = ClassifierCompiler.compile(classifier, header, false);
+		Assert.assertEquals(expectedType, compiled.getClass());
+
+		WekaClassifier weka = new WekaClassifier(classifier, header);
+		for ( Instances test : new Instances[]{ createData(100), withMissingValues(createData(100)) } ) {
+			for ( int i = 0; i < test.numInstances(); i++ ) {
+
+				double[] values = test.instance(i).toDoubleArray();
+				values[header.classIndex()] = Instance.missingValue();
+				for ( int classValue = 0; classValue < header.numClasses(); classValue++ )
+					Assert.assertEquals(weka.getProbability(values, classValue), compiled.getProbability(values, classValue), DELTA);
+			}
+		}
+	}
+
+	/**
+	 * three numeric attributes, a nominal attribute and a class depending on all of them
+	 */
+	private static Instances createData(int size) {
+
+		FastVector languages = new FastVector(3);
+		languages.addElement("de");
+		languages.addElement("en");
+		languages.addElement("fr");
+		FastVector clazz = new FastVector(2);
+		clazz.addElement("true");
+		clazz.addElement("false");
+
+		FastVector attributes = new FastVector();
+		attributes.addElement(new Attribute("qgrams"));
+		attributes.addElement(new Attribute("token_distance"));
+		attributes.addElement(new Attribute("total_occurrence"));
+		attributes.addElement(new Attribute("language", languages));
+		attributes.addElement(new Attribute("class", clazz));
+
+		Instances data = new Instances("test", attributes, size);
+		data.setClassIndex(data.numAttributes() - 1);
+
+		Random random = new Random(size);
+		for ( int i = 0; i < size; i++ ) {
+
+			double qgrams = random.nextDouble();
+			double distance = random.nextInt(50);
+			double occurrence = random.nextInt(10);
+			double language = random.nextInt(3);
+			boolean correct = qgrams * 10 - distance / 10 + occurrence + (language == 1 ? 2 : 0) + random.nextGaussian() > 5;
+
+			data.add(new Instance(1D, new double[]{ qgrams, distance, occurrence, language, correct ? 0 : 1 }));
+		}
+		return data;
+	}
+
+	private static Instances withMissingValues(Instances data) {
+
+		Random random = new Random(42);
+		for ( int i = 0; i < data.numInstances(); i++ )
+			data.instance(i).setMissing(random.nextInt(data.numAttributes() - 1));
+
+		return data;
+	}
+}
@@ -0,0 +1,173 @@
+package org.dice.factcheck.ml.feature;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.aksw.defacto.ml.feature.FeatureScheduler;
+import org.aksw.defacto.ml.feature.ScheduledFeature;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FeatureSchedulerTest {
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+	@After
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testDependencyOrder() {
+
+		Feature sum = new Feature("sum", set("a", "b"), set("c"));
+		Feature a = new Feature("a", set("model"), set("a"));
+		Feature b = new Feature("b", set("model"), set("b"));
+		Feature max = new Feature("max", set("c", "websites"), set("d"));
+
+		List<Feature> order = new FeatureScheduler<Feature>(Arrays.asList(max, sum, a, b)).getFeatures();
+		Assert.assertTrue(order.indexOf(a) < order.indexOf(sum));
+		Assert.assertTrue(order.indexOf(b) < order.indexOf(sum));
+		Assert.assertTrue(order.indexOf(sum) < order.indexOf(max));
+	}
+
+	@Test
+	public void testRunnable() {
+
+		Feature a = new Feature("a", set("model"), set("a"));
+		Feature b = new Feature("b", set("a"), set("b"));
+		Feature c = new Feature("c", set("b", "websites"), set("c"));
+
+		FeatureScheduler<Feature> scheduler = new FeatureScheduler<Feature>(Arrays.asList(c, b, a));
+		Assert.assertEquals(Arrays.asList(a, b), scheduler.getRunnable(set("model")));
+		Assert.assertEquals(3, scheduler.getRunnable(set("model", "websites")).size());
+		Assert.assertTrue(scheduler.getRunnable(Collections.<String>emptySet()).isEmpty());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testCycle() {
+
+		new FeatureScheduler<Feature>(Arrays.asList(
+				new Feature("a", set("b"), set("a")), new Feature("b", set("a"), set("b"))));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDuplicateOutput() {
+
+		new FeatureScheduler<Feature>(Arrays.asList(
+				new Feature("a", set("model"), set("a")), new Feature("b", set("model"), set("a"))));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testMissingInput() {
+
+		new FeatureScheduler<Feature>(Arrays.asList(new Feature("a", set("websites"), set("a"))))
+				.schedule(set("model"), new Recorder(), executor);
+	}
+
+	@Test
+	public void testIndependentFeaturesRunConcurrently() throws InterruptedException {
+
+		// both wait for each other, so they only finish if they run at the same time
+		final CountDownLatch latch = new CountDownLatch(2);
+		Feature a = new Feature("a", set("model"), set("a"));
+		Feature b = new Feature("b", set("model"), set("b"));
+
+		new FeatureScheduler<Feature>(Arrays.asList(a, b)).schedule(set("model"), new Consumer<Feature>() {
+
+			@Override
+			public void accept(Feature feature) {
+
+				latch.countDown();
+				try {
+					if ( !latch.await(10, TimeUnit.SECONDS) ) throw new IllegalStateException("Features ran one after another");
+				}
+				catch (InterruptedException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		}, executor).join();
+	}
+
+	@Test
+	public void testFailurePropagation() {
+
+		Feature a = new Feature("a", set("model"), set("a"));
+		Feature b = new Feature("b", set("a"), set("b"));
+		Feature c = new Feature("c", set("model"), set("c"));
+		final Recorder recorder = new Recorder();
+
+		try {
+
+			new FeatureScheduler<Feature>(Arrays.asList(a, b, c)).schedule(set("model"), new Consumer<Feature>() {
+
+				@Override
+				public void accept(Feature feature) {
+
+					if ( feature.name.equals("a") ) throw new IllegalStateException("a failed");
+					recorder.accept(feature);
+				}
+			}, executor).join();
+			Assert.fail();
+		}
+		catch (CompletionException e) {
+
+			Assert.assertEquals("a failed", e.getCause().getMessage());
+		}
+		Assert.assertEquals(set("c"), recorder.names);
+	}
+
+	private static Set<String> set(String... values) {
+		return new HashSet<String>(Arrays.asList(values));
+	}
+
+	private static class Recorder implements Consumer<Feature> {
+
+		private final Set<String> names = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+		@Override
+		public void accept(Feature feature) {
+			names.add(feature.name);
+		}
+	}
+
+	private static class Feature implements ScheduledFeature {
+
+		private final String name;
+		private final Set<String> inputs;
+		private final Set<String> outputs;
+
+		private Feature(String name, Set<String> inputs, Set<String> outputs) {
+
+			this.name = name;
+			this.inputs = inputs;
+			this.outputs = outputs;
+		}
+
+		@Override
+		public Set<String> getInputs() {
+			return inputs;
+		}
+
+		@Override
+		public Set<String> getOutputs() {
+			return outputs;
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+}
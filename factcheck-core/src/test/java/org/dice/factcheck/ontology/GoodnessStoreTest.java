@@ -0,0 +1,70 @@
+package org.dice.factcheck.ontology;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.aksw.defacto.ontology.GoodnessStore;
+import org.aksw.defacto.ontology.OntologyIndex;
+import org.aksw.defacto.ontology.TypeIndex;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GoodnessStoreTest {
+
+	private static final String TYPE = " <http://www.w3.org/1999/02/22-rdf-syntax-ns#type> ";
+	private static final String RESOURCE = "http://dbpedia.org/resource/";
+	private static final String ONTOLOGY = "http://dbpedia.org/ontology/";
+
+	/**
+	 * The expected values are the sparql metrics computed by hand for the 4
+	 * triples of the dump: f(?s a Scientist. ?s ?p ?o) = 3, f(?s a Person. ?s ?p ?o) = 2,
+	 * f(?o a City. ?s ?p ?o) = 2, f(?o a Place. ?s ?p ?o) = 1 and f(?s birthPlace ?o) = 2.
+	 */
+	@Test
+	public void testGoodness() throws IOException {
+
+		File typeDump = File.createTempFile("types", ".ttl");
+		File typeIndex = File.createTempFile("types", ".idx");
+		File dump = File.createTempFile("triples", ".nt");
+		File store = File.createTempFile("goodness", ".bin");
+		for ( File file : Arrays.asList(typeDump, typeIndex, dump, store) ) file.deleteOnExit();
+
+		try ( PrintWriter writer = new PrintWriter(typeDump, "UTF-8") ) {
+
+			writer.println("<" + RESOURCE + "Albert_Einstein>" + TYPE + "<" + ONTOLOGY + "Scientist> .");
+			writer.println("<" + RESOURCE + "Albert_Einstein>" + TYPE + "<" + ONTOLOGY + "Person> .");
+			writer.println("<" + RESOURCE + "Niels_Bohr>" + TYPE + "<" + ONTOLOGY + "Scientist> .");
+			writer.println("<" + RESOURCE + "Ulm>" + TYPE + "<" + ONTOLOGY + "City> .");
+			writer.println("<" + RESOURCE + "Ulm>" + TYPE + "<" + ONTOLOGY + "Place> .");
+			writer.println("<" + RESOURCE + "K\u00F8benhavn>" + TYPE + "<" + ONTOLOGY + "City> .");
+		}
+		try ( PrintWriter writer = new PrintWriter(dump, "UTF-8") ) {
+
+			writer.println("<" + RESOURCE + "Albert_Einstein> <" + ONTOLOGY + "birthPlace> <" + RESOURCE + "Ulm> .");
+			writer.println("<" + RESOURCE + "Niels_Bohr> <" + ONTOLOGY + "birthPlace> <" + RESOURCE + "K\\u00F8benhavn> .");
+			writer.println("<" + RESOURCE + "Albert_Einstein> <http://xmlns.com/foaf/0.1/name> \"Albert Einstein\"@en .");
+			writer.println("<" + RESOURCE + "Ulm> <" + ONTOLOGY + "country> <" + RESOURCE + "Germany> .");
+		}
+		TypeIndex.build(typeDump, typeIndex, OntologyIndex.DBPEDIA_ONTOLOGY);
+		GoodnessStore.build(TypeIndex.open(typeIndex), dump, store);
+		GoodnessStore goodness = GoodnessStore.load(store);
+
+		List<String> einstein = Arrays.asList(ONTOLOGY + "Scientist", ONTOLOGY + "Person", "http://xmlns.com/foaf/0.1/Person");
+		List<String> ulm = Arrays.asList(ONTOLOGY + "City", ONTOLOGY + "Place");
+
+		// Scientist, City: log(2*4/(3*2)) + log(2*4/(2*2)) + 2 * log(2*4/(3*2))
+		Assert.assertEquals(3 * Math.log(4D / 3) + Math.log(2), goodness.getGoodness(
+				Collections.singletonList(ONTOLOGY + "Scientist"), ONTOLOGY + "birthPlace", Collections.singletonList(ONTOLOGY + "City")), 1E-9);
+		// the best pair is Person, Place: log(1*4/(2*2)) + log(1*4/(1*2)) + 2 * log(1*4/(2*1))
+		Assert.assertEquals(3 * Math.log(2), goodness.getGoodness(einstein, ONTOLOGY + "birthPlace", ulm), 1E-9);
+		// only the pmi of the types is left for an unknown predicate
+		Assert.assertEquals(2 * Math.log(2), goodness.getGoodness(einstein, ONTOLOGY + "deathPlace", ulm), 1E-9);
+		Assert.assertEquals(Double.MIN_VALUE, goodness.getGoodness(Collections.<String>emptyList(), ONTOLOGY + "birthPlace", ulm), 0D);
+		Assert.assertEquals(Double.MIN_VALUE, goodness.getGoodness(Collections.singletonList("http://xmlns.com/foaf/0.1/Person"),
+				ONTOLOGY + "birthPlace", ulm), 0D);
+	}
+}
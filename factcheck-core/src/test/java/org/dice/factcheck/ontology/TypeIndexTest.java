@@ -0,0 +1,69 @@
+package org.dice.factcheck.ontology;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.aksw.defacto.ontology.OntologyIndex;
+import org.aksw.defacto.ontology.TypeIndex;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TypeIndexTest {
+
+	private static final String TYPE = " <http://www.w3.org/1999/02/22-rdf-syntax-ns#type> ";
+
+	@Test
+	public void testBuildAndOpen() throws IOException {
+
+		File dump = File.createTempFile("types", ".ttl");
+		File index = File.createTempFile("types", ".idx");
+		dump.deleteOnExit();
+		index.deleteOnExit();
+
+		try ( PrintWriter writer = new PrintWriter(dump, "UTF-8") ) {
+
+			writer.println("# started 2016-10-01");
+			writer.println("<http://dbpedia.org/resource/Albert_Einstein>" + TYPE + "<http://dbpedia.org/ontology/Scientist> .");
+			writer.println("<http://dbpedia.org/resource/Albert_Einstein>" + TYPE + "<http://dbpedia.org/ontology/Person> .");
+			writer.println("<http://dbpedia.org/resource/Albert_Einstein>" + TYPE + "<http://xmlns.com/foaf/0.1/Person> .");
+			writer.println("<http://dbpedia.org/resource/Albert_Einstein>" + TYPE + "<http://dbpedia.org/ontology/Person> .");
+			writer.println("<http://dbpedia.org/resource/Ulm>" + TYPE + "<http://dbpedia.org/ontology/City> .");
+			writer.println("<http://dbpedia.org/resource/Ulm> <http://www.w3.org/2000/01/rdf-schema#label> \"Ulm\"@en .");
+		}
+		TypeIndex.build(dump, index, OntologyIndex.DBPEDIA_ONTOLOGY);
+		TypeIndex types = TypeIndex.open(index);
+
+		Assert.assertEquals(2, types.size());
+		Assert.assertEquals(new HashSet<String>(Arrays.asList("http://dbpedia.org/ontology/Scientist", "http://dbpedia.org/ontology/Person")),
+				new HashSet<String>(types.getTypes("http://dbpedia.org/resource/Albert_Einstein")));
+		Assert.assertEquals(Collections.singletonList("http://dbpedia.org/ontology/City"), types.getTypes("http://dbpedia.org/resource/Ulm"));
+		Assert.assertTrue(types.getTypes("http://dbpedia.org/resource/Nobel_Prize_in_Physics").isEmpty());
+	}
+
+	@Test
+	public void testUnicodeEscapes() throws IOException {
+
+		File dump = File.createTempFile("types", ".ttl");
+		File index = File.createTempFile("types", ".idx");
+		dump.deleteOnExit();
+		index.deleteOnExit();
+
+		try ( PrintWriter writer = new PrintWriter(dump, "UTF-8") ) {
+
+			writer.println("<http://dbpedia.org/resource/M\\u00FCnchen>" + TYPE + "<http://dbpedia.org/ontology/City> .");
+			writer.println("<http://dbpedia.org/resource/Smile_\\U0001F600>" + TYPE + "<http://dbpedia.org/ontology/Caf\\u00E9> .");
+			writer.println("<http://dbpedia.org/resource/Broken_\\u00G1>" + TYPE + "<http://dbpedia.org/ontology/Place> .");
+		}
+		TypeIndex.build(dump, index, OntologyIndex.DBPEDIA_ONTOLOGY);
+		TypeIndex types = TypeIndex.open(index);
+
+		Assert.assertEquals(Collections.singletonList("http://dbpedia.org/ontology/City"), types.getTypes("http://dbpedia.org/resource/M\u00FCnchen"));
+		Assert.assertEquals(Collections.singletonList("http://dbpedia.org/ontology/Caf\u00E9"),
+				types.getTypes("http://dbpedia.org/resource/Smile_" + new String(Character.toChars(0x1F600))));
+		Assert.assertEquals(Collections.singletonList("http://dbpedia.org/ontology/Place"), types.getTypes("http://dbpedia.org/resource/Broken_\\u00G1"));
+	}
+}
@@ -0,0 +1,140 @@
+package org.dice.factcheck.search.cache.local;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.aksw.defacto.search.cache.local.LogStore;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LogStoreTest {
+
+	private static final long MB = 1024L * 1024L;
+
+	private File directory;
+
+	@Before
+	public void createDirectory() throws IOException {
+		directory = Files.createTempDirectory("logstore").toFile();
+	}
+
+	@After
+	public void deleteDirectory() {
+
+		for ( File file : directory.listFiles() ) file.delete();
+		directory.delete();
+	}
+
+	@Test
+	public void testPutGetRemove() throws IOException {
+
+		try ( LogStore store = new LogStore(directory, 10 * MB, MB) ) {
+
+			store.put("Albert Einstein|-|?D? won the ?R?|-|Nobel Prize in Physics|-|en", bytes("einstein"));
+			Assert.assertTrue(store.contains("Albert Einstein|-|?D? won the ?R?|-|Nobel Prize in Physics|-|en"));
+			Assert.assertEquals("einstein", string(store.get("Albert Einstein|-|?D? won the ?R?|-|Nobel Prize in Physics|-|en")));
+
+			store.flush();
+			Assert.assertEquals("einstein", string(store.get("Albert Einstein|-|?D? won the ?R?|-|Nobel Prize in Physics|-|en")));
+
+			store.put("Albert Einstein|-|?D? won the ?R?|-|Nobel Prize in Physics|-|en", bytes("einstein 2"));
+			Assert.assertEquals("einstein 2", string(store.get("Albert Einstein|-|?D? won the ?R?|-|Nobel Prize in Physics|-|en")));
+
+			store.remove("Albert Einstein|-|?D? won the ?R?|-|Nobel Prize in Physics|-|en");
+			Assert.assertFalse(store.contains("Albert Einstein|-|?D? won the ?R?|-|Nobel Prize in Physics|-|en"));
+			Assert.assertNull(store.get("Albert Einstein|-|?D? won the ?R?|-|Nobel Prize in Physics|-|en"));
+			Assert.assertNull(store.get("unknown"));
+		}
+	}
+
+	@Test
+	public void testWarmRestart() throws IOException {
+
+		try ( LogStore store = new LogStore(directory, 10 * MB, MB) ) {
+
+			for ( int i = 0; i < 1000; i++ ) store.put("query " + i, bytes("result " + i));
+			store.remove("query 7");
+		}
+
+		try ( LogStore store = new LogStore(directory, 10 * MB, MB) ) {
+
+			Assert.assertEquals(999, store.size());
+			Assert.assertEquals("result 42", string(store.get("query 42")));
+			Assert.assertNull(store.get("query 7"));
+		}
+	}
+
+	@Test
+	public void testTornRecord() throws IOException {
+
+		try ( LogStore store = new LogStore(directory, 10 * MB, MB) ) {
+
+			store.put("query 1", bytes("result 1"));
+			store.put("query 2", bytes("result 2"));
+		}
+
+		// a crash in the middle of a record leaves garbage at the end of the segment
+		File segment = directory.listFiles()[0];
+		try ( FileOutputStream out = new FileOutputStream(segment, true) ) {
+			out.write(new byte[]{ 0, 0, 0, 1, 0, 0, 0, 7, 0, 0, 0, 9, 'q' });
+		}
+
+		try ( LogStore store = new LogStore(directory, 10 * MB, MB) ) {
+
+			Assert.assertEquals(2, store.size());
+			Assert.assertEquals("result 2", string(store.get("query 2")));
+
+			store.put("query 3", bytes("result 3"));
+		}
+
+		try ( LogStore store = new LogStore(directory, 10 * MB, MB) ) {
+			Assert.assertEquals("result 3", string(store.get("query 3")));
+		}
+	}
+
+	@Test
+	public void testSizeCap() throws IOException {
+
+		byte[] value = new byte[64 * 1024];
+		try ( LogStore store = new LogStore(directory, 2 * MB, 256 * 1024) ) {
+
+			for ( int i = 0; i < 100; i++ ) store.put("query " + i, value);
+			store.flush();
+
+			Assert.assertTrue(store.getDiskSize() <= 2 * MB);
+			Assert.assertFalse(store.contains("query 0"));
+			Assert.assertTrue(store.contains("query 99"));
+		}
+	}
+
+	@Test
+	public void testCompaction() throws IOException {
+
+		byte[] value = new byte[16 * 1024];
+		try ( LogStore store = new LogStore(directory, 100 * MB, 256 * 1024) ) {
+
+			for ( int i = 0; i < 500; i++ ) store.put("query " + (i % 10), value);
+			store.put("query 3", bytes("latest"));
+			store.flush();
+
+			// 500 writes of 10 keys would take 8MB without compaction
+			Assert.assertTrue(store.getDiskSize() < MB);
+			Assert.assertEquals(10, store.size());
+			Assert.assertEquals("latest", string(store.get("query 3")));
+			Assert.assertEquals(value.length, store.get("query 4").length);
+		}
+	}
+
+	private static byte[] bytes(String value) {
+		return value.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static String string(byte[] value) {
+		return new String(value, StandardCharsets.UTF_8);
+	}
+}
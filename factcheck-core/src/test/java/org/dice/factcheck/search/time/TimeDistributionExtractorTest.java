@@ -0,0 +1,61 @@
+package org.dice.factcheck.search.time;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.aksw.defacto.nlp.ner.RegexTagger;
+import org.aksw.defacto.search.time.TimeDistributionExtractor;
+import org.aksw.defacto.util.NlpUtil;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TimeDistributionExtractorTest {
+
+	private static final String[] TOKENS = { "Einstein", "received", "the", "Nobel", "Prize", "in", "1921", "1922", "(1879", "1955)",
+		"1879-1955", "2013.", "12345", "0815", "3000", "1999", "2004", "born", "-", "=", "x_DATE", "", "1900s", "1812" };
+
+	/**
+	 * The dates the full pipeline finds: tagged by the regex tagger, merged
+	 * and split like the evidence crawler does.
+	 */
+	private static List<String> taggedYears(String context) {
+
+		Pattern year = Pattern.compile("[0-9]{4}");
+		String merged = StringUtils.join(NlpUtil.mergeConsecutiveNerTags(new RegexTagger().getAnnotatedSentences(context)), "-=-");
+
+		List<String> years = new ArrayList<String>();
+		for ( String entity : StringUtils.split(merged, "-=-") ) {
+
+			if ( !entity.endsWith("_DATE") ) continue;
+			Matcher matcher = year.matcher(entity.replace("_DATE", ""));
+			while ( matcher.find() ) years.add(matcher.group());
+		}
+		return years;
+	}
+
+	@Test
+	public void testSameYearsAsTheDateTagger() {
+
+		Random random = new Random(3);
+		for ( int i = 0; i < 2000; i++ ) {
+
+			StringBuilder context = new StringBuilder();
+			for ( int j = 0; j < 1 + random.nextInt(30); j++ )
+				context.append(j == 0 ? "" : " ").append(TOKENS[random.nextInt(TOKENS.length)]);
+
+			Assert.assertEquals(context.toString(), taggedYears(context.toString()), TimeDistributionExtractor.getYears(context.toString()));
+		}
+	}
+
+	@Test
+	public void testYears() {
+
+		Assert.assertEquals(Arrays.asList("1879", "1955", "1921"),
+				TimeDistributionExtractor.getYears("Albert Einstein 1879 1955 ( 1879-1955 ) received the Nobel Prize in 1921 ."));
+	}
+}
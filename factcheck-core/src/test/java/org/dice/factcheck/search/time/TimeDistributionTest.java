@@ -0,0 +1,148 @@
+package org.dice.factcheck.search.time;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.aksw.defacto.model.DefactoTimePeriod;
+import org.aksw.defacto.search.time.OccurrenceTimePeriodSearcher;
+import org.aksw.defacto.search.time.TimeDistribution;
+import org.aksw.defacto.search.time.YearHistogram;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TimeDistributionTest {
+
+	private static TimeDistribution distribution() {
+
+		YearHistogram[] occurrences = new YearHistogram[4];
+		List<List<String>> contexts = new ArrayList<List<String>>();
+		for ( int i = 0; i < occurrences.length; i++ ) {
+
+			occurrences[i] = new YearHistogram();
+			contexts.add(new ArrayList<String>());
+		}
+		occurrences[0].add(1921, 3);
+		occurrences[0].add(1879, 2);
+		occurrences[0].add(2020, 5);
+		occurrences[2].add(1955, 1);
+		contexts.get(0).add("Einstein received the Nobel Prize in 1921 .");
+		contexts.get(2).add("Einstein lived from 1879 to 1955 in Ulm and Princeton");
+		contexts.get(2).add("Albert Einstein ( 1879 – 1955 ) was a physicist");
+
+		return new TimeDistribution(occurrences, contexts);
+	}
+
+	@Test
+	public void testReadWrite() throws IOException {
+
+		TimeDistribution distribution = distribution();
+		File file = File.createTempFile("distribution", ".bin");
+		file.deleteOnExit();
+		distribution.write(file);
+		TimeDistribution read = TimeDistribution.read(file);
+
+		for ( int context = 0; context < 4; context++ ) {
+
+			Assert.assertEquals(distribution.getOccurrences(context), read.getOccurrences(context));
+			Assert.assertEquals(distribution.getContexts(context), read.getContexts(context));
+		}
+	}
+
+	@Test
+	public void testOneContextSize() throws IOException {
+
+		YearHistogram[] occurrences = new YearHistogram[4];
+		List<List<String>> contexts = new ArrayList<List<String>>(Arrays.asList(null, null, null, null));
+		occurrences[2] = new YearHistogram();
+		occurrences[2].add(1955, 1);
+		contexts.set(2, Arrays.asList("Einstein lived from 1879 to 1955"));
+		TimeDistribution distribution = new TimeDistribution(occurrences, contexts);
+
+		Assert.assertEquals(1L, distribution.getOccurrences(2).get(1955));
+		Assert.assertEquals(contexts.get(2), distribution.getContexts(2));
+		try {
+
+			distribution.getContexts(0);
+			Assert.fail("Read a context size which was not copied");
+		}
+		catch (IllegalArgumentException e) {
+			// expected
+		}
+		try {
+
+			File file = File.createTempFile("distribution", ".bin");
+			file.deleteOnExit();
+			distribution.write(file);
+			Assert.fail("Wrote a distribution without all context sizes");
+		}
+		catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testUnknownFile() throws IOException {
+
+		File file = File.createTempFile("distribution", ".bin");
+		file.deleteOnExit();
+		TimeDistribution.read(file);
+	}
+
+	private static void assertCorrupt(int offset, int value) throws IOException {
+
+		File file = File.createTempFile("distribution", ".bin");
+		file.deleteOnExit();
+		distribution().write(file);
+		try ( RandomAccessFile out = new RandomAccessFile(file, "rw") ) {
+
+			out.seek(offset);
+			out.writeInt(value);
+		}
+
+		try {
+
+			TimeDistribution.read(file);
+			Assert.fail("Read a corrupt distribution");
+		}
+		catch (IOException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testCorruptFile() throws IOException {
+
+		// the number of context sizes follows the magic number and the version
+		assertCorrupt(8, 7);
+		assertCorrupt(8, -1);
+		// the number of years of the first context size
+		assertCorrupt(12, -1);
+		assertCorrupt(12, Integer.MAX_VALUE);
+		// the number of contexts of the first context size follows its three years
+		assertCorrupt(16 + 3 * 12, -5);
+		// the length of its context
+		assertCorrupt(16 + 3 * 12 + 4, Integer.MAX_VALUE);
+		assertCorrupt(16 + 3 * 12 + 4, -1);
+	}
+
+	@Test
+	public void testSettingsArePassedIn() {
+
+		TimeDistribution distribution = distribution();
+		OccurrenceTimePeriodSearcher searcher = new OccurrenceTimePeriodSearcher();
+
+		// years after 2013 are ignored by the occurrence searcher
+		Assert.assertEquals(new DefactoTimePeriod(1921, 1921), searcher.getTimePoint(distribution, 0));
+		Assert.assertEquals(new DefactoTimePeriod(1955, 1955), searcher.getTimePoint(distribution, 2));
+		Assert.assertNull(searcher.getTimePoint(distribution, 1));
+
+		Assert.assertEquals(new DefactoTimePeriod(1879, 1921), searcher.getTimePeriod(distribution, 0, "frequency"));
+		Assert.assertEquals(new DefactoTimePeriod(1879, 1955), searcher.getTimePeriod(distribution, 2, "frequency"));
+		Assert.assertEquals(Arrays.asList("Einstein lived from 1879 to 1955 in Ulm and Princeton",
+				"Albert Einstein ( 1879 – 1955 ) was a physicist"), distribution.getContexts(2));
+	}
+}
@@ -0,0 +1,160 @@
+package org.dice.factcheck.search.time;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.aksw.defacto.search.time.TimePeriodMatcher;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TimePeriodMatcherTest {
+
+	/**
+	 * The patterns as they were before the matcher, in the same order.
+	 */
+	private static final List<String> PREVIOUS_PATTERNS = Arrays.asList(
+			"-LRB-\\s*[0-9]{4}\\s*(-|--|–)\\s*[0-9]{4}\\s*-RRB-",
+			"\\(\\s*[0-9]{4}\\s*(-|--|–)}\\s*[0-9]{4}\\s*\\)",
+			"[0-9]{4}\\s*(-|--|–)\\s*[0-9]{4}",
+			"[0-9]{4}\\s*(/|-|--|–)\\s*[0-9]{4}",
+			"[0-9]{4}\\s*(/|-|--|–)\\s*[0-9]{1,2}\\s*[A-z]*\\s*[0-9]{4}",
+			"[bB]etween [0-9]{4} and [0-9]{4}",
+			"[Ff]rom [0-9]{4} to [0-9]{4}",
+			"[0-9]{4} to [0-9]{4}",
+			"[Ff]rom [0-9]{4} through [0-9]{4}",
+			"[Ff]rom [0-9]{4} until [0-9]{4}",
+			"[Ff]rom [0-9]{4}\\s*(-|--|–)\\s*[0-9]{4}",
+			"[bB]etween the years [0-9]{4} and [0-9]{4}",
+			"[dD]e [0-9]{4} à [0-9]{4}",
+			"[0-9]{4} à [0-9]{4}",
+			"[dD]e [0-9]{4}\\s*(-|--|–)\\s*[0-9]{4}",
+			"[dD]ans les années [0-9]{4} et [0-9]{4}",
+			"[eE]ntre [0-9]{4} et [0-9]{4}",
+			"[aA]nnées [0-9]{4} et [0-9]{4}",
+			"[dD]urant la période [0-9]{4} - [0-9]{4}",
+			"[eE]n [0-9]{4} et [0-9]{4}",
+			"[eE]ntre les années [0-9]{4} et [0-9]{4}",
+			"[dD]urant les années [0-9]{4} et [0-9]{4}",
+			"[dD]e [0-9]{4} jusqu'en [0-9]{4}",
+			"[dD]e [0-9]{4} et à celui de [0-9]{4}",
+			"[eE]n [0-9]{4} et se termina en [0-9]{4}",
+			"[vV]on [0-9]{4} bis [0-9]{4}",
+			"[vV]on [0-9]{4}\\s*(-|--|–)\\s*[0-9]{4}",
+			"[zZ]wischen [0-9]{4} und [0-9]{4}",
+			"[zZ]wischen den Jahren [0-9]{4} und [0-9]{4}",
+			"[iI]n den Jahren [0-9]{4} bis [0-9]{4}",
+			"[0-9]{4} bis [0-9]{4}",
+			"[0-9]{4} bis einschließlich [0-9]{4}",
+			"[aA]us den Jahren [0-9]{4} und [0-9]{4}");
+
+	private static final String[] WORDS = { "from", "From", "between", "the years", "De", "de", "entre", "en",
+		"années", "von", "zwischen", "den Jahren", "In den Jahren", "aus den Jahren", "(", "-LRB-", "was", "born", "," };
+
+	private static final String[] SEPARATORS = { " to ", " and ", " until ", " through ", " à ", " et ", " bis ",
+		" und ", "-", " - ", " -- ", "–", "/", " / ", "-20 November ", " - 3 ", " bis einschließlich ", " jusqu'en ", " ", ", " };
+
+	private static final String[] YEARS = { "1990", "2004", "1867", "2013", "199", "12345", "0815" };
+
+	private static final String[] ENDINGS = { ")", " )", " -RRB-", ".", " was", "", "" };
+
+	private static String pick(Random random, String[] values) {
+		return values[random.nextInt(values.length)];
+	}
+
+	/**
+	 * Runs every pattern over the sentence one after another, like the
+	 * searcher did before.
+	 */
+	private static List<String> sequentialMatches(List<Pattern> patterns, String sentence) {
+
+		List<String> matches = new ArrayList<String>();
+		for ( Pattern pattern : patterns ) {
+
+			Matcher matcher = pattern.matcher(sentence);
+			while ( matcher.find() ) matches.add(pattern.pattern() + " => " + matcher.group());
+		}
+		return matches;
+	}
+
+	private static List<String> combinedMatches(TimePeriodMatcher matcher, String sentence) {
+
+		List<String> matches = new ArrayList<String>();
+		for ( TimePeriodMatcher.Match match : matcher.match(sentence) )
+			matches.add(match.pattern.pattern() + " => " + match.text);
+		return matches;
+	}
+
+	@Test
+	public void testOnlyTheMalformedPatternChanged() {
+
+		List<Pattern> patterns = TimePeriodMatcher.getDefault().getPatterns();
+		Assert.assertEquals(PREVIOUS_PATTERNS.size(), patterns.size());
+
+		for ( int i = 0; i < patterns.size(); i++ ) {
+
+			if ( i == 1 ) Assert.assertEquals(PREVIOUS_PATTERNS.get(i).replace(")}", ")"), patterns.get(i).pattern());
+			else Assert.assertEquals(PREVIOUS_PATTERNS.get(i), patterns.get(i).pattern());
+		}
+	}
+
+	@Test
+	public void testParenthesizedPeriod() {
+
+		List<TimePeriodMatcher.Match> matches = TimePeriodMatcher.getDefault().match("Einstein (1879 – 1955) was a physicist");
+
+		Assert.assertEquals("numeric", matches.get(0).family);
+		Assert.assertEquals("(1879 – 1955)", matches.get(0).text);
+		Assert.assertEquals(Arrays.asList("1879", "1955"), matches.get(0).years);
+		Assert.assertFalse(Pattern.compile(PREVIOUS_PATTERNS.get(1)).matcher("(1879 – 1955)").find());
+	}
+
+	@Test
+	public void testSameMatchesAsSequentialPatterns() {
+
+		TimePeriodMatcher matcher = TimePeriodMatcher.getDefault();
+		List<Pattern> patterns = matcher.getPatterns();
+
+		List<String> sentences = new ArrayList<String>(Arrays.asList(
+				"He was president from 1990 to 1995 and again between 2001 and 2004.",
+				"Il fut maire de 1977 à 1983, puis entre les années 1989 et 1995.",
+				"Er war von 1933 bis 1945 im Exil, zwischen den Jahren 1950 und 1960 in Zürich.",
+				"-LRB- 1920 -- 1988 -RRB- and 1999/2000 or 2001 - 20 November 2002",
+				"In 1990 he moved to Berlin.",
+				"no year at all",
+				"12345678 to 99999999"));
+
+		Random random = new Random(42);
+		for ( int i = 0; i < 5000; i++ ) {
+
+			StringBuilder sentence = new StringBuilder();
+			int periods = 1 + random.nextInt(3);
+			for ( int j = 0; j < periods; j++ ) {
+
+				sentence.append(pick(random, WORDS)).append(random.nextBoolean() ? " " : "");
+				sentence.append(pick(random, YEARS)).append(pick(random, SEPARATORS)).append(pick(random, YEARS));
+				sentence.append(pick(random, ENDINGS)).append(" ");
+			}
+			sentences.add(sentence.toString());
+		}
+
+		int matched = 0;
+		for ( String sentence : sentences ) {
+
+			List<String> expected = sequentialMatches(patterns, sentence);
+			Assert.assertEquals(sentence, expected, combinedMatches(matcher, sentence));
+			if ( !expected.isEmpty() ) matched++;
+		}
+		// the corpus has to exercise the patterns
+		Assert.assertTrue(matched > 2500);
+
+		List<String> all = new ArrayList<String>();
+		for ( String sentence : sentences ) all.addAll(sequentialMatches(patterns, sentence));
+		List<String> parallel = new ArrayList<String>();
+		for ( TimePeriodMatcher.Match match : matcher.matchAll(sentences) ) parallel.add(match.pattern.pattern() + " => " + match.text);
+		Assert.assertEquals(all, parallel);
+	}
+}
@@ -0,0 +1,135 @@
+package org.dice.factcheck.search.time;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.aksw.defacto.search.time.TimeStatistics;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TimeStatisticsTest {
+
+	@Test
+	public void testConcurrentCounting() throws InterruptedException {
+
+		final TimeStatistics statistics = new TimeStatistics("concurrent");
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		for ( int thread = 0; thread < 8; thread++ ) {
+
+			executor.execute(new Runnable() {
+
+				@Override
+				public void run() {
+
+					for ( int i = 0; i < 10000; i++ ) {
+
+						statistics.getYearOccurrences(i % 4).increment(1990 + i % 10);
+						statistics.countPatternMatch("pattern" + i % 5);
+					}
+				}
+			});
+		}
+		executor.shutdown();
+		Assert.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+		for ( int context = 0; context < 4; context++ )
+			Assert.assertEquals(20000L, statistics.getYearOccurrences(context).getTotal());
+		for ( int pattern = 0; pattern < 5; pattern++ )
+			Assert.assertEquals(16000L, statistics.getPatternMatches("pattern" + pattern));
+		Assert.assertEquals(5, statistics.getPatternMatches().size());
+	}
+
+	@Test
+	public void testScope() throws InterruptedException {
+
+		TimeStatistics outer = new TimeStatistics("outer");
+		TimeStatistics inner = new TimeStatistics("inner");
+		Assert.assertSame(TimeStatistics.getGlobal(), TimeStatistics.current());
+
+		try ( TimeStatistics.Scope outerScope = TimeStatistics.scope(outer) ) {
+
+			Assert.assertSame(outer, TimeStatistics.current());
+			try ( TimeStatistics.Scope innerScope = TimeStatistics.scope(inner) ) {
+
+				TimeStatistics.current().countPatternMatch("inner");
+
+				// other threads, e.g. of a pool created within the run, do not see it
+				final AtomicReference<TimeStatistics> child = new AtomicReference<TimeStatistics>();
+				Thread thread = new Thread(new Runnable() {
+
+					@Override
+					public void run() {
+						child.set(TimeStatistics.current());
+					}
+				});
+				thread.start();
+				thread.join();
+				Assert.assertSame(TimeStatistics.getGlobal(), child.get());
+			}
+			Assert.assertSame(outer, TimeStatistics.current());
+		}
+		Assert.assertSame(TimeStatistics.getGlobal(), TimeStatistics.current());
+
+		Assert.assertEquals(1L, inner.getPatternMatches("inner"));
+		Assert.assertEquals(0L, outer.getPatternMatches("inner"));
+	}
+
+	@Test
+	public void testResetLosesNothing() throws InterruptedException {
+
+		final TimeStatistics statistics = new TimeStatistics("reset");
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		for ( int thread = 0; thread < 4; thread++ ) {
+
+			executor.execute(new Runnable() {
+
+				@Override
+				public void run() {
+
+					for ( int i = 0; i < 50000; i++ ) {
+
+						statistics.getProofYears(0).increment(2000);
+						statistics.countPatternMatch("pattern");
+					}
+				}
+			});
+		}
+
+		long years = 0, patterns = 0;
+		while ( !executor.isTerminated() ) {
+
+			executor.shutdown();
+			TimeStatistics counted = statistics.reset();
+			years += counted.getProofYears(0).get(2000);
+			patterns += counted.getPatternMatches("pattern");
+		}
+		TimeStatistics counted = statistics.reset();
+		years += counted.getProofYears(0).get(2000);
+		patterns += counted.getPatternMatches("pattern");
+
+		Assert.assertEquals(200000L, years);
+		Assert.assertEquals(200000L, patterns);
+		Assert.assertTrue(statistics.getProofYears(0).isEmpty());
+	}
+
+	@Test
+	public void testSnapshot() {
+
+		TimeStatistics statistics = new TimeStatistics("snapshot");
+		statistics.getYearOccurrences(1).add(1879, 3);
+		statistics.countPatternMatch("b");
+		statistics.countPatternMatch("a");
+		statistics.countPatternMatch("b");
+
+		TimeStatistics snapshot = statistics.snapshot();
+		statistics.getYearOccurrences(1).increment(1879);
+		statistics.countPatternMatch("a");
+
+		Assert.assertEquals(3L, snapshot.getYearOccurrences(1).get(1879));
+		Assert.assertEquals("{b=2, a=1}", snapshot.getPatternMatches().toString());
+		Assert.assertEquals(4L, statistics.getYearOccurrences(1).get(1879));
+		Assert.assertEquals("{a=2, b=2}", statistics.getPatternMatches().toString());
+	}
+}
@@ -0,0 +1,132 @@
+package org.dice.factcheck.search.time;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.aksw.defacto.search.time.YearHistogram;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class YearHistogramTest {
+
+	/**
+	 * The year order of the Frequency the dates were counted with before.
+	 */
+	private static List<Integer> sortByValue(Map<String, Long> frequencies) {
+
+		List<Map.Entry<String, Long>> entries = new ArrayList<Map.Entry<String, Long>>(new TreeMap<String, Long>(frequencies).entrySet());
+		Collections.sort(entries, new Comparator<Map.Entry<String, Long>>() {
+
+			@Override
+			public int compare(Map.Entry<String, Long> e1, Map.Entry<String, Long> e2) {
+				return -(e1.getValue()).compareTo(e2.getValue());
+			}
+		});
+
+		List<Integer> years = new ArrayList<Integer>();
+		for ( Map.Entry<String, Long> entry : entries ) years.add(Integer.valueOf(entry.getKey()));
+		return years;
+	}
+
+	private static List<Integer> asList(int[] years) {
+
+		List<Integer> list = new ArrayList<Integer>();
+		for ( int year : years ) list.add(year);
+		return list;
+	}
+
+	@Test
+	public void testSameOrderAsFrequency() {
+
+		Random random = new Random(7);
+		for ( int run = 0; run < 50; run++ ) {
+
+			YearHistogram histogram = new YearHistogram();
+			Map<String, Long> frequencies = new TreeMap<String, Long>();
+			for ( int i = 0; i < 1 + random.nextInt(300); i++ ) {
+
+				int year = 1900 + random.nextInt(120);
+				histogram.increment(year);
+				Long count = frequencies.get(String.valueOf(year));
+				frequencies.put(String.valueOf(year), count == null ? 1L : count + 1);
+			}
+
+			List<Integer> expected = sortByValue(frequencies);
+			Assert.assertEquals(expected, asList(histogram.getYears()));
+			Assert.assertEquals(expected.size(), histogram.size());
+			for ( int k = 0; k <= 5; k++ )
+				Assert.assertEquals(expected.subList(0, Math.min(k, expected.size())), asList(histogram.getTopYears(k)));
+			for ( int i = 0; i < expected.size(); i++ )
+				Assert.assertEquals(i + 1, histogram.getRank(expected.get(i)));
+		}
+	}
+
+	@Test
+	public void testRange() {
+
+		YearHistogram histogram = new YearHistogram();
+		Assert.assertTrue(histogram.isEmpty());
+		Assert.assertFalse(histogram.increment(815));
+		Assert.assertFalse(histogram.increment(9999));
+		Assert.assertTrue(histogram.increment(2013));
+
+		Assert.assertEquals(1, histogram.size());
+		Assert.assertEquals(0L, histogram.get(815));
+		Assert.assertEquals(-1, histogram.getRank(1999));
+		Assert.assertEquals(1L, histogram.getTotal());
+	}
+
+	@Test
+	public void testMerge() {
+
+		YearHistogram english = new YearHistogram();
+		english.add(1990, 3);
+		english.add(2004, 1);
+		YearHistogram german = new YearHistogram();
+		german.add(2004, 4);
+		german.add(1867, 2);
+
+		YearHistogram until2000 = new YearHistogram(YearHistogram.MIN_YEAR, 2000);
+		until2000.merge(english).merge(german);
+		english.merge(german);
+
+		Assert.assertEquals(Arrays.asList(2004, 1990, 1867), asList(english.getYears()));
+		Assert.assertEquals(5L, english.get(2004));
+		Assert.assertEquals(Arrays.asList(1990, 1867), asList(until2000.getYears()));
+		Assert.assertEquals("{2004=5, 1990=3, 1867=2}", english.toMap().toString());
+
+		english.clear();
+		Assert.assertTrue(english.isEmpty());
+	}
+
+	@Test
+	public void testConcurrentIncrements() throws InterruptedException {
+
+		final YearHistogram histogram = new YearHistogram();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		for ( int thread = 0; thread < 8; thread++ ) {
+
+			executor.execute(new Runnable() {
+
+				@Override
+				public void run() {
+					for ( int i = 0; i < 10000; i++ ) histogram.increment(1990 + i % 10);
+				}
+			});
+		}
+		executor.shutdown();
+		Assert.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+		Assert.assertEquals(80000L, histogram.getTotal());
+		for ( int year = 1990; year < 2000; year++ ) Assert.assertEquals(8000L, histogram.get(year));
+	}
+}
@@ -0,0 +1,122 @@
+package org.dice.factcheck.search.time;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.aksw.defacto.search.time.YearStatistics;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class YearStatisticsTest {
+
+	private File directory;
+	private Map<Integer, Long> train = new LinkedHashMap<Integer, Long>();
+	private Map<Integer, Long> web = new LinkedHashMap<Integer, Long>();
+	private Map<String, Map<Integer, Long>> proofs = new LinkedHashMap<String, Map<Integer, Long>>();
+
+	@Before
+	public void createTables() throws IOException {
+
+		directory = Files.createTempDirectory("years").toFile();
+		for ( int year = 1990; year <= 2013; year++ ) web.put(year, 1000000L * (year - 1980));
+		train.put(2007, 65L);
+		train.put(2006, 44L);
+		train.put(2001, 19L);
+		train.put(1975, 3L);
+
+		for ( String contextSize : YearStatistics.CONTEXT_SIZES ) {
+
+			Map<Integer, Long> frequencies = new LinkedHashMap<Integer, Long>();
+			try ( PrintWriter writer = new PrintWriter(new File(directory, contextSize + ".tsv"), "UTF-8") ) {
+				for ( int year = 1970; year <= 2013; year += 3 ) {
+
+					long frequency = (year % 7 + 1) * (contextSize.length() + 10) * 100L;
+					frequencies.put(year, frequency);
+					writer.println(year + "\t" + frequency);
+				}
+			}
+			proofs.put(contextSize, frequencies);
+		}
+	}
+
+	@After
+	public void deleteDirectory() {
+
+		for ( File file : directory.listFiles() ) file.delete();
+		directory.delete();
+	}
+
+	private double expectedGlobal(int year) {
+
+		long sum = 0;
+		for ( long count : web.values() ) sum += count;
+		long count = web.containsKey(year) ? web.get(year) : 0;
+		return count / ((1 / (double) web.size()) * sum);
+	}
+
+	private double expectedDomain(int year, String contextSize) {
+
+		Map<Integer, Long> proofFrequencies = proofs.get(contextSize);
+		long trainProofSum = 0;
+		for ( Integer webYear : web.keySet() ) {
+
+			Long proofFrequency = proofFrequencies.containsKey(webYear) ? proofFrequencies.get(webYear) : 0L;
+			Long trainFrequency = train.get(webYear);
+			if ( trainFrequency != null ) trainProofSum += proofFrequency / trainFrequency;
+		}
+
+		long proofFrequency = proofFrequencies.containsKey(year) ? proofFrequencies.get(year) : 0L;
+		long trainFrequency = train.containsKey(year) ? train.get(year) : 0;
+		if ( trainFrequency == 0 ) return 0D;
+		return (proofFrequency / (double) trainFrequency) / ((1 / (double) web.size()) * trainProofSum);
+	}
+
+	private void assertLookups(YearStatistics statistics) {
+
+		for ( int year = 900; year <= 2100; year++ ) {
+
+			Assert.assertEquals(expectedGlobal(year), statistics.getGlobalNormalizedPopularity(year), 1E-12);
+			for ( String contextSize : YearStatistics.CONTEXT_SIZES )
+				Assert.assertEquals(expectedDomain(year, contextSize),
+						statistics.getDomainNormalizedPopularity(year, YearStatistics.getContext(contextSize)), 1E-12);
+		}
+	}
+
+	@Test
+	public void testTsvMatchesTheMapLookups() {
+
+		YearStatistics statistics = YearStatistics.fromTsv(directory, train, web);
+
+		assertLookups(statistics);
+		Assert.assertEquals(15, statistics.getNumberOfProofYears(YearStatistics.getContext("tiny")));
+		Assert.assertEquals(65L, statistics.getTrainFrequency(2007));
+		Assert.assertEquals(0L, statistics.getTrainFrequency(2008));
+	}
+
+	@Test
+	public void testBinaryRoundTrip() throws IOException {
+
+		File binary = new File(directory, "years.bin");
+		YearStatistics.fromTsv(directory, train, web).write(binary);
+
+		assertLookups(YearStatistics.read(binary));
+	}
+
+	@Test(expected = IOException.class)
+	public void testRejectsOtherFiles() throws IOException {
+
+		YearStatistics.read(new File(directory, "tiny.tsv"));
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void testUnknownContextSize() {
+
+		YearStatistics.getContext("huge");
+	}
+}
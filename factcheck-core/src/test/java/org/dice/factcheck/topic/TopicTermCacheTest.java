@@ -0,0 +1,121 @@
+package org.dice.factcheck.topic;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.aksw.defacto.search.cache.local.LogStore;
+import org.aksw.defacto.topic.TopicTerm;
+import org.aksw.defacto.topic.TopicTermCache;
+import org.aksw.defacto.topic.frequency.Word;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TopicTermCacheTest {
+
+	private File directory;
+
+	@Before
+	public void createDirectory() throws IOException {
+		directory = Files.createTempDirectory("topicterms").toFile();
+	}
+
+	@After
+	public void deleteDirectory() {
+
+		for ( File file : directory.listFiles() ) file.delete();
+		directory.delete();
+	}
+
+	@Test
+	public void testSingleComputation() throws Exception {
+
+		final TopicTermCache cache = new TopicTermCache(10, null, null);
+		final AtomicInteger computations = new AtomicInteger();
+		final CountDownLatch start = new CountDownLatch(1);
+		final Function<String, TopicTerm> crawler = new Function<String, TopicTerm>() {
+
+			@Override
+			public TopicTerm apply(String label) {
+
+				computations.incrementAndGet();
+				try {
+					Thread.sleep(100);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return new TopicTerm(label, Arrays.asList(new Word("physics", 3), new Word("relativity", 2)));
+			}
+		};
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<TopicTerm>> futures = new ArrayList<Future<TopicTerm>>();
+		for ( int i = 0; i < 8; i++ ) {
+
+			futures.add(executor.submit(new Callable<TopicTerm>() {
+
+				@Override
+				public TopicTerm call() throws Exception {
+
+					start.await();
+					return cache.get("Albert Einstein", crawler);
+				}
+			}));
+		}
+		start.countDown();
+		for ( Future<TopicTerm> future : futures ) Assert.assertEquals(2, future.get().relatedTopics.size());
+		executor.shutdown();
+
+		Assert.assertEquals(1, computations.get());
+	}
+
+	@Test
+	public void testStoreTier() throws IOException {
+
+		Function<String, TopicTerm> crawler = new Function<String, TopicTerm>() {
+
+			@Override
+			public TopicTerm apply(String label) {
+				return new TopicTerm(label, Arrays.asList(new Word(label.toLowerCase(), 1)));
+			}
+		};
+
+		try ( LogStore store = new LogStore(directory, 1 << 20, 1 << 16) ) {
+
+			TopicTermCache cache = new TopicTermCache(1, store, null);
+			cache.get("Albert Einstein", crawler);
+			cache.get("Nobel Prize", crawler);
+			// the first label was evicted from memory but is still on disk
+			Assert.assertEquals("albert einstein", cache.getEntry("Albert Einstein").relatedTopics.get(0).getWord());
+		}
+
+		try ( LogStore store = new LogStore(directory, 1 << 20, 1 << 16) ) {
+
+			TopicTermCache cache = new TopicTermCache(10, store, null);
+			Assert.assertTrue(cache.contains("Nobel Prize"));
+			Assert.assertEquals(1F, cache.getEntry("Nobel Prize").relatedTopics.get(0).getFrequency(), 0F);
+			Assert.assertNull(cache.getEntry("Max Planck"));
+		}
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testUnmodifiableTopics() {
+
+		TopicTermCache cache = new TopicTermCache(10, null, null);
+		TopicTerm term = cache.add(new TopicTerm("Albert Einstein", new ArrayList<Word>(Arrays.asList(new Word("physics", 1)))));
+		term.relatedTopics.add(new Word("music", 1));
+	}
+}
@@ -5,13 +5,20 @@ import org.aksw.defacto.evidence.Evidence;
 import org.aksw.defacto.model.DefactoModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import rdf.TripleExtractor;
 import wrapper.ModelTransform;
 import wrapper.preprocessing.FCpreprocessor;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
 
 
 @RestController
@@ -20,6 +27,13 @@ public class Controller {
 
     private final Logger logger = LoggerFactory.getLogger(Controller.class);
 
+    private final TaskManager taskManager;
+
+    @Autowired
+    public Controller(TaskManager taskManager) {
+        this.taskManager = taskManager;
+    }
+
     // To verify status of server
     @RequestMapping("/default")
     public String defaultpage() {
@@ -31,6 +45,10 @@ public class Controller {
     public FactcheckResponse execT(@RequestBody FactcheckResponse factcheckResponse) throws IOException {
 
         logger.info("Task {} received with data: {}", factcheckResponse.getTaskid(), factcheckResponse.getFile());
+        return checkFact(factcheckResponse);
+    }
+
+    private FactcheckResponse checkFact(FactcheckResponse factcheckResponse) throws IOException {
 
         String taskId = factcheckResponse.getTaskid();
         String fileData = factcheckResponse.getFile();
@@ -64,6 +82,10 @@ public class Controller {
                                          @RequestParam(value = "dataISWC", required = true) String dataISWC) {
 
         logger.info("Received HOBBIT Task {}", taskId);
+        return checkHobbit(taskId, dataISWC);
+    }
+
+    private FactCheckHobbitResponse checkHobbit(String taskId, String dataISWC) {
 
         FCpreprocessor fCpreprocessor = new FCpreprocessor(dataISWC, taskId);
         Evidence factEvidence = getEvidence(fCpreprocessor, taskId);
@@ -73,6 +95,49 @@ public class Controller {
         return new FactCheckHobbitResponse(taskId, factEvidence.getDeFactoScore());
     }
 
+    // Queues the fact check and returns the task to poll at /api/tasks/{id}
+    @PostMapping("/tasks/")
+    public ResponseEntity<FactcheckTask> submitTask(@RequestBody final FactcheckResponse factcheckResponse) {
+
+        logger.info("Task {} submitted with data: {}", factcheckResponse.getTaskid(), factcheckResponse.getFile());
+        return submit(factcheckResponse.getTaskid(), () -> checkFact(factcheckResponse));
+    }
+
+    @PostMapping("/hobbitTasks/")
+    public ResponseEntity<FactcheckTask> submitTask(@RequestParam(value = "taskId") final String taskId,
+                                                    @RequestParam(value = "dataISWC", required = true) final String dataISWC) {
+
+        logger.info("HOBBIT Task {} submitted", taskId);
+        return submit(taskId, () -> checkHobbit(taskId, dataISWC));
+    }
+
+    @GetMapping("/tasks/{id}")
+    public ResponseEntity<FactcheckTask> getTask(@PathVariable("id") String id) {
+
+        FactcheckTask task = taskManager.get(id);
+        if (task == null) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(task);
+    }
+
+    // Streams the task as a server-sent event on every status change until it is finished
+    @GetMapping(value = "/tasks/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamTask(@PathVariable("id") String id) {
+
+        SseEmitter emitter = taskManager.subscribe(id);
+        if (emitter == null) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(emitter);
+    }
+
+    private ResponseEntity<FactcheckTask> submit(String taskId, Callable<?> job) {
+
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(taskManager.submit(taskId, job));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Task {} rejected, the queue is full", taskId);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
     //Return evidence object for task specified
     private Evidence getEvidence(FCpreprocessor preprocessor, String taskId) {
 
@@ -0,0 +1,176 @@
+package api;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A fact check submitted to the {@link TaskManager}. Clients poll it or
+ * subscribe to its status changes, the result is set once it is done. The
+ * status events are sent on the event executor of the manager, a slow client
+ * never holds the lock of the task.
+ */
+public class FactcheckTask {
+
+    public enum Status { QUEUED, RUNNING, DONE, FAILED }
+
+    private static final Logger logger = LoggerFactory.getLogger(FactcheckTask.class);
+
+    private final String id;
+    private final String taskId;
+    private final long submitted;
+    private long started;
+    private long finished;
+    private Status status = Status.QUEUED;
+    private Object result;
+    private String error;
+
+    private final List<SseEmitter> emitters = new ArrayList<>();
+    // runs the events in the order they are queued
+    private final Executor events;
+
+    FactcheckTask(String taskId, Executor events) {
+        this.id = UUID.randomUUID().toString();
+        this.taskId = taskId;
+        this.submitted = System.currentTimeMillis();
+        this.events = events;
+    }
+
+    // the state at one point in time, sent as event
+    private FactcheckTask(FactcheckTask task) {
+        this.id = task.id;
+        this.taskId = task.taskId;
+        this.submitted = task.submitted;
+        this.started = task.started;
+        this.finished = task.finished;
+        this.status = task.status;
+        this.result = task.result;
+        this.error = task.error;
+        this.events = null;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getTaskId() {
+        return taskId;
+    }
+
+    public long getSubmitted() {
+        return submitted;
+    }
+
+    public synchronized long getStarted() {
+        return started;
+    }
+
+    public synchronized long getFinished() {
+        return finished;
+    }
+
+    public synchronized Status getStatus() {
+        return status;
+    }
+
+    public synchronized Object getResult() {
+        return result;
+    }
+
+    public synchronized String getError() {
+        return error;
+    }
+
+    @JsonIgnore
+    public synchronized boolean isFinished() {
+        return status == Status.DONE || status == Status.FAILED;
+    }
+
+    synchronized void start() {
+        started = System.currentTimeMillis();
+        update(Status.RUNNING);
+    }
+
+    synchronized void finish(Object result) {
+        this.result = result;
+        finished = System.currentTimeMillis();
+        update(Status.DONE);
+    }
+
+    synchronized void fail(String error) {
+        this.error = error;
+        finished = System.currentTimeMillis();
+        update(Status.FAILED);
+    }
+
+    /**
+     * Sends the current status and every change after it, the emitter is
+     * completed when the task is finished.
+     */
+    synchronized void subscribe(final SseEmitter emitter) {
+
+        List<SseEmitter> subscriber = new ArrayList<>();
+        subscriber.add(emitter);
+        if (!isFinished()) {
+            emitters.add(emitter);
+
+            Runnable remove = () -> unsubscribe(emitter);
+            emitter.onCompletion(remove);
+            emitter.onTimeout(remove);
+        }
+        // queued under the lock, so no later status is sent before this one
+        publish(subscriber);
+    }
+
+    private synchronized void unsubscribe(SseEmitter emitter) {
+        emitters.remove(emitter);
+    }
+
+    private void update(Status status) {
+
+        this.status = status;
+        publish(new ArrayList<>(emitters));
+        if (isFinished()) emitters.clear();
+    }
+
+    // called with the lock held, the events are sent without it
+    private void publish(final List<SseEmitter> receivers) {
+
+        if (receivers.isEmpty()) return;
+        final FactcheckTask state = new FactcheckTask(this);
+        final boolean last = isFinished();
+        try {
+            events.execute(() -> {
+                for (SseEmitter emitter : receivers) {
+                    if (!send(emitter, state)) {
+                        unsubscribe(emitter);
+                        emitter.complete();
+                    } else if (last) emitter.complete();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // the application is shutting down
+            logger.debug("Dropped status {} of task {}", state.status, id);
+        }
+    }
+
+    private boolean send(SseEmitter emitter, FactcheckTask state) {
+
+        try {
+            emitter.send(SseEmitter.event().name("status").data(state));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // the client went away
+            logger.debug("Could not send status of task {}: {}", id, e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package api;
+
+import org.aksw.defacto.Defacto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the fact checks of the task API on a fixed number of threads with a
+ * bounded queue, so a burst of requests waits instead of holding one servlet
+ * thread each. Finished tasks are kept until TASK_RESULTS newer ones finished.
+ * The status events of all tasks are sent by one event thread, in order.
+ */
+@Component
+public class TaskManager {
+
+    private final Logger logger = LoggerFactory.getLogger(TaskManager.class);
+
+    // queued and running tasks, at most threads plus queue size
+    private final Map<String, FactcheckTask> active = new ConcurrentHashMap<>();
+    // finished tasks, the oldest is dropped first
+    private final Map<String, FactcheckTask> finished = new LinkedHashMap<String, FactcheckTask>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, FactcheckTask> eldest) {
+            return size() > getResultsSize();
+        }
+    };
+
+    private ThreadPoolExecutor executor;
+    private ExecutorService events;
+    private int resultsSize;
+
+    /**
+     * @param taskId the id the client gave the fact
+     * @param job    computes the response of the task
+     * @return the queued task
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public FactcheckTask submit(String taskId, final Callable<?> job) {
+
+        final FactcheckTask task = new FactcheckTask(taskId, getEvents());
+        active.put(task.getId(), task);
+        try {
+            getExecutor().execute(() -> run(task, job));
+        } catch (RejectedExecutionException e) {
+            active.remove(task.getId());
+            throw e;
+        }
+        logger.info("Task {} queued as {}", taskId, task.getId());
+        return task;
+    }
+
+    /**
+     * @return the task or null if it is unknown or was dropped
+     */
+    public FactcheckTask get(String id) {
+
+        FactcheckTask task = active.get(id);
+        if (task != null) return task;
+        synchronized (finished) {
+            task = finished.get(id);
+        }
+        // the task may have finished between both lookups
+        return task != null ? task : active.get(id);
+    }
+
+    /**
+     * @return an emitter sending the status of the task until it is finished,
+     * null if the task is unknown
+     */
+    public SseEmitter subscribe(String id) {
+
+        FactcheckTask task = get(id);
+        if (task == null) return null;
+
+        SseEmitter emitter = new SseEmitter(Defacto.DEFACTO_CONFIG.getIntegerSetting("server", "TASK_EVENT_TIMEOUT").longValue());
+        task.subscribe(emitter);
+        return emitter;
+    }
+
+    private void run(FactcheckTask task, Callable<?> job) {
+
+        task.start();
+        try {
+            task.finish(job.call());
+            logger.info("Task {} ({}) done", task.getTaskId(), task.getId());
+        } catch (Exception e) {
+            logger.error("Task " + task.getTaskId() + " (" + task.getId() + ") failed", e);
+            task.fail(e.getClass().getSimpleName() + ": " + e.getMessage());
+        } finally {
+            synchronized (finished) {
+                finished.put(task.getId(), task);
+            }
+            active.remove(task.getId());
+        }
+    }
+
+    private synchronized int getResultsSize() {
+
+        if (resultsSize == 0) resultsSize = Math.max(1, Defacto.DEFACTO_CONFIG.getIntegerSetting("server", "TASK_RESULTS"));
+        return resultsSize;
+    }
+
+    // Defacto is initialized once the application is ready, not when the bean is created
+    private synchronized ThreadPoolExecutor getExecutor() {
+
+        if (executor == null) {
+
+            int threads = Defacto.DEFACTO_CONFIG.getIntegerSetting("server", "TASK_THREADS");
+            if (threads < 1) threads = Runtime.getRuntime().availableProcessors();
+            int queueSize = Math.max(1, Defacto.DEFACTO_CONFIG.getIntegerSetting("server", "TASK_QUEUE_SIZE"));
+
+            final AtomicInteger counter = new AtomicInteger();
+            executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueSize), runnable -> {
+                        Thread thread = new Thread(runnable, "factcheck-task-" + counter.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+        return executor;
+    }
+
+    private synchronized ExecutorService getEvents() {
+
+        if (events == null) {
+            events = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "factcheck-events");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return events;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+
+        if (executor != null) executor.shutdownNow();
+        if (events != null) events.shutdownNow();
+    }
+}